@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec;
+
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+/**
+ * Model and data shared by codec benchmarks. Data follows the {@code odl-datastore-test} model and its shape is
+ * controlled by the number of outer and inner list entries.
+ */
+final class CodecBenchmarkModel {
+    static final QName TEST_QNAME = QName.create(
+        "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:test", "2014-03-13", "test").intern();
+    static final QName OUTER_LIST_QNAME = QName.create(TEST_QNAME, "outer-list").intern();
+    static final QName INNER_LIST_QNAME = QName.create(TEST_QNAME, "inner-list").intern();
+    static final QName OUTER_CHOICE_QNAME = QName.create(TEST_QNAME, "outer-choice").intern();
+    static final QName ID_QNAME = QName.create(TEST_QNAME, "id").intern();
+    static final QName ONE_QNAME = QName.create(TEST_QNAME, "one").intern();
+    static final QName NAME_QNAME = QName.create(TEST_QNAME, "name").intern();
+    static final QName VALUE_QNAME = QName.create(TEST_QNAME, "value").intern();
+
+    private CodecBenchmarkModel() {
+        // Hidden on purpose
+    }
+
+    static EffectiveModelContext createTestContext() {
+        return YangParserTestUtils.parseYangResource("/odl-datastore-test.yang");
+    }
+
+    static ContainerSchemaNode testSchema(final EffectiveModelContext context) {
+        return (ContainerSchemaNode) context.findDataChildByName(TEST_QNAME).orElseThrow();
+    }
+
+    static ContainerNode createTestData(final int outerListSize, final int innerListSize) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = Builders.mapBuilder()
+            .withNodeIdentifier(NodeIdentifier.create(OUTER_LIST_QNAME));
+        for (int i = 0; i < outerListSize; ++i) {
+            final CollectionNodeBuilder<MapEntryNode, MapNode> innerList = Builders.mapBuilder()
+                .withNodeIdentifier(NodeIdentifier.create(INNER_LIST_QNAME));
+            for (int j = 0; j < innerListSize; ++j) {
+                innerList.withChild(Builders.mapEntryBuilder()
+                    .withNodeIdentifier(NodeIdentifierWithPredicates.of(INNER_LIST_QNAME, NAME_QNAME, j))
+                    .withChild(ImmutableNodes.leafNode(NAME_QNAME, j))
+                    .withChild(ImmutableNodes.leafNode(VALUE_QNAME, "value-" + i + "-" + j))
+                    .build());
+            }
+
+            outerList.withChild(Builders.mapEntryBuilder()
+                .withNodeIdentifier(NodeIdentifierWithPredicates.of(OUTER_LIST_QNAME, ID_QNAME, i))
+                .withChild(ImmutableNodes.leafNode(ID_QNAME, i))
+                .withChild(Builders.choiceBuilder()
+                    .withNodeIdentifier(NodeIdentifier.create(OUTER_CHOICE_QNAME))
+                    .withChild(ImmutableNodes.leafNode(ONE_QNAME, "one-" + i))
+                    .build())
+                .withChild(innerList.build())
+                .build());
+        }
+
+        return Builders.containerBuilder()
+            .withNodeIdentifier(NodeIdentifier.create(TEST_QNAME))
+            .withChild(outerList.build())
+            .build();
+    }
+}
@@ -32,6 +32,9 @@ final class BenchmarkModel {
     static final NodeIdentifier INNER_LIST = NodeIdentifier.create(INNER_LIST_QNAME);
 
     static final QName OUTER_CHOICE_QNAME = QName.create(TEST_QNAME, "outer-choice").intern();
+    static final NodeIdentifier OUTER_CHOICE = NodeIdentifier.create(OUTER_CHOICE_QNAME);
+    static final QName ONE_QNAME = QName.create(TEST_QNAME, "one").intern();
+    static final NodeIdentifier ONE = NodeIdentifier.create(ONE_QNAME);
     static final QName ID_QNAME = QName.create(TEST_QNAME, "id").intern();
     static final QName NAME_QNAME = QName.create(TEST_QNAME, "name").intern();
     static final QName VALUE_QNAME = QName.create(TEST_QNAME, "value").intern();
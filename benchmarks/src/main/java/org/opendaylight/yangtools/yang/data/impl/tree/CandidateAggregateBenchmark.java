@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link DataTreeCandidates#aggregate(List)} over a sequence of candidates, each of which modifies
+ * a number of entries of a 10K-entry list. Consecutive candidates partially overlap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CandidateAggregateBenchmark {
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    private static final int OUTER_LIST_10K = 10000;
+    private static final int ENTRIES_PER_CANDIDATE = 100;
+
+    @Param({ "10", "50" })
+    public int candidateCount;
+
+    private List<DataTreeCandidate> candidates;
+
+    public static void main(final String... args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + CandidateAggregateBenchmark.class.getSimpleName() + ".*")
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws DataValidationFailedException {
+        final DataTree datastore = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_CONFIGURATION,
+            BenchmarkModel.createTestContext());
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(
+            BenchmarkModel.OUTER_LIST);
+        for (int i = 0; i < OUTER_LIST_10K; ++i) {
+            outerList.withChild(outerListEntry(i, 0));
+        }
+
+        DataTreeModification modification = datastore.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(BenchmarkModel.TEST)
+            .withChild(outerList.build())
+            .build());
+        commit(datastore, modification);
+
+        candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; ++i) {
+            modification = datastore.takeSnapshot().newModification();
+            // Shift by half a batch, so that consecutive candidates touch some of the same entries
+            final int base = i * ENTRIES_PER_CANDIDATE / 2;
+            for (int j = 0; j < ENTRIES_PER_CANDIDATE; ++j) {
+                final MapEntryNode entry = outerListEntry((base + j) % OUTER_LIST_10K, i + 1);
+                modification.write(BenchmarkModel.OUTER_LIST_PATH.node(entry.getIdentifier()), entry);
+            }
+            candidates.add(commit(datastore, modification));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        candidates = null;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public DataTreeCandidate aggregateBenchmark() {
+        return DataTreeCandidates.aggregate(candidates);
+    }
+
+    private static DataTreeCandidate commit(final DataTree datastore, final DataTreeModification modification)
+            throws DataValidationFailedException {
+        modification.ready();
+        datastore.validate(modification);
+        final DataTreeCandidate candidate = datastore.prepare(modification);
+        datastore.commit(candidate);
+        return candidate;
+    }
+
+    private static MapEntryNode outerListEntry(final int id, final int generation) {
+        return ImmutableNodes.mapEntryBuilder(BenchmarkModel.OUTER_LIST_QNAME, BenchmarkModel.ID_QNAME, id)
+            .withChild(ImmutableNodes.mapNodeBuilder(BenchmarkModel.INNER_LIST)
+                .withChild(ImmutableNodes.mapEntryBuilder(BenchmarkModel.INNER_LIST_QNAME, BenchmarkModel.NAME_QNAME, 0)
+                    .withChild(ImmutableNodes.leafNode(BenchmarkModel.VALUE_QNAME, "value-" + generation))
+                    .build())
+                .build())
+            .build();
+    }
+}
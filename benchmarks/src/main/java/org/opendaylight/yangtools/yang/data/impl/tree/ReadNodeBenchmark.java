@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link DataTreeSnapshot#readNode(YangInstanceIdentifier)} latency at various depths of a populated
+ * data tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ReadNodeBenchmark {
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    private static final int INNER_LIST_SIZE = 10;
+    private static final NodeIdentifier VALUE = NodeIdentifier.create(BenchmarkModel.VALUE_QNAME);
+
+    @Param({ "10000", "100000" })
+    public int outerListSize;
+
+    private YangInstanceIdentifier[] outerListPaths;
+    private YangInstanceIdentifier[] valuePaths;
+    private YangInstanceIdentifier[] missingPaths;
+    private DataTreeSnapshot snapshot;
+    private int counter;
+
+    public static void main(final String... args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + ReadNodeBenchmark.class.getSimpleName() + ".*")
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws DataValidationFailedException {
+        final DataTree datastore = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_CONFIGURATION,
+            BenchmarkModel.createTestContext());
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> innerList = ImmutableNodes.mapNodeBuilder(
+            BenchmarkModel.INNER_LIST);
+        for (int i = 0; i < INNER_LIST_SIZE; ++i) {
+            innerList.withChild(ImmutableNodes.mapEntryBuilder(BenchmarkModel.INNER_LIST_QNAME,
+                BenchmarkModel.NAME_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(BenchmarkModel.VALUE_QNAME, "value-" + i))
+                .build());
+        }
+        final MapNode inner = innerList.build();
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(
+            BenchmarkModel.OUTER_LIST);
+        outerListPaths = new YangInstanceIdentifier[outerListSize];
+        valuePaths = new YangInstanceIdentifier[outerListSize];
+        missingPaths = new YangInstanceIdentifier[outerListSize];
+        for (int i = 0; i < outerListSize; ++i) {
+            final NodeIdentifierWithPredicates id = NodeIdentifierWithPredicates.of(BenchmarkModel.OUTER_LIST_QNAME,
+                BenchmarkModel.ID_QNAME, i);
+            outerList.withChild(ImmutableNodes.mapEntryBuilder().withNodeIdentifier(id).withChild(inner).build());
+
+            outerListPaths[i] = BenchmarkModel.OUTER_LIST_PATH.node(id).toOptimized();
+            valuePaths[i] = outerListPaths[i].node(BenchmarkModel.INNER_LIST)
+                .node(NodeIdentifierWithPredicates.of(BenchmarkModel.INNER_LIST_QNAME, BenchmarkModel.NAME_QNAME,
+                    i % INNER_LIST_SIZE))
+                .node(VALUE).toOptimized();
+            missingPaths[i] = BenchmarkModel.OUTER_LIST_PATH.node(NodeIdentifierWithPredicates.of(
+                BenchmarkModel.OUTER_LIST_QNAME, BenchmarkModel.ID_QNAME, outerListSize + i)).toOptimized();
+        }
+
+        final DataTreeModification modification = datastore.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(BenchmarkModel.TEST)
+            .withChild(outerList.build())
+            .build());
+        modification.ready();
+        datastore.validate(modification);
+        datastore.commit(datastore.prepare(modification));
+
+        snapshot = datastore.takeSnapshot();
+    }
+
+    @TearDown
+    public void tearDown() {
+        snapshot = null;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Optional<NormalizedNode<?, ?>> readOuterListEntryBenchmark() {
+        return snapshot.readNode(outerListPaths[nextIndex()]);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Optional<NormalizedNode<?, ?>> readInnerListLeafBenchmark() {
+        return snapshot.readNode(valuePaths[nextIndex()]);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Optional<NormalizedNode<?, ?>> readMissingNodeBenchmark() {
+        return snapshot.readNode(missingPaths[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        final int ret = counter++;
+        if (counter == outerListSize) {
+            counter = 0;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser;
+
+import com.google.common.io.ByteSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.model.parser.api.YangParserException;
+import org.opendaylight.yangtools.yang.model.parser.api.YangParserFactory;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@code YangParserImpl} time to build an {@link EffectiveModelContext} from a large set of
+ * generated modules. Each module imports its predecessor, reuses its typedefs and groupings and augments its
+ * containers, so that cross-module resolution is exercised along with plain statement parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class YangParserBenchmark {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    @Param({ "50", "200" })
+    public int moduleCount;
+
+    private YangParserFactory parserFactory;
+    private List<YangTextSchemaSource> sources;
+
+    public static void main(final String... args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + YangParserBenchmark.class.getSimpleName() + ".*")
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        parserFactory = new YangParserFactoryImpl();
+        sources = new ArrayList<>(moduleCount);
+        for (int i = 0; i < moduleCount; ++i) {
+            sources.add(YangTextSchemaSource.delegateForByteSource("bench-" + i + ".yang",
+                ByteSource.wrap(generateModule(i).getBytes(StandardCharsets.UTF_8))));
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public EffectiveModelContext parseBenchmark() throws IOException, YangParserException {
+        return parserFactory.createParser().addSources(sources).buildEffectiveModel();
+    }
+
+    private static String generateModule(final int index) {
+        final String name = "bench-" + index;
+        final StringBuilder sb = new StringBuilder()
+            .append("module ").append(name).append(" {\n")
+            .append("  yang-version 1.1;\n")
+            .append("  namespace \"urn:opendaylight:benchmark:").append(name).append("\";\n")
+            .append("  prefix b").append(index).append(";\n");
+        if (index != 0) {
+            sb.append("  import bench-").append(index - 1).append(" { prefix p; }\n");
+        }
+        sb.append("  revision 2020-01-01;\n")
+            .append("  typedef percent { type uint8 { range \"0..100\"; } }\n")
+            .append("  typedef name-type { type string { length \"1..64\"; pattern \"[a-z][a-z0-9-]*\"; } }\n")
+            .append("  grouping entry-group {\n")
+            .append("    leaf name { type name-type; }\n")
+            .append("    leaf load { type percent; default 0; }\n")
+            .append("    leaf enabled { type boolean; default true; }\n")
+            .append("    leaf-list tag { type string; }\n")
+            .append("    choice mode {\n")
+            .append("      case simple { leaf simple { type empty; } }\n")
+            .append("      case complex { leaf level { type int32; } leaf ratio { type decimal64 { ")
+            .append("fraction-digits 2; } } }\n")
+            .append("    }\n")
+            .append("  }\n")
+            .append("  container top {\n")
+            .append("    list entry {\n")
+            .append("      key name;\n")
+            .append("      uses entry-group;\n")
+            .append("      must \"load <= 100\";\n")
+            .append("      container nested { uses entry-group { refine load { default 50; } } }\n")
+            .append("    }\n")
+            .append("    leaf selected { type leafref { path \"../entry/name\"; } }\n")
+            .append("  }\n");
+        if (index != 0) {
+            sb.append("  augment \"/p:top/p:entry\" {\n")
+                .append("    container ext-").append(index).append(" {\n")
+                .append("      uses p:entry-group;\n")
+                .append("      leaf peer-load { type p:percent; }\n")
+                .append("    }\n")
+                .append("  }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.common.netty;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.util.ByteProcessor;
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A {@link DataInput} reading directly from a {@link ByteBuf}. Unlike {@link ByteBufInputStream}, this class does not
+ * perform its own bounds checks on top of those done by the buffer, but rather translates buffer underruns into
+ * {@link EOFException}s. {@link #readUTF()} decodes strings directly from the buffer, without an intermediate copy.
+ *
+ * <p>
+ * The buffer's reader index is advanced as data is read. The buffer can be sliced to extract raw data without
+ * copying via {@link #readSlice(int)}.
+ */
+@Beta
+public final class ByteBufDataInput implements DataInput {
+    private static final ByteProcessor FIND_NON_ASCII = value -> value > 0;
+
+    private final @NonNull ByteBuf buf;
+
+    /**
+     * Create a new input reading from specified buffer.
+     *
+     * @param buf source buffer
+     * @throws NullPointerException if {@code buf} is null
+     */
+    public ByteBufDataInput(final ByteBuf buf) {
+        this.buf = requireNonNull(buf);
+    }
+
+    /**
+     * Return the buffer backing this input.
+     *
+     * @return Backing buffer
+     */
+    public @NonNull ByteBuf buffer() {
+        return buf;
+    }
+
+    /**
+     * Read specified number of bytes as a slice of the backing buffer, without copying them. The returned buffer
+     * shares content with the backing buffer and does not retain it.
+     *
+     * @param len number of bytes to read
+     * @return A slice of the backing buffer
+     * @throws EOFException if the buffer does not contain enough bytes
+     */
+    public @NonNull ByteBuf readSlice(final int len) throws EOFException {
+        try {
+            return buf.readSlice(len);
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public void readFully(final byte[] bytes) throws EOFException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(final byte[] bytes, final int off, final int len) throws EOFException {
+        try {
+            buf.readBytes(bytes, off, len);
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public int skipBytes(final int len) {
+        final int skip = Math.max(0, Math.min(len, buf.readableBytes()));
+        buf.skipBytes(skip);
+        return skip;
+    }
+
+    @Override
+    public boolean readBoolean() throws EOFException {
+        try {
+            return buf.readBoolean();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public byte readByte() throws EOFException {
+        try {
+            return buf.readByte();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public int readUnsignedByte() throws EOFException {
+        try {
+            return buf.readUnsignedByte();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public short readShort() throws EOFException {
+        try {
+            return buf.readShort();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public int readUnsignedShort() throws EOFException {
+        try {
+            return buf.readUnsignedShort();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public char readChar() throws EOFException {
+        try {
+            return buf.readChar();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public int readInt() throws EOFException {
+        try {
+            return buf.readInt();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public long readLong() throws EOFException {
+        try {
+            return buf.readLong();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public float readFloat() throws EOFException {
+        try {
+            return buf.readFloat();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public double readDouble() throws EOFException {
+        try {
+            return buf.readDouble();
+        } catch (IndexOutOfBoundsException e) {
+            throw eof(e);
+        }
+    }
+
+    @Override
+    public String readLine() {
+        if (!buf.isReadable()) {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        while (buf.isReadable()) {
+            final int ch = buf.readUnsignedByte();
+            if (ch == '\n') {
+                break;
+            }
+            if (ch == '\r') {
+                if (buf.isReadable() && buf.getByte(buf.readerIndex()) == '\n') {
+                    buf.skipBytes(1);
+                }
+                break;
+            }
+            sb.append((char) ch);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String readUTF() throws EOFException, UTFDataFormatException {
+        final int utfLen = readUnsignedShort();
+        final int start = buf.readerIndex();
+        if (buf.writerIndex() - start < utfLen) {
+            throw new EOFException("Need " + utfLen + " bytes, only " + buf.readableBytes() + " available");
+        }
+
+        final String ret;
+        if (utfLen == 0) {
+            ret = "";
+        } else if (buf.forEachByte(start, utfLen, FIND_NON_ASCII) == -1) {
+            // All bytes are in range 0x01-0x7F, hence they map directly to characters
+            ret = buf.toString(start, utfLen, StandardCharsets.US_ASCII);
+        } else {
+            ret = decodeModifiedUtf8(start, utfLen);
+        }
+
+        buf.readerIndex(start + utfLen);
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("buf", buf).toString();
+    }
+
+    private String decodeModifiedUtf8(final int start, final int utfLen) throws UTFDataFormatException {
+        final char[] chars = new char[utfLen];
+        final int end = start + utfLen;
+        int count = 0;
+        int offset = start;
+        while (offset < end) {
+            final int first = buf.getUnsignedByte(offset);
+            switch (first >> 4) {
+                case 0:
+                case 1:
+                case 2:
+                case 3:
+                case 4:
+                case 5:
+                case 6:
+                case 7:
+                    // 0xxxxxxx
+                    offset++;
+                    chars[count++] = (char) first;
+                    break;
+                case 12:
+                case 13:
+                    // 110xxxxx 10xxxxxx
+                    if (offset + 2 > end) {
+                        throw new UTFDataFormatException("Malformed input: partial character at end");
+                    }
+                    chars[count++] = (char) ((first & 0x1F) << 6 | continuation(offset + 1));
+                    offset += 2;
+                    break;
+                case 14:
+                    // 1110xxxx 10xxxxxx 10xxxxxx
+                    if (offset + 3 > end) {
+                        throw new UTFDataFormatException("Malformed input: partial character at end");
+                    }
+                    chars[count++] = (char) ((first & 0x0F) << 12 | continuation(offset + 1) << 6
+                        | continuation(offset + 2));
+                    offset += 3;
+                    break;
+                default:
+                    // 10xxxxxx, 1111xxxx
+                    throw new UTFDataFormatException("Malformed input around byte " + (offset - start));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private int continuation(final int offset) throws UTFDataFormatException {
+        final int value = buf.getUnsignedByte(offset);
+        if ((value & 0xC0) != 0x80) {
+            throw new UTFDataFormatException("Malformed input around byte " + offset);
+        }
+        return value & 0x3F;
+    }
+
+    private static EOFException eof(final IndexOutOfBoundsException cause) {
+        final EOFException ret = new EOFException(cause.getMessage());
+        ret.initCause(cause);
+        return ret;
+    }
+}
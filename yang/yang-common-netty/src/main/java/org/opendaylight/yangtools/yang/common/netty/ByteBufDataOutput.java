@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.common.netty;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.DataOutput;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A {@link DataOutput} writing directly to a {@link ByteBuf}. Unlike {@link ByteBufOutputStream}, this class does
+ * not go through {@link java.io.DataOutputStream} for {@link #writeUTF(String)}, but encodes the string directly into
+ * the buffer, using a bulk write for the common case of an ASCII-only string. It also does not count the bytes
+ * written, as that information is available from {@link ByteBuf#writerIndex()}.
+ *
+ * <p>
+ * This class can optionally build a {@link CompositeByteBuf}, avoiding copying large byte arrays passed to
+ * {@link #writeWrapped(byte[])}, appending them as wrapped components instead. This is useful for example for binary
+ * leaf values, which are immutable by contract. Everything else, including smaller arrays and all arrays passed to
+ * {@link #write(byte[], int, int)}, is copied into a tail buffer, which becomes a component of its own when a large
+ * array is appended. Callers of {@link #writeWrapped(byte[])} need to ensure the arrays are not modified until the
+ * buffer has been consumed.
+ */
+@Beta
+public final class ByteBufDataOutput implements DataOutput {
+    // Composite buffers are consolidated when they exceed their maximum number of components, which would defeat the
+    // purpose of wrapping arrays. We create them with a limit we never reach.
+    private static final int MAX_COMPONENTS = Integer.MAX_VALUE;
+
+    private final ByteBufAllocator allocator;
+    private final CompositeByteBuf composite;
+    private final int wrapThreshold;
+
+    // The buffer receiving writes. In composite mode this is the tail buffer, which is not part of composite yet, until
+    // buffer() is invoked.
+    private @NonNull ByteBuf buf;
+
+    /**
+     * Create a new output writing to specified buffer. All data is copied into the buffer.
+     *
+     * @param buf target buffer
+     * @throws NullPointerException if {@code buf} is null
+     */
+    public ByteBufDataOutput(final ByteBuf buf) {
+        this.buf = requireNonNull(buf);
+        allocator = null;
+        composite = null;
+        wrapThreshold = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Create a new output writing to a new composite buffer. Byte arrays of at least {@code wrapThreshold} bytes
+     * passed to {@link #writeWrapped(byte[])} are not copied, but rather wrapped and appended as a new component of
+     * the buffer. The buffer is available
+     * through {@link #buffer()}.
+     *
+     * @param allocator allocator to use for the composite buffer and its tail buffers
+     * @param wrapThreshold minimum length of a byte array which gets wrapped instead of copied
+     * @throws NullPointerException if {@code allocator} is null
+     * @throws IllegalArgumentException if {@code wrapThreshold} is not positive
+     */
+    public ByteBufDataOutput(final ByteBufAllocator allocator, final int wrapThreshold) {
+        checkArgument(wrapThreshold > 0, "Invalid wrap threshold %s", wrapThreshold);
+        this.allocator = requireNonNull(allocator);
+        this.wrapThreshold = wrapThreshold;
+        composite = allocator.compositeBuffer(MAX_COMPONENTS);
+        buf = allocator.buffer();
+    }
+
+    /**
+     * Return the buffer backing this output. For outputs building a composite buffer, this is the composite buffer,
+     * with all data written so far appended to it. Any subsequent writes go directly to the composite buffer.
+     *
+     * @return Backing buffer
+     */
+    public @NonNull ByteBuf buffer() {
+        if (composite != null && buf != composite) {
+            if (buf.isReadable()) {
+                composite.addComponent(true, buf);
+            } else {
+                buf.release();
+            }
+            buf = composite;
+        }
+        return buf;
+    }
+
+    @Override
+    public void write(final int value) {
+        buf.writeByte(value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) {
+        buf.writeBytes(bytes, off, len);
+    }
+
+    /**
+     * Write an array of bytes which is guaranteed not to be modified until the buffer has been consumed. If this
+     * output is building a composite buffer and the array is at least {@code wrapThreshold} bytes long, it is not
+     * copied, but wrapped and appended as a new component of the buffer. Otherwise this method behaves just like
+     * {@link #write(byte[])}.
+     *
+     * @param bytes the data
+     * @throws NullPointerException if {@code bytes} is null
+     */
+    public void writeWrapped(final byte[] bytes) {
+        if (bytes.length < wrapThreshold) {
+            buf.writeBytes(bytes);
+            return;
+        }
+
+        if (buf != composite) {
+            if (buf.isReadable()) {
+                // Hand the tail buffer over and start a new one
+                composite.addComponent(true, buf);
+                buf = allocator.buffer();
+            }
+        } else {
+            // Writing to composite directly, trim any writable space first, so the new component immediately follows
+            // the data written so far
+            composite.capacity(composite.writerIndex());
+        }
+        composite.addComponent(true, Unpooled.wrappedBuffer(bytes));
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) {
+        buf.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(final int value) {
+        buf.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(final int value) {
+        buf.writeShort(value);
+    }
+
+    @Override
+    public void writeChar(final int value) {
+        buf.writeChar(value);
+    }
+
+    @Override
+    public void writeInt(final int value) {
+        buf.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        buf.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(final float value) {
+        buf.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        buf.writeDouble(value);
+    }
+
+    @Override
+    public void writeBytes(final String str) {
+        final int len = str.length();
+        buf.ensureWritable(len);
+        for (int i = 0; i < len; ++i) {
+            buf.writeByte(str.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(final String str) {
+        final int len = str.length();
+        buf.ensureWritable(len * 2);
+        for (int i = 0; i < len; ++i) {
+            buf.writeChar(str.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(final String str) throws UTFDataFormatException {
+        final int len = str.length();
+        final int utfLen = modifiedUtf8Length(str);
+        if (utfLen > 65535) {
+            throw new UTFDataFormatException("Encoded string too long: " + utfLen + " bytes");
+        }
+
+        buf.ensureWritable(utfLen + 2);
+        buf.writeShort(utfLen);
+        if (utfLen == len) {
+            // All characters are encoded as single bytes, defer to bulk write
+            buf.writeCharSequence(str, StandardCharsets.US_ASCII);
+            return;
+        }
+
+        for (int i = 0; i < len; ++i) {
+            final char ch = str.charAt(i);
+            if (ch >= 0x0001 && ch <= 0x007F) {
+                buf.writeByte(ch);
+            } else if (ch > 0x07FF) {
+                buf.writeByte(0xE0 | ch >> 12 & 0x0F);
+                buf.writeByte(0x80 | ch >> 6 & 0x3F);
+                buf.writeByte(0x80 | ch & 0x3F);
+            } else {
+                buf.writeByte(0xC0 | ch >> 6 & 0x1F);
+                buf.writeByte(0x80 | ch & 0x3F);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("buf", buf).toString();
+    }
+
+    // Length of the string as encoded in modified UTF-8, as specified by DataInput
+    private static int modifiedUtf8Length(final String str) {
+        final int len = str.length();
+        int ret = len;
+        for (int i = 0; i < len; ++i) {
+            final char ch = str.charAt(i);
+            if (ch == 0 || ch > 0x007F) {
+                ret += ch > 0x07FF ? 2 : 1;
+            }
+        }
+        return ret;
+    }
+}
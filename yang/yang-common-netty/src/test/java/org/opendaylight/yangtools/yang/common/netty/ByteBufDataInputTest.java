@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.common.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import org.junit.Test;
+
+public class ByteBufDataInputTest {
+    @Test
+    public void testReadDataOutputStream() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeBoolean(false);
+            out.writeByte(0x81);
+            out.writeShort(0x8182);
+            out.writeChar('€');
+            out.writeInt(0x81828384);
+            out.writeLong(0x8182838485868788L);
+            out.writeFloat(1.5F);
+            out.writeDouble(-2.25);
+            out.writeUTF("");
+            out.writeUTF("ascii only");
+            out.writeUTF("nul\u0000 twoé three€");
+            out.write(new byte[] { 1, 2, 3, 4 });
+            out.writeBytes("line\r\nlast");
+        }
+
+        final ByteBufDataInput in = new ByteBufDataInput(Unpooled.wrappedBuffer(baos.toByteArray()));
+        assertFalse(in.readBoolean());
+        assertEquals(0x81, in.readUnsignedByte());
+        assertEquals((short) 0x8182, in.readShort());
+        assertEquals('€', in.readChar());
+        assertEquals(0x81828384, in.readInt());
+        assertEquals(0x8182838485868788L, in.readLong());
+        assertEquals(1.5F, in.readFloat(), 0);
+        assertEquals(-2.25, in.readDouble(), 0);
+        assertEquals("", in.readUTF());
+        assertEquals("ascii only", in.readUTF());
+        assertEquals("nul\u0000 twoé three€", in.readUTF());
+
+        final ByteBuf slice = in.readSlice(2);
+        assertEquals(2, slice.readableBytes());
+        assertEquals(1, slice.getByte(0));
+        final byte[] bytes = new byte[2];
+        in.readFully(bytes);
+        assertArrayEquals(new byte[] { 3, 4 }, bytes);
+
+        assertEquals("line", in.readLine());
+        assertEquals("last", in.readLine());
+        assertNull(in.readLine());
+    }
+
+    @Test
+    public void testEOF() {
+        final ByteBufDataInput in = new ByteBufDataInput(Unpooled.wrappedBuffer(new byte[] { 0, 4, 'a', 'b' }));
+        assertThrows(EOFException.class, in::readLong);
+        assertThrows(EOFException.class, in::readUTF);
+        assertEquals(2, in.skipBytes(5));
+        assertThrows(EOFException.class, in::readByte);
+        assertEquals(0, in.buffer().readableBytes());
+    }
+
+    @Test
+    public void testMalformedUTF() {
+        final ByteBufDataInput in = new ByteBufDataInput(Unpooled.wrappedBuffer(new byte[] { 0, 2, (byte) 0xC3, 'a' }));
+        assertThrows(UTFDataFormatException.class, in::readUTF);
+    }
+}
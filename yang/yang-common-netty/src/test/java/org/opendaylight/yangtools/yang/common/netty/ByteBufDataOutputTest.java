@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.common.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import org.junit.Test;
+
+public class ByteBufDataOutputTest {
+    @Test
+    public void testSameAsDataOutputStream() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeSample(new DataOutputStream(baos));
+
+        final ByteBuf buf = Unpooled.buffer(16);
+        writeSample(new ByteBufDataOutput(buf));
+        assertArrayEquals(baos.toByteArray(), ByteBufUtil.getBytes(buf));
+    }
+
+    @Test
+    public void testLongUTF() {
+        final ByteBufDataOutput out = new ByteBufDataOutput(Unpooled.buffer());
+        assertThrows(UTFDataFormatException.class, () -> out.writeUTF("ࠀ".repeat(21846)));
+    }
+
+    @Test
+    public void testCompositeWrap() {
+        final ByteBufDataOutput out = new ByteBufDataOutput(UnpooledByteBufAllocator.DEFAULT, 8);
+        final byte[] small = new byte[] { 1, 2, 3 };
+        final byte[] large = new byte[] { 4, 5, 6, 7, 8, 9, 10, 11 };
+
+        out.writeInt(0x01020304);
+        out.writeWrapped(small);
+        out.writeWrapped(large);
+        out.writeShort(0x0c0d);
+        final ByteBuf buf = out.buffer();
+        assertEquals(17, buf.readableBytes());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13 },
+            ByteBufUtil.getBytes(buf));
+
+        // The large array is referenced, not copied
+        large[0] = 42;
+        assertEquals(42, buf.getByte(7));
+
+        // Writes continue after the buffer has been obtained
+        out.writeByte(14);
+        out.writeWrapped(large);
+        assertEquals(26, buf.readableBytes());
+        assertEquals(14, buf.getByte(17));
+        assertEquals(42, buf.getByte(18));
+        buf.release();
+    }
+
+    @Test
+    public void testCompositeWriteCopies() {
+        final ByteBufDataOutput out = new ByteBufDataOutput(UnpooledByteBufAllocator.DEFAULT, 8);
+        final byte[] large = new byte[] { 4, 5, 6, 7, 8, 9, 10, 11 };
+
+        // Plain writes copy the array regardless of its size, as callers are free to reuse it
+        out.write(large);
+        out.write(large, 1, 7);
+        large[0] = 42;
+        large[1] = 42;
+        final ByteBuf buf = out.buffer();
+        assertArrayEquals(new byte[] { 4, 5, 6, 7, 8, 9, 10, 11, 5, 6, 7, 8, 9, 10, 11 }, ByteBufUtil.getBytes(buf));
+        buf.release();
+    }
+
+    @Test
+    public void testCompositeManyComponents() {
+        final ByteBufDataOutput out = new ByteBufDataOutput(UnpooledByteBufAllocator.DEFAULT, 8);
+        final byte[] large = new byte[] { 4, 5, 6, 7, 8, 9, 10, 11 };
+        for (int i = 0; i < 100; ++i) {
+            out.writeByte(i);
+            out.writeWrapped(large);
+        }
+
+        // Every array remains wrapped, i.e. the buffer has not been consolidated
+        final CompositeByteBuf buf = (CompositeByteBuf) out.buffer();
+        assertEquals(200, buf.numComponents());
+        large[0] = 42;
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i, buf.getByte(i * 9));
+            assertEquals(42, buf.getByte(i * 9 + 1));
+        }
+        buf.release();
+    }
+
+    private static void writeSample(final DataOutput out) throws IOException {
+        out.writeBoolean(true);
+        out.writeByte(0x81);
+        out.writeShort(0x8182);
+        out.writeChar('€');
+        out.writeInt(0x81828384);
+        out.writeLong(0x8182838485868788L);
+        out.writeFloat(1.5F);
+        out.writeDouble(-2.25);
+        out.write(new byte[] { 1, 2, 3, 4 }, 1, 2);
+        out.writeBytes("abţ");
+        out.writeChars("abţ");
+        out.writeUTF("");
+        out.writeUTF("ascii only");
+        out.writeUTF("nul\u0000 twoé three€");
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import java.util.List;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A {@link DataTreeTip} which can prepare multiple modifications as a single {@link DataTreeCandidateTip}, amortizing
+ * the cost of preparing and committing them.
+ */
+@Beta
+@NonNullByDefault
+public interface BatchAwareDataTreeTip extends DataTreeTip {
+    /**
+     * Prepare a batch of modifications for commit. Each modification is validated against this tip. Modifications
+     * which fail validation, or which modify the same subtree as a modification accepted earlier in the batch, are
+     * not included in the resulting candidate and are reported in {@link PreparedBatch#getFailures()}. They can be
+     * retried individually or as part of a subsequent batch.
+     *
+     * <p>
+     * The resulting candidate reflects all accepted modifications applied in their iteration order, as if they were
+     * prepared and committed one after the other. Modifications must not be used after being passed to this method.
+     *
+     * @param modifications Sealed modifications
+     * @return A prepared batch
+     * @throws NullPointerException if modifications is null
+     * @throws IllegalArgumentException if any of the modifications is unrecognized or unsealed
+     */
+    PreparedBatch prepareBatch(List<? extends DataTreeModification> modifications);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A {@link DataTreeSnapshot} which allows creation of {@link DataTreeModification}s which can be populated from
+ * multiple threads without external synchronization.
+ */
+@Beta
+public interface ConcurrentAwareDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Create a new {@link DataTreeModification} which allows concurrent invocation of
+     * {@link DataTreeModification#write(org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier,
+     * org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode)},
+     * {@link DataTreeModification#merge(org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier,
+     * org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode)} and
+     * {@link DataTreeModification#delete(org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier)}, as long
+     * as concurrent operations target disjoint subtrees, i.e. none of their paths is a prefix of another. Operations
+     * which target overlapping subtrees need to be ordered by the caller, just as with any other modification.
+     *
+     * <p>
+     * Invoking {@link DataTreeModification#readNode(org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier)}
+     * or opening a cursor is not supported while modifications are in progress. {@link DataTreeModification#ready()}
+     * needs to be invoked after all modifications have completed, e.g. after all threads populating the modification
+     * have been joined. Once it returns, the modification behaves just like any other modification.
+     *
+     * @return A new concurrent modification
+     */
+    DataTreeModification newConcurrentModification();
+}
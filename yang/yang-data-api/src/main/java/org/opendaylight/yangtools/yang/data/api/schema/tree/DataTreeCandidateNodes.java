@@ -229,7 +229,7 @@ public final class DataTreeCandidateNodes {
     }
 
     @SuppressWarnings("unchecked")
-    private static @NonNull DataTreeCandidateNode deleteNode(final NormalizedNode<?, ?> data) {
+    static @NonNull DataTreeCandidateNode deleteNode(final NormalizedNode<?, ?> data) {
         if (data instanceof NormalizedNodeContainer) {
             return new RecursiveDeleteCandidateNode(
                 (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) data);
@@ -239,7 +239,7 @@ public final class DataTreeCandidateNodes {
 
 
     @SuppressWarnings("unchecked")
-    private static @NonNull DataTreeCandidateNode replaceNode(final NormalizedNode<?, ?> oldData,
+    static @NonNull DataTreeCandidateNode replaceNode(final NormalizedNode<?, ?> oldData,
             final NormalizedNode<?, ?> newData) {
         if (oldData instanceof NormalizedNodeContainer) {
             return new RecursiveReplaceCandidateNode(
@@ -16,6 +16,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
@@ -45,6 +46,59 @@ public final class DataTreeCandidates {
         return new DefaultDataTreeCandidate(rootPath, new NormalizedNodeDataTreeCandidateNode(node));
     }
 
+    /**
+     * Create a {@link DataTreeCandidate} describing the difference between two {@link NormalizedNode} trees. Unlike
+     * {@link #fromNormalizedNode(YangInstanceIdentifier, NormalizedNode)}, the resulting candidate reports only
+     * the nodes which actually differ. Subtrees shared between the two trees are recognized by reference equality and
+     * are not examined, hence comparing two versions of the same data tree is cheap.
+     *
+     * @param rootPath Root path of the resulting candidate
+     * @param before Data before the change, null if the data did not exist
+     * @param after Data after the change, null if the data does not exist
+     * @return A {@link DataTreeCandidate}
+     * @throws IllegalArgumentException if both {@code before} and {@code after} are null, or they have different
+     *                                  identifiers
+     */
+    public static @NonNull DataTreeCandidate fromNormalizedNodes(final YangInstanceIdentifier rootPath,
+            final @Nullable NormalizedNode<?, ?> before, final @Nullable NormalizedNode<?, ?> after) {
+        return new DefaultDataTreeCandidate(rootPath, NormalizedNodeDiff.diff(before, after, null));
+    }
+
+    /**
+     * Create a {@link DataTreeCandidate} describing the difference between two {@link NormalizedNode} trees, as
+     * {@link #fromNormalizedNodes(YangInstanceIdentifier, NormalizedNode, NormalizedNode)} does. Containers with large
+     * number of children, such as wide lists, are compared in parallel in specified {@link ForkJoinPool}.
+     *
+     * @param rootPath Root path of the resulting candidate
+     * @param before Data before the change, null if the data did not exist
+     * @param after Data after the change, null if the data does not exist
+     * @param pool ForkJoinPool to use for parallel comparison
+     * @return A {@link DataTreeCandidate}
+     * @throws IllegalArgumentException if both {@code before} and {@code after} are null, or they have different
+     *                                  identifiers
+     */
+    public static @NonNull DataTreeCandidate fromNormalizedNodes(final YangInstanceIdentifier rootPath,
+            final @Nullable NormalizedNode<?, ?> before, final @Nullable NormalizedNode<?, ?> after,
+            final ForkJoinPool pool) {
+        return new DefaultDataTreeCandidate(rootPath, NormalizedNodeDiff.diff(before, after, requireNonNull(pool)));
+    }
+
+    /**
+     * Create a {@link DataTreeCandidate} describing the difference between the contents of two
+     * {@link DataTreeSnapshot}s at specified path. This is useful for catching up on changes between two points in
+     * time, without needing to observe the individual commits.
+     *
+     * @param before Snapshot before the change
+     * @param after Snapshot after the change
+     * @param path Path to compare
+     * @return A {@link DataTreeCandidate}
+     * @throws IllegalArgumentException if the path is not present in either snapshot
+     */
+    public static @NonNull DataTreeCandidate fromSnapshots(final DataTreeSnapshot before,
+            final DataTreeSnapshot after, final YangInstanceIdentifier path) {
+        return fromNormalizedNodes(path, before.readNode(path).orElse(null), after.readNode(path).orElse(null));
+    }
+
     public static void applyToCursor(final DataTreeModificationCursor cursor, final DataTreeCandidate candidate) {
         DataTreeCandidateNodes.applyToCursor(cursor, candidate.getRootNode());
     }
@@ -155,22 +209,27 @@ public final class DataTreeCandidates {
     }
 
     private static void compressNode(final TerminalDataTreeCandidateNode finalNode, final DataTreeCandidateNode node,
-                                     final PathArgument parent) {
+                                     final TerminalDataTreeCandidateNode parent) {
         PathArgument identifier;
         try {
             identifier = node.getIdentifier();
         } catch (IllegalStateException e) {
             identifier = null;
         }
-        // Check if finalNode has stored any changes for node
-        if (finalNode.getNode(identifier).isEmpty()) {
-            TerminalDataTreeCandidateNode parentNode = finalNode.getNode(parent)
-                    .orElseThrow(() -> new IllegalArgumentException("No node found for " + parent + " identifier"));
-            TerminalDataTreeCandidateNode childNode = new TerminalDataTreeCandidateNode(
-                    identifier,
-                    node.getDataBefore().orElse(null),
-                    parentNode);
-            parentNode.addChildNode(childNode);
+
+        // Locate the node which stores changes for this node. Identifiers are not unique across the tree, hence it has
+        // to be looked up in its parent.
+        final TerminalDataTreeCandidateNode target;
+        if (parent == null || identifier == null) {
+            target = finalNode;
+        } else {
+            final TerminalDataTreeCandidateNode existing = parent.getChild(identifier);
+            if (existing != null) {
+                target = existing;
+            } else {
+                target = new TerminalDataTreeCandidateNode(identifier, node.getDataBefore().orElse(null), parent);
+                parent.addChildNode(target);
+            }
         }
 
         ModificationType nodeModification = node.getModificationType();
@@ -183,13 +242,12 @@ public final class DataTreeCandidates {
             case APPEARED:
             case DISAPPEARED:
             case SUBTREE_MODIFIED:
-                finalNode.setModification(identifier,
-                        compressModifications(finalNode.getModification(identifier), nodeModification,
-                                finalNode.getDataAfter(identifier).isEmpty()));
-                finalNode.setData(identifier, node.getDataAfter().orElse(null));
+                target.setModification(compressModifications(target.getModificationType(), nodeModification,
+                    target.getDataAfter().isEmpty()));
+                target.setAfter(node.getDataAfter().orElse(null));
 
                 for (DataTreeCandidateNode child : node.getChildNodes()) {
-                    compressNode(finalNode, child, identifier);
+                    compressNode(finalNode, child, target);
                 }
                 break;
             default:
@@ -199,52 +257,52 @@ public final class DataTreeCandidates {
 
     // Removes redundant changes
     private static DataTreeCandidateNode cleanUpTree(final TerminalDataTreeCandidateNode finalNode) {
-        return cleanUpTree(finalNode, finalNode);
+        cleanUpNode(finalNode);
+        return finalNode;
     }
 
     // Compare data before and after in order to find modified nodes without actual changes
-    private static DataTreeCandidateNode cleanUpTree(final TerminalDataTreeCandidateNode finalNode,
-                                                     final TerminalDataTreeCandidateNode node) {
-        PathArgument identifier = node.getIdentifier();
+    private static void cleanUpNode(final TerminalDataTreeCandidateNode node) {
         ModificationType nodeModification = node.getModificationType();
         Collection<DataTreeCandidateNode> childNodes = node.getChildNodes();
-        for (Iterator<DataTreeCandidateNode> iterator = childNodes.iterator(); iterator.hasNext(); ) {
-            cleanUpTree(finalNode, (TerminalDataTreeCandidateNode) iterator.next());
+        // Children may remove themselves, hence we need to iterate over a copy
+        for (DataTreeCandidateNode child : List.copyOf(childNodes)) {
+            cleanUpNode((TerminalDataTreeCandidateNode) child);
         }
-        Optional<NormalizedNode<?, ?>> dataBefore = finalNode.getDataBefore(identifier);
+        Optional<NormalizedNode<?, ?>> dataBefore = node.getDataBefore();
 
         switch (nodeModification) {
             case UNMODIFIED:
-                finalNode.deleteNode(identifier);
-                return finalNode;
+                node.delete();
+                break;
             case WRITE:
-                return finalNode;
+                break;
             case DELETE:
                 if (dataBefore.isEmpty()) {
-                    finalNode.deleteNode(identifier);
+                    node.delete();
                 }
-                return finalNode;
+                break;
             case APPEARED:
                 if (dataBefore.isPresent()) {
                     illegalModification(ModificationType.APPEARED, ModificationType.WRITE);
                 }
                 if (childNodes.isEmpty()) {
-                    finalNode.deleteNode(identifier);
+                    node.delete();
                 }
-                return finalNode;
+                break;
             case DISAPPEARED:
                 if (dataBefore.isEmpty() || childNodes.isEmpty()) {
-                    finalNode.deleteNode(identifier);
+                    node.delete();
                 }
-                return finalNode;
+                break;
             case SUBTREE_MODIFIED:
                 if (dataBefore.isEmpty()) {
                     illegalModification(ModificationType.SUBTREE_MODIFIED, ModificationType.DELETE);
                 }
                 if (childNodes.isEmpty()) {
-                    finalNode.deleteNode(identifier);
+                    node.delete();
                 }
-                return finalNode;
+                break;
             default:
                 throw new IllegalStateException("Unsupported modification type " + nodeModification);
         }
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.Beta;
@@ -24,6 +25,8 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
  * <li>treeType</li>
  * <li>enable/disable unique indexes and unique constraint validation</li>
  * <li>enable/disable mandatory nodes validation</li>
+ * <li>parallel processing of large numbers of child modifications</li>
+ * <li>enable/disable incremental leafref validation</li>
  * </ul>
  *
  * <p>
@@ -50,13 +53,17 @@ public class DataTreeConfiguration implements Immutable {
     private final @NonNull YangInstanceIdentifier rootPath;
     private final boolean uniqueIndexes;
     private final boolean mandatoryNodesValidation;
+    private final int parallelThreshold;
+    private final boolean leafRefValidation;
 
     DataTreeConfiguration(final TreeType treeType, final YangInstanceIdentifier rootPath, final boolean uniqueIndexes,
-            final boolean mandatoryNodesValidation) {
+            final boolean mandatoryNodesValidation, final int parallelThreshold, final boolean leafRefValidation) {
         this.treeType = requireNonNull(treeType);
         this.rootPath = requireNonNull(rootPath);
         this.uniqueIndexes = uniqueIndexes;
         this.mandatoryNodesValidation = mandatoryNodesValidation;
+        this.parallelThreshold = parallelThreshold;
+        this.leafRefValidation = leafRefValidation;
     }
 
     public @NonNull YangInstanceIdentifier getRootPath() {
@@ -75,11 +82,34 @@ public class DataTreeConfiguration implements Immutable {
         return mandatoryNodesValidation;
     }
 
+    /**
+     * Return the minimum number of child modifications of a single node, at which they are validated and applied in
+     * parallel using the common {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @return Parallel processing threshold, {@code 0} if parallel processing is disabled
+     */
+    @Beta
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Return whether leafref constraints are validated as part of {@link DataTree#validate(DataTreeModification)}.
+     * This option is honored only by data trees rooted at {@link YangInstanceIdentifier#empty()}.
+     *
+     * @return True if leafref validation is enabled
+     */
+    @Beta
+    public boolean isLeafRefValidationEnabled() {
+        return leafRefValidation;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).add("type", treeType).add("root", rootPath)
                 .add("mandatory", mandatoryNodesValidation)
-                .add("unique", uniqueIndexes).toString();
+                .add("unique", uniqueIndexes).add("parallelThreshold", parallelThreshold)
+                .add("leafref", leafRefValidation).toString();
     }
 
     public static DataTreeConfiguration getDefault(final TreeType treeType) {
@@ -89,7 +119,7 @@ public class DataTreeConfiguration implements Immutable {
             case OPERATIONAL:
                 return DEFAULT_OPERATIONAL;
             default:
-                return new DataTreeConfiguration(treeType, YangInstanceIdentifier.empty(), false, true);
+                return new DataTreeConfiguration(treeType, YangInstanceIdentifier.empty(), false, true, 0, false);
         }
     }
 
@@ -101,6 +131,8 @@ public class DataTreeConfiguration implements Immutable {
         return new Builder(treeType)
                 .setMandatoryNodesValidation(isMandatoryNodesValidationEnabled())
                 .setUniqueIndexes(isUniqueIndexEnabled())
+                .setParallelThreshold(getParallelThreshold())
+                .setLeafRefValidation(isLeafRefValidationEnabled())
                 .setRootPath(getRootPath());
     }
 
@@ -109,6 +141,8 @@ public class DataTreeConfiguration implements Immutable {
         private YangInstanceIdentifier rootPath;
         private boolean uniqueIndexes;
         private boolean mandatoryNodesValidation;
+        private int parallelThreshold;
+        private boolean leafRefValidation;
 
         public Builder(final TreeType treeType) {
             this.treeType = requireNonNull(treeType);
@@ -125,6 +159,34 @@ public class DataTreeConfiguration implements Immutable {
             return this;
         }
 
+        /**
+         * Set the number of child modifications of a single node, at or above which they are validated and applied
+         * in parallel. Resulting candidates are the same as with sequential processing.
+         *
+         * @param parallelThreshold Minimum number of child modifications, {@code 0} to disable parallel processing
+         * @return This builder
+         * @throws IllegalArgumentException if {@code parallelThreshold} is negative
+         */
+        @Beta
+        public Builder setParallelThreshold(final int parallelThreshold) {
+            checkArgument(parallelThreshold >= 0, "Invalid parallel threshold %s", parallelThreshold);
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * Enable or disable validation of leafref constraints. Validation is driven by the prepared candidate and
+         * re-checks only those references whose source or target was touched by it.
+         *
+         * @param leafRefValidation True to enable leafref validation
+         * @return This builder
+         */
+        @Beta
+        public Builder setLeafRefValidation(final boolean leafRefValidation) {
+            this.leafRefValidation = leafRefValidation;
+            return this;
+        }
+
         public Builder setRootPath(final YangInstanceIdentifier rootPath) {
             this.rootPath = rootPath.toOptimized();
             return this;
@@ -132,7 +194,8 @@ public class DataTreeConfiguration implements Immutable {
 
         @Override
         public DataTreeConfiguration build() {
-            return new DataTreeConfiguration(treeType, rootPath, uniqueIndexes, mandatoryNodesValidation);
+            return new DataTreeConfiguration(treeType, rootPath, uniqueIndexes, mandatoryNodesValidation,
+                parallelThreshold, leafRefValidation);
         }
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.Optional;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+
+/**
+ * A {@link ModificationType#SUBTREE_MODIFIED} node with an explicit set of modified children, as computed by
+ * {@link NormalizedNodeDiff}.
+ */
+final class ModifiedSubtreeCandidateNode extends AbstractDataTreeCandidateNode {
+    private final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData;
+    private final ImmutableMap<PathArgument, DataTreeCandidateNode> children;
+
+    ModifiedSubtreeCandidateNode(final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData,
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> newData,
+            final ImmutableMap<PathArgument, DataTreeCandidateNode> children) {
+        super(newData);
+        this.oldData = requireNonNull(oldData);
+        this.children = requireNonNull(children);
+    }
+
+    @Override
+    public ModificationType getModificationType() {
+        return ModificationType.SUBTREE_MODIFIED;
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return dataOptional();
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return Optional.of(oldData);
+    }
+
+    @Override
+    public Optional<DataTreeCandidateNode> getModifiedChild(final PathArgument identifier) {
+        return Optional.ofNullable(children.get(requireNonNull(identifier)));
+    }
+
+    @Override
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        return children.values();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+
+/**
+ * Computation of the difference between two {@link NormalizedNode} trees, expressed as a {@link DataTreeCandidateNode}.
+ * Subtrees which are the same object in both trees are skipped without being examined, which makes the cost of
+ * comparing two snapshots of the same data tree proportional to the size of the modified portion. Children of
+ * container nodes are matched by their {@link PathArgument}, so that keyed lists are compared entry-by-entry.
+ *
+ * <p>
+ * Unkeyed lists, as well as ordered lists whose retained entries have changed their relative order, are reported as
+ * being replaced as a whole, as there is no way to express such a change through individual children.
+ */
+final class NormalizedNodeDiff {
+    /**
+     * Number of children a container needs to have for it to be split into parallel tasks. This is also the number of
+     * children each such task processes.
+     */
+    static final int PARALLEL_THRESHOLD = 1024;
+
+    private final boolean parallel;
+
+    private NormalizedNodeDiff(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    static @NonNull DataTreeCandidateNode diff(final @Nullable NormalizedNode<?, ?> before,
+            final @Nullable NormalizedNode<?, ?> after, final @Nullable ForkJoinPool pool) {
+        if (before == null) {
+            checkArgument(after != null, "At least one of before and after data has to be present");
+            return DataTreeCandidateNodes.written(after);
+        }
+        if (after == null) {
+            return DataTreeCandidateNodes.deleteNode(before);
+        }
+        checkArgument(before.getIdentifier().equals(after.getIdentifier()), "Mismatched identifiers %s and %s",
+            before.getIdentifier(), after.getIdentifier());
+
+        final DataTreeCandidateNode ret;
+        if (pool != null) {
+            ret = pool.invoke(ForkJoinTask.adapt(() -> new NormalizedNodeDiff(true).diffNode(before, after)));
+        } else {
+            ret = new NormalizedNodeDiff(false).diffNode(before, after);
+        }
+        return ret != null ? ret : DataTreeCandidateNodes.unmodified(after);
+    }
+
+    /**
+     * Compare two nodes with the same identifier.
+     *
+     * @return Candidate node, or null if the two nodes are equal
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable DataTreeCandidateNode diffNode(final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after) {
+        if (before == after) {
+            return null;
+        }
+        if (!(before instanceof NormalizedNodeContainer) || !(after instanceof NormalizedNodeContainer)) {
+            return before.equals(after) ? null : DataTreeCandidateNodes.replaceNode(before, after);
+        }
+        if (before instanceof UnkeyedListNode || after instanceof UnkeyedListNode) {
+            return before.equals(after) ? null : new ReplaceLeafCandidateNode(before, after);
+        }
+
+        final boolean ordered = before instanceof OrderedNodeContainer;
+        if (ordered != after instanceof OrderedNodeContainer) {
+            return DataTreeCandidateNodes.replaceNode(before, after);
+        }
+
+        final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData =
+                (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) before;
+        final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> newData =
+                (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) after;
+        if (ordered && isReordered(oldData, newData)) {
+            return new ReplaceLeafCandidateNode(before, after);
+        }
+
+        final Collection<NormalizedNode<?, ?>> newChildren = newData.getValue();
+        final List<DataTreeCandidateNode> modified;
+        if (parallel && newChildren.size() >= PARALLEL_THRESHOLD) {
+            final List<NormalizedNode<?, ?>> list = ImmutableList.copyOf(newChildren);
+            modified = new DiffTask(this, oldData, list, 0, list.size()).invoke();
+        } else {
+            modified = diffChildren(oldData, newChildren);
+        }
+
+        // Every child of newData which was found in oldData is either unmodified or has a dataBefore, hence we only
+        // need to look for deleted children if there are more old children than that.
+        int written = 0;
+        for (DataTreeCandidateNode child : modified) {
+            if (child.getDataBefore().isEmpty()) {
+                written++;
+            }
+        }
+        if (oldData.getValue().size() > newChildren.size() - written) {
+            for (NormalizedNode<?, ?> oldChild : oldData.getValue()) {
+                if (newData.getChild(oldChild.getIdentifier()).isEmpty()) {
+                    modified.add(DataTreeCandidateNodes.deleteNode(oldChild));
+                }
+            }
+        }
+
+        if (modified.isEmpty()) {
+            return null;
+        }
+        final ImmutableMap.Builder<PathArgument, DataTreeCandidateNode> builder =
+                ImmutableMap.builderWithExpectedSize(modified.size());
+        for (DataTreeCandidateNode child : modified) {
+            builder.put(child.getIdentifier(), child);
+        }
+        return new ModifiedSubtreeCandidateNode(oldData, newData, builder.build());
+    }
+
+    @NonNull List<DataTreeCandidateNode> diffChildren(
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData,
+            final Collection<NormalizedNode<?, ?>> newChildren) {
+        final List<DataTreeCandidateNode> ret = new ArrayList<>();
+        for (NormalizedNode<?, ?> newChild : newChildren) {
+            final Optional<NormalizedNode<?, ?>> oldChild = oldData.getChild(newChild.getIdentifier());
+            final DataTreeCandidateNode child = oldChild.isPresent() ? diffNode(oldChild.get(), newChild)
+                    : DataTreeCandidateNodes.written(newChild);
+            if (child != null) {
+                ret.add(child);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Check whether the children present in both containers appear in the same relative order and all newly-added
+     * children come after them. This is the only shape of change to an ordered container which can be expressed
+     * as a set of per-child modifications, as new children are always appended.
+     */
+    private static boolean isReordered(final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData,
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> newData) {
+        final Iterator<NormalizedNode<?, ?>> it = newData.getValue().iterator();
+        for (NormalizedNode<?, ?> oldChild : oldData.getValue()) {
+            final PathArgument id = oldChild.getIdentifier();
+            if (newData.getChild(id).isPresent() && (!it.hasNext() || !id.equals(it.next().getIdentifier()))) {
+                return true;
+            }
+        }
+        while (it.hasNext()) {
+            if (oldData.getChild(it.next().getIdentifier()).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "Tasks are never serialized")
+    private static final class DiffTask extends RecursiveTask<List<DataTreeCandidateNode>> {
+        private static final long serialVersionUID = 1L;
+
+        private final NormalizedNodeDiff diff;
+        private final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData;
+        private final List<NormalizedNode<?, ?>> newChildren;
+        private final int from;
+        private final int to;
+
+        DiffTask(final NormalizedNodeDiff diff,
+                final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData,
+                final List<NormalizedNode<?, ?>> newChildren, final int from, final int to) {
+            this.diff = diff;
+            this.oldData = oldData;
+            this.newChildren = newChildren;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<DataTreeCandidateNode> compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return diff.diffChildren(oldData, newChildren.subList(from, to));
+            }
+
+            final int mid = from + (to - from) / 2;
+            final DiffTask left = new DiffTask(diff, oldData, newChildren, from, mid);
+            final DiffTask right = new DiffTask(diff, oldData, newChildren, mid, to);
+            ForkJoinTask.invokeAll(left, right);
+
+            final List<DataTreeCandidateNode> ret = left.join();
+            ret.addAll(right.join());
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.opendaylight.yangtools.concepts.Immutable;
+
+/**
+ * Result of {@link BatchAwareDataTreeTip#prepareBatch(java.util.List)}.
+ */
+@Beta
+@NonNullByDefault
+public final class PreparedBatch implements Immutable {
+    private final DataTreeCandidateTip candidate;
+    private final ImmutableMap<DataTreeModification, DataValidationFailedException> failures;
+
+    public PreparedBatch(final DataTreeCandidateTip candidate,
+            final Map<DataTreeModification, DataValidationFailedException> failures) {
+        this.candidate = requireNonNull(candidate);
+        this.failures = ImmutableMap.copyOf(failures);
+    }
+
+    /**
+     * Return the candidate combining all accepted modifications. It can be committed just like the result of
+     * {@link DataTreeTip#prepare(DataTreeModification)}.
+     *
+     * @return Combined candidate
+     */
+    public DataTreeCandidateTip getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Return the modifications which were not included in {@link #getCandidate()}, along with the reason why.
+     *
+     * @return Rejected modifications, in the order they were submitted
+     */
+    public ImmutableMap<DataTreeModification, DataValidationFailedException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Check whether a modification submitted as part of the batch is included in {@link #getCandidate()}.
+     *
+     * @param modification Submitted modification
+     * @return True if the modification has been accepted
+     */
+    public boolean isAccepted(final DataTreeModification modification) {
+        return !failures.containsKey(modification);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("candidate", candidate).add("failures", failures.size())
+            .toString();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeSpiller;
+
+/**
+ * A {@link DataTree} which can move its cold subtrees into a more compact representation. A subtree is considered
+ * cold when it has not been modified since the previous spill pass.
+ */
+@Beta
+@NonNullByDefault
+public interface SpillingDataTree extends DataTree {
+    /**
+     * Prepare a spill pass. The resulting candidate does not change the logical content of this tree, it only replaces
+     * data of cold subtrees as directed by specified {@link TreeNodeSpiller}. It needs to be committed through
+     * {@link #commit(DataTreeCandidate)}, which will fail if this tree has been modified in the meantime, in which
+     * case the pass can be simply retried. Subtrees are considered cold with respect to the last committed pass, hence
+     * the first committed pass over a tree only records its state and does not spill anything.
+     *
+     * @param spiller Spilling policy
+     * @return A candidate, whose root is reported as {@link ModificationType#SUBTREE_MODIFIED} if any subtree has been
+     *         spilled, but which does not report any modified children
+     * @throws NullPointerException if spiller is null
+     */
+    DataTreeCandidateTip prepareSpill(TreeNodeSpiller spiller);
+}
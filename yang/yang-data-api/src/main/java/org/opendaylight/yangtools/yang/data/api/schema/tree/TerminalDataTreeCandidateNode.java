@@ -13,9 +13,8 @@ import static org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.Pa
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Optional;
-import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
 class TerminalDataTreeCandidateNode implements DataTreeCandidateNode {
@@ -57,7 +56,7 @@ class TerminalDataTreeCandidateNode implements DataTreeCandidateNode {
     @Override
     public Optional<DataTreeCandidateNode> getModifiedChild(
             PathArgument childIdentifier) {
-        return Optional.ofNullable(childNodes.get(identifier));
+        return Optional.ofNullable(childNodes.get(childIdentifier));
     }
 
     @Override
@@ -70,105 +69,35 @@ class TerminalDataTreeCandidateNode implements DataTreeCandidateNode {
         return Optional.ofNullable(after);
     }
 
-    @NonNull Optional<NormalizedNode<?, ?>> getDataAfter(PathArgument id) {
-        return getNode(id).flatMap(TerminalDataTreeCandidateNode::getDataAfter);
-    }
-
     @Override
     public Optional<NormalizedNode<?, ?>> getDataBefore() {
         return Optional.ofNullable(before);
     }
 
-    @NonNull Optional<NormalizedNode<?, ?>> getDataBefore(PathArgument id) {
-        Optional<TerminalDataTreeCandidateNode> node = getNode(id);
-        if (node.isPresent()) {
-            return node.get().getDataBefore();
-        }
-        return Optional.empty();
-    }
-
     void setAfter(NormalizedNode<?, ?> after) {
         this.after = after;
     }
 
-    void addChildNode(TerminalDataTreeCandidateNode node) {
-        childNodes.put(node.getIdentifier(), node);
-    }
-
-    void setModification(PathArgument id, ModificationType modification) {
-        Optional<TerminalDataTreeCandidateNode> node = getNode(id);
-        if (node.isEmpty()) {
-            throw new IllegalArgumentException("No node with " + id + " id was found");
-        }
-        node.get().setModification(modification);
-    }
-
-    private void setModification(ModificationType modification) {
+    void setModification(ModificationType modification) {
         this.modificationType = modification;
     }
 
-    ModificationType getModification(PathArgument id) {
-        Optional<TerminalDataTreeCandidateNode> node = getNode(id);
-        return (node.isEmpty() ? ModificationType.UNMODIFIED : node.get().getModificationType());
-    }
-
-    void deleteNode(PathArgument id) {
-        if (id == null) {
-            modificationType = ModificationType.UNMODIFIED;
-            return;
-        }
-        Optional<TerminalDataTreeCandidateNode> node = getNode(id);
-        if (node.isEmpty()) {
-            throw new IllegalArgumentException("No node with " + id + " id was found");
-        }
-        node.get().parentNode.deleteChild(id);
-    }
-
-    private void deleteChild(PathArgument id) {
-        childNodes.remove(id);
+    @Nullable TerminalDataTreeCandidateNode getChild(PathArgument id) {
+        return childNodes.get(id);
     }
 
-    @NonNull Optional<TerminalDataTreeCandidateNode> getNode(PathArgument id) {
-        if (id == null) {
-            return Optional.of(this);
-        }
-        if (childNodes.isEmpty()) {
-            return Optional.empty();
-        }
-        if (childNodes.containsKey(id)) {
-            return Optional.ofNullable(childNodes.get(id));
-        }
-        return findNode(id);
-    }
-
-    void setData(PathArgument id, NormalizedNode<?, ?> node) {
-        TerminalDataTreeCandidateNode terminalDataTreeCandidateNode = getNode(id).get();
-        terminalDataTreeCandidateNode.setAfter(node);
-    }
-
-    private @NonNull Optional<TerminalDataTreeCandidateNode> findNode(PathArgument id) {
-        Collection<HashMap<PathArgument, TerminalDataTreeCandidateNode>> nodes = new HashSet<>();
-        childNodes.forEach((childIdentifier, childNode) -> {
-            nodes.add(childNode.childNodes);
-        });
-        return findNode(nodes, id);
+    void addChildNode(TerminalDataTreeCandidateNode node) {
+        childNodes.put(node.getIdentifier(), node);
     }
 
-    private @NonNull Optional<TerminalDataTreeCandidateNode> findNode(
-            Collection<HashMap<PathArgument, TerminalDataTreeCandidateNode>> nodes,
-            PathArgument id) {
-        if (nodes.isEmpty()) {
-            return Optional.empty();
-        }
-        Collection<HashMap<PathArgument, TerminalDataTreeCandidateNode>> nextNodes = new HashSet<>();
-        for (HashMap<PathArgument, TerminalDataTreeCandidateNode> map : nodes) {
-            if (map.containsKey(id)) {
-                return Optional.ofNullable(map.get(id));
-            }
-            map.forEach((childIdentifier, childNode) -> {
-                nextNodes.add(childNode.childNodes);
-            });
+    /**
+     * Remove this node from its parent. If this is the root node, it is marked as unmodified instead.
+     */
+    void delete() {
+        if (parentNode == null) {
+            modificationType = ModificationType.UNMODIFIED;
+        } else {
+            parentNode.childNodes.remove(identifier);
         }
-        return findNode(nextNodes, id);
     }
 }
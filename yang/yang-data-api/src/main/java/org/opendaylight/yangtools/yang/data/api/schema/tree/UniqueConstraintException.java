@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Map;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier.Descendant;
+
+/**
+ * Exception thrown when {@code unique} statement restrictions are violated.
+ */
+@Beta
+@NonNullByDefault
+public final class UniqueConstraintException extends DataValidationFailedException {
+    private static final long serialVersionUID = 1L;
+
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "Descendant is not Serializable")
+    private final ImmutableMap<Descendant, Object> values;
+
+    public UniqueConstraintException(final YangInstanceIdentifier path, final Map<Descendant, Object> values,
+            final String message) {
+        super(path, message);
+        this.values = ImmutableMap.copyOf(values);
+    }
+
+    /**
+     * Return the values which were found to be not unique.
+     *
+     * @return Offending values, keyed by the {@code unique} leaf they were found at
+     */
+    public ImmutableMap<Descendant, Object> getValues() {
+        return values;
+    }
+}
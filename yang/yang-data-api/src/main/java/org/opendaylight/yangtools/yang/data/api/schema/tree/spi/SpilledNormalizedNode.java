@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import com.google.common.annotations.Beta;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * A {@link NormalizedNode} whose content is not retained on heap, but is rather recreated on demand, as produced by a
+ * {@link TreeNodeSpiller}. Such nodes are equal to their inflated counterparts, hence implementations of
+ * {@link #equals(Object)} are expected to unwrap instances of this interface via {@link #inflate()}.
+ *
+ * @param <K> Local identifier of node
+ * @param <V> Value of node
+ */
+@Beta
+public interface SpilledNormalizedNode<K extends PathArgument, V> extends NormalizedNode<K, V> {
+    /**
+     * Return the on-heap equivalent of this node. Returned object may not be cached by the implementation, hence users
+     * should retain it for the duration of their access.
+     *
+     * @return Inflated node
+     */
+    @NonNull NormalizedNode<K, V> inflate();
+}
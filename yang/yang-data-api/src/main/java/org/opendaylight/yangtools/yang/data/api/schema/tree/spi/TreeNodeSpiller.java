@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import com.google.common.annotations.Beta;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * Policy for moving cold subtrees of a data tree into a more compact representation, such as off-heap storage. It is
+ * consulted by {@code SpillingDataTree.prepareSpill()} for each subtree which has not been modified since the previous
+ * spill pass, starting from the top of the tree.
+ */
+@Beta
+@FunctionalInterface
+public interface TreeNodeSpiller {
+    /**
+     * Spill a cold subtree. Implementations can return one of three things:
+     * <ul>
+     *   <li>a replacement {@link SpilledNormalizedNode}, which will be used instead of {@code data},</li>
+     *   <li>{@code data} itself, indicating the subtree should be left alone, including all of its descendants, or</li>
+     *   <li>{@code null}, indicating this node cannot be spilled, but its children should be considered.</li>
+     * </ul>
+     *
+     * @param data Subtree data
+     * @return Replacement data, {@code data}, or {@code null}
+     */
+    @Nullable NormalizedNode<?, ?> spill(@NonNull NormalizedNode<?, ?> data);
+}
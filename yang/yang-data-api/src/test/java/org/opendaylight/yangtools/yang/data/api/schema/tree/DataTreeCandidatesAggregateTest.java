@@ -20,6 +20,8 @@ import org.junit.Test;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
 public class DataTreeCandidatesAggregateTest {
@@ -29,6 +31,12 @@ public class DataTreeCandidatesAggregateTest {
     private static final YangInstanceIdentifier.PathArgument CHILD_ID = new NodeIdentifier(QName.create(
             "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:test:container:data",
             "2014-03-13", "data"));
+    private static final QName LIST_QNAME = QName.create(
+            "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:test:container:data",
+            "2014-03-13", "list");
+    private static final QName KEY_QNAME = QName.create(LIST_QNAME, "key");
+    private static final PathArgument ENTRY1_ID = NodeIdentifierWithPredicates.of(LIST_QNAME, KEY_QNAME, "1");
+    private static final PathArgument ENTRY2_ID = NodeIdentifierWithPredicates.of(LIST_QNAME, KEY_QNAME, "2");
 
     @Test
     public void testLeafUnmodifiedUnmodified() {
@@ -1222,6 +1230,65 @@ public class DataTreeCandidatesAggregateTest {
         DataTreeCandidates.aggregate(Arrays.asList(candidate1, candidate2));
     }
 
+    @Test
+    public void testSameChildInDifferentEntries() {
+        NormalizedNode<?, ?> container = normalizedNode("container");
+        NormalizedNode<?, ?> entry1 = normalizedNode("entry1");
+        NormalizedNode<?, ?> entry2 = normalizedNode("entry2");
+
+        DataTreeCandidateNode node1 = candidateNode(null, container, container, ModificationType.SUBTREE_MODIFIED,
+            candidateNode(ENTRY1_ID, entry1, entry1, ModificationType.SUBTREE_MODIFIED,
+                candidateNode(CHILD_ID, normalizedNode("a0"), normalizedNode("a1"), ModificationType.WRITE)),
+            candidateNode(ENTRY2_ID, entry2, entry2, ModificationType.SUBTREE_MODIFIED,
+                candidateNode(CHILD_ID, normalizedNode("b0"), normalizedNode("b1"), ModificationType.WRITE)));
+        DataTreeCandidate candidate1 = new DefaultDataTreeCandidate(ROOT_PATH, node1);
+
+        // Only the child in the second entry is modified again
+        DataTreeCandidateNode node2 = candidateNode(null, container, container, ModificationType.SUBTREE_MODIFIED,
+            candidateNode(ENTRY2_ID, entry2, entry2, ModificationType.SUBTREE_MODIFIED,
+                candidateNode(CHILD_ID, normalizedNode("b1"), normalizedNode("b2"), ModificationType.WRITE)));
+        DataTreeCandidate candidate2 = new DefaultDataTreeCandidate(ROOT_PATH, node2);
+
+        DataTreeCandidateNode root = DataTreeCandidates.aggregate(Arrays.asList(candidate1, candidate2)).getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+
+        DataTreeCandidateNode child1 = root.getModifiedChild(ENTRY1_ID).get().getModifiedChild(CHILD_ID).get();
+        assertEquals(ModificationType.WRITE, child1.getModificationType());
+        assertEquals("a0", child1.getDataBefore().get().getValue());
+        assertEquals("a1", child1.getDataAfter().get().getValue());
+
+        DataTreeCandidateNode child2 = root.getModifiedChild(ENTRY2_ID).get().getModifiedChild(CHILD_ID).get();
+        assertEquals(ModificationType.WRITE, child2.getModificationType());
+        assertEquals("b0", child2.getDataBefore().get().getValue());
+        assertEquals("b2", child2.getDataAfter().get().getValue());
+    }
+
+    @Test
+    public void testChildrenRemovedDuringCleanup() {
+        NormalizedNode<?, ?> container = normalizedNode("container");
+        NormalizedNode<?, ?> entry1 = normalizedNode("entry1");
+        NormalizedNode<?, ?> entry2 = normalizedNode("entry2");
+
+        // Two entries appear and disappear, while a leaf is written
+        DataTreeCandidateNode node1 = candidateNode(null, container, container, ModificationType.SUBTREE_MODIFIED,
+            candidateNode(ENTRY1_ID, null, entry1, ModificationType.WRITE),
+            candidateNode(ENTRY2_ID, null, entry2, ModificationType.WRITE),
+            candidateNode(CHILD_ID, normalizedNode("value1"), normalizedNode("value2"), ModificationType.WRITE));
+        DataTreeCandidate candidate1 = new DefaultDataTreeCandidate(ROOT_PATH, node1);
+
+        DataTreeCandidateNode node2 = candidateNode(null, container, container, ModificationType.SUBTREE_MODIFIED,
+            candidateNode(ENTRY1_ID, entry1, null, ModificationType.DELETE),
+            candidateNode(ENTRY2_ID, entry2, null, ModificationType.DELETE));
+        DataTreeCandidate candidate2 = new DefaultDataTreeCandidate(ROOT_PATH, node2);
+
+        DataTreeCandidateNode root = DataTreeCandidates.aggregate(Arrays.asList(candidate1, candidate2)).getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+        assertEquals(1, root.getChildNodes().size());
+        assertEquals(Optional.empty(), root.getModifiedChild(ENTRY1_ID));
+        assertEquals(Optional.empty(), root.getModifiedChild(ENTRY2_ID));
+        assertEquals("value2", root.getModifiedChild(CHILD_ID).get().getDataAfter().get().getValue());
+    }
+
     private static NormalizedNode<?, ?> normalizedNode(final String value) {
         NormalizedNode<?, ?> node = mock(NormalizedNode.class);
         doReturn(value).when(node).getValue();
@@ -1239,6 +1306,18 @@ public class DataTreeCandidatesAggregateTest {
         return dataTreeCandidateNode;
     }
 
+    private static DataTreeCandidateNode candidateNode(final PathArgument identifier,
+            final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after, final ModificationType modification,
+            final DataTreeCandidateNode... children) {
+        DataTreeCandidateNode node = mock(DataTreeCandidateNode.class);
+        doReturn(identifier).when(node).getIdentifier();
+        doReturn(Optional.ofNullable(before)).when(node).getDataBefore();
+        doReturn(Optional.ofNullable(after)).when(node).getDataAfter();
+        doReturn(modification).when(node).getModificationType();
+        doReturn(Arrays.asList(children)).when(node).getChildNodes();
+        return node;
+    }
+
     private static void setChildNodes(final TerminalDataTreeCandidateNode parentNode,
                                       final List<DataTreeCandidateNode> childNodes) {
         when(parentNode.getIdentifier()).thenReturn(null);
@@ -11,6 +11,9 @@ import static com.google.common.base.Verify.verifyNotNull;
 import static java.util.Objects.requireNonNull;
 import static org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter.UNKNOWN_SIZE;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableMap;
@@ -43,6 +46,7 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdent
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.DecodingTables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
@@ -63,13 +67,32 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
     private static final byte @NonNull[] BINARY_0 = new byte[0];
     private static final @NonNull AugmentationIdentifier EMPTY_AID = AugmentationIdentifier.create(ImmutableSet.of());
 
-    private final List<AugmentationIdentifier> codedAugments = new ArrayList<>();
-    private final List<NodeIdentifier> codedNodeIdentifiers = new ArrayList<>();
-    private final List<QNameModule> codedModules = new ArrayList<>();
-    private final List<String> codedStrings = new ArrayList<>();
+    // Decimal values tend to repeat a lot (think bandwidths, percentages and similar), hence we share their instances
+    private static final int MAX_DECIMAL_CACHE_SIZE = Integer.getInteger(
+        "org.opendaylight.yangtools.yang.data.codec.binfmt.decimal-cache.max-size", 2000);
+    private static final LoadingCache<String, BigDecimal> DECIMAL_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_DECIMAL_CACHE_SIZE).weakValues().build(new CacheLoader<String, BigDecimal>() {
+                @Override
+                public BigDecimal load(final String key) {
+                    return new BigDecimal(key);
+                }
+            });
+
+    private final List<AugmentationIdentifier> codedAugments;
+    private final List<NodeIdentifier> codedNodeIdentifiers;
+    private final List<QNameModule> codedModules;
+    private final List<String> codedStrings;
 
     AbstractMagnesiumDataInput(final DataInput input) {
+        this(input, new DecodingTables());
+    }
+
+    AbstractMagnesiumDataInput(final DataInput input, final DecodingTables tables) {
         super(input);
+        codedAugments = tables.codedAugments;
+        codedNodeIdentifiers = tables.codedNodeIdentifiers;
+        codedModules = tables.codedModules;
+        codedStrings = tables.codedStrings;
     }
 
     @Override
@@ -148,21 +171,21 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         final AugmentationIdentifier augIdentifier = decodeAugmentationIdentifier(nodeHeader);
         LOG.trace("Streaming augmentation node {}", augIdentifier);
         writer.startAugmentationNode(augIdentifier);
-        commonStreamContainer(writer, augIdentifier);
+        streamNodeBody(writer, augIdentifier, false);
     }
 
     private void streamChoice(final NormalizedNodeStreamWriter writer, final byte nodeHeader) throws IOException {
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader);
         LOG.trace("Streaming choice node {}", identifier);
         writer.startChoiceNode(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, false);
     }
 
     private void streamContainer(final NormalizedNodeStreamWriter writer, final byte nodeHeader) throws IOException {
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader);
         LOG.trace("Streaming container node {}", identifier);
         writer.startContainerNode(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, true);
     }
 
     private void streamLeaf(final NormalizedNodeStreamWriter writer, final PathArgument parent, final byte nodeHeader)
@@ -195,7 +218,7 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader);
         LOG.trace("Streaming leaf set node {}", identifier);
         writer.startLeafSet(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, false);
     }
 
     private void streamLeafsetOrdered(final NormalizedNodeStreamWriter writer, final byte nodeHeader)
@@ -204,7 +227,7 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         LOG.trace("Streaming ordered leaf set node {}", identifier);
         writer.startOrderedLeafSet(identifier, UNKNOWN_SIZE);
 
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, false);
     }
 
     private void streamLeafsetEntry(final NormalizedNodeStreamWriter writer, final PathArgument parent,
@@ -221,7 +244,7 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
     private void streamList(final NormalizedNodeStreamWriter writer, final byte nodeHeader) throws IOException {
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader);
         writer.startUnkeyedList(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, false);
     }
 
     private void streamListEntry(final NormalizedNodeStreamWriter writer, final PathArgument parent,
@@ -229,21 +252,30 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader, parent);
         LOG.trace("Streaming unkeyed list item node {}", identifier);
         writer.startUnkeyedListItem(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, false);
     }
 
     private void streamMap(final NormalizedNodeStreamWriter writer, final byte nodeHeader) throws IOException {
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader);
         LOG.trace("Streaming map node {}", identifier);
         writer.startMapNode(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamMapBody(writer, identifier, nodeHeader);
     }
 
     private void streamMapOrdered(final NormalizedNodeStreamWriter writer, final byte nodeHeader) throws IOException {
         final NodeIdentifier identifier = decodeNodeIdentifier(nodeHeader);
         LOG.trace("Streaming ordered map node {}", identifier);
         writer.startOrderedMapNode(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamMapBody(writer, identifier, nodeHeader);
+    }
+
+    private void streamMapBody(final NormalizedNodeStreamWriter writer, final NodeIdentifier identifier,
+            final byte nodeHeader) throws IOException {
+        if (mask(nodeHeader, MagnesiumNode.MAP_COLUMNAR) == MagnesiumNode.MAP_COLUMNAR) {
+            streamColumnarMapBody(writer, identifier);
+        } else {
+            streamNodeBody(writer, identifier, false);
+        }
     }
 
     private void streamMapEntry(final NormalizedNodeStreamWriter writer, final PathArgument parent,
@@ -273,15 +305,50 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         final NodeIdentifierWithPredicates identifier = readNodeIdentifierWithPredicates(nodeId.getNodeType(), size);
         LOG.trace("Streaming map entry node {}", identifier);
         writer.startMapEntryNode(identifier, UNKNOWN_SIZE);
-        commonStreamContainer(writer, identifier);
+        streamNodeBody(writer, identifier, true);
+    }
+
+    /**
+     * Stream the body of an END_NODE-terminated node, i.e. its children, and end the node. The node has already been
+     * started on the writer.
+     *
+     * @param writer Writer to emit events to
+     * @param parent Identifier of the node
+     * @param deferrable {@code true} if the node is a ContainerNode or a MapEntryNode, whose decoding can be deferred
+     * @throws IOException if an error occurs
+     */
+    void streamNodeBody(final NormalizedNodeStreamWriter writer, final PathArgument parent, final boolean deferrable)
+            throws IOException {
+        streamChildren(writer, parent);
+        writer.endNode();
     }
 
-    private void commonStreamContainer(final NormalizedNodeStreamWriter writer, final PathArgument parent)
+    /**
+     * Stream the body of a {@link MagnesiumNode#NODE_MAP} or {@link MagnesiumNode#NODE_MAP_ORDERED} node encoded with
+     * {@link MagnesiumNode#MAP_COLUMNAR} and end the node. The node has already been started on the writer. Default
+     * implementation throws an {@link InvalidNormalizedNodeStreamException}, as columnar encoding is not supported by
+     * default.
+     *
+     * @param writer Writer to emit events to
+     * @param identifier Identifier of the node
+     * @throws IOException if an error occurs
+     */
+    void streamColumnarMapBody(final NormalizedNodeStreamWriter writer, final NodeIdentifier identifier)
             throws IOException {
+        throw new InvalidNormalizedNodeStreamException("Unexpected columnar map " + identifier);
+    }
+
+    /**
+     * Stream children of a node, up to and including its NODE_END token, without ending the node on the writer.
+     *
+     * @param writer Writer to emit events to
+     * @param parent Identifier of the node
+     * @throws IOException if an error occurs
+     */
+    final void streamChildren(final NormalizedNodeStreamWriter writer, final PathArgument parent) throws IOException {
         for (byte nodeType = input.readByte(); nodeType != MagnesiumNode.NODE_END; nodeType = input.readByte()) {
             streamNormalizedNode(writer, parent, nodeType);
         }
-        writer.endNode();
     }
 
     private @NonNull NodeIdentifier decodeNodeIdentifier() throws IOException {
@@ -363,11 +430,11 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
             // Note 'byte' is range limited, so it is always '&& type <= MagnesiumValue.YIID_31'
             return readYangInstanceIdentifier(type - MagnesiumValue.YIID_0);
         } else {
-            throw new InvalidNormalizedNodeStreamException("Unexpected YangInstanceIdentifier type " + type);
+            return readYangInstanceIdentifierRef(type);
         }
     }
 
-    private @NonNull YangInstanceIdentifier readYangInstanceIdentifier(final int size) throws IOException {
+    @NonNull YangInstanceIdentifier readYangInstanceIdentifier(final int size) throws IOException {
         if (size > 0) {
             final Builder<PathArgument> builder = ImmutableList.builderWithExpectedSize(size);
             for (int i = 0; i < size; ++i) {
@@ -381,6 +448,18 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         }
     }
 
+    /**
+     * Read a {@link YangInstanceIdentifier} coded as a reference, as indicated by specified type. This method is
+     * invoked for {@link MagnesiumValue#YIID_REF_1B} and similar types, which are not supported by default.
+     *
+     * @param type value type
+     * @return A YangInstanceIdentifier
+     * @throws IOException if an error occurs
+     */
+    @NonNull YangInstanceIdentifier readYangInstanceIdentifierRef(final byte type) throws IOException {
+        throw new InvalidNormalizedNodeStreamException("Unexpected YangInstanceIdentifier type " + type);
+    }
+
     @Override
     public final QName readQName() throws IOException {
         final byte type = input.readByte();
@@ -704,7 +783,7 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
         }
     }
 
-    private @NonNull Object readLeafValue() throws IOException {
+    final @NonNull Object readLeafValue() throws IOException {
         final byte type = input.readByte();
         switch (type) {
             case MagnesiumValue.BOOLEAN_FALSE:
@@ -754,8 +833,7 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
             case MagnesiumValue.UINT64_4B:
                 return Uint64.fromLongBits(input.readInt() & 0xFFFFFFFFL);
             case MagnesiumValue.BIGDECIMAL:
-                // FIXME: use string -> BigDecimal cache
-                return new BigDecimal(input.readUTF());
+                return readBigDecimal();
             case MagnesiumValue.BIGINTEGER:
                 return readBigInteger();
             case MagnesiumValue.STRING_EMPTY:
@@ -780,6 +858,13 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
                 return YangInstanceIdentifier.empty();
             case MagnesiumValue.YIID:
                 return readYangInstanceIdentifier(input.readInt());
+            case MagnesiumValue.YIID_REF_1B:
+            case MagnesiumValue.YIID_REF_2B:
+            case MagnesiumValue.YIID_REF_4B:
+            case MagnesiumValue.YIID_EXT_1B:
+            case MagnesiumValue.YIID_EXT_2B:
+            case MagnesiumValue.YIID_EXT_4B:
+                return readYangInstanceIdentifierRef(type);
             case MagnesiumValue.QNAME:
                 return decodeQName();
             case MagnesiumValue.QNAME_REF_1B:
@@ -813,6 +898,15 @@ abstract class AbstractMagnesiumDataInput extends AbstractNormalizedNodeDataInpu
 
     abstract @NonNull BigInteger readBigInteger() throws IOException;
 
+    private @NonNull BigDecimal readBigDecimal() throws IOException {
+        final String str = input.readUTF();
+        try {
+            return DECIMAL_CACHE.getUnchecked(str);
+        } catch (UncheckedExecutionException e) {
+            throw new InvalidNormalizedNodeStreamException("Invalid decimal value " + str, e);
+        }
+    }
+
     private byte @NonNull [] readBinary(final int size) throws IOException {
         if (size > 0) {
             final byte[] ret = new byte[size];
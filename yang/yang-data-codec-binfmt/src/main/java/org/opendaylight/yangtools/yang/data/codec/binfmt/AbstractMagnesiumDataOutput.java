@@ -17,7 +17,6 @@ import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,6 +42,7 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdent
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.EncodingTables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,13 +69,23 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
     private final Deque<Object> stack = new ArrayDeque<>();
 
     // Coding maps
-    private final Map<AugmentationIdentifier, Integer> aidCodeMap = new HashMap<>();
-    private final Map<QNameModule, Integer> moduleCodeMap = new HashMap<>();
-    private final Map<String, Integer> stringCodeMap = new HashMap<>();
-    private final Map<QName, Integer> qnameCodeMap = new HashMap<>();
+    private final EncodingTables tables;
+    private final Map<AugmentationIdentifier, Integer> aidCodeMap;
+    private final Map<QNameModule, Integer> moduleCodeMap;
+    private final Map<String, Integer> stringCodeMap;
+    private final Map<QName, Integer> qnameCodeMap;
 
     AbstractMagnesiumDataOutput(final DataOutput output) {
+        this(output, new EncodingTables());
+    }
+
+    AbstractMagnesiumDataOutput(final DataOutput output, final EncodingTables tables) {
         super(output);
+        this.tables = tables;
+        aidCodeMap = tables.aidCodeMap;
+        moduleCodeMap = tables.moduleCodeMap;
+        stringCodeMap = tables.stringCodeMap;
+        qnameCodeMap = tables.qnameCodeMap;
     }
 
     @Override
@@ -126,6 +136,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
     @Override
     public final void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) throws IOException {
         startInheritedNode(MagnesiumNode.NODE_LIST_ENTRY, name);
+        startNodeBody();
     }
 
     @Override
@@ -150,6 +161,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
         }
 
         writePredicates(identifier);
+        startNodeBody();
     }
 
     @Override
@@ -166,7 +178,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
     public final void startAugmentationNode(final AugmentationIdentifier identifier) throws IOException {
         final Integer code = aidCodeMap.get(identifier);
         if (code == null) {
-            aidCodeMap.put(identifier, aidCodeMap.size());
+            tables.defineAid(identifier);
             output.writeByte(MagnesiumNode.NODE_AUGMENTATION | MagnesiumNode.ADDR_DEFINE);
             final Set<QName> qnames = identifier.getPossibleChildNames();
             output.writeInt(qnames.size());
@@ -177,6 +189,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
             writeNodeType(MagnesiumNode.NODE_AUGMENTATION, code);
         }
         stack.push(identifier);
+        startNodeBody();
     }
 
     @Override
@@ -210,9 +223,30 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
     public final void endNode() throws IOException {
         if (stack.pop() instanceof PathArgument) {
             output.writeByte(MagnesiumNode.NODE_END);
+            endNodeBody();
         }
     }
 
+    /**
+     * Invoked when the header of an END_NODE-terminated node, including its identifier, has been written and its
+     * children are about to be written. Default implementation does nothing.
+     *
+     * @throws IOException if an underlying I/O error occurs
+     */
+    void startNodeBody() throws IOException {
+        // No-op by default
+    }
+
+    /**
+     * Invoked when the END_NODE marker of a node, whose body was started via {@link #startNodeBody()}, has been
+     * written. Default implementation does nothing.
+     *
+     * @throws IOException if an underlying I/O error occurs
+     */
+    void endNodeBody() throws IOException {
+        // No-op by default
+    }
+
     @Override
     public final void scalarValue(final Object value) throws IOException {
         if (KEY_LEAF_STATE.equals(stack.peek())) {
@@ -341,7 +375,16 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
         writeValue(identifier);
     }
 
-    private void writeObject(final @NonNull Object value) throws IOException {
+    final void writeYangInstanceIdentifierSize(final int size) throws IOException {
+        if (size > 31) {
+            output.writeByte(MagnesiumValue.YIID);
+            output.writeInt(size);
+        } else {
+            output.writeByte(MagnesiumValue.YIID_0 + size);
+        }
+    }
+
+    final void writeObject(final @NonNull Object value) throws IOException {
         if (value instanceof String) {
             writeValue((String) value);
         } else if (value instanceof Boolean) {
@@ -519,15 +562,9 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
         output.write(value);
     }
 
-    private void writeValue(final YangInstanceIdentifier value) throws IOException {
+    void writeValue(final YangInstanceIdentifier value) throws IOException {
         final List<PathArgument> args = value.getPathArguments();
-        final int size = args.size();
-        if (size > 31) {
-            output.writeByte(MagnesiumValue.YIID);
-            output.writeInt(size);
-        } else {
-            output.writeByte(MagnesiumValue.YIID_0 + size);
-        }
+        writeYangInstanceIdentifierSize(args.size());
         for (PathArgument arg : args) {
             writePathArgumentInternal(arg);
         }
@@ -577,6 +614,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
     private void startQNameNode(final byte type, final PathArgument name) throws IOException {
         writeQNameNode(type, name.getNodeType());
         stack.push(name);
+        startNodeBody();
     }
 
     // Start a simple node, which is not terminated through END_NODE and encode its QName
@@ -587,7 +625,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
 
     // Encode a QName-based (i.e. NodeIdentifier*) node with a particular QName. This will either result in a QName
     // definition, or a reference, where this is encoded along with the node type.
-    private void writeQNameNode(final int type, final @NonNull QName qname) throws IOException {
+    final void writeQNameNode(final int type, final @NonNull QName qname) throws IOException {
         final Integer code = qnameCodeMap.get(qname);
         if (code == null) {
             output.writeByte(type | MagnesiumNode.ADDR_DEFINE);
@@ -611,7 +649,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
     // Encode a QName using lookup tables, resuling either in a reference to an existing entry, or emitting two
     // String values.
     private void encodeQName(final @NonNull QName qname) throws IOException {
-        final Integer prev = qnameCodeMap.put(qname, qnameCodeMap.size());
+        final Integer prev = tables.defineQName(qname);
         if (prev != null) {
             throw new IOException("Internal coding error: attempted to re-encode " + qname + "%s already encoded as "
                     + prev);
@@ -620,7 +658,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
         final QNameModule module = qname.getModule();
         final Integer code = moduleCodeMap.get(module);
         if (code == null) {
-            moduleCodeMap.put(module, moduleCodeMap.size());
+            tables.defineModule(module);
             encodeString(module.getNamespace().toString());
             final Optional<Revision> rev = module.getRevision();
             if (rev.isPresent()) {
@@ -641,7 +679,7 @@ abstract class AbstractMagnesiumDataOutput extends AbstractNormalizedNodeDataOut
         if (code != null) {
             writeRef(code);
         } else {
-            stringCodeMap.put(str, stringCodeMap.size());
+            tables.defineString(str);
             writeValue(str);
         }
     }
@@ -50,10 +50,21 @@ abstract class AbstractNormalizedNodeDataOutput implements NormalizedNodeDataOut
         if (!headerWritten) {
             output.writeByte(TokenTypes.SIGNATURE_MARKER);
             output.writeShort(streamVersion());
+            writeHeaderExtension();
             headerWritten = true;
         }
     }
 
+    /**
+     * Write any version-specific information which immediately follows the stream version. Default implementation
+     * does nothing.
+     *
+     * @throws IOException if an underlying I/O error occurs
+     */
+    void writeHeaderExtension() throws IOException {
+        // No-op by default
+    }
+
     @Override
     public final void write(final int value) throws IOException {
         ensureHeaderWritten();
@@ -148,11 +159,22 @@ abstract class AbstractNormalizedNodeDataOutput implements NormalizedNodeDataOut
     public final void writeNormalizedNode(final NormalizedNode<?, ?> node) throws IOException {
         ensureHeaderWritten();
         if (normalizedNodeWriter == null) {
-            normalizedNodeWriter = NormalizedNodeWriter.forStreamWriter(this);
+            normalizedNodeWriter = newNormalizedNodeWriter();
         }
         normalizedNodeWriter.write(node);
     }
 
+    /**
+     * Create the {@link NormalizedNodeWriter} used to emit {@link #writeNormalizedNode(NormalizedNode)} events
+     * to this output. Default implementation returns {@link NormalizedNodeWriter#forStreamWriter(
+     * NormalizedNodeStreamWriter)}.
+     *
+     * @return A NormalizedNodeWriter
+     */
+    NormalizedNodeWriter newNormalizedNodeWriter() {
+        return NormalizedNodeWriter.forStreamWriter(this);
+    }
+
     @Override
     public final void writePathArgument(final PathArgument pathArgument) throws IOException {
         ensureHeaderWritten();
@@ -187,6 +209,7 @@ abstract class AbstractNormalizedNodeDataOutput implements NormalizedNodeDataOut
 
     @Override
     public final void close() throws IOException {
+        finish();
         flush();
     }
 
@@ -203,6 +226,16 @@ abstract class AbstractNormalizedNodeDataOutput implements NormalizedNodeDataOut
         return false;
     }
 
+    /**
+     * Write out any data buffered by this output and release resources associated with it. Invoked from
+     * {@link #close()} before the output is flushed for the last time.
+     *
+     * @throws IOException if an error occurs
+     */
+    void finish() throws IOException {
+        // No-op by default
+    }
+
     abstract short streamVersion();
 
     abstract void writeQNameInternal(@NonNull QName qname) throws IOException;
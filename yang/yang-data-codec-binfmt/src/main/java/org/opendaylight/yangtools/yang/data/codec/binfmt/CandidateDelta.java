@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+
+/**
+ * Differences between the before-image and the after-image of a {@link DataTreeCandidateNode} which has been written
+ * over an existing node. Differences are tracked only for nodes whose children are individually addressable in a
+ * data tree and whose order is not significant, everything else is considered to have been written as a whole.
+ */
+final class CandidateDelta {
+    private final List<PathArgument> deleted = new ArrayList<>();
+    private final List<NormalizedNode<?, ?>> written = new ArrayList<>();
+    private final Map<PathArgument, CandidateDelta> modified = new LinkedHashMap<>();
+
+    private CandidateDelta() {
+        // Hidden on purpose
+    }
+
+    /**
+     * Compute the delta of a written node.
+     *
+     * @param node Written candidate node
+     * @return A CandidateDelta, or {@code null} if the node needs to be written as a whole
+     */
+    static @Nullable CandidateDelta compute(final DataTreeCandidateNode node) {
+        final Optional<NormalizedNode<?, ?>> before = node.getDataBefore();
+        if (before.isEmpty()) {
+            return null;
+        }
+        final NormalizedNode<?, ?> after = node.getDataAfter().get();
+        return isDeltaCapable(before.get()) && isDeltaCapable(after)
+            ? compute((NormalizedNodeContainer<?, ?, ?>) before.get(), (NormalizedNodeContainer<?, ?, ?>) after) : null;
+    }
+
+    private static CandidateDelta compute(final NormalizedNodeContainer<?, ?, ?> before,
+            final NormalizedNodeContainer<?, ?, ?> after) {
+        final CandidateDelta ret = new CandidateDelta();
+        for (NormalizedNode<?, ?> child : before.getValue()) {
+            if (NormalizedNodes.getDirectChild(after, child.getIdentifier()).isEmpty()) {
+                ret.deleted.add(child.getIdentifier());
+            }
+        }
+
+        for (NormalizedNode<?, ?> afterChild : after.getValue()) {
+            final PathArgument id = afterChild.getIdentifier();
+            final Optional<NormalizedNode<?, ?>> maybeBefore = NormalizedNodes.getDirectChild(before, id);
+            if (maybeBefore.isEmpty()) {
+                ret.written.add(afterChild);
+                continue;
+            }
+
+            final NormalizedNode<?, ?> beforeChild = maybeBefore.get();
+            if (beforeChild == afterChild) {
+                continue;
+            }
+            if (isDeltaCapable(beforeChild) && isDeltaCapable(afterChild)) {
+                final CandidateDelta childDelta = compute((NormalizedNodeContainer<?, ?, ?>) beforeChild,
+                    (NormalizedNodeContainer<?, ?, ?>) afterChild);
+                if (!childDelta.isEmpty()) {
+                    ret.modified.put(id, childDelta);
+                }
+            } else if (!beforeChild.equals(afterChild)) {
+                ret.written.add(afterChild);
+            }
+        }
+        return ret;
+    }
+
+    private static boolean isDeltaCapable(final NormalizedNode<?, ?> node) {
+        if (node instanceof OrderedNodeContainer) {
+            return false;
+        }
+        return node instanceof ContainerNode || node instanceof MapEntryNode || node instanceof MapNode
+            || node instanceof AugmentationNode || node instanceof ChoiceNode || node instanceof LeafSetNode;
+    }
+
+    List<PathArgument> deleted() {
+        return deleted;
+    }
+
+    List<NormalizedNode<?, ?>> written() {
+        return written;
+    }
+
+    Map<PathArgument, CandidateDelta> modified() {
+        return modified;
+    }
+
+    boolean isEmpty() {
+        return deleted.isEmpty() && written.isEmpty() && modified.isEmpty();
+    }
+
+    int size() {
+        return deleted.size() + written.size() + modified.size();
+    }
+}
@@ -7,19 +7,26 @@
  */
 package org.opendaylight.yangtools.yang.data.codec.binfmt;
 
+import static java.util.Objects.requireNonNull;
+
 import com.google.common.annotations.Beta;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map.Entry;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.ReusableStreamReceiver;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
 import org.opendaylight.yangtools.yang.data.impl.schema.ReusableImmutableNormalizedNodeStreamWriter;
 import org.slf4j.Logger;
@@ -29,6 +36,14 @@ import org.slf4j.LoggerFactory;
  * Utility serialization/deserialization for {@link DataTreeCandidate}. Note that this utility does not maintain
  * before-image information across serialization.
  *
+ * <p>
+ * Candidates can optionally be written in delta-encoded form via
+ * {@link #writeDeltaDataTreeCandidate(NormalizedNodeDataOutput, DataTreeCandidate)}. In that form a
+ * {@link ModificationType#WRITE} which replaces an existing node is transmitted as the set of differences against its
+ * before-image and such candidates need to be read via
+ * {@link #readDataTreeCandidate(NormalizedNodeDataInput, ReusableStreamReceiver, DataTreeSnapshot)}, which
+ * reconstructs the after-image from a snapshot matching the before-image.
+ *
  * @author Robert Varga
  */
 @Beta
@@ -40,6 +55,7 @@ public final class DataTreeCandidateInputOutput {
     private static final byte WRITE = 3;
     private static final byte APPEARED = 4;
     private static final byte DISAPPEARED = 5;
+    private static final byte DELTA = 6;
 
     private DataTreeCandidateInputOutput() {
 
@@ -52,24 +68,44 @@ public final class DataTreeCandidateInputOutput {
 
     public static @NonNull DataTreeCandidate readDataTreeCandidate(final NormalizedNodeDataInput in,
             final ReusableStreamReceiver receiver) throws IOException {
+        return readDataTreeCandidate(in, receiver, null);
+    }
+
+    /**
+     * Read a {@link DataTreeCandidate}, which may have been written in delta-encoded form. Delta-encoded nodes are
+     * reconstructed from the contents of specified base snapshot, which has to match the state the candidate was
+     * prepared against.
+     *
+     * @param in Input to read from
+     * @param receiver Reusable receiver, expected to be reset
+     * @param base Base snapshot, or {@code null} if the candidate is known not to contain delta-encoded nodes
+     * @return A DataTreeCandidate
+     * @throws IOException if an error occurs
+     * @throws InvalidNormalizedNodeStreamException if a delta-encoded node is encountered and either a base snapshot
+     *                                              has not been provided or it does not contain the node
+     */
+    public static @NonNull DataTreeCandidate readDataTreeCandidate(final NormalizedNodeDataInput in,
+            final ReusableStreamReceiver receiver, final @Nullable DataTreeSnapshot base) throws IOException {
         final YangInstanceIdentifier rootPath = in.readYangInstanceIdentifier();
+        final DeltaBase delta = base == null ? null : new DeltaBase(base, rootPath);
         final byte type = in.readByte();
 
         final DataTreeCandidateNode rootNode;
         switch (type) {
             case APPEARED:
-                rootNode = ModifiedDataTreeCandidateNode.create(ModificationType.APPEARED, readChildren(in, receiver));
+                rootNode = ModifiedDataTreeCandidateNode.create(ModificationType.APPEARED,
+                    readChildren(in, receiver, delta));
                 break;
             case DELETE:
                 rootNode = DeletedDataTreeCandidateNode.create();
                 break;
             case DISAPPEARED:
                 rootNode = ModifiedDataTreeCandidateNode.create(ModificationType.DISAPPEARED,
-                    readChildren(in, receiver));
+                    readChildren(in, receiver, delta));
                 break;
             case SUBTREE_MODIFIED:
                 rootNode = ModifiedDataTreeCandidateNode.create(ModificationType.SUBTREE_MODIFIED,
-                    readChildren(in, receiver));
+                    readChildren(in, receiver, delta));
                 break;
             case WRITE:
                 rootNode = DataTreeCandidateNodes.written(in.readNormalizedNode(receiver));
@@ -77,6 +113,9 @@ public final class DataTreeCandidateInputOutput {
             case UNMODIFIED:
                 rootNode = UnmodifiedRootDataTreeCandidateNode.INSTANCE;
                 break;
+            case DELTA:
+                rootNode = readDeltaNode(in, receiver, delta, null);
+                break;
             default:
                 throw new IllegalArgumentException("Unhandled node type " + type);
         }
@@ -86,31 +125,57 @@ public final class DataTreeCandidateInputOutput {
 
     public static void writeDataTreeCandidate(final NormalizedNodeDataOutput out, final DataTreeCandidate candidate)
             throws IOException {
+        writeCandidate(out, candidate, false);
+    }
+
+    /**
+     * Write a {@link DataTreeCandidate} in delta-encoded form. Nodes which have been written over an existing node
+     * are written as differences against their before-image, hence the candidate has to provide before-images. The
+     * result needs to be read via
+     * {@link #readDataTreeCandidate(NormalizedNodeDataInput, ReusableStreamReceiver, DataTreeSnapshot)}.
+     *
+     * @param out Output to write to
+     * @param candidate Candidate to write
+     * @throws IOException if an error occurs
+     */
+    public static void writeDeltaDataTreeCandidate(final NormalizedNodeDataOutput out,
+            final DataTreeCandidate candidate) throws IOException {
+        writeCandidate(out, candidate, true);
+    }
+
+    private static void writeCandidate(final NormalizedNodeDataOutput out, final DataTreeCandidate candidate,
+            final boolean delta) throws IOException {
         out.writeYangInstanceIdentifier(candidate.getRootPath());
 
         final DataTreeCandidateNode node = candidate.getRootNode();
         switch (node.getModificationType()) {
             case APPEARED:
                 out.writeByte(APPEARED);
-                writeChildren(out, node.getChildNodes());
+                writeChildren(out, node.getChildNodes(), delta);
                 break;
             case DELETE:
                 out.writeByte(DELETE);
                 break;
             case DISAPPEARED:
                 out.writeByte(DISAPPEARED);
-                writeChildren(out, node.getChildNodes());
+                writeChildren(out, node.getChildNodes(), delta);
                 break;
             case SUBTREE_MODIFIED:
                 out.writeByte(SUBTREE_MODIFIED);
-                writeChildren(out, node.getChildNodes());
+                writeChildren(out, node.getChildNodes(), delta);
                 break;
             case UNMODIFIED:
                 out.writeByte(UNMODIFIED);
                 break;
             case WRITE:
-                out.writeByte(WRITE);
-                out.writeNormalizedNode(node.getDataAfter().get());
+                final CandidateDelta written = delta ? CandidateDelta.compute(node) : null;
+                if (written != null) {
+                    out.writeByte(DELTA);
+                    writeDelta(out, written);
+                } else {
+                    out.writeByte(WRITE);
+                    out.writeNormalizedNode(node.getDataAfter().get());
+                }
                 break;
             default:
                 throwUnhandledNodeType(node);
@@ -118,9 +183,16 @@ public final class DataTreeCandidateInputOutput {
     }
 
     private static DataTreeCandidateNode readModifiedNode(final ModificationType type, final NormalizedNodeDataInput in,
-            final ReusableStreamReceiver receiver) throws IOException {
+            final ReusableStreamReceiver receiver, final @Nullable DeltaBase delta) throws IOException {
         final PathArgument identifier = in.readPathArgument();
-        final Collection<DataTreeCandidateNode> children = readChildren(in, receiver);
+        final Collection<DataTreeCandidateNode> children;
+        if (delta != null) {
+            delta.enter(identifier);
+            children = readChildren(in, receiver, delta);
+            delta.exit();
+        } else {
+            children = readChildren(in, receiver, null);
+        }
         if (children.isEmpty()) {
             LOG.debug("Modified node {} does not have any children, not instantiating it", identifier);
             return null;
@@ -130,7 +202,7 @@ public final class DataTreeCandidateInputOutput {
     }
 
     private static Collection<DataTreeCandidateNode> readChildren(final NormalizedNodeDataInput in,
-            final ReusableStreamReceiver receiver) throws IOException {
+            final ReusableStreamReceiver receiver, final @Nullable DeltaBase delta) throws IOException {
         final int size = in.readInt();
         if (size == 0) {
             return ImmutableList.of();
@@ -138,7 +210,7 @@ public final class DataTreeCandidateInputOutput {
 
         final Collection<DataTreeCandidateNode> ret = new ArrayList<>(size);
         for (int i = 0; i < size; ++i) {
-            final DataTreeCandidateNode child = readNode(in, receiver);
+            final DataTreeCandidateNode child = readNode(in, receiver, delta);
             if (child != null) {
                 ret.add(child);
             }
@@ -147,41 +219,52 @@ public final class DataTreeCandidateInputOutput {
     }
 
     private static DataTreeCandidateNode readNode(final NormalizedNodeDataInput in,
-            final ReusableStreamReceiver receiver) throws IOException {
+            final ReusableStreamReceiver receiver, final @Nullable DeltaBase delta) throws IOException {
         final byte type = in.readByte();
         switch (type) {
             case APPEARED:
-                return readModifiedNode(ModificationType.APPEARED, in, receiver);
+                return readModifiedNode(ModificationType.APPEARED, in, receiver, delta);
             case DELETE:
                 return DeletedDataTreeCandidateNode.create(in.readPathArgument());
             case DISAPPEARED:
-                return readModifiedNode(ModificationType.DISAPPEARED, in, receiver);
+                return readModifiedNode(ModificationType.DISAPPEARED, in, receiver, delta);
             case SUBTREE_MODIFIED:
-                return readModifiedNode(ModificationType.SUBTREE_MODIFIED, in, receiver);
+                return readModifiedNode(ModificationType.SUBTREE_MODIFIED, in, receiver, delta);
             case UNMODIFIED:
                 return null;
             case WRITE:
                 return DataTreeCandidateNodes.written(in.readNormalizedNode(receiver));
+            case DELTA:
+                return readDeltaNode(in, receiver, delta, in.readPathArgument());
             default:
                 throw new IllegalArgumentException("Unhandled node type " + type);
         }
     }
 
+    private static DataTreeCandidateNode readDeltaNode(final NormalizedNodeDataInput in,
+            final ReusableStreamReceiver receiver, final @Nullable DeltaBase delta,
+            final @Nullable PathArgument identifier) throws IOException {
+        if (delta == null) {
+            throw new InvalidNormalizedNodeStreamException("Delta-encoded node encountered without a base snapshot");
+        }
+        return DataTreeCandidateNodes.written(delta.readNode(in, receiver, identifier));
+    }
+
     private static void writeChildren(final NormalizedNodeDataOutput out,
-            final Collection<DataTreeCandidateNode> children) throws IOException {
+            final Collection<DataTreeCandidateNode> children, final boolean delta) throws IOException {
         out.writeInt(children.size());
         for (DataTreeCandidateNode child : children) {
-            writeNode(out, child);
+            writeNode(out, child, delta);
         }
     }
 
-    private static void writeNode(final NormalizedNodeDataOutput out, final DataTreeCandidateNode node)
-            throws IOException {
+    private static void writeNode(final NormalizedNodeDataOutput out, final DataTreeCandidateNode node,
+            final boolean delta) throws IOException {
         switch (node.getModificationType()) {
             case APPEARED:
                 out.writeByte(APPEARED);
                 out.writePathArgument(node.getIdentifier());
-                writeChildren(out, node.getChildNodes());
+                writeChildren(out, node.getChildNodes(), delta);
                 break;
             case DELETE:
                 out.writeByte(DELETE);
@@ -190,16 +273,23 @@ public final class DataTreeCandidateInputOutput {
             case DISAPPEARED:
                 out.writeByte(DISAPPEARED);
                 out.writePathArgument(node.getIdentifier());
-                writeChildren(out, node.getChildNodes());
+                writeChildren(out, node.getChildNodes(), delta);
                 break;
             case SUBTREE_MODIFIED:
                 out.writeByte(SUBTREE_MODIFIED);
                 out.writePathArgument(node.getIdentifier());
-                writeChildren(out, node.getChildNodes());
+                writeChildren(out, node.getChildNodes(), delta);
                 break;
             case WRITE:
-                out.writeByte(WRITE);
-                out.writeNormalizedNode(node.getDataAfter().get());
+                final CandidateDelta written = delta ? CandidateDelta.compute(node) : null;
+                if (written != null) {
+                    out.writeByte(DELTA);
+                    out.writePathArgument(node.getIdentifier());
+                    writeDelta(out, written);
+                } else {
+                    out.writeByte(WRITE);
+                    out.writeNormalizedNode(node.getDataAfter().get());
+                }
                 break;
             case UNMODIFIED:
                 out.writeByte(UNMODIFIED);
@@ -209,7 +299,86 @@ public final class DataTreeCandidateInputOutput {
         }
     }
 
+    private static void writeDelta(final NormalizedNodeDataOutput out, final CandidateDelta delta)
+            throws IOException {
+        out.writeInt(delta.size());
+        for (PathArgument deleted : delta.deleted()) {
+            out.writeByte(DELETE);
+            out.writePathArgument(deleted);
+        }
+        for (NormalizedNode<?, ?> written : delta.written()) {
+            out.writeByte(WRITE);
+            out.writeNormalizedNode(written);
+        }
+        for (Entry<PathArgument, CandidateDelta> modified : delta.modified().entrySet()) {
+            out.writeByte(DELTA);
+            out.writePathArgument(modified.getKey());
+            writeDelta(out, modified.getValue());
+        }
+    }
+
     private static void throwUnhandledNodeType(final DataTreeCandidateNode node) {
         throw new IllegalArgumentException("Unhandled node type " + node.getModificationType());
     }
+
+    /**
+     * Reconstruction state of delta-encoded nodes. Differences are applied to a modification of the base snapshot,
+     * from which the after-image is read back.
+     */
+    private static final class DeltaBase {
+        private final DataTreeSnapshot snapshot;
+
+        private DataTreeModification modification;
+        private YangInstanceIdentifier current;
+
+        DeltaBase(final DataTreeSnapshot snapshot, final YangInstanceIdentifier rootPath) {
+            this.snapshot = requireNonNull(snapshot);
+            current = requireNonNull(rootPath);
+        }
+
+        void enter(final PathArgument identifier) {
+            current = current.node(identifier);
+        }
+
+        void exit() {
+            current = current.getParent();
+        }
+
+        NormalizedNode<?, ?> readNode(final NormalizedNodeDataInput in, final ReusableStreamReceiver receiver,
+                final @Nullable PathArgument identifier) throws IOException {
+            final YangInstanceIdentifier path = identifier == null ? current : current.node(identifier);
+            if (!snapshot.readNode(path).isPresent()) {
+                throw new InvalidNormalizedNodeStreamException("Base snapshot does not contain " + path);
+            }
+            if (modification == null) {
+                modification = snapshot.newModification();
+            }
+
+            applyDelta(in, receiver, path);
+            return modification.readNode(path).orElseThrow(
+                () -> new InvalidNormalizedNodeStreamException("Failed to reconstruct " + path));
+        }
+
+        private void applyDelta(final NormalizedNodeDataInput in, final ReusableStreamReceiver receiver,
+                final YangInstanceIdentifier path) throws IOException {
+            final int size = in.readInt();
+            for (int i = 0; i < size; ++i) {
+                final byte type = in.readByte();
+                switch (type) {
+                    case DELETE:
+                        modification.delete(path.node(in.readPathArgument()));
+                        break;
+                    case WRITE:
+                        final NormalizedNode<?, ?> node = in.readNormalizedNode(receiver);
+                        modification.write(path.node(node.getIdentifier()), node);
+                        break;
+                    case DELTA:
+                        applyDelta(in, receiver, path.node(in.readPathArgument()));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unhandled delta type " + type);
+                }
+            }
+        }
+    }
 }
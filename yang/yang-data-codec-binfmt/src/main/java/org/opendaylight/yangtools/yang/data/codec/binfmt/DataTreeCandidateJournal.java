@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Longs;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only journal of {@link DataTreeCandidate}s, backed by a directory. Each appended candidate is assigned a
+ * sequence number and written as a checksummed record to the journal file. Records are forced to stable storage in
+ * batches, either explicitly via {@link #sync()}, or implicitly once a configured number of records is pending.
+ *
+ * <p>
+ * A prefix of the journal can be folded into a snapshot via {@link #compact(DataTree, long)}, which aggregates the
+ * candidates using {@link DataTreeCandidates#aggregate(List)} and removes their records from the journal. Recovery via
+ * {@link #replay(DataTree)} applies the snapshot and the remaining records, hence its cost is proportional to the size
+ * of the changes rather than the length of the history.
+ *
+ * <p>
+ * Both files start with an {@code int} magic and a {@code byte} format version. The journal file is then followed by
+ * records, each laid out as
+ * <pre>
+ *   int payload length, long sequence, int CRC32 of sequence and payload
+ *   payload: a {@link NormalizedNodeStreamVersion#MAGNESIUM} stream containing the candidate
+ * </pre>
+ * The snapshot file contains a single such record, whose sequence is the last sequence folded into it. When the journal
+ * is opened, any incomplete or corrupted records at the end of the journal file, as left behind by a crash, are
+ * discarded.
+ *
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+@Beta
+public final class DataTreeCandidateJournal implements AutoCloseable {
+    /**
+     * Default number of records after which the journal is forced to stable storage.
+     */
+    public static final int DEFAULT_SYNC_BATCH_SIZE = 64;
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataTreeCandidateJournal.class);
+    private static final String JOURNAL_FILE = "journal";
+    private static final String SNAPSHOT_FILE = "snapshot";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int JOURNAL_MAGIC = 0x594E4A4C;
+    private static final int SNAPSHOT_MAGIC = 0x594E4A53;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final @NonNull Path journalFile;
+    private final @NonNull Path snapshotFile;
+    private final int syncBatchSize;
+
+    private FileChannel channel;
+    private long snapshotSequence;
+    private long lastSequence;
+    private long syncedSequence;
+
+    private DataTreeCandidateJournal(final Path directory, final int syncBatchSize, final FileChannel channel,
+            final long snapshotSequence, final long lastSequence) {
+        journalFile = directory.resolve(JOURNAL_FILE);
+        snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.syncBatchSize = syncBatchSize;
+        this.channel = requireNonNull(channel);
+        this.snapshotSequence = snapshotSequence;
+        this.lastSequence = lastSequence;
+        syncedSequence = lastSequence;
+    }
+
+    /**
+     * Open a journal in specified directory using {@link #DEFAULT_SYNC_BATCH_SIZE}.
+     *
+     * @param directory Journal directory, created if it does not exist
+     * @return An open journal
+     * @throws IOException if an I/O error occurs
+     * @throws InvalidNormalizedNodeStreamException if the directory contains invalid files
+     */
+    public static @NonNull DataTreeCandidateJournal open(final Path directory) throws IOException {
+        return open(directory, DEFAULT_SYNC_BATCH_SIZE);
+    }
+
+    /**
+     * Open a journal in specified directory.
+     *
+     * @param directory Journal directory, created if it does not exist
+     * @param syncBatchSize Number of appended records after which the journal is forced to stable storage
+     * @return An open journal
+     * @throws IOException if an I/O error occurs
+     * @throws InvalidNormalizedNodeStreamException if the directory contains invalid files
+     * @throws IllegalArgumentException if {@code syncBatchSize} is not positive
+     */
+    public static @NonNull DataTreeCandidateJournal open(final Path directory, final int syncBatchSize)
+            throws IOException {
+        checkArgument(syncBatchSize > 0, "Invalid sync batch size %s", syncBatchSize);
+        Files.createDirectories(directory);
+
+        final Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        final long snapshotSequence;
+        if (Files.exists(snapshot)) {
+            try (RecordReader reader = new RecordReader(snapshot, SNAPSHOT_MAGIC)) {
+                final Record record = reader.next();
+                if (record == null) {
+                    throw new InvalidNormalizedNodeStreamException("File " + snapshot + " is corrupted");
+                }
+                snapshotSequence = record.sequence;
+            }
+        } else {
+            snapshotSequence = 0;
+        }
+
+        final Path journal = directory.resolve(JOURNAL_FILE);
+        final FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            final long lastSequence;
+            if (channel.size() == 0) {
+                writeHeader(channel, JOURNAL_MAGIC);
+                channel.force(true);
+                lastSequence = snapshotSequence;
+            } else {
+                lastSequence = recoverJournal(journal, channel, snapshotSequence);
+            }
+            return new DataTreeCandidateJournal(directory, syncBatchSize, channel, snapshotSequence, lastSequence);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Return the sequence number of the last appended candidate.
+     *
+     * @return Last sequence number, or {@code 0} if the journal is empty
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Return the sequence number of the last candidate folded into the snapshot.
+     *
+     * @return Last folded sequence number, or {@code 0} if there is no snapshot
+     */
+    public long snapshotSequence() {
+        return snapshotSequence;
+    }
+
+    /**
+     * Append a candidate to the journal. The record is forced to stable storage once {@code syncBatchSize} records are
+     * pending, or when {@link #sync()} is invoked.
+     *
+     * @param candidate Candidate to append
+     * @return Sequence number assigned to the candidate
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if this journal has been closed
+     */
+    public long append(final DataTreeCandidate candidate) throws IOException {
+        final FileChannel local = checkOpen();
+        final long sequence = lastSequence + 1;
+        final byte[] payload = encode(candidate);
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putLong(sequence).putInt(checksum(sequence, payload)).put(payload).flip();
+        writeFully(local, buffer);
+
+        lastSequence = sequence;
+        if (lastSequence - syncedSequence >= syncBatchSize) {
+            sync();
+        }
+        return sequence;
+    }
+
+    /**
+     * Force all appended records to stable storage.
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if this journal has been closed
+     */
+    public void sync() throws IOException {
+        final FileChannel local = checkOpen();
+        if (syncedSequence != lastSequence) {
+            local.force(false);
+            syncedSequence = lastSequence;
+        }
+    }
+
+    /**
+     * Replay the snapshot and all journal records into a data tree. Candidates are applied to a single modification,
+     * which is then committed.
+     *
+     * @param dataTree Data tree to replay into, expected to be empty
+     * @return Sequence number of the last replayed candidate, or {@code 0} if there was nothing to replay
+     * @throws IOException if an I/O error occurs
+     * @throws DataValidationFailedException if the resulting modification fails to validate
+     * @throws IllegalStateException if this journal has been closed
+     */
+    public long replay(final DataTree dataTree) throws IOException, DataValidationFailedException {
+        checkOpen();
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        final long replayed = readCandidates(lastSequence,
+            candidate -> DataTreeCandidates.applyToModification(mod, candidate));
+        if (replayed != 0) {
+            mod.ready();
+            dataTree.validate(mod);
+            dataTree.commit(dataTree.prepare(mod));
+        }
+        return replayed;
+    }
+
+    /**
+     * Fold all journal records into the snapshot.
+     *
+     * @param scratch An empty data tree with the same schema as the journalled data, used to reconstruct before-images
+     * @throws IOException if an I/O error occurs
+     * @throws DataValidationFailedException if a candidate fails to apply to the scratch tree
+     * @throws IllegalStateException if this journal has been closed
+     */
+    public void compact(final DataTree scratch) throws IOException, DataValidationFailedException {
+        compact(scratch, lastSequence);
+    }
+
+    /**
+     * Fold journal records up to and including specified sequence number into the snapshot. Journalled candidates do
+     * not carry before-images, hence they are first committed to a scratch tree and the resulting candidates are then
+     * aggregated into a single candidate. The snapshot is replaced atomically, after which the folded records are
+     * removed from the journal. Should this process be interrupted, the folded records are ignored on next open.
+     *
+     * @param scratch An empty data tree with the same schema as the journalled data, used to reconstruct before-images
+     * @param sequence Last sequence number to fold
+     * @throws IOException if an I/O error occurs
+     * @throws DataValidationFailedException if a candidate fails to apply to the scratch tree
+     * @throws IllegalArgumentException if {@code sequence} is greater than {@link #lastSequence()}
+     * @throws IllegalStateException if this journal has been closed
+     */
+    public void compact(final DataTree scratch, final long sequence) throws IOException,
+            DataValidationFailedException {
+        checkArgument(sequence <= lastSequence, "Sequence %s is beyond last sequence %s", sequence, lastSequence);
+        sync();
+        if (sequence <= snapshotSequence) {
+            return;
+        }
+
+        final List<DataTreeCandidate> committed = new ArrayList<>();
+        readCandidates(sequence, candidate -> {
+            final DataTreeModification mod = scratch.takeSnapshot().newModification();
+            DataTreeCandidates.applyToModification(mod, candidate);
+            mod.ready();
+            scratch.validate(mod);
+            final DataTreeCandidateTip tip = scratch.prepare(mod);
+            scratch.commit(tip);
+            committed.add(tip);
+        });
+
+        final byte[] payload = encode(DataTreeCandidates.aggregate(committed));
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + RECORD_HEADER_SIZE + payload.length);
+        buffer.putInt(SNAPSHOT_MAGIC).put(FORMAT_VERSION)
+            .putInt(payload.length).putLong(sequence).putInt(checksum(sequence, payload)).put(payload).flip();
+        replaceFile(snapshotFile, buffer);
+        snapshotSequence = sequence;
+        LOG.debug("Journal {} compacted up to sequence {}", journalFile, sequence);
+
+        rewriteJournal(sequence);
+    }
+
+    @Override
+    public void close() throws IOException {
+        final FileChannel local = channel;
+        if (local != null) {
+            try {
+                sync();
+            } finally {
+                channel = null;
+                local.close();
+            }
+        }
+    }
+
+    private @NonNull FileChannel checkOpen() {
+        final FileChannel local = channel;
+        checkState(local != null, "Journal %s has been closed", journalFile);
+        return local;
+    }
+
+    private long readCandidates(final long upTo, final CandidateConsumer consumer)
+            throws IOException, DataValidationFailedException {
+        long last = 0;
+        if (snapshotSequence != 0) {
+            try (RecordReader reader = new RecordReader(snapshotFile, SNAPSHOT_MAGIC)) {
+                final Record record = reader.next();
+                if (record == null) {
+                    throw new InvalidNormalizedNodeStreamException("File " + snapshotFile + " is corrupted");
+                }
+                consumer.accept(decode(record.payload));
+                last = record.sequence;
+            }
+        }
+
+        try (RecordReader reader = new RecordReader(journalFile, JOURNAL_MAGIC)) {
+            Record record;
+            while ((record = reader.next()) != null && record.sequence <= upTo) {
+                if (record.sequence > snapshotSequence) {
+                    consumer.accept(decode(record.payload));
+                    last = record.sequence;
+                }
+            }
+        }
+        return last;
+    }
+
+    private void rewriteJournal(final long sequence) throws IOException {
+        final Path temp = tempFile(journalFile);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, JOURNAL_MAGIC);
+            try (RecordReader reader = new RecordReader(journalFile, JOURNAL_MAGIC)) {
+                Record record;
+                while ((record = reader.next()) != null) {
+                    if (record.sequence > sequence) {
+                        writeFully(out, record.toBuffer());
+                    }
+                }
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        channel = null;
+        try {
+            Files.move(temp, journalFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            final FileChannel reopened = FileChannel.open(journalFile, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            reopened.position(reopened.size());
+            channel = reopened;
+        }
+    }
+
+    private static long recoverJournal(final Path journal, final FileChannel channel, final long snapshotSequence)
+            throws IOException {
+        final long valid;
+        long last = snapshotSequence;
+        try (RecordReader reader = new RecordReader(journal, JOURNAL_MAGIC)) {
+            Record record;
+            while ((record = reader.next()) != null) {
+                last = Math.max(last, record.sequence);
+            }
+            valid = reader.position;
+        }
+
+        final long size = channel.size();
+        if (valid != size) {
+            LOG.warn("Journal {} has {} bytes of incomplete records at offset {}, discarding them", journal,
+                size - valid, valid);
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        channel.position(valid);
+        return last;
+    }
+
+    private static void replaceFile(final Path file, final ByteBuffer content) throws IOException {
+        final Path temp = tempFile(file);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, content);
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path tempFile(final Path file) {
+        return file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+    }
+
+    private static void writeHeader(final FileChannel channel, final int magic) throws IOException {
+        writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(magic).put(FORMAT_VERSION).flip());
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] encode(final DataTreeCandidate candidate) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            DataTreeCandidateInputOutput.writeDataTreeCandidate(out, candidate);
+        }
+        return baos.toByteArray();
+    }
+
+    private static DataTreeCandidate decode(final byte[] payload) throws IOException {
+        return DataTreeCandidateInputOutput.readDataTreeCandidate(
+            NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(payload)));
+    }
+
+    private static int checksum(final long sequence, final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(Longs.toByteArray(sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    @FunctionalInterface
+    private interface CandidateConsumer {
+        void accept(DataTreeCandidate candidate) throws IOException, DataValidationFailedException;
+    }
+
+    private static final class Record {
+        final long sequence;
+        final byte[] payload;
+        final int checksum;
+
+        Record(final long sequence, final byte[] payload, final int checksum) {
+            this.sequence = sequence;
+            this.payload = payload;
+            this.checksum = checksum;
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length).putLong(sequence).putInt(checksum).put(payload).flip();
+        }
+    }
+
+    /**
+     * Sequential reader of records. It stops at the first record which is incomplete, fails its checksum or does not
+     * have an increasing sequence number, leaving {@link #position} at its start.
+     */
+    private static final class RecordReader implements AutoCloseable {
+        private final DataInputStream input;
+        private final long size;
+
+        long position;
+        private long lastSequence;
+
+        RecordReader(final Path file, final int magic) throws IOException {
+            size = Files.size(file);
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            try {
+                if (size < HEADER_SIZE || input.readInt() != magic) {
+                    throw new InvalidNormalizedNodeStreamException("File " + file + " has an invalid header");
+                }
+                final byte version = input.readByte();
+                if (version != FORMAT_VERSION) {
+                    throw new InvalidNormalizedNodeStreamException("Unsupported journal format version " + version);
+                }
+            } catch (IOException e) {
+                input.close();
+                throw e;
+            }
+            position = HEADER_SIZE;
+        }
+
+        @Nullable Record next() throws IOException {
+            if (size - position < RECORD_HEADER_SIZE) {
+                return null;
+            }
+
+            final int length = input.readInt();
+            final long sequence = input.readLong();
+            final int checksum = input.readInt();
+            if (length < 0 || length > size - position - RECORD_HEADER_SIZE || sequence <= lastSequence) {
+                return null;
+            }
+
+            final byte[] payload = new byte[length];
+            try {
+                input.readFully(payload);
+            } catch (EOFException e) {
+                LOG.debug("File has been truncated while reading", e);
+                return null;
+            }
+            if (checksum(sequence, payload) != checksum) {
+                return null;
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+            lastSequence = sequence;
+            return new Record(sequence, payload, checksum);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
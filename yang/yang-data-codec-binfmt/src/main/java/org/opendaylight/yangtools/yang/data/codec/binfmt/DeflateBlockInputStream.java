@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An {@link InputStream} decoding blocks produced by {@link DeflateBlockOutputStream}. Blocks are read from the
+ * underlying input only when data from them is requested, hence this stream never reads past the last block needed
+ * by its user. Closing this stream releases the {@link Inflater}, but does not close the underlying input.
+ */
+final class DeflateBlockInputStream extends InputStream {
+    private final byte[] block = new byte[DeflateBlockOutputStream.BLOCK_SIZE];
+    private final byte[] compressed = new byte[DeflateBlockOutputStream.BLOCK_SIZE];
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+    private final DataInput source;
+
+    private boolean closed;
+    private int pos;
+    private int limit;
+
+    DeflateBlockInputStream(final DataInput source) {
+        this.source = requireNonNull(source);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == limit && !nextBlock()) {
+            return -1;
+        }
+        return Byte.toUnsignedInt(block[pos++]);
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == limit && !nextBlock()) {
+            return -1;
+        }
+        final int count = Math.min(len, limit - pos);
+        System.arraycopy(block, pos, bytes, off, count);
+        pos += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return limit - pos;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            inflater.end();
+        }
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream has been closed");
+        }
+
+        final int size;
+        try {
+            size = source.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        final int stored = source.readInt();
+        final int expectedCrc = source.readInt();
+        if (size <= 0 || size > block.length || stored <= 0 || stored > size) {
+            throw new InvalidNormalizedNodeStreamException("Invalid block sizes " + size + "/" + stored);
+        }
+
+        if (stored == size) {
+            source.readFully(block, 0, size);
+        } else {
+            source.readFully(compressed, 0, stored);
+            inflate(size, stored);
+        }
+
+        crc.update(block, 0, size);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new InvalidNormalizedNodeStreamException("Stream checksum mismatch: expected "
+                + Integer.toHexString(expectedCrc) + ", computed " + Integer.toHexString((int) crc.getValue()));
+        }
+
+        pos = 0;
+        limit = size;
+        return true;
+    }
+
+    private void inflate(final int size, final int stored) throws InvalidNormalizedNodeStreamException {
+        inflater.reset();
+        inflater.setInput(compressed, 0, stored);
+        int inflated = 0;
+        try {
+            while (!inflater.finished() && inflated < size) {
+                final int count = inflater.inflate(block, inflated, size - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+        } catch (DataFormatException e) {
+            throw new InvalidNormalizedNodeStreamException("Corrupted block", e);
+        }
+        if (!inflater.finished() || inflated != size) {
+            throw new InvalidNormalizedNodeStreamException("Block decompressed to " + inflated + " bytes, expected "
+                + size);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An {@link OutputStream} which splits data into blocks of at most {@link #BLOCK_SIZE} bytes and writes each of them
+ * compressed with {@link Deflater}. Each block is emitted as:
+ * <pre>
+ *   int   uncompressed size
+ *   int   stored size, equal to uncompressed size if the block is stored uncompressed
+ *   int   CRC32 of all uncompressed data written to the stream so far, including this block
+ *   byte[stored size] block data
+ * </pre>
+ * Blocks are emitted when they fill up and when this stream is closed. Flushing emits a block only when a full one is
+ * buffered, so that frequent flushes do not degrade compression. Until {@link #startBlocks()} is invoked, data is
+ * passed through to the underlying output, allowing an uncompressed header to precede the blocks.
+ *
+ * <p>
+ * Closing this stream emits the last block and releases the {@link Deflater}, but does not close the underlying
+ * output.
+ */
+final class DeflateBlockOutputStream extends OutputStream {
+    static final int BLOCK_SIZE = 65536;
+
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[BLOCK_SIZE];
+    private final CRC32 crc = new CRC32();
+    private final Deflater deflater;
+    private final DataOutput sink;
+
+    private boolean blocking;
+    private boolean closed;
+    private int count;
+
+    DeflateBlockOutputStream(final DataOutput sink, final int level) {
+        this.sink = requireNonNull(sink);
+        deflater = new Deflater(level);
+    }
+
+    /**
+     * Start emitting blocks. All data written so far has been passed to the underlying output.
+     */
+    void startBlocks() {
+        blocking = true;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        checkNotClosed();
+        if (!blocking) {
+            sink.write(value);
+            return;
+        }
+        if (count == BLOCK_SIZE) {
+            emitBlock();
+        }
+        block[count++] = (byte) value;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        checkNotClosed();
+        if (!blocking) {
+            sink.write(bytes, off, len);
+            return;
+        }
+
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (count == BLOCK_SIZE) {
+                emitBlock();
+            }
+            final int chunk = Math.min(remaining, BLOCK_SIZE - count);
+            System.arraycopy(bytes, offset, block, count, chunk);
+            count += chunk;
+            offset += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (count == BLOCK_SIZE) {
+            emitBlock();
+        }
+        flushSink();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            if (count != 0) {
+                emitBlock();
+            }
+        } finally {
+            closed = true;
+            deflater.end();
+        }
+        flushSink();
+    }
+
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream has been closed");
+        }
+    }
+
+    private void flushSink() throws IOException {
+        if (sink instanceof OutputStream) {
+            ((OutputStream) sink).flush();
+        }
+    }
+
+    private void emitBlock() throws IOException {
+        crc.update(block, 0, count);
+
+        deflater.reset();
+        deflater.setInput(block, 0, count);
+        deflater.finish();
+        int stored = 0;
+        while (!deflater.finished() && stored < count) {
+            stored += deflater.deflate(compressed, stored, count - stored);
+        }
+
+        sink.writeInt(count);
+        if (deflater.finished() && stored < count) {
+            sink.writeInt(stored);
+            sink.writeInt((int) crc.getValue());
+            sink.write(compressed, 0, stored);
+        } else {
+            // Compression did not help, store the block as-is
+            sink.writeInt(count);
+            sink.writeInt((int) crc.getValue());
+            sink.write(block, 0, count);
+        }
+        count = 0;
+    }
+}
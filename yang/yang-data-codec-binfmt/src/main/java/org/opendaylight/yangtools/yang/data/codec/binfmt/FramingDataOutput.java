@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link DataOutput} which supports length-prefixed frames. While a frame is open, all output is accumulated in
+ * a single buffer, with a placeholder for the length of each open frame, which is filled in when the frame is closed.
+ * Once the outermost frame is closed, the buffer is flushed to the underlying output. This results in each byte being
+ * copied only once, regardless of frame nesting.
+ */
+final class FramingDataOutput implements DataOutput {
+    private static final class FrameBuffer extends ByteArrayOutputStream {
+        FrameBuffer() {
+            super(4096);
+        }
+
+        int position() {
+            return count;
+        }
+
+        void patchInt(final int offset, final int value) {
+            buf[offset] = (byte) (value >>> 24);
+            buf[offset + 1] = (byte) (value >>> 16);
+            buf[offset + 2] = (byte) (value >>> 8);
+            buf[offset + 3] = (byte) value;
+        }
+
+        void flushTo(final DataOutput output) throws IOException {
+            output.write(buf, 0, count);
+            reset();
+        }
+    }
+
+    private final FrameBuffer buffer = new FrameBuffer();
+    private final DataOutputStream bufferOutput = new DataOutputStream(buffer);
+    private final DataOutput sink;
+
+    private DataOutput current;
+    private int depth;
+
+    FramingDataOutput(final DataOutput sink) {
+        this.sink = requireNonNull(sink);
+        current = sink;
+    }
+
+    /**
+     * Open a new frame, writing a placeholder for its length.
+     *
+     * @return Frame handle to be passed to {@link #closeFrame(int)}
+     * @throws IOException if an I/O error occurs
+     */
+    int openFrame() throws IOException {
+        if (depth++ == 0) {
+            current = bufferOutput;
+        }
+        final int ret = buffer.position();
+        bufferOutput.writeInt(0);
+        return ret;
+    }
+
+    /**
+     * Close a frame, filling in its length. If this is the outermost frame, accumulated data is flushed to the
+     * underlying output.
+     *
+     * @param frame Frame handle, as returned by {@link #openFrame()}
+     * @throws IOException if an I/O error occurs
+     */
+    void closeFrame(final int frame) throws IOException {
+        verify(depth > 0, "No frame is open");
+        buffer.patchInt(frame, buffer.position() - frame - Integer.BYTES);
+        if (--depth == 0) {
+            buffer.flushTo(sink);
+            current = sink;
+        }
+    }
+
+    /**
+     * Flush the underlying output, if it is an {@link OutputStream}. Data in open frames is not affected.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void flush() throws IOException {
+        if (sink instanceof OutputStream) {
+            ((OutputStream) sink).flush();
+        }
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        current.write(value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        current.write(bytes);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        current.write(bytes, off, len);
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) throws IOException {
+        current.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(final int value) throws IOException {
+        current.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(final int value) throws IOException {
+        current.writeShort(value);
+    }
+
+    @Override
+    public void writeChar(final int value) throws IOException {
+        current.writeChar(value);
+    }
+
+    @Override
+    public void writeInt(final int value) throws IOException {
+        current.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) throws IOException {
+        current.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(final float value) throws IOException {
+        current.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) throws IOException {
+        current.writeDouble(value);
+    }
+
+    @Override
+    public void writeBytes(final String str) throws IOException {
+        current.writeBytes(str);
+    }
+
+    @Override
+    public void writeChars(final String str) throws IOException {
+        current.writeChars(str);
+    }
+
+    @Override
+    public void writeUTF(final String str) throws IOException {
+        current.writeUTF(str);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.ForwardingNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+
+/**
+ * A {@link NormalizedNodeStreamWriter} which tracks the schema of the nodes being streamed and attaches it to leaf and
+ * leaf-list nodes via {@link NormalizedNodeStreamWriter#nextDataSchemaNode(DataSchemaNode)}, so that an interning-aware
+ * delegate can canonicalize their values. {@link NodeIdentifier}s are also replaced with their counterparts from the
+ * schema tree, so that decoded trees share them.
+ *
+ * <p>
+ * Nodes not known to the schema are passed through unchanged, as are all of their children.
+ */
+final class InterningNormalizedNodeStreamWriter extends ForwardingNormalizedNodeStreamWriter {
+    private final Deque<Optional<DataSchemaContextNode<?>>> stack = new ArrayDeque<>();
+    private final @NonNull NormalizedNodeStreamWriter delegate;
+    private final @NonNull DataSchemaContextNode<?> root;
+
+    InterningNormalizedNodeStreamWriter(final NormalizedNodeStreamWriter delegate,
+            final DataSchemaContextNode<?> root) {
+        this.delegate = requireNonNull(delegate);
+        this.root = requireNonNull(root);
+    }
+
+    @Override
+    protected NormalizedNodeStreamWriter delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void startLeafNode(final NodeIdentifier name) throws IOException {
+        final DataSchemaContextNode<?> child = enter(name);
+        final DataSchemaNode schema = child == null ? null : child.getDataSchemaNode();
+        if (schema instanceof LeafSchemaNode) {
+            delegate.nextDataSchemaNode(schema);
+        }
+        super.startLeafNode(canonical(child, name));
+    }
+
+    @Override
+    public void startLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        final DataSchemaContextNode<?> child = enterLeafSet(name);
+        super.startLeafSet(canonical(child, name), childSizeHint);
+    }
+
+    @Override
+    public void startOrderedLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        final DataSchemaContextNode<?> child = enterLeafSet(name);
+        super.startOrderedLeafSet(canonical(child, name), childSizeHint);
+    }
+
+    @Override
+    public void startLeafSetEntryNode(final NodeWithValue<?> name) throws IOException {
+        enter(name);
+        super.startLeafSetEntryNode(name);
+    }
+
+    @Override
+    public void startContainerNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startContainerNode(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public void startUnkeyedList(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startUnkeyedList(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startUnkeyedListItem(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public void startMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startMapNode(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+            throws IOException {
+        enter(identifier);
+        super.startMapEntryNode(identifier, childSizeHint);
+    }
+
+    @Override
+    public void startOrderedMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startOrderedMapNode(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public void startChoiceNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startChoiceNode(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public void startAugmentationNode(final AugmentationIdentifier identifier) throws IOException {
+        enter(identifier);
+        super.startAugmentationNode(identifier);
+    }
+
+    @Override
+    public boolean startAnyxmlNode(final NodeIdentifier name, final Class<?> objectModel) throws IOException {
+        final DataSchemaContextNode<?> child = enter(name);
+        if (super.startAnyxmlNode(canonical(child, name), objectModel)) {
+            return true;
+        }
+        stack.pop();
+        return false;
+    }
+
+    @Override
+    public void startYangModeledAnyXmlNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        super.startYangModeledAnyXmlNode(canonical(enter(name), name), childSizeHint);
+    }
+
+    @Override
+    public boolean startAnydataNode(final NodeIdentifier name, final Class<?> objectModel) throws IOException {
+        final DataSchemaContextNode<?> child = enter(name);
+        if (super.startAnydataNode(canonical(child, name), objectModel)) {
+            return true;
+        }
+        stack.pop();
+        return false;
+    }
+
+    @Override
+    public void endNode() throws IOException {
+        stack.pop();
+        super.endNode();
+    }
+
+    private DataSchemaContextNode<?> enterLeafSet(final NodeIdentifier name) {
+        final DataSchemaContextNode<?> child = enter(name);
+        final DataSchemaNode schema = child == null ? null : child.getDataSchemaNode();
+        if (schema instanceof LeafListSchemaNode) {
+            delegate.nextDataSchemaNode(schema);
+        }
+        return child;
+    }
+
+    private DataSchemaContextNode<?> enter(final PathArgument name) {
+        final DataSchemaContextNode<?> child;
+        final Optional<DataSchemaContextNode<?>> parent = stack.peek();
+        if (parent == null) {
+            // First node: it is described by the root we have been given, as long as it matches
+            child = name.equals(root.getIdentifier()) ? root : null;
+        } else {
+            child = parent.isPresent() ? parent.get().getChild(name) : null;
+        }
+        stack.push(Optional.ofNullable(child));
+        return child;
+    }
+
+    private static @NonNull NodeIdentifier canonical(final DataSchemaContextNode<?> schema,
+            final @NonNull NodeIdentifier name) {
+        if (schema != null) {
+            final PathArgument identifier = schema.getIdentifier();
+            if (identifier instanceof NodeIdentifier && name.equals(identifier)) {
+                return (NodeIdentifier) identifier;
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Verify.verifyNotNull;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.SpilledNormalizedNode;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumSizedDataInput.Body;
+
+/**
+ * A {@link DataContainerNode} read from a {@link NormalizedNodeStreamVersion#MAGNESIUM_SIZED} stream, whose content is
+ * decoded on first access to it. The decoded node is retained, its own children are again decoded lazily. The encoded
+ * form, which refers to the buffer of the entire enclosing node, is released once decoded.
+ *
+ * @param <K> Identifier type
+ * @param <T> Inflated node type
+ */
+abstract class LazyDataContainerNode<K extends PathArgument, T extends DataContainerNode<K>>
+        implements DataContainerNode<K>,
+                   SpilledNormalizedNode<K, Collection<DataContainerChild<? extends PathArgument, ?>>> {
+    private final K identifier;
+    private final int encodedSize;
+
+    // Set to null once inflated is set
+    private volatile @Nullable Body body;
+    private volatile T inflated;
+
+    LazyDataContainerNode(final K identifier, final Body body) {
+        this.identifier = requireNonNull(identifier);
+        this.body = requireNonNull(body);
+        encodedSize = body.length();
+    }
+
+    static LazyDataContainerNode<?, ?> of(final PathArgument identifier, final Body body) {
+        if (identifier instanceof NodeIdentifier) {
+            return new Container((NodeIdentifier) identifier, body);
+        } else if (identifier instanceof NodeIdentifierWithPredicates) {
+            return new MapEntry((NodeIdentifierWithPredicates) identifier, body);
+        } else {
+            throw new IllegalArgumentException("Unsupported identifier " + identifier);
+        }
+    }
+
+    @Override
+    public final K getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public final QName getNodeType() {
+        return identifier.getNodeType();
+    }
+
+    @Override
+    public final Collection<DataContainerChild<? extends PathArgument, ?>> getValue() {
+        return inflate().getValue();
+    }
+
+    @Override
+    public final Optional<DataContainerChild<? extends PathArgument, ?>> getChild(final PathArgument child) {
+        return inflate().getChild(child);
+    }
+
+    @Override
+    public final int size() {
+        return inflate().size();
+    }
+
+    @Override
+    public final T inflate() {
+        T local = inflated;
+        if (local == null) {
+            final Body encoded = body;
+            if (encoded == null) {
+                // Another thread has completed inflation
+                return verifyNotNull(inflated);
+            }
+
+            final NormalizedNode<?, ?> node;
+            try {
+                node = encoded.inflate(identifier);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to decode deferred node " + identifier, e);
+            }
+            inflated = local = inflatedType().cast(node);
+            body = null;
+        }
+        return local;
+    }
+
+    abstract Class<T> inflatedType();
+
+    @Override
+    public final int hashCode() {
+        return inflate().hashCode();
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof NormalizedNode)) {
+            return false;
+        }
+        final Object other = obj instanceof SpilledNormalizedNode ? ((SpilledNormalizedNode<?, ?>) obj).inflate() : obj;
+        return inflate().equals(other);
+    }
+
+    @Override
+    public final String toString() {
+        return MoreObjects.toStringHelper(this).add("identifier", identifier).add("encodedSize", encodedSize)
+            .add("inflated", inflated != null).toString();
+    }
+
+    private static final class Container extends LazyDataContainerNode<NodeIdentifier, ContainerNode>
+            implements ContainerNode {
+        Container(final NodeIdentifier identifier, final Body body) {
+            super(identifier, body);
+        }
+
+        @Override
+        Class<ContainerNode> inflatedType() {
+            return ContainerNode.class;
+        }
+    }
+
+    private static final class MapEntry extends LazyDataContainerNode<NodeIdentifierWithPredicates, MapEntryNode>
+            implements MapEntryNode {
+        MapEntry(final NodeIdentifierWithPredicates identifier, final Body body) {
+            super(identifier, body);
+        }
+
+        @Override
+        Class<MapEntryNode> inflatedType() {
+            return MapEntryNode.class;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+/**
+ * Magnesium encoding column types, used by {@link MagnesiumNode#MAP_COLUMNAR} maps. Serialized as a single byte.
+ * A columnar map body is encoded as follows:
+ * <pre>
+ *   (int)     number of entries
+ *   (byte)    number of key columns, followed by their QNames
+ *   (byte)    number of leaf columns, followed by their QNames
+ *   columns, key columns first, each holding one value for each entry
+ * </pre>
+ * Each map entry is reconstructed with its predicates taken from the key columns and has a single leaf for each key
+ * and leaf column. Counts within columns are encoded as an {@code unsigned byte} if they are less than 255, otherwise
+ * as a {@code 0xFF} byte followed by an {@code int}.
+ */
+final class MagnesiumColumn {
+    /**
+     * Each value is encoded as a {@link MagnesiumValue}.
+     */
+    static final byte PLAIN        = 0x00;
+    /**
+     * Runs of equal values. The column is encoded as a sequence of runs, each run being a count followed by
+     * a {@link MagnesiumValue}.
+     */
+    static final byte RUN_LENGTH   = 0x01;
+    /**
+     * Values drawn from a small set. The column is encoded as a count, followed by that many distinct
+     * {@link MagnesiumValue}s, followed by an index into these for each value. Indices are encoded as
+     * an {@code unsigned byte} if there are at most 256 distinct values, otherwise as an {@code unsigned short}.
+     */
+    static final byte DICTIONARY   = 0x02;
+    /**
+     * Integral values of a single type. The column is encoded as the type, i.e. {@link MagnesiumValue#INT8} through
+     * {@link MagnesiumValue#UINT64}, followed by the difference of each value from the previous one (starting from 0).
+     * Differences are calculated on their {@code long} representation and are encoded as ZigZag variable-length
+     * integers, so that small differences in either direction take a single byte.
+     */
+    static final byte DELTA        = 0x03;
+    /**
+     * String values sharing common prefixes, such as sorted names or addresses. Each value is encoded as a count of
+     * leading characters it shares with the previous value (starting with an empty string), followed by the remaining
+     * characters encoded through {@link java.io.DataOutput#writeUTF(String)}.
+     */
+    static final byte FRONT_CODED  = 0x04;
+
+    private MagnesiumColumn() {
+
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.DataInput;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_COLUMNAR} input. Columnar maps are decoded into memory and then
+ * streamed out as normal map entries.
+ */
+final class MagnesiumColumnarDataInput extends AbstractMagnesiumDataInput {
+    MagnesiumColumnarDataInput(final DataInput input) {
+        super(input);
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return NormalizedNodeStreamVersion.MAGNESIUM_COLUMNAR;
+    }
+
+    @Override
+    BigInteger readBigInteger() throws IOException {
+        throw new InvalidNormalizedNodeStreamException("BigInteger coding is not supported");
+    }
+
+    @Override
+    void streamColumnarMapBody(final NormalizedNodeStreamWriter writer, final NodeIdentifier identifier)
+            throws IOException {
+        final int size = input.readInt();
+        if (size < 0) {
+            throw new InvalidNormalizedNodeStreamException("Invalid columnar map size " + size);
+        }
+        final QName[] keys = readColumnNames();
+        final QName[] leaves = readColumnNames();
+        if (keys.length == 0) {
+            throw new InvalidNormalizedNodeStreamException("Columnar map " + identifier + " has no key columns");
+        }
+
+        final int width = keys.length + leaves.length;
+        final NodeIdentifier[] leafIds = new NodeIdentifier[width];
+        for (int i = 0; i < keys.length; ++i) {
+            leafIds[i] = NodeIdentifier.create(keys[i]);
+        }
+        for (int i = 0; i < leaves.length; ++i) {
+            leafIds[keys.length + i] = NodeIdentifier.create(leaves[i]);
+        }
+
+        final Object[][] values = new Object[width][];
+        for (int i = 0; i < width; ++i) {
+            values[i] = readColumn(size);
+        }
+
+        final QName nodeType = identifier.getNodeType();
+        for (int row = 0; row < size; ++row) {
+            final NodeIdentifierWithPredicates entryId;
+            if (keys.length == 1) {
+                entryId = NodeIdentifierWithPredicates.of(nodeType, keys[0], values[0][row]);
+            } else {
+                final ImmutableMap.Builder<QName, Object> builder = ImmutableMap.builderWithExpectedSize(keys.length);
+                for (int i = 0; i < keys.length; ++i) {
+                    builder.put(keys[i], values[i][row]);
+                }
+                entryId = NodeIdentifierWithPredicates.of(nodeType, builder.build());
+            }
+
+            writer.startMapEntryNode(entryId, width);
+            for (int i = 0; i < width; ++i) {
+                writer.startLeafNode(leafIds[i]);
+                writer.scalarValue(values[i][row]);
+                writer.endNode();
+            }
+            writer.endNode();
+        }
+        writer.endNode();
+    }
+
+    private QName[] readColumnNames() throws IOException {
+        final QName[] ret = new QName[input.readUnsignedByte()];
+        for (int i = 0; i < ret.length; ++i) {
+            ret[i] = readQName();
+        }
+        return ret;
+    }
+
+    private Object[] readColumn(final int size) throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+            case MagnesiumColumn.PLAIN:
+                return readPlainColumn(size);
+            case MagnesiumColumn.RUN_LENGTH:
+                return readRunLengthColumn(size);
+            case MagnesiumColumn.DICTIONARY:
+                return readDictionaryColumn(size);
+            case MagnesiumColumn.DELTA:
+                return readDeltaColumn(size);
+            case MagnesiumColumn.FRONT_CODED:
+                return readFrontCodedColumn(size);
+            default:
+                throw new InvalidNormalizedNodeStreamException("Invalid column type " + type);
+        }
+    }
+
+    private Object[] readPlainColumn(final int size) throws IOException {
+        final Object[] ret = new Object[size];
+        for (int i = 0; i < size; ++i) {
+            ret[i] = readLeafValue();
+        }
+        return ret;
+    }
+
+    private Object[] readRunLengthColumn(final int size) throws IOException {
+        final Object[] ret = new Object[size];
+        int offset = 0;
+        while (offset < size) {
+            final int length = readCount();
+            if (length <= 0 || length > size - offset) {
+                throw new InvalidNormalizedNodeStreamException("Invalid run length " + length + " at " + offset);
+            }
+            final Object value = readLeafValue();
+            for (int i = 0; i < length; ++i) {
+                ret[offset++] = value;
+            }
+        }
+        return ret;
+    }
+
+    private Object[] readDictionaryColumn(final int size) throws IOException {
+        final Object[] dictionary = new Object[readCount()];
+        for (int i = 0; i < dictionary.length; ++i) {
+            dictionary[i] = readLeafValue();
+        }
+
+        final Object[] ret = new Object[size];
+        final boolean wide = dictionary.length > 256;
+        for (int i = 0; i < size; ++i) {
+            final int index = wide ? input.readUnsignedShort() : input.readUnsignedByte();
+            if (index >= dictionary.length) {
+                throw new InvalidNormalizedNodeStreamException("Invalid dictionary reference " + index);
+            }
+            ret[i] = dictionary[index];
+        }
+        return ret;
+    }
+
+    private Object[] readDeltaColumn(final int size) throws IOException {
+        final byte type = input.readByte();
+        final Object[] ret = new Object[size];
+        long value = 0;
+        for (int i = 0; i < size; ++i) {
+            final long bits = readVarLong();
+            value += bits >>> 1 ^ -(bits & 1);
+            ret[i] = integerValue(type, value);
+        }
+        return ret;
+    }
+
+    private Object[] readFrontCodedColumn(final int size) throws IOException {
+        final Object[] ret = new Object[size];
+        String prev = "";
+        for (int i = 0; i < size; ++i) {
+            final int shared = readCount();
+            if (shared > prev.length()) {
+                throw new InvalidNormalizedNodeStreamException("Invalid shared prefix length " + shared + " of \""
+                    + prev + "\"");
+            }
+            final String str = prev.substring(0, shared).concat(input.readUTF());
+            ret[i] = str;
+            prev = str;
+        }
+        return ret;
+    }
+
+    private int readCount() throws IOException {
+        final int count = input.readUnsignedByte();
+        if (count < 255) {
+            return count;
+        }
+
+        final int ret = input.readInt();
+        if (ret < 0) {
+            throw new InvalidNormalizedNodeStreamException("Invalid count " + ret);
+        }
+        return ret;
+    }
+
+    private long readVarLong() throws IOException {
+        long ret = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = input.readByte();
+            ret |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return ret;
+            }
+        }
+        throw new InvalidNormalizedNodeStreamException("Malformed variable-length integer");
+    }
+
+    private static Object integerValue(final byte type, final long value) throws IOException {
+        switch (type) {
+            case MagnesiumValue.INT8:
+                return (byte) value;
+            case MagnesiumValue.INT16:
+                return (short) value;
+            case MagnesiumValue.INT32:
+                return (int) value;
+            case MagnesiumValue.INT64:
+                return value;
+            case MagnesiumValue.UINT8:
+                return Uint8.fromByteBits((byte) value);
+            case MagnesiumValue.UINT16:
+                return Uint16.fromShortBits((short) value);
+            case MagnesiumValue.UINT32:
+                return Uint32.fromIntBits((int) value);
+            case MagnesiumValue.UINT64:
+                return Uint64.fromLongBits(value);
+            default:
+                throw new InvalidNormalizedNodeStreamException("Invalid delta column type " + type);
+        }
+    }
+}
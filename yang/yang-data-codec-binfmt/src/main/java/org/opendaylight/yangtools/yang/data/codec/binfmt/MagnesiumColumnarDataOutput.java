@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_COLUMNAR} output. {@link MapNode}s written via
+ * {@link #writeNormalizedNode(NormalizedNode)} are checked for uniformity, i.e. all their entries have the same
+ * predicates and the same leaves and nothing else. Such maps are written as columns, as described by
+ * {@link MagnesiumColumn}, all others are written as usual.
+ */
+final class MagnesiumColumnarDataOutput extends AbstractMagnesiumDataOutput {
+    /**
+     * A map's entries split into columns.
+     */
+    private static final class Columns {
+        final List<QName> keys;
+        final List<QName> leaves;
+        final Object[][] values;
+        final int size;
+
+        Columns(final List<QName> keys, final List<QName> leaves, final Object[][] values, final int size) {
+            this.keys = keys;
+            this.leaves = leaves;
+            this.values = values;
+            this.size = size;
+        }
+    }
+
+    private final class ColumnarNormalizedNodeWriter extends NormalizedNodeWriter {
+        ColumnarNormalizedNodeWriter() {
+            super(MagnesiumColumnarDataOutput.this);
+        }
+
+        @Override
+        protected boolean wasProcessedAsCompositeNode(final NormalizedNode<?, ?> node) throws IOException {
+            if (node instanceof MapNode) {
+                final MapNode map = (MapNode) node;
+                final Columns columns = extractColumns(map.getValue());
+                if (columns != null) {
+                    writeColumnarMap(map instanceof OrderedMapNode ? MagnesiumNode.NODE_MAP_ORDERED
+                        : MagnesiumNode.NODE_MAP, map.getIdentifier(), columns);
+                    return true;
+                }
+            }
+            return super.wasProcessedAsCompositeNode(node);
+        }
+    }
+
+    /**
+     * Minimum number of entries a map needs to have for it to be considered for columnar encoding. Smaller maps do not
+     * amortize the column headers.
+     */
+    static final int MIN_COLUMNAR_ENTRIES = 8;
+
+    // Largest number of distinct values a DICTIONARY column can hold
+    private static final int MAX_DICTIONARY_SIZE = 65536;
+    // Longest String which is guaranteed to fit into DataOutput.writeUTF()
+    private static final int MAX_FRONT_CODED_LENGTH = 65535 / 3;
+
+    MagnesiumColumnarDataOutput(final DataOutput output) {
+        super(output);
+    }
+
+    @Override
+    short streamVersion() {
+        return TokenTypes.MAGNESIUM_COLUMNAR_VERSION;
+    }
+
+    @Override
+    void writeValue(final BigInteger value) throws IOException {
+        throw new IOException("BigInteger values are not supported");
+    }
+
+    @Override
+    NormalizedNodeWriter newNormalizedNodeWriter() {
+        return new ColumnarNormalizedNodeWriter();
+    }
+
+    void writeColumnarMap(final byte type, final NodeIdentifier identifier, final Columns columns)
+            throws IOException {
+        writeQNameNode(type | MagnesiumNode.MAP_COLUMNAR, identifier.getNodeType());
+        output.writeInt(columns.size);
+        writeColumnNames(columns.keys);
+        writeColumnNames(columns.leaves);
+        for (Object[] column : columns.values) {
+            writeColumn(column);
+        }
+    }
+
+    private void writeColumnNames(final List<QName> qnames) throws IOException {
+        output.writeByte(qnames.size());
+        for (QName qname : qnames) {
+            writeQNameInternal(qname);
+        }
+    }
+
+    private void writeColumn(final Object[] values) throws IOException {
+        int runs = 1;
+        for (int i = 1; i < values.length; ++i) {
+            if (!values[i].equals(values[i - 1])) {
+                runs++;
+            }
+        }
+        if (runs * 4 <= values.length) {
+            writeRunLengthColumn(values);
+            return;
+        }
+
+        final byte integerType = integerType(values);
+        if (integerType != MagnesiumColumn.PLAIN) {
+            writeDeltaColumn(integerType, values);
+            return;
+        }
+
+        final Map<Object, Integer> dictionary = new HashMap<>();
+        final List<Object> distinct = new ArrayList<>();
+        final int maxSize = Math.min(values.length / 2, MAX_DICTIONARY_SIZE);
+        for (Object value : values) {
+            if (dictionary.putIfAbsent(value, distinct.size()) == null) {
+                distinct.add(value);
+                if (distinct.size() > maxSize) {
+                    if (isFrontCodable(values)) {
+                        writeFrontCodedColumn(values);
+                    } else {
+                        writePlainColumn(values);
+                    }
+                    return;
+                }
+            }
+        }
+        writeDictionaryColumn(values, distinct, dictionary);
+    }
+
+    private void writePlainColumn(final Object[] values) throws IOException {
+        output.writeByte(MagnesiumColumn.PLAIN);
+        for (Object value : values) {
+            writeObject(value);
+        }
+    }
+
+    private void writeRunLengthColumn(final Object[] values) throws IOException {
+        output.writeByte(MagnesiumColumn.RUN_LENGTH);
+        int start = 0;
+        for (int i = 1; i <= values.length; ++i) {
+            if (i == values.length || !values[i].equals(values[start])) {
+                writeCount(i - start);
+                writeObject(values[start]);
+                start = i;
+            }
+        }
+    }
+
+    private void writeDictionaryColumn(final Object[] values, final List<Object> distinct,
+            final Map<Object, Integer> dictionary) throws IOException {
+        output.writeByte(MagnesiumColumn.DICTIONARY);
+        final int size = distinct.size();
+        writeCount(size);
+        for (Object value : distinct) {
+            writeObject(value);
+        }
+
+        if (size <= 256) {
+            for (Object value : values) {
+                output.writeByte(dictionary.get(value));
+            }
+        } else {
+            for (Object value : values) {
+                output.writeShort(dictionary.get(value));
+            }
+        }
+    }
+
+    private void writeDeltaColumn(final byte type, final Object[] values) throws IOException {
+        output.writeByte(MagnesiumColumn.DELTA);
+        output.writeByte(type);
+        long prev = 0;
+        for (Object value : values) {
+            final long current = ((Number) value).longValue();
+            final long delta = current - prev;
+            // ZigZag-encode the delta, so that small negative differences are small, too
+            long bits = delta << 1 ^ delta >> 63;
+            while ((bits & ~0x7FL) != 0) {
+                output.writeByte((int) (bits & 0x7F | 0x80));
+                bits >>>= 7;
+            }
+            output.writeByte((int) bits);
+            prev = current;
+        }
+    }
+
+    private void writeFrontCodedColumn(final Object[] values) throws IOException {
+        output.writeByte(MagnesiumColumn.FRONT_CODED);
+        String prev = "";
+        for (Object value : values) {
+            final String str = (String) value;
+            final int shared = sharedPrefixLength(prev, str);
+            writeCount(shared);
+            output.writeUTF(str.substring(shared));
+            prev = str;
+        }
+    }
+
+    private void writeCount(final int count) throws IOException {
+        if (count < 255) {
+            output.writeByte(count);
+        } else {
+            output.writeByte(255);
+            output.writeInt(count);
+        }
+    }
+
+    /**
+     * Determine whether a column is worth {@link MagnesiumColumn#FRONT_CODED} encoding, i.e. it consists of Strings
+     * which share, on average, at least a few leading characters with their predecessor.
+     *
+     * @param values column values
+     * @return True if the column should be front-coded
+     */
+    private static boolean isFrontCodable(final Object[] values) {
+        String prev = "";
+        long shared = 0;
+        for (Object value : values) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+            final String str = (String) value;
+            // Make sure the suffix fits into DataOutput.writeUTF()
+            if (str.length() > MAX_FRONT_CODED_LENGTH) {
+                return false;
+            }
+            shared += sharedPrefixLength(prev, str);
+            prev = str;
+        }
+        return shared >= 4L * values.length;
+    }
+
+    private static int sharedPrefixLength(final String prev, final String str) {
+        final int limit = Math.min(prev.length(), str.length());
+        int ret = 0;
+        while (ret < limit && prev.charAt(ret) == str.charAt(ret)) {
+            ret++;
+        }
+        return ret;
+    }
+
+    /**
+     * Determine the {@link MagnesiumColumn#DELTA} type of a column.
+     *
+     * @param values column values
+     * @return Value type, or {@link MagnesiumColumn#PLAIN} if the values are not integral values of the same type
+     */
+    private static byte integerType(final Object[] values) {
+        final Class<?> type = values[0].getClass();
+        for (Object value : values) {
+            if (value.getClass() != type) {
+                return MagnesiumColumn.PLAIN;
+            }
+        }
+
+        if (type == Integer.class) {
+            return MagnesiumValue.INT32;
+        } else if (type == Long.class) {
+            return MagnesiumValue.INT64;
+        } else if (type == Short.class) {
+            return MagnesiumValue.INT16;
+        } else if (type == Byte.class) {
+            return MagnesiumValue.INT8;
+        } else if (type == Uint32.class) {
+            return MagnesiumValue.UINT32;
+        } else if (type == Uint64.class) {
+            return MagnesiumValue.UINT64;
+        } else if (type == Uint16.class) {
+            return MagnesiumValue.UINT16;
+        } else if (type == Uint8.class) {
+            return MagnesiumValue.UINT8;
+        } else {
+            return MagnesiumColumn.PLAIN;
+        }
+    }
+
+    /**
+     * Split entries of a map into columns, if they are uniform.
+     *
+     * @param entries map entries
+     * @return Columns, or null if the entries are not uniform or there are too few of them
+     */
+    static @Nullable Columns extractColumns(final Collection<MapEntryNode> entries) {
+        final int size = entries.size();
+        if (size < MIN_COLUMNAR_ENTRIES) {
+            return null;
+        }
+
+        // The first entry determines the columns
+        final MapEntryNode first = entries.iterator().next();
+        final List<QName> keys = new ArrayList<>(first.getIdentifier().keySet());
+        final List<QName> leaves = new ArrayList<>();
+        for (DataContainerChild<?, ?> child : first.getValue()) {
+            if (!(child instanceof LeafNode)) {
+                return null;
+            }
+            final QName qname = child.getNodeType();
+            if (!keys.contains(qname)) {
+                leaves.add(qname);
+            }
+        }
+
+        final int width = keys.size() + leaves.size();
+        if (keys.isEmpty() || keys.size() > 255 || leaves.size() > 255 || first.getValue().size() != width) {
+            return null;
+        }
+
+        final NodeIdentifier[] leafIds = new NodeIdentifier[width];
+        for (int i = 0; i < keys.size(); ++i) {
+            leafIds[i] = NodeIdentifier.create(keys.get(i));
+        }
+        for (int i = 0; i < leaves.size(); ++i) {
+            leafIds[keys.size() + i] = NodeIdentifier.create(leaves.get(i));
+        }
+
+        final Object[][] values = new Object[width][size];
+        int row = 0;
+        for (MapEntryNode entry : entries) {
+            final NodeIdentifierWithPredicates predicates = entry.getIdentifier();
+            if (predicates.size() != keys.size() || entry.getValue().size() != width) {
+                return null;
+            }
+
+            int col = 0;
+            for (Entry<QName, Object> predicate : predicates.entrySet()) {
+                // Key leaves are not encoded, hence they need to match the predicates
+                if (!predicate.getKey().equals(keys.get(col))
+                        || !predicate.getValue().equals(leafValue(entry, leafIds[col]))) {
+                    return null;
+                }
+                values[col++][row] = predicate.getValue();
+            }
+            for (; col < width; ++col) {
+                final Object value = leafValue(entry, leafIds[col]);
+                if (value == null) {
+                    return null;
+                }
+                values[col][row] = value;
+            }
+            row++;
+        }
+
+        return new Columns(keys, leaves, values, size);
+    }
+
+    private static @Nullable Object leafValue(final MapEntryNode entry, final NodeIdentifier leafId) {
+        final Optional<DataContainerChild<? extends PathArgument, ?>> child = entry.getChild(leafId);
+        return child.isPresent() && child.get() instanceof LeafNode ? child.get().getValue() : null;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_COMPRESSED} input. Everything after the stream version is decompressed
+ * via a {@link DeflateBlockInputStream}.
+ */
+final class MagnesiumCompressedDataInput extends AbstractMagnesiumDataInput {
+    MagnesiumCompressedDataInput(final DataInput input) {
+        super(new DataInputStream(new DeflateBlockInputStream(input)));
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED;
+    }
+
+    @Override
+    BigInteger readBigInteger() throws IOException {
+        throw new InvalidNormalizedNodeStreamException("BigInteger coding is not supported");
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.zip.Deflater;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.EncodingTables;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_COMPRESSED} output. Everything after the stream version is compressed
+ * via a {@link DeflateBlockOutputStream}.
+ */
+final class MagnesiumCompressedDataOutput extends AbstractMagnesiumDataOutput {
+    private final DeflateBlockOutputStream blocks;
+
+    private MagnesiumCompressedDataOutput(final DeflateBlockOutputStream blocks) {
+        super(new DataOutputStream(blocks), new EncodingTables());
+        this.blocks = blocks;
+    }
+
+    MagnesiumCompressedDataOutput(final DataOutput output) {
+        // Favor throughput: the stream is highly repetitive, hence even the fastest level yields most of the savings
+        this(new DeflateBlockOutputStream(output, Deflater.BEST_SPEED));
+    }
+
+    @Override
+    short streamVersion() {
+        return TokenTypes.MAGNESIUM_COMPRESSED_VERSION;
+    }
+
+    @Override
+    void writeHeaderExtension() {
+        blocks.startBlocks();
+    }
+
+    @Override
+    void finish() throws IOException {
+        blocks.close();
+    }
+
+    @Override
+    void writeValue(final BigInteger value) throws IOException {
+        throw new IOException("BigInteger values are not supported");
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.model.api.ActionDefinition;
+import org.opendaylight.yangtools.yang.model.api.ActionNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.CaseSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.model.api.IdentitySchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.NotificationDefinition;
+import org.opendaylight.yangtools.yang.model.api.NotificationNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.OperationDefinition;
+import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
+
+/**
+ * A long-lived coding dictionary for shared-dictionary {@link NormalizedNodeStreamVersion#MAGNESIUM} streams. Unlike
+ * the per-stream tables used by plain {@link NormalizedNodeStreamVersion#MAGNESIUM} streams, entries defined while
+ * writing (or reading) a stream are retained and subsequent streams refer to them by their code, hence a sequence of
+ * messages between a single producer and a single consumer pays the cost of defining a QName, QNameModule, String or
+ * AugmentationIdentifier only once.
+ *
+ * <p>
+ * Each side of the exchange maintains its own instance, both of which need to be created from the same seed, i.e.
+ * either both via {@link #create()} or both via {@link #create(EffectiveModelContext)} with equivalent models. An
+ * instance becomes bound to the encoding or decoding role on first use via {@link #newDataOutput(DataOutput)} or
+ * {@link #newDataInput(DataInput)} and cannot be used in the other role afterwards.
+ *
+ * <p>
+ * Each stream carries a fingerprint of the seed and the sizes of the tables it was written against, which the reader
+ * verifies before decoding anything. A stream which was not consumed in its entirety, for example because the writer
+ * failed mid-way, leaves the two dictionaries out of sync -- this is detected on the next stream and both sides need
+ * to start over with fresh dictionaries.
+ *
+ * <p>
+ * This class is not thread-safe, streams using the same dictionary need to be processed one at a time and in the
+ * order in which they were produced.
+ */
+@Beta
+public final class MagnesiumDictionary {
+    /**
+     * Encoding side of the dictionary. Codes are assigned in definition order.
+     */
+    static class EncodingTables {
+        final Map<AugmentationIdentifier, Integer> aidCodeMap = new HashMap<>();
+        final Map<QNameModule, Integer> moduleCodeMap = new HashMap<>();
+        final Map<String, Integer> stringCodeMap = new HashMap<>();
+        final Map<QName, Integer> qnameCodeMap = new HashMap<>();
+
+        EncodingTables() {
+            // Empty tables
+        }
+
+        EncodingTables(final List<QNameModule> modules, final List<QName> qnames) {
+            for (QNameModule module : modules) {
+                moduleCodeMap.put(module, moduleCodeMap.size());
+            }
+            for (QName qname : qnames) {
+                qnameCodeMap.putIfAbsent(qname, qnameCodeMap.size());
+            }
+        }
+
+        void defineAid(final AugmentationIdentifier aid) {
+            aidCodeMap.put(aid, aidCodeMap.size());
+        }
+
+        void defineModule(final QNameModule module) {
+            moduleCodeMap.put(module, moduleCodeMap.size());
+        }
+
+        void defineString(final String str) {
+            stringCodeMap.put(str, stringCodeMap.size());
+        }
+
+        Integer defineQName(final QName qname) {
+            return qnameCodeMap.putIfAbsent(qname, qnameCodeMap.size());
+        }
+
+        void writeSizes(final DataOutput output) throws IOException {
+            output.writeInt(aidCodeMap.size());
+            output.writeInt(moduleCodeMap.size());
+            output.writeInt(stringCodeMap.size());
+            output.writeInt(qnameCodeMap.size());
+        }
+    }
+
+    /**
+     * Decoding side of the dictionary.
+     */
+    static final class DecodingTables {
+        final List<AugmentationIdentifier> codedAugments;
+        final List<NodeIdentifier> codedNodeIdentifiers;
+        final List<QNameModule> codedModules;
+        final List<String> codedStrings;
+
+        DecodingTables() {
+            this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        }
+
+        DecodingTables(final List<QNameModule> modules, final List<QName> qnames) {
+            this();
+            codedModules.addAll(modules);
+            for (QName qname : qnames) {
+                codedNodeIdentifiers.add(NodeIdentifier.create(qname));
+            }
+        }
+
+        DecodingTables(final List<AugmentationIdentifier> codedAugments,
+                final List<NodeIdentifier> codedNodeIdentifiers, final List<QNameModule> codedModules,
+                final List<String> codedStrings) {
+            this.codedAugments = requireNonNull(codedAugments);
+            this.codedNodeIdentifiers = requireNonNull(codedNodeIdentifiers);
+            this.codedModules = requireNonNull(codedModules);
+            this.codedStrings = requireNonNull(codedStrings);
+        }
+
+        void verifySizes(final DataInput input) throws IOException {
+            verifySize("AugmentationIdentifier", codedAugments, input.readInt());
+            verifySize("QNameModule", codedModules, input.readInt());
+            verifySize("String", codedStrings, input.readInt());
+            verifySize("QName", codedNodeIdentifiers, input.readInt());
+        }
+
+        private static void verifySize(final String table, final List<?> entries, final int expected)
+                throws InvalidNormalizedNodeStreamException {
+            if (entries.size() != expected) {
+                throw new InvalidNormalizedNodeStreamException("Dictionary out of sync: stream expects " + expected
+                    + " " + table + " entries, dictionary has " + entries.size());
+            }
+        }
+    }
+
+    private final @NonNull ImmutableList<QNameModule> seedModules;
+    private final @NonNull ImmutableList<QName> seedQNames;
+    private final int fingerprint;
+
+    private EncodingTables encodingTables;
+    private DecodingTables decodingTables;
+
+    private MagnesiumDictionary(final ImmutableList<QNameModule> seedModules, final ImmutableList<QName> seedQNames) {
+        this.seedModules = requireNonNull(seedModules);
+        this.seedQNames = requireNonNull(seedQNames);
+
+        // Note: we are using String.hashCode(), as its value is well-defined and therefore does not vary between JVMs
+        int hash = seedModules.size();
+        for (QNameModule module : seedModules) {
+            hash = 31 * hash + module.toString().hashCode();
+        }
+        for (QName qname : seedQNames) {
+            hash = 31 * hash + qname.toString().hashCode();
+        }
+        fingerprint = hash;
+    }
+
+    /**
+     * Create a new dictionary with no initial entries.
+     *
+     * @return A new dictionary
+     */
+    public static @NonNull MagnesiumDictionary create() {
+        return new MagnesiumDictionary(ImmutableList.of(), ImmutableList.of());
+    }
+
+    /**
+     * Create a new dictionary pre-seeded with QNameModules of all modules in an {@link EffectiveModelContext} and
+     * QNames of all data nodes, operations, notifications and identities defined in it. Entries are assigned in their
+     * natural order, hence two dictionaries created from equivalent models are guaranteed to be compatible.
+     *
+     * @param modelContext model context to seed from
+     * @return A new dictionary
+     * @throws NullPointerException if {@code modelContext} is null
+     */
+    public static @NonNull MagnesiumDictionary create(final EffectiveModelContext modelContext) {
+        final TreeSet<QNameModule> modules = new TreeSet<>();
+        final TreeSet<QName> qnames = new TreeSet<>();
+        for (Module module : modelContext.getModules()) {
+            modules.add(module.getQNameModule());
+            collectChildren(qnames, module);
+            for (RpcDefinition rpc : module.getRpcs()) {
+                collectOperation(qnames, rpc);
+            }
+            for (IdentitySchemaNode identity : module.getIdentities()) {
+                qnames.add(identity.getQName());
+            }
+        }
+        return new MagnesiumDictionary(ImmutableList.copyOf(modules), ImmutableList.copyOf(qnames));
+    }
+
+    /**
+     * Create a new {@link NormalizedNodeDataOutput} writing a shared-dictionary
+     * {@link NormalizedNodeStreamVersion#MAGNESIUM} stream using this dictionary. Such streams can only be read by
+     * {@link #newDataInput(DataInput)} on a dictionary matching this one.
+     *
+     * @param output the DataOutput to write to
+     * @return a new {@link NormalizedNodeDataOutput} instance
+     * @throws NullPointerException if {@code output} is null
+     * @throws IllegalStateException if this dictionary has already been used for decoding
+     */
+    public @NonNull NormalizedNodeDataOutput newDataOutput(final @NonNull DataOutput output) {
+        return new MagnesiumSharedDataOutput(output, this);
+    }
+
+    /**
+     * Create a new {@link NormalizedNodeDataInput} instance that reads from the given input. This method first reads
+     * and validates that the input contains a valid NormalizedNode stream. If the stream is a
+     * shared-dictionary stream, it is decoded using this dictionary. Such a stream reports
+     * {@link NormalizedNodeStreamVersion#MAGNESIUM} as its version.
+     *
+     * @param input the DataInput to read from
+     * @return a new {@link NormalizedNodeDataInput} instance
+     * @throws InvalidNormalizedNodeStreamException if the stream version is not supported or the stream does not match
+     *                                              this dictionary
+     * @throws IOException if an error occurs reading from the input
+     * @throws IllegalStateException if the stream requires this dictionary and it has already been used for encoding
+     */
+    public @NonNull NormalizedNodeDataInput newDataInput(final @NonNull DataInput input) throws IOException {
+        return new VersionedNormalizedNodeDataInput(input, this).delegate();
+    }
+
+    int fingerprint() {
+        return fingerprint;
+    }
+
+    @NonNull EncodingTables encodingTables() {
+        checkState(decodingTables == null, "Dictionary %s is already used for decoding", this);
+        EncodingTables local = encodingTables;
+        if (local == null) {
+            encodingTables = local = new EncodingTables(seedModules, seedQNames);
+        }
+        return local;
+    }
+
+    @NonNull DecodingTables decodingTables() {
+        checkState(encodingTables == null, "Dictionary %s is already used for encoding", this);
+        DecodingTables local = decodingTables;
+        if (local == null) {
+            decodingTables = local = new DecodingTables(seedModules, seedQNames);
+        }
+        return local;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+            .add("fingerprint", Integer.toHexString(fingerprint))
+            .add("seedModules", seedModules.size())
+            .add("seedQNames", seedQNames.size())
+            .add("role", encodingTables != null ? "encoding" : decodingTables != null ? "decoding" : null)
+            .toString();
+    }
+
+    private static void collectChildren(final Collection<QName> qnames, final DataNodeContainer container) {
+        for (DataSchemaNode child : container.getChildNodes()) {
+            collectNode(qnames, child);
+        }
+        if (container instanceof ActionNodeContainer) {
+            for (ActionDefinition action : ((ActionNodeContainer) container).getActions()) {
+                collectOperation(qnames, action);
+            }
+        }
+        if (container instanceof NotificationNodeContainer) {
+            for (NotificationDefinition notif : ((NotificationNodeContainer) container).getNotifications()) {
+                qnames.add(notif.getQName());
+                collectChildren(qnames, notif);
+            }
+        }
+    }
+
+    private static void collectNode(final Collection<QName> qnames, final DataSchemaNode node) {
+        qnames.add(node.getQName());
+        if (node instanceof DataNodeContainer) {
+            collectChildren(qnames, (DataNodeContainer) node);
+        } else if (node instanceof ChoiceSchemaNode) {
+            for (CaseSchemaNode caseNode : ((ChoiceSchemaNode) node).getCases()) {
+                collectNode(qnames, caseNode);
+            }
+        }
+    }
+
+    private static void collectOperation(final Collection<QName> qnames, final OperationDefinition operation) {
+        qnames.add(operation.getQName());
+        collectNode(qnames, operation.getInput());
+        collectNode(qnames, operation.getOutput());
+    }
+}
@@ -149,6 +149,14 @@ final class MagnesiumNode {
     static final byte PREDICATE_4B    = (byte) (PREDICATE_ONE | PREDICATE_1B);
     static final byte PREDICATE_MASK  = PREDICATE_4B;
 
+    /**
+     * Columnar body: the {@link #NODE_MAP} or {@link #NODE_MAP_ORDERED} identifier is followed by its entries encoded
+     * column by column, as described by {@link MagnesiumColumn}, rather than by a sequence of {@link #NODE_MAP_ENTRY}
+     * nodes terminated by {@link #NODE_END}. Only valid in
+     * {@link NormalizedNodeStreamVersion#MAGNESIUM_COLUMNAR} streams.
+     */
+    static final byte MAP_COLUMNAR    = PREDICATE_ONE;
+
     private MagnesiumNode() {
 
     }
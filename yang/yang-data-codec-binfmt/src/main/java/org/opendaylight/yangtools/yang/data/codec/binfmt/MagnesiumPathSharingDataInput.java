@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_PATH_SHARING} input. Identifiers are built incrementally via
+ * {@link YangInstanceIdentifier#node(YangInstanceIdentifier.PathArgument)}, so that each decoded identifier shares its
+ * parent with previously-decoded identifiers and references to already-decoded identifiers do not allocate.
+ */
+final class MagnesiumPathSharingDataInput extends AbstractMagnesiumDataInput {
+    private final List<YangInstanceIdentifier> codedIdentifiers = new ArrayList<>();
+
+    MagnesiumPathSharingDataInput(final DataInput input) {
+        super(input);
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return NormalizedNodeStreamVersion.MAGNESIUM_PATH_SHARING;
+    }
+
+    @Override
+    BigInteger readBigInteger() throws IOException {
+        throw new InvalidNormalizedNodeStreamException("BigInteger coding is not supported");
+    }
+
+    @Override
+    YangInstanceIdentifier readYangInstanceIdentifier(final int size) throws IOException {
+        return readSuffix(YangInstanceIdentifier.empty(), size);
+    }
+
+    @Override
+    YangInstanceIdentifier readYangInstanceIdentifierRef(final byte type) throws IOException {
+        switch (type) {
+            case MagnesiumValue.YIID_REF_1B:
+                return lookupIdentifier(input.readUnsignedByte());
+            case MagnesiumValue.YIID_REF_2B:
+                return lookupIdentifier(input.readUnsignedShort() + 256);
+            case MagnesiumValue.YIID_REF_4B:
+                return lookupIdentifier(input.readInt());
+            case MagnesiumValue.YIID_EXT_1B:
+                return readSuffix(lookupIdentifier(input.readUnsignedByte()));
+            case MagnesiumValue.YIID_EXT_2B:
+                return readSuffix(lookupIdentifier(input.readUnsignedShort() + 256));
+            case MagnesiumValue.YIID_EXT_4B:
+                return readSuffix(lookupIdentifier(input.readInt()));
+            default:
+                return super.readYangInstanceIdentifierRef(type);
+        }
+    }
+
+    private @NonNull YangInstanceIdentifier readSuffix(final YangInstanceIdentifier prefix) throws IOException {
+        final byte type = input.readByte();
+        if (type == MagnesiumValue.YIID) {
+            return readSuffix(prefix, input.readInt());
+        } else if (type >= MagnesiumValue.YIID_0) {
+            // Note 'byte' is range limited, so it is always '&& type <= MagnesiumValue.YIID_31'
+            return readSuffix(prefix, type - MagnesiumValue.YIID_0);
+        } else {
+            throw new InvalidNormalizedNodeStreamException("Unexpected YangInstanceIdentifier suffix type " + type);
+        }
+    }
+
+    private @NonNull YangInstanceIdentifier readSuffix(final YangInstanceIdentifier prefix, final int size)
+            throws IOException {
+        if (size < 0) {
+            throw new InvalidNormalizedNodeStreamException("Invalid YangInstanceIdentifier size " + size);
+        }
+
+        YangInstanceIdentifier result = prefix;
+        for (int i = 0; i < size; ++i) {
+            result = result.node(readPathArgument());
+            codedIdentifiers.add(result);
+        }
+        return result;
+    }
+
+    private @NonNull YangInstanceIdentifier lookupIdentifier(final int index) throws IOException {
+        try {
+            return codedIdentifiers.get(index);
+        } catch (IndexOutOfBoundsException e) {
+            throw new InvalidNormalizedNodeStreamException("Invalid YangInstanceIdentifier reference " + index, e);
+        }
+    }
+}
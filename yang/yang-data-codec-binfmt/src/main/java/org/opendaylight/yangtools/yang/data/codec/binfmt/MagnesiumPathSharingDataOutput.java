@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_PATH_SHARING} output. Each {@link YangInstanceIdentifier} is coded
+ * relative to the longest prefix which has already been coded in this stream, defining references to all of its
+ * previously-unseen prefixes in the process. Coded prefixes are tracked in a trie keyed by {@link PathArgument}, so
+ * that finding the longest prefix does not need to instantiate any identifiers.
+ */
+final class MagnesiumPathSharingDataOutput extends AbstractMagnesiumDataOutput {
+    /**
+     * A coded identifier, forming a trie rooted at the empty identifier.
+     */
+    private static final class CodedPrefix {
+        private final Map<PathArgument, CodedPrefix> children = new HashMap<>();
+        private final int ref;
+
+        CodedPrefix(final int ref) {
+            this.ref = ref;
+        }
+
+        CodedPrefix lookupChild(final PathArgument arg) {
+            return children.get(arg);
+        }
+
+        CodedPrefix addChild(final PathArgument arg, final int childRef) {
+            final CodedPrefix child = new CodedPrefix(childRef);
+            children.put(arg, child);
+            return child;
+        }
+    }
+
+    private final CodedPrefix emptyPrefix = new CodedPrefix(-1);
+    // Reference numbers are assigned by counting definitions, which is what the reader does, too
+    private int nextRef;
+
+    MagnesiumPathSharingDataOutput(final DataOutput output) {
+        super(output);
+    }
+
+    @Override
+    short streamVersion() {
+        return TokenTypes.MAGNESIUM_PATH_SHARING_VERSION;
+    }
+
+    @Override
+    void writeValue(final BigInteger value) throws IOException {
+        throw new IOException("BigInteger values are not supported");
+    }
+
+    @Override
+    void writeValue(final YangInstanceIdentifier value) throws IOException {
+        final List<PathArgument> args = value.getPathArguments();
+        final int size = args.size();
+
+        // Find the longest prefix we have already coded
+        CodedPrefix prefix = emptyPrefix;
+        int depth = 0;
+        for (PathArgument arg : args) {
+            final CodedPrefix child = prefix.lookupChild(arg);
+            if (child == null) {
+                break;
+            }
+            prefix = child;
+            depth++;
+        }
+
+        if (depth == 0) {
+            writeYangInstanceIdentifierSize(size);
+        } else if (depth == size) {
+            writeRef(MagnesiumValue.YIID_REF_1B, prefix.ref);
+            return;
+        } else {
+            writeRef(MagnesiumValue.YIID_EXT_1B, prefix.ref);
+            writeYangInstanceIdentifierSize(size - depth);
+        }
+
+        for (PathArgument arg : args.subList(depth, size)) {
+            writePathArgumentInternal(arg);
+            prefix = prefix.addChild(arg, nextRef++);
+        }
+    }
+
+    private void writeRef(final byte refType, final int ref) throws IOException {
+        // Relies on 1B, 2B and 4B variants being adjacent
+        if (ref < 256) {
+            output.writeByte(refType);
+            output.writeByte(ref);
+        } else if (ref < 65792) {
+            output.writeByte(refType + 1);
+            output.writeShort(ref - 256);
+        } else {
+            output.writeByte(refType + 2);
+            output.writeInt(ref);
+        }
+    }
+}
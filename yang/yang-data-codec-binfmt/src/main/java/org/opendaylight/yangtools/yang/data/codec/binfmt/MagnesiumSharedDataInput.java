@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.DecodingTables;
+
+/**
+ * Shared-dictionary variant of {@link NormalizedNodeStreamVersion#MAGNESIUM} input, decoding against
+ * a {@link MagnesiumDictionary}. The stream uses {@link NormalizedNodeStreamVersion#MAGNESIUM} coding, hence it reports
+ * that as its version.
+ */
+final class MagnesiumSharedDataInput extends AbstractMagnesiumDataInput {
+    private MagnesiumSharedDataInput(final DataInput input, final DecodingTables tables) {
+        super(input, tables);
+    }
+
+    /**
+     * Verify stream header extension against a dictionary and instantiate a reader for the rest of the stream.
+     *
+     * @param input the DataInput to read from, positioned just after stream version
+     * @param dictionary the dictionary to use
+     * @return A new reader
+     * @throws InvalidNormalizedNodeStreamException if the stream does not match the dictionary
+     * @throws IOException if an error occurs reading from the input
+     */
+    static MagnesiumSharedDataInput create(final DataInput input, final MagnesiumDictionary dictionary)
+            throws IOException {
+        final DecodingTables tables = dictionary.decodingTables();
+        final int fingerprint = input.readInt();
+        if (fingerprint != dictionary.fingerprint()) {
+            throw new InvalidNormalizedNodeStreamException("Stream dictionary fingerprint "
+                + Integer.toHexString(fingerprint) + " does not match " + dictionary);
+        }
+        tables.verifySizes(input);
+        return new MagnesiumSharedDataInput(input, tables);
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return NormalizedNodeStreamVersion.MAGNESIUM;
+    }
+
+    @Override
+    BigInteger readBigInteger() throws IOException {
+        throw new InvalidNormalizedNodeStreamException("BigInteger coding is not supported");
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.EncodingTables;
+
+/**
+ * Shared-dictionary variant of {@link NormalizedNodeStreamVersion#MAGNESIUM} output, coding against
+ * a {@link MagnesiumDictionary}. The stream is tagged with {@link TokenTypes#MAGNESIUM_SHARED_VERSION}.
+ */
+final class MagnesiumSharedDataOutput extends AbstractMagnesiumDataOutput {
+    private final EncodingTables tables;
+    private final int fingerprint;
+
+    private MagnesiumSharedDataOutput(final DataOutput output, final EncodingTables tables, final int fingerprint) {
+        super(output, tables);
+        this.tables = tables;
+        this.fingerprint = fingerprint;
+    }
+
+    MagnesiumSharedDataOutput(final DataOutput output, final MagnesiumDictionary dictionary) {
+        this(output, dictionary.encodingTables(), dictionary.fingerprint());
+    }
+
+    @Override
+    short streamVersion() {
+        return TokenTypes.MAGNESIUM_SHARED_VERSION;
+    }
+
+    @Override
+    void writeHeaderExtension() throws IOException {
+        output.writeInt(fingerprint);
+        tables.writeSizes(output);
+    }
+
+    @Override
+    void writeValue(final BigInteger value) throws IOException {
+        throw new IOException("BigInteger values are not supported");
+    }
+}
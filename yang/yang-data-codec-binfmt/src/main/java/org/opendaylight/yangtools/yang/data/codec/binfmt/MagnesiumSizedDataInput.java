@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+import static org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter.UNKNOWN_SIZE;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.DecodingTables;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.impl.schema.ReusableImmutableNormalizedNodeStreamWriter;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_SIZED} input. Node bodies are either decoded in place, skipped or
+ * captured in a {@link Body}, from which they are decoded on demand by a {@link LazyDataContainerNode}. In the latter
+ * two cases the trailer following the body is used to keep the coding tables in sync with the stream.
+ */
+final class MagnesiumSizedDataInput extends AbstractMagnesiumDataInput {
+    /**
+     * An encoded node body along with the state of the coding tables needed to decode it.
+     */
+    static final class Body {
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+        private final Snapshot snapshot;
+        private final int strings;
+        private final int modules;
+        private final int nodeIdentifiers;
+        private final int augments;
+
+        Body(final byte[] bytes, final int offset, final int length, final Snapshot snapshot, final int[] marks) {
+            this.bytes = requireNonNull(bytes);
+            this.offset = offset;
+            this.length = length;
+            this.snapshot = requireNonNull(snapshot);
+            strings = marks[0];
+            modules = marks[1];
+            nodeIdentifiers = marks[2];
+            augments = marks[3];
+        }
+
+        int length() {
+            return length;
+        }
+
+        NormalizedNode<?, ?> inflate(final PathArgument identifier) throws IOException {
+            final BodyInputStream stream = new BodyInputStream(bytes, offset, length);
+            final MagnesiumSizedDataInput input = new MagnesiumSizedDataInput(new DataInputStream(stream),
+                new DecodingTables(new PrefixList<>(snapshot.augments, augments),
+                    new PrefixList<>(snapshot.nodeIdentifiers, nodeIdentifiers),
+                    new PrefixList<>(snapshot.modules, modules), new PrefixList<>(snapshot.strings, strings)),
+                stream);
+            // Children of this node are one level down, hence eligible for deferral
+            input.depth = 1;
+
+            final LazyStreamWriter writer = new LazyStreamWriter();
+            if (identifier instanceof NodeIdentifierWithPredicates) {
+                writer.startMapEntryNode((NodeIdentifierWithPredicates) identifier, UNKNOWN_SIZE);
+            } else {
+                writer.startContainerNode((NodeIdentifier) identifier, UNKNOWN_SIZE);
+            }
+            input.streamChildren(writer, identifier);
+            writer.endNode();
+            return writer.result();
+        }
+    }
+
+    /**
+     * State of coding tables, shared by all {@link Body} instances captured while the tables are not modified. It
+     * consists of views of the tables' {@link EntryStore}s, hence capturing it does not copy any entries.
+     */
+    private static final class Snapshot {
+        final View<String> strings;
+        final View<QNameModule> modules;
+        final View<NodeIdentifier> nodeIdentifiers;
+        final View<AugmentationIdentifier> augments;
+
+        Snapshot(final DecodingTables tables) {
+            strings = viewOf(tables.codedStrings);
+            modules = viewOf(tables.codedModules);
+            nodeIdentifiers = viewOf(tables.codedNodeIdentifiers);
+            augments = viewOf(tables.codedAugments);
+        }
+
+        boolean matches(final DecodingTables tables) {
+            return strings.size == tables.codedStrings.size() && modules.size == tables.codedModules.size()
+                && nodeIdentifiers.size == tables.codedNodeIdentifiers.size()
+                && augments.size == tables.codedAugments.size();
+        }
+
+        private static <T> View<T> viewOf(final List<T> list) {
+            // A PrefixList is backed by a view which is a superset of it, hence we can reuse that
+            return list instanceof PrefixList ? ((PrefixList<T>) list).backing : ((EntryStore<T>) list).view();
+        }
+    }
+
+    /**
+     * An append-only coding table. Entries are stored in fixed-size chunks, which are never reallocated, hence a
+     * {@link View} remains valid as more entries are added and can be captured in constant time.
+     */
+    private static final class EntryStore<T> extends AbstractList<T> {
+        private Object[][] chunks = new Object[1][];
+        private int size;
+
+        @Override
+        public T get(final int index) {
+            checkElementIndex(index, size);
+            return entry(chunks, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(final T element) {
+            final int chunk = size >>> CHUNK_BITS;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunk * 2);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new Object[CHUNK_SIZE];
+            }
+            chunks[chunk][size & CHUNK_MASK] = element;
+            size++;
+            return true;
+        }
+
+        View<T> view() {
+            return new View<>(chunks, size);
+        }
+    }
+
+    /**
+     * A view of the first {@code size} entries of an {@link EntryStore}. Subsequent additions to the store do not touch
+     * any of the entries visible through the view.
+     */
+    private static final class View<T> {
+        private final Object[][] chunks;
+        final int size;
+
+        View(final Object[][] chunks, final int size) {
+            this.chunks = requireNonNull(chunks);
+            this.size = size;
+        }
+
+        T get(final int index) {
+            checkElementIndex(index, size);
+            return entry(chunks, index);
+        }
+    }
+
+    /**
+     * A coding table replaying a {@link View}. It starts off as a prefix of the view and adding an element exposes the
+     * next element of the view, which is the same as the one being added, as the stream being decoded is the one
+     * which produced the view.
+     */
+    private static final class PrefixList<T> extends AbstractList<T> {
+        final View<T> backing;
+
+        private int size;
+
+        PrefixList(final View<T> backing, final int size) {
+            this.backing = requireNonNull(backing);
+            this.size = size;
+        }
+
+        @Override
+        public T get(final int index) {
+            checkElementIndex(index, size);
+            return backing.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(final T element) {
+            verify(size < backing.size, "Attempted to extend table beyond its snapshot");
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * An input stream over a byte array, which exposes its position, so that nested bodies can be captured without
+     * copying.
+     */
+    private static final class BodyInputStream extends ByteArrayInputStream {
+        BodyInputStream(final byte[] buf, final int offset, final int length) {
+            super(buf, offset, length);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int position() {
+            return pos;
+        }
+    }
+
+    /**
+     * An {@link ImmutableNormalizedNodeStreamWriter} which allows the node being built to be replaced with a
+     * {@link LazyDataContainerNode}.
+     */
+    private static final class LazyStreamWriter extends ImmutableNormalizedNodeStreamWriter {
+        private final NormalizedNodeResult result;
+
+        LazyStreamWriter() {
+            this(new NormalizedNodeResult());
+        }
+
+        private LazyStreamWriter(final NormalizedNodeResult result) {
+            super(result);
+            this.result = result;
+        }
+
+        void replaceCurrent(final NormalizedNode<?, ?> node) {
+            popBuilder();
+            writeChild(node);
+        }
+
+        NormalizedNode<?, ?> result() {
+            return result.getResult();
+        }
+    }
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final DecodingTables tables;
+    private final @Nullable BodyInputStream body;
+
+    private Snapshot snapshot;
+    private boolean skipping;
+    private int depth;
+
+    MagnesiumSizedDataInput(final DataInput input) {
+        this(input, new DecodingTables(new EntryStore<>(), new EntryStore<>(), new EntryStore<>(),
+            new EntryStore<>()), null);
+    }
+
+    private MagnesiumSizedDataInput(final DataInput input, final DecodingTables tables,
+            final @Nullable BodyInputStream body) {
+        super(input, tables);
+        this.tables = tables;
+        this.body = body;
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return NormalizedNodeStreamVersion.MAGNESIUM_SIZED;
+    }
+
+    @Override
+    public NormalizedNode<?, ?> readLazyNormalizedNode() throws IOException {
+        final LazyStreamWriter writer = new LazyStreamWriter();
+        streamNormalizedNode(writer);
+        return writer.result();
+    }
+
+    @Override
+    public void skipNormalizedNode() throws IOException {
+        skipping = true;
+        try {
+            streamNormalizedNode(ReusableImmutableNormalizedNodeStreamWriter.create());
+        } finally {
+            skipping = false;
+        }
+    }
+
+    @Override
+    BigInteger readBigInteger() throws IOException {
+        throw new InvalidNormalizedNodeStreamException("BigInteger coding is not supported");
+    }
+
+    @Override
+    void streamNodeBody(final NormalizedNodeStreamWriter writer, final PathArgument parent, final boolean deferrable)
+            throws IOException {
+        final int size = input.readInt();
+        if (size < 0) {
+            throw new InvalidNormalizedNodeStreamException("Invalid body size " + size + " of " + parent);
+        }
+
+        if (skipping) {
+            // Only the outermost body is ever encountered, everything else is skipped along with it
+            skipFully(size);
+            readTrailer();
+            writer.endNode();
+        } else if (deferrable && depth > 0 && writer instanceof LazyStreamWriter) {
+            final int[] marks = marks();
+            final byte[] bytes;
+            final int offset;
+            if (body != null) {
+                bytes = body.array();
+                offset = body.position();
+                skipFully(size);
+            } else {
+                bytes = new byte[size];
+                offset = 0;
+                input.readFully(bytes);
+            }
+            readTrailer();
+            ((LazyStreamWriter) writer).replaceCurrent(LazyDataContainerNode.of(parent,
+                new Body(bytes, offset, size, snapshot(), marks)));
+        } else {
+            final int[] marks = marks();
+            depth++;
+            streamChildren(writer, parent);
+            depth--;
+            writer.endNode();
+            verifyTrailer(marks);
+        }
+    }
+
+    private int[] marks() {
+        return new int[] {
+            tables.codedStrings.size(), tables.codedModules.size(), tables.codedNodeIdentifiers.size(),
+            tables.codedAugments.size()
+        };
+    }
+
+    private Snapshot snapshot() {
+        Snapshot local = snapshot;
+        if (local == null || !local.matches(tables)) {
+            snapshot = local = new Snapshot(tables);
+        }
+        return local;
+    }
+
+    private void skipFully(final int size) throws IOException {
+        int remaining = size;
+        while (remaining > 0) {
+            final int skipped = input.skipBytes(remaining);
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else {
+                // Force an EOFException if we are at the end of input
+                input.readByte();
+                remaining--;
+            }
+        }
+    }
+
+    // Decoding proceeded through the body, make sure the trailer agrees with definitions we have encountered and
+    // skip its contents
+    private void verifyTrailer(final int[] marks) throws IOException {
+        final int size = input.readInt();
+        verifyCount("String", tables.codedStrings, marks[0]);
+        verifyCount("QNameModule", tables.codedModules, marks[1]);
+        verifyCount("QName", tables.codedNodeIdentifiers, marks[2]);
+        verifyCount("AugmentationIdentifier", tables.codedAugments, marks[3]);
+        skipFully(size - 4 * Integer.BYTES);
+    }
+
+    private void verifyCount(final String table, final List<?> entries, final int mark) throws IOException {
+        final int expected = input.readInt();
+        if (entries.size() - mark != expected) {
+            throw new InvalidNormalizedNodeStreamException("Node body defines " + expected + " " + table
+                + " entries, encountered " + (entries.size() - mark));
+        }
+    }
+
+    // The body has not been decoded, populate coding tables from the trailer
+    private void readTrailer() throws IOException {
+        // Trailer size, we are going to consume the trailer anyway
+        input.readInt();
+        final int strings = input.readInt();
+        final int modules = input.readInt();
+        final int qnames = input.readInt();
+        final int aids = input.readInt();
+
+        for (int i = 0; i < strings; ++i) {
+            final byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            tables.codedStrings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        for (int i = 0; i < modules; ++i) {
+            final String namespace = lookup("String", tables.codedStrings, input.readInt());
+            final int revCode = input.readInt();
+            final String revision = revCode == -1 ? null : lookup("String", tables.codedStrings, revCode);
+            final QNameModule module;
+            try {
+                module = QNameFactory.createModule(namespace, revision);
+            } catch (UncheckedExecutionException e) {
+                throw new InvalidNormalizedNodeStreamException("Illegal QNameModule ns=" + namespace + " rev="
+                    + revision, e);
+            }
+            tables.codedModules.add(module);
+        }
+        for (int i = 0; i < qnames; ++i) {
+            final QNameModule module = lookup("QNameModule", tables.codedModules, input.readInt());
+            final String localName = lookup("String", tables.codedStrings, input.readInt());
+            final NodeIdentifier nodeId;
+            try {
+                nodeId = QNameFactory.getNodeIdentifier(module, localName);
+            } catch (ExecutionException e) {
+                throw new InvalidNormalizedNodeStreamException("Illegal QName module=" + module + " localName="
+                    + localName, e);
+            }
+            tables.codedNodeIdentifiers.add(nodeId);
+        }
+        for (int i = 0; i < aids; ++i) {
+            final int size = input.readInt();
+            final List<QName> qnameList = new ArrayList<>(size);
+            for (int j = 0; j < size; ++j) {
+                qnameList.add(lookup("QName", tables.codedNodeIdentifiers, input.readInt()).getNodeType());
+            }
+            tables.codedAugments.add(AugmentationIdentifier.create(ImmutableSet.copyOf(qnameList)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T entry(final Object[][] chunks, final int index) {
+        return (T) chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    private static <T> T lookup(final String table, final List<T> entries, final int index)
+            throws InvalidNormalizedNodeStreamException {
+        try {
+            return entries.get(index);
+        } catch (IndexOutOfBoundsException e) {
+            throw new InvalidNormalizedNodeStreamException("Invalid " + table + " reference " + index, e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Verify.verifyNotNull;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.MagnesiumDictionary.EncodingTables;
+
+/**
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM_SIZED} output. Body of each END_NODE-terminated node is prefixed by
+ * its length in bytes and is followed by a trailer, which lists the coding table entries defined within the body.
+ * The trailer is laid out as follows:
+ * <pre>
+ *   int   size of the rest of the trailer in bytes
+ *   int   number of Strings defined
+ *   int   number of QNameModules defined
+ *   int   number of QNames defined
+ *   int   number of AugmentationIdentifiers defined
+ *   for each String: int byte length, UTF-8 bytes
+ *   for each QNameModule: int namespace String code, int revision String code or -1
+ *   for each QName: int QNameModule code, int local name String code
+ *   for each AugmentationIdentifier: int size, followed by that many QName codes
+ * </pre>
+ */
+final class MagnesiumSizedDataOutput extends AbstractMagnesiumDataOutput {
+    /**
+     * {@link EncodingTables} which also track entries in the order of their codes, so that entries defined within
+     * a node body can be enumerated in its trailer.
+     */
+    private static final class OrderedEncodingTables extends EncodingTables {
+        final List<AugmentationIdentifier> aids = new ArrayList<>();
+        final List<QNameModule> modules = new ArrayList<>();
+        final List<String> strings = new ArrayList<>();
+        final List<QName> qnames = new ArrayList<>();
+
+        @Override
+        void defineAid(final AugmentationIdentifier aid) {
+            super.defineAid(aid);
+            aids.add(aid);
+        }
+
+        @Override
+        void defineModule(final QNameModule module) {
+            super.defineModule(module);
+            modules.add(module);
+        }
+
+        @Override
+        void defineString(final String str) {
+            super.defineString(str);
+            strings.add(str);
+        }
+
+        @Override
+        Integer defineQName(final QName qname) {
+            final Integer prev = super.defineQName(qname);
+            if (prev == null) {
+                qnames.add(qname);
+            }
+            return prev;
+        }
+    }
+
+    private final Deque<int[]> frames = new ArrayDeque<>();
+    private final FramingDataOutput framing;
+    private final OrderedEncodingTables tables;
+
+    private MagnesiumSizedDataOutput(final FramingDataOutput framing, final OrderedEncodingTables tables) {
+        super(framing, tables);
+        this.framing = framing;
+        this.tables = tables;
+    }
+
+    MagnesiumSizedDataOutput(final DataOutput output) {
+        this(new FramingDataOutput(output), new OrderedEncodingTables());
+    }
+
+    @Override
+    short streamVersion() {
+        return TokenTypes.MAGNESIUM_SIZED_VERSION;
+    }
+
+    @Override
+    void writeValue(final BigInteger value) throws IOException {
+        throw new IOException("BigInteger values are not supported");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        framing.flush();
+    }
+
+    @Override
+    void startNodeBody() throws IOException {
+        frames.push(new int[] {
+            framing.openFrame(), tables.strings.size(), tables.modules.size(), tables.qnames.size(),
+            tables.aids.size()
+        });
+    }
+
+    @Override
+    void endNodeBody() throws IOException {
+        final int[] frame = frames.pop();
+        framing.closeFrame(frame[0]);
+
+        final List<String> strings = tables.strings.subList(frame[1], tables.strings.size());
+        final List<QNameModule> modules = tables.modules.subList(frame[2], tables.modules.size());
+        final List<QName> qnames = tables.qnames.subList(frame[3], tables.qnames.size());
+        final List<AugmentationIdentifier> aids = tables.aids.subList(frame[4], tables.aids.size());
+
+        final byte[][] stringBytes = new byte[strings.size()][];
+        int trailerSize = 4 * Integer.BYTES + 2 * Integer.BYTES * (modules.size() + qnames.size());
+        for (int i = 0; i < stringBytes.length; ++i) {
+            stringBytes[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            trailerSize += Integer.BYTES + stringBytes[i].length;
+        }
+        for (AugmentationIdentifier aid : aids) {
+            trailerSize += Integer.BYTES * (1 + aid.getPossibleChildNames().size());
+        }
+
+        output.writeInt(trailerSize);
+        output.writeInt(strings.size());
+        output.writeInt(modules.size());
+        output.writeInt(qnames.size());
+        output.writeInt(aids.size());
+        for (byte[] bytes : stringBytes) {
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+        for (QNameModule module : modules) {
+            output.writeInt(stringCode(module.getNamespace().toString()));
+            final Optional<Revision> rev = module.getRevision();
+            output.writeInt(rev.isPresent() ? stringCode(rev.get().toString()) : -1);
+        }
+        for (QName qname : qnames) {
+            output.writeInt(verifyNotNull(tables.moduleCodeMap.get(qname.getModule())));
+            output.writeInt(stringCode(qname.getLocalName()));
+        }
+        for (AugmentationIdentifier aid : aids) {
+            output.writeInt(aid.getPossibleChildNames().size());
+            for (QName qname : aid.getPossibleChildNames()) {
+                output.writeInt(verifyNotNull(tables.qnameCodeMap.get(qname)));
+            }
+        }
+    }
+
+    private int stringCode(final String str) {
+        return verifyNotNull(tables.stringCodeMap.get(str), "Missing code for %s", str);
+    }
+}
@@ -243,7 +243,40 @@ final class MagnesiumValue {
      */
     static final byte UINT64_4B      = 0x2C;
 
-    // 0x2D - 0x39 reserved
+    /**
+     * Reference a {@link YangInstanceIdentifier} previously coded in a
+     * {@link NormalizedNodeStreamVersion#MAGNESIUM_PATH_SHARING} stream. Each coded identifier defines references to
+     * all of its prefixes, shortest first. Reference number is encoded as {@code unsigned byte}.
+     */
+    static final byte YIID_REF_1B    = 0x2D;
+    /**
+     * Reference a previously coded {@link YangInstanceIdentifier}. Reference number is encoded as
+     * {@code unsigned short}, offset by 256. See {@link #YIID_REF_1B}.
+     */
+    static final byte YIID_REF_2B    = 0x2E;
+    /**
+     * Reference a previously coded {@link YangInstanceIdentifier}. Reference number is encoded as {@code int}.
+     * See {@link #YIID_REF_1B}.
+     */
+    static final byte YIID_REF_4B    = 0x2F;
+    /**
+     * A {@link YangInstanceIdentifier} extending a previously coded one. Reference number of the prefix is encoded as
+     * {@code unsigned byte}, followed by the remaining components encoded as if they were an identifier on their own,
+     * i.e. {@link #YIID} or {@link #YIID_0} - {@link #YIID_31}. See {@link #YIID_REF_1B}.
+     */
+    static final byte YIID_EXT_1B    = 0x30;
+    /**
+     * A {@link YangInstanceIdentifier} extending a previously coded one. Reference number of the prefix is encoded as
+     * {@code unsigned short}, offset by 256. See {@link #YIID_EXT_1B}.
+     */
+    static final byte YIID_EXT_2B    = 0x31;
+    /**
+     * A {@link YangInstanceIdentifier} extending a previously coded one. Reference number of the prefix is encoded as
+     * {@code int}. See {@link #YIID_EXT_1B}.
+     */
+    static final byte YIID_EXT_4B    = 0x32;
+
+    // 0x33 - 0x39 reserved
 
     /**
      * Empty bits value. This code point starts the range, where the number of bits can be extracted as
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+
+/**
+ * A {@link DataTreeSnapshot} backed by a memory-mapped file. Only the file's header and trailer are read when the
+ * snapshot is opened. The index is navigated directly in the mapped file, its tables and subtrees are deserialized when
+ * a {@link #readNode(YangInstanceIdentifier)} reaches them and are retained only as long as memory permits.
+ *
+ * <p>
+ * Files are written by {@link #write(Path, NormalizedNode, int)}, which splits the tree into separately-encoded
+ * subtrees down to a specified depth. Deeper trees result in finer-grained materialization at the cost of a larger
+ * index. Only containers, unordered maps, map entries, augmentations and choices are split, all other nodes are always
+ * encoded as a whole.
+ *
+ * <p>
+ * Snapshots are read-only and do not support {@link #newModification()}. Users wishing to modify the data need to load
+ * it into a data tree by writing {@code readNode(YangInstanceIdentifier.empty())} into it and use that tree's
+ * modifications instead.
+ */
+@Beta
+public final class MappedDataTreeSnapshot implements DataTreeSnapshot {
+    /**
+     * Default index depth. This splits top-level containers and lists in the datastore root into individual list
+     * entries.
+     */
+    public static final int DEFAULT_INDEX_DEPTH = 3;
+
+    private final @NonNull EffectiveModelContext schemaContext;
+    private final MappedByteBuffer[] segments;
+    private final @NonNull Entry root;
+
+    private MappedDataTreeSnapshot(final EffectiveModelContext schemaContext, final MappedByteBuffer[] segments,
+            final long rootTableOffset, final int rootTableLength) throws IOException {
+        this.schemaContext = requireNonNull(schemaContext);
+        this.segments = requireNonNull(segments);
+        final Collection<Entry> rootTable = readTable(rootTableOffset, rootTableLength).values();
+        if (rootTable.size() != 1) {
+            throw new InvalidNormalizedNodeStreamException("Invalid root table size " + rootTable.size());
+        }
+        root = rootTable.iterator().next();
+    }
+
+    /**
+     * Write a snapshot file using {@link #DEFAULT_INDEX_DEPTH}.
+     *
+     * @param file File to write
+     * @param root Root node, as returned by {@code readNode(YangInstanceIdentifier.empty())}
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(final Path file, final NormalizedNode<?, ?> root) throws IOException {
+        write(file, root, DEFAULT_INDEX_DEPTH);
+    }
+
+    /**
+     * Write a snapshot file.
+     *
+     * @param file File to write
+     * @param root Root node, as returned by {@code readNode(YangInstanceIdentifier.empty())}
+     * @param indexDepth Depth to which the tree is split into separately-encoded subtrees
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if {@code indexDepth} is negative
+     */
+    public static void write(final Path file, final NormalizedNode<?, ?> root, final int indexDepth)
+            throws IOException {
+        checkArgument(indexDepth >= 0, "Invalid index depth %s", indexDepth);
+        MappedSnapshotWriter.write(file, root, indexDepth);
+    }
+
+    /**
+     * Open a snapshot file. The file is mapped into memory and its trailer is read.
+     *
+     * @param file File to open
+     * @param schemaContext Schema context of the data
+     * @return A new snapshot
+     * @throws IOException if an I/O error occurs
+     * @throws InvalidNormalizedNodeStreamException if the file is not a valid snapshot file
+     */
+    public static @NonNull MappedDataTreeSnapshot open(final Path file, final EffectiveModelContext schemaContext)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < MappedSnapshotWriter.HEADER_SIZE + MappedSnapshotWriter.TRAILER_SIZE) {
+                throw new InvalidNormalizedNodeStreamException("File " + file + " is too short");
+            }
+
+            final ByteBuffer header = ByteBuffer.allocate(MappedSnapshotWriter.HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MappedSnapshotWriter.MAGIC) {
+                throw new InvalidNormalizedNodeStreamException("File " + file + " is not a snapshot file");
+            }
+            final byte version = header.get(Integer.BYTES);
+            if (version != MappedSnapshotWriter.FORMAT_VERSION) {
+                throw new InvalidNormalizedNodeStreamException("Unsupported snapshot format version " + version);
+            }
+
+            final ByteBuffer trailer = ByteBuffer.allocate(MappedSnapshotWriter.TRAILER_SIZE);
+            final long dataSize = size - MappedSnapshotWriter.TRAILER_SIZE;
+            readFully(channel, trailer, dataSize);
+            final long rootTableOffset = trailer.getLong(0);
+            final int rootTableLength = trailer.getInt(Long.BYTES);
+            if (trailer.getInt(Long.BYTES + Integer.BYTES) != MappedSnapshotWriter.MAGIC
+                    || rootTableOffset < MappedSnapshotWriter.HEADER_SIZE || rootTableLength < 0
+                    || rootTableOffset + rootTableLength > dataSize) {
+                throw new InvalidNormalizedNodeStreamException("File " + file + " has a corrupted trailer");
+            }
+
+            return new MappedDataTreeSnapshot(schemaContext, mapSegments(channel, dataSize), rootTableOffset,
+                rootTableLength);
+        }
+    }
+
+    @Override
+    public EffectiveModelContext getSchemaContext() {
+        return schemaContext;
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
+        final List<PathArgument> args = path.getPathArguments();
+        Entry current = root;
+        for (int i = 0; i < args.size(); ++i) {
+            if (current.kind == MappedSnapshotWriter.BLOB) {
+                return NormalizedNodes.findNode(current.materialize(), args.subList(i, args.size()));
+            }
+
+            current = current.children().get(args.get(i));
+            if (current == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(current.materialize());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException always, as this snapshot is read-only
+     */
+    @Override
+    public DataTreeModification newModification() {
+        throw new UnsupportedOperationException("Mapped snapshots are read-only, load them into a DataTree instead");
+    }
+
+    private static MappedByteBuffer[] mapSegments(final FileChannel channel, final long size) throws IOException {
+        final int count = (int) ((size + MappedSnapshotWriter.SEGMENT_SIZE - 1) / MappedSnapshotWriter.SEGMENT_SIZE);
+        final MappedByteBuffer[] ret = new MappedByteBuffer[count];
+        for (int i = 0; i < count; ++i) {
+            final long offset = i * MappedSnapshotWriter.SEGMENT_SIZE;
+            ret[i] = channel.map(MapMode.READ_ONLY, offset, Math.min(MappedSnapshotWriter.SEGMENT_SIZE,
+                size - offset));
+        }
+        return ret;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new InvalidNormalizedNodeStreamException("Unexpected end of file");
+            }
+            offset += read;
+        }
+    }
+
+    private NormalizedNodeDataInput openChunk(final long offset, final int length) throws IOException {
+        final int segment = (int) (offset / MappedSnapshotWriter.SEGMENT_SIZE);
+        final int start = (int) (offset % MappedSnapshotWriter.SEGMENT_SIZE);
+        if (offset < 0 || length < 0 || segment >= segments.length || start + length > segments[segment].limit()) {
+            throw new InvalidNormalizedNodeStreamException("Invalid chunk at " + offset + " length " + length);
+        }
+
+        final ByteBuffer slice = segments[segment].duplicate();
+        slice.position(start).limit(start + length);
+        return NormalizedNodeDataInput.newDataInput(new DataInputStream(new ByteBufferInputStream(slice)));
+    }
+
+    private ImmutableMap<PathArgument, Entry> readTable(final long offset, final int length) throws IOException {
+        final NormalizedNodeDataInput in = openChunk(offset, length);
+        final int size = in.readInt();
+        if (size < 0 || size > length) {
+            throw new InvalidNormalizedNodeStreamException("Invalid index table size " + size);
+        }
+
+        final ImmutableMap.Builder<PathArgument, Entry> builder = ImmutableMap.builderWithExpectedSize(size);
+        for (int i = 0; i < size; ++i) {
+            final PathArgument identifier = in.readPathArgument();
+            final byte kind = in.readByte();
+            switch (kind) {
+                case MappedSnapshotWriter.BLOB:
+                case MappedSnapshotWriter.CONTAINER:
+                case MappedSnapshotWriter.MAP:
+                case MappedSnapshotWriter.MAP_ENTRY:
+                case MappedSnapshotWriter.AUGMENTATION:
+                case MappedSnapshotWriter.CHOICE:
+                    break;
+                default:
+                    throw new InvalidNormalizedNodeStreamException("Unhandled index entry type " + kind);
+            }
+            builder.put(identifier, new Entry(identifier, kind, in.readLong(), in.readInt()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * An entry in the index. It points either to a subtree stream or to an index table, both of which are decoded on
+     * demand. Decoded forms are held via {@link SoftReference}s, so that the garbage collector can reclaim them.
+     */
+    private final class Entry {
+        final @NonNull PathArgument identifier;
+        final byte kind;
+
+        private final long offset;
+        private final int length;
+
+        private volatile SoftReference<NormalizedNode<?, ?>> node;
+        private volatile SoftReference<ImmutableMap<PathArgument, Entry>> children;
+
+        Entry(final PathArgument identifier, final byte kind, final long offset, final int length) {
+            this.identifier = requireNonNull(identifier);
+            this.kind = kind;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        NormalizedNode<?, ?> materialize() {
+            final SoftReference<NormalizedNode<?, ?>> ref = node;
+            NormalizedNode<?, ?> local = ref == null ? null : ref.get();
+            if (local == null) {
+                // Benign race: concurrent materialization results in equal nodes
+                local = kind == MappedSnapshotWriter.BLOB ? loadBlob() : loadIndex();
+                node = new SoftReference<>(local);
+            }
+            return local;
+        }
+
+        ImmutableMap<PathArgument, Entry> children() {
+            final SoftReference<ImmutableMap<PathArgument, Entry>> ref = children;
+            ImmutableMap<PathArgument, Entry> local = ref == null ? null : ref.get();
+            if (local == null) {
+                try {
+                    local = readTable(offset, length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read mapped index", e);
+                }
+                children = new SoftReference<>(local);
+            }
+            return local;
+        }
+
+        private NormalizedNode<?, ?> loadBlob() {
+            try {
+                return openChunk(offset, length).readNormalizedNode();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read mapped subtree", e);
+            }
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        private NormalizedNode<?, ?> loadIndex() {
+            final Collection<Entry> entries = children().values();
+            if (kind == MappedSnapshotWriter.MAP) {
+                final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+                    .withNodeIdentifier((NodeIdentifier) identifier);
+                for (Entry child : entries) {
+                    builder.withChild((MapEntryNode) child.materialize());
+                }
+                return builder.build();
+            }
+
+            final DataContainerNodeBuilder builder;
+            switch (kind) {
+                case MappedSnapshotWriter.CONTAINER:
+                    builder = Builders.containerBuilder().withNodeIdentifier((NodeIdentifier) identifier);
+                    break;
+                case MappedSnapshotWriter.MAP_ENTRY:
+                    builder = Builders.mapEntryBuilder().withNodeIdentifier(
+                        (NodeIdentifierWithPredicates) identifier);
+                    break;
+                case MappedSnapshotWriter.AUGMENTATION:
+                    builder = Builders.augmentationBuilder().withNodeIdentifier((AugmentationIdentifier) identifier);
+                    break;
+                case MappedSnapshotWriter.CHOICE:
+                    builder = Builders.choiceBuilder().withNodeIdentifier((NodeIdentifier) identifier);
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled index entry type " + kind);
+            }
+            for (Entry child : entries) {
+                builder.withChild((DataContainerChild) child.materialize());
+            }
+            return builder.build();
+        }
+    }
+}
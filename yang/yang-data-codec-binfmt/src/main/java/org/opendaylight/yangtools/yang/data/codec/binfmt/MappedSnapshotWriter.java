@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+
+/**
+ * Writer of {@link MappedDataTreeSnapshot} files. The tree is split into separately-encoded subtrees down to a
+ * specified depth. Each subtree is written as a self-contained {@link NormalizedNodeStreamVersion#MAGNESIUM} stream,
+ * while the structure above them is recorded in index tables, one for each split node. A table is a self-contained
+ * stream listing the node's children, each with its kind and the location of its subtree stream or table. Tables are
+ * written after the children they describe, so that readers can navigate the index directly in the mapped file.
+ *
+ * <p>
+ * The file is laid out as follows:
+ * <pre>
+ *   int magic, byte format version
+ *   subtree streams and index tables, none of which crosses a {@link #SEGMENT_SIZE} boundary
+ *   root table, holding a single entry for the root node
+ *   long root table offset, int root table length, int magic
+ * </pre>
+ */
+final class MappedSnapshotWriter {
+    static final int MAGIC = 0x594E4D53;
+    static final byte FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Size of individually-mapped file segments. Subtree streams and index tables are aligned so that each of them can
+     * be read from a single segment.
+     */
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    static final byte BLOB = 0;
+    static final byte CONTAINER = 1;
+    static final byte MAP = 2;
+    static final byte MAP_ENTRY = 3;
+    static final byte AUGMENTATION = 4;
+    static final byte CHOICE = 5;
+
+    // Source of padding bytes, written repeatedly as needed
+    private static final byte[] PADDING = new byte[8192];
+
+    private final CountingOutputStream counting;
+    private final DataOutputStream output;
+    private final int indexDepth;
+
+    private MappedSnapshotWriter(final OutputStream stream, final int indexDepth) {
+        counting = new CountingOutputStream(stream);
+        output = new DataOutputStream(counting);
+        this.indexDepth = indexDepth;
+    }
+
+    static void write(final Path file, final NormalizedNode<?, ?> root, final int indexDepth) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            new MappedSnapshotWriter(stream, indexDepth).write(requireNonNull(root));
+        }
+    }
+
+    private void write(final NormalizedNode<?, ?> root) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeByte(FORMAT_VERSION);
+
+        final Entry rootTable = writeTable(root.getIdentifier(), BLOB, List.of(writeNode(root, 0)));
+        output.writeLong(rootTable.offset);
+        output.writeInt(rootTable.length);
+        output.writeInt(MAGIC);
+        output.flush();
+    }
+
+    private Entry writeNode(final NormalizedNode<?, ?> node, final int depth) throws IOException {
+        final byte kind = depth < indexDepth ? kindOf(node) : BLOB;
+        if (kind == BLOB) {
+            return writeChunk(node.getIdentifier(), BLOB, out -> out.writeNormalizedNode(node));
+        }
+
+        final NormalizedNodeContainer<?, ?, ?> container = (NormalizedNodeContainer<?, ?, ?>) node;
+        final List<Entry> children = new ArrayList<>(container.size());
+        for (NormalizedNode<?, ?> child : container.getValue()) {
+            children.add(writeNode(child, depth + 1));
+        }
+        return writeTable(node.getIdentifier(), kind, children);
+    }
+
+    private Entry writeTable(final PathArgument identifier, final byte kind, final List<Entry> children)
+            throws IOException {
+        return writeChunk(identifier, kind, out -> {
+            out.writeInt(children.size());
+            for (Entry child : children) {
+                child.writeTo(out);
+            }
+        });
+    }
+
+    private Entry writeChunk(final PathArgument identifier, final byte kind, final Body body) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(bytes))) {
+            body.writeTo(out);
+        }
+
+        final int length = bytes.size();
+        if (length > SEGMENT_SIZE) {
+            throw new IOException("Subtree or index of " + identifier + " is too large (" + length
+                + " bytes), please adjust index depth");
+        }
+
+        // Pad to next segment if needed
+        final long position = counting.getCount();
+        final long segmentRemaining = SEGMENT_SIZE - position % SEGMENT_SIZE;
+        if (length > segmentRemaining) {
+            writePadding(segmentRemaining);
+        }
+
+        final long offset = counting.getCount();
+        bytes.writeTo(output);
+        return new Entry(identifier, kind, offset, length);
+    }
+
+    private void writePadding(final long size) throws IOException {
+        long remaining = size;
+        while (remaining > 0) {
+            final int chunk = (int) Math.min(remaining, PADDING.length);
+            output.write(PADDING, 0, chunk);
+            remaining -= chunk;
+        }
+    }
+
+    private static byte kindOf(final NormalizedNode<?, ?> node) {
+        if (node instanceof ContainerNode) {
+            return CONTAINER;
+        } else if (node instanceof MapEntryNode) {
+            return MAP_ENTRY;
+        } else if (node instanceof MapNode && !(node instanceof OrderedMapNode)) {
+            return MAP;
+        } else if (node instanceof AugmentationNode) {
+            return AUGMENTATION;
+        } else if (node instanceof ChoiceNode) {
+            return CHOICE;
+        } else {
+            return BLOB;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void writeTo(NormalizedNodeDataOutput out) throws IOException;
+    }
+
+    private static final class Entry {
+        private final PathArgument identifier;
+        private final byte kind;
+        private final long offset;
+        private final int length;
+
+        Entry(final PathArgument identifier, final byte kind, final long offset, final int length) {
+            this.identifier = requireNonNull(identifier);
+            this.kind = kind;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        void writeTo(final NormalizedNodeDataOutput out) throws IOException {
+            out.writePathArgument(identifier);
+            out.writeByte(kind);
+            out.writeLong(offset);
+            out.writeInt(length);
+        }
+    }
+}
@@ -14,11 +14,15 @@ import java.util.Optional;
 import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.ReusableStreamReceiver;
 import org.opendaylight.yangtools.yang.data.impl.schema.ReusableImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.data.util.LeafInterner;
+import org.opendaylight.yangtools.yang.data.util.LeafsetEntryInterner;
 import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier;
 
@@ -66,6 +70,56 @@ public interface NormalizedNodeDataInput extends DataInput {
         }
     }
 
+    /**
+     * Read a normalized node from the reader, canonicalizing it against the schema. Values of leaves and leaf-list
+     * entries are interned as per {@link LeafInterner} and {@link LeafsetEntryInterner}, {@link NodeIdentifier}s are
+     * shared with the schema tree. This is useful when the decoded data is expected to be retained in memory for a long
+     * time. Nodes which are not known to the schema are decoded as usual.
+     *
+     * @param schema Schema context node corresponding to the node being read, for example
+     *               {@code DataSchemaContextTree.from(modelContext).getRoot()} for a datastore root
+     * @return Next node from the stream
+     * @throws IOException if an error occurs
+     * @throws IllegalStateException if the dictionary has been detached
+     * @throws NullPointerException if {@code schema} is null
+     */
+    @Beta
+    default NormalizedNode<?, ?> readNormalizedNode(final DataSchemaContextNode<?> schema) throws IOException {
+        final ReusableStreamReceiver receiver = ReusableImmutableNormalizedNodeStreamWriter.create();
+        try {
+            streamNormalizedNode(new InterningNormalizedNodeStreamWriter(receiver, schema));
+            return receiver.getResult();
+        } finally {
+            receiver.reset();
+        }
+    }
+
+    /**
+     * Read a normalized node from the reader, deferring decoding of its nested ContainerNodes and MapEntryNodes until
+     * they are accessed, if the stream version supports it. Default implementation is equivalent to
+     * {@link #readNormalizedNode()}.
+     *
+     * @return Next node from the stream
+     * @throws IOException if an error occurs
+     * @see NormalizedNodeStreamVersion#MAGNESIUM_SIZED
+     */
+    @Beta
+    default NormalizedNode<?, ?> readLazyNormalizedNode() throws IOException {
+        return readNormalizedNode();
+    }
+
+    /**
+     * Skip a normalized node in the reader, without constructing it, if the stream version supports it. Default
+     * implementation reads the node and discards it.
+     *
+     * @throws IOException if an error occurs
+     * @see NormalizedNodeStreamVersion#MAGNESIUM_SIZED
+     */
+    @Beta
+    default void skipNormalizedNode() throws IOException {
+        readNormalizedNode();
+    }
+
     YangInstanceIdentifier readYangInstanceIdentifier() throws IOException;
 
     @NonNull QName readQName() throws IOException;
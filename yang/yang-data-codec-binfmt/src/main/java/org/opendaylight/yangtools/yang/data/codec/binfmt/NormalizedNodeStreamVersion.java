@@ -12,6 +12,8 @@ import java.io.DataOutput;
 import java.math.BigInteger;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.ValueNode;
 
 /**
@@ -75,6 +77,53 @@ public enum NormalizedNodeStreamVersion {
         public NormalizedNodeDataOutput newDataOutput(final DataOutput output) {
             return new MagnesiumDataOutput(output);
         }
+    },
+    /**
+     * Variant of {@link #MAGNESIUM}, which records the size of each container-like node's body. This allows readers
+     * to skip subtrees via {@link NormalizedNodeDataInput#skipNormalizedNode()} and to defer their decoding via
+     * {@link NormalizedNodeDataInput#readLazyNormalizedNode()}, at the cost of a few bytes per node.
+     */
+    MAGNESIUM_SIZED {
+        @Override
+        public NormalizedNodeDataOutput newDataOutput(final DataOutput output) {
+            return new MagnesiumSizedDataOutput(output);
+        }
+    },
+    /**
+     * Variant of {@link #MAGNESIUM}, which compresses the stream in blocks of up to 64KiB using Deflate. Each block
+     * carries a running CRC32 checksum of the stream, so that corruption is detected as soon as a damaged block is
+     * read. Blocks are emitted when they fill up and when the output is flushed, hence users should avoid flushing it
+     * needlessly.
+     */
+    MAGNESIUM_COMPRESSED {
+        @Override
+        public NormalizedNodeDataOutput newDataOutput(final DataOutput output) {
+            return new MagnesiumCompressedDataOutput(output);
+        }
+    },
+    /**
+     * Variant of {@link #MAGNESIUM}, which codes each {@link YangInstanceIdentifier} relative to identifiers already
+     * present in the stream. Repeated identifiers and their common prefixes are sent only once and decoded identifiers
+     * share the instances of their already-decoded parents. This is useful for streams carrying a large number of
+     * paths, such as those produced by {@link DataTreeCandidateInputOutput}.
+     */
+    MAGNESIUM_PATH_SHARING {
+        @Override
+        public NormalizedNodeDataOutput newDataOutput(final DataOutput output) {
+            return new MagnesiumPathSharingDataOutput(output);
+        }
+    },
+    /**
+     * Variant of {@link #MAGNESIUM}, which encodes large {@link MapNode}s with structurally-identical entries column by
+     * column: key values first, followed by the values of each leaf. Each column is compressed using run-length,
+     * delta or dictionary coding, whichever suits its contents. Entries of other maps are encoded as in
+     * {@link #MAGNESIUM}.
+     */
+    MAGNESIUM_COLUMNAR {
+        @Override
+        public NormalizedNodeDataOutput newDataOutput(final DataOutput output) {
+            return new MagnesiumColumnarDataOutput(output);
+        }
     };
 
     /**
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Optional;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.SpilledNormalizedNode;
+
+/**
+ * A {@link DataContainerNode} whose content is held in a {@link ByteBuffer}, typically a direct one, encoded as a
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM} stream. The content is decoded on first access to it and the decoded
+ * form is retained through a {@link SoftReference}, so that it can be reclaimed when the JVM runs low on memory.
+ *
+ * @param <K> Identifier type
+ * @param <T> Inflated node type
+ */
+abstract class OffHeapDataContainerNode<K extends PathArgument, T extends DataContainerNode<K>>
+        implements DataContainerNode<K>,
+                   SpilledNormalizedNode<K, Collection<DataContainerChild<? extends PathArgument, ?>>> {
+    private final K identifier;
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private volatile SoftReference<T> inflated;
+    // Cached hash code, 0 if not computed yet
+    private int hashCode;
+
+    OffHeapDataContainerNode(final K identifier, final ByteBuffer buffer, final int size) {
+        this.identifier = requireNonNull(identifier);
+        this.buffer = requireNonNull(buffer);
+        this.size = size;
+    }
+
+    static OffHeapDataContainerNode<?, ?> of(final DataContainerNode<?> node, final ByteBuffer buffer) {
+        if (node instanceof ContainerNode) {
+            return new Container(((ContainerNode) node).getIdentifier(), buffer, node.size());
+        } else if (node instanceof MapEntryNode) {
+            return new MapEntry(((MapEntryNode) node).getIdentifier(), buffer, node.size());
+        } else {
+            throw new IllegalArgumentException("Unsupported node " + node);
+        }
+    }
+
+    @Override
+    public final K getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public final QName getNodeType() {
+        return identifier.getNodeType();
+    }
+
+    @Override
+    public final Collection<DataContainerChild<? extends PathArgument, ?>> getValue() {
+        return inflate().getValue();
+    }
+
+    @Override
+    public final Optional<DataContainerChild<? extends PathArgument, ?>> getChild(final PathArgument child) {
+        return inflate().getChild(child);
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final T inflate() {
+        final SoftReference<T> ref = inflated;
+        T local = ref == null ? null : ref.get();
+        if (local == null) {
+            // Benign race: concurrent decoding results in equal nodes
+            local = decode();
+            inflated = new SoftReference<>(local);
+        }
+        return local;
+    }
+
+    private T decode() {
+        final NormalizedNode<?, ?> node;
+        try {
+            node = NormalizedNodeDataInput.newDataInput(new DataInputStream(
+                new ByteBufferInputStream(buffer.duplicate()))).readNormalizedNode();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decode off-heap node " + identifier, e);
+        }
+        return inflatedType().cast(node);
+    }
+
+    abstract Class<T> inflatedType();
+
+    /**
+     * Return the number of bytes used to hold the content of this node.
+     *
+     * @return Encoded size in bytes
+     */
+    final int encodedSize() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public final int hashCode() {
+        int local = hashCode;
+        if (local == 0) {
+            hashCode = local = inflate().hashCode();
+        }
+        return local;
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof NormalizedNode)) {
+            return false;
+        }
+        final Object other = obj instanceof SpilledNormalizedNode ? ((SpilledNormalizedNode<?, ?>) obj).inflate() : obj;
+        return inflate().equals(other);
+    }
+
+    @Override
+    public final String toString() {
+        return MoreObjects.toStringHelper(this).add("identifier", identifier).add("size", size)
+            .add("encodedSize", encodedSize()).toString();
+    }
+
+    private static final class Container extends OffHeapDataContainerNode<NodeIdentifier, ContainerNode>
+            implements ContainerNode {
+        Container(final NodeIdentifier identifier, final ByteBuffer buffer, final int size) {
+            super(identifier, buffer, size);
+        }
+
+        @Override
+        Class<ContainerNode> inflatedType() {
+            return ContainerNode.class;
+        }
+    }
+
+    private static final class MapEntry extends OffHeapDataContainerNode<NodeIdentifierWithPredicates, MapEntryNode>
+            implements MapEntryNode {
+        MapEntry(final NodeIdentifierWithPredicates identifier, final ByteBuffer buffer, final int size) {
+            super(identifier, buffer, size);
+        }
+
+        @Override
+        Class<MapEntryNode> inflatedType() {
+            return MapEntryNode.class;
+        }
+    }
+}
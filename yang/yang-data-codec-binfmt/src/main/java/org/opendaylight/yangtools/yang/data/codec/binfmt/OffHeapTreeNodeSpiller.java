@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeSpiller;
+
+/**
+ * A {@link TreeNodeSpiller} which moves containers and map entries into direct {@link ByteBuffer}s, encoded using
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM}. Resulting nodes are decoded on each access, hence this policy is
+ * suitable for data which is rarely read. Subtrees whose encoding is smaller than a configured threshold are left on
+ * heap, as are their descendants.
+ */
+@Beta
+public final class OffHeapTreeNodeSpiller implements TreeNodeSpiller {
+    private final int minSize;
+
+    /**
+     * Create a new spiller.
+     *
+     * @param minSize Minimum encoded size of a subtree for it to be spilled, in bytes
+     * @throws IllegalArgumentException if minSize is negative
+     */
+    public OffHeapTreeNodeSpiller(final int minSize) {
+        checkArgument(minSize >= 0, "Invalid minimum size %s", minSize);
+        this.minSize = minSize;
+    }
+
+    @Override
+    public @Nullable NormalizedNode<?, ?> spill(final NormalizedNode<?, ?> data) {
+        if (!(data instanceof ContainerNode) && !(data instanceof MapEntryNode)) {
+            return null;
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(bytes))) {
+            out.writeNormalizedNode(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode " + data.getIdentifier(), e);
+        }
+        if (bytes.size() < minSize) {
+            return data;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size()).put(bytes.toByteArray()).flip();
+        return OffHeapDataContainerNode.of((DataContainerNode<?>) data, buffer.asReadOnlyBuffer());
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+
+/**
+ * Utility for serializing large {@link ContainerNode}s and {@link MapEntryNode}s into a segmented format, which can
+ * be both written and read using multiple threads. Children of the root node are split into segments, each of which
+ * holds at most {@code segmentSize} list entries, counting entries of nested lists individually, or other children.
+ * Children exceeding this size are split into fragments, which carry a subset of their lists' entries or of their own
+ * children, recursively, and which are merged back when reading. Each segment is an independent
+ * {@link NormalizedNodeStreamVersion#MAGNESIUM} stream, with its own coding tables, hence segments can be encoded and
+ * decoded concurrently.
+ *
+ * <p>
+ * The format starts with {@link TokenTypes#MAGNESIUM_SEGMENTED_VERSION} stream header, followed by a Magnesium stream
+ * holding the root node type and identifier, and the segment table. Segments follow the table, in order. Note that
+ * segments are held in memory while they are being written, which is the price of encoding them in parallel.
+ */
+@Beta
+public final class SegmentedNormalizedNodeInputOutput {
+    /**
+     * Default maximum number of children per segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1024;
+
+    /**
+     * A node, or a fragment of it, along with its weight.
+     */
+    private static final class Fragment {
+        final NormalizedNode<?, ?> node;
+        final int weight;
+
+        Fragment(final NormalizedNode<?, ?> node, final int weight) {
+            this.node = node;
+            this.weight = weight;
+        }
+    }
+
+    // Initial buffer size when reading a segment, so that a corrupted size does not trigger a huge allocation
+    private static final int SEGMENT_READ_CHUNK = 65536;
+
+    private static final byte ROOT_CONTAINER = 0;
+    private static final byte ROOT_MAP_ENTRY = 1;
+
+    private SegmentedNormalizedNodeInputOutput() {
+        // Hidden on purpose
+    }
+
+    /**
+     * Write a node in segmented format, encoding segments using specified executor and
+     * {@link #DEFAULT_SEGMENT_SIZE}.
+     *
+     * @param output Output to write to
+     * @param root Node to write
+     * @param executor Executor to use for encoding segments
+     * @throws IOException if an error occurs
+     * @throws IllegalArgumentException if {@code root} is neither a ContainerNode nor a MapEntryNode
+     */
+    public static void writeSegmented(final DataOutput output, final DataContainerNode<?> root,
+            final Executor executor) throws IOException {
+        writeSegmented(output, root, executor, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Write a node in segmented format, encoding segments using specified executor.
+     *
+     * @param output Output to write to
+     * @param root Node to write
+     * @param executor Executor to use for encoding segments
+     * @param segmentSize Maximum number of children, counting list entries individually, in a segment
+     * @throws IOException if an error occurs
+     * @throws IllegalArgumentException if {@code root} is neither a ContainerNode nor a MapEntryNode, or if
+     *                                  {@code segmentSize} is not positive
+     */
+    public static void writeSegmented(final DataOutput output, final DataContainerNode<?> root,
+            final Executor executor, final int segmentSize) throws IOException {
+        checkArgument(segmentSize > 0, "Invalid segment size %s", segmentSize);
+        final byte rootType;
+        if (root instanceof ContainerNode) {
+            rootType = ROOT_CONTAINER;
+        } else if (root instanceof MapEntryNode) {
+            rootType = ROOT_MAP_ENTRY;
+        } else {
+            throw new IllegalArgumentException("Unsupported root " + root);
+        }
+
+        final List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+        for (List<NormalizedNode<?, ?>> segment : splitSegments(root.getValue(), segmentSize)) {
+            futures.add(CompletableFuture.supplyAsync(() -> encodeSegment(segment), executor));
+        }
+        final List<byte[]> segments = new ArrayList<>(futures.size());
+        for (CompletableFuture<byte[]> future : futures) {
+            segments.add(join(future));
+        }
+
+        output.writeByte(TokenTypes.SIGNATURE_MARKER);
+        output.writeShort(TokenTypes.MAGNESIUM_SEGMENTED_VERSION);
+        try (NormalizedNodeDataOutput header = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(output)) {
+            header.writeByte(rootType);
+            header.writePathArgument(root.getIdentifier());
+            header.writeInt(segments.size());
+            for (byte[] segment : segments) {
+                header.writeInt(segment.length);
+            }
+        }
+        for (byte[] segment : segments) {
+            output.write(segment);
+        }
+    }
+
+    /**
+     * Read a node written in segmented format, decoding segments using specified executor. Segments are dispatched
+     * for decoding as soon as they have been read.
+     *
+     * @param input Input to read from
+     * @param executor Executor to use for decoding segments
+     * @return Decoded node
+     * @throws IOException if an error occurs
+     */
+    public static @NonNull DataContainerNode<?> readSegmented(final DataInput input, final Executor executor)
+            throws IOException {
+        final byte marker = input.readByte();
+        if (marker != TokenTypes.SIGNATURE_MARKER) {
+            throw new InvalidNormalizedNodeStreamException("Invalid signature marker: " + marker);
+        }
+        final short version = input.readShort();
+        if (version != TokenTypes.MAGNESIUM_SEGMENTED_VERSION) {
+            throw new InvalidNormalizedNodeStreamException("Unexpected stream version " + version);
+        }
+
+        final NormalizedNodeDataInput header = NormalizedNodeDataInput.newDataInput(input);
+        final byte rootType = header.readByte();
+        final PathArgument identifier = header.readPathArgument();
+        final int count = header.readInt();
+        if (count < 0) {
+            throw new InvalidNormalizedNodeStreamException("Invalid segment count " + count);
+        }
+        // Do not size anything based on count: each size occupies four bytes, hence a count exceeding the remaining
+        // input is detected once we run out of it
+        final List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            final int size;
+            try {
+                size = header.readInt();
+            } catch (EOFException e) {
+                throw new InvalidNormalizedNodeStreamException("Segment count " + count + " exceeds available input",
+                    e);
+            }
+            if (size < 0) {
+                throw new InvalidNormalizedNodeStreamException("Invalid segment " + i + " size " + size);
+            }
+            sizes.add(size);
+        }
+
+        final DataContainerNodeBuilder<?, ?> builder = rootBuilder(rootType, identifier);
+        final List<CompletableFuture<List<NormalizedNode<?, ?>>>> futures = new ArrayList<>(sizes.size());
+        for (int size : sizes) {
+            final byte[] segment = readSegment(input, size);
+            futures.add(CompletableFuture.supplyAsync(() -> decodeSegment(segment), executor));
+        }
+
+        // Collect children, reassembling any lists which have been split across segments
+        final Map<PathArgument, List<NormalizedNode<?, ?>>> children = new LinkedHashMap<>();
+        for (CompletableFuture<List<NormalizedNode<?, ?>>> future : futures) {
+            for (NormalizedNode<?, ?> child : join(future)) {
+                children.computeIfAbsent(child.getIdentifier(), key -> new ArrayList<>(1)).add(child);
+            }
+        }
+        for (List<NormalizedNode<?, ?>> fragments : children.values()) {
+            builder.withChild((DataContainerChild<?, ?>) mergeFragments(fragments));
+        }
+        return builder.build();
+    }
+
+    private static List<List<NormalizedNode<?, ?>>> splitSegments(
+            final Collection<? extends NormalizedNode<?, ?>> children, final int segmentSize) {
+        final List<Fragment> fragments = new ArrayList<>();
+        for (NormalizedNode<?, ?> child : children) {
+            addFragments(fragments, child, segmentSize);
+        }
+
+        final List<List<NormalizedNode<?, ?>>> segments = new ArrayList<>();
+        List<NormalizedNode<?, ?>> current = new ArrayList<>();
+        int weight = 0;
+        for (Fragment fragment : fragments) {
+            if (weight + fragment.weight > segmentSize && !current.isEmpty()) {
+                segments.add(current);
+                current = new ArrayList<>();
+                weight = 0;
+            }
+            current.add(fragment.node);
+            weight += fragment.weight;
+        }
+        if (!current.isEmpty()) {
+            segments.add(current);
+        }
+        return segments;
+    }
+
+    // Add a node to fragments, splitting it if it is too large and it can be split
+    private static void addFragments(final List<Fragment> fragments, final NormalizedNode<?, ?> node,
+            final int segmentSize) {
+        final int weight = weight(node);
+        if (weight <= segmentSize) {
+            fragments.add(new Fragment(node, weight));
+        } else if (node instanceof MapNode) {
+            final MapNode map = (MapNode) node;
+            final List<Fragment> parts = new ArrayList<>();
+            for (MapEntryNode entry : map.getValue()) {
+                addFragments(parts, entry, segmentSize);
+            }
+            groupFragments(fragments, parts, segmentSize, entries -> {
+                final CollectionNodeBuilder<MapEntryNode, ? extends MapNode> builder = mapBuilder(map);
+                for (NormalizedNode<?, ?> entry : entries) {
+                    builder.withChild((MapEntryNode) entry);
+                }
+                return builder.build();
+            });
+        } else if (isSplittable(node)) {
+            final DataContainerNode<?> container = (DataContainerNode<?>) node;
+            // Map entry fragments need to carry the key leaves
+            final Set<QName> keys = node instanceof MapEntryNode
+                ? ((MapEntryNode) node).getIdentifier().keySet() : Set.of();
+            final List<DataContainerChild<?, ?>> keyLeaves = new ArrayList<>(keys.size());
+            final List<Fragment> parts = new ArrayList<>();
+            for (DataContainerChild<?, ?> child : container.getValue()) {
+                if (child.getIdentifier() instanceof NodeIdentifier && keys.contains(child.getNodeType())) {
+                    keyLeaves.add(child);
+                } else {
+                    addFragments(parts, child, segmentSize);
+                }
+            }
+            groupFragments(fragments, parts, segmentSize, children -> {
+                final DataContainerNodeBuilder<?, ?> builder = fragmentBuilder(container);
+                keyLeaves.forEach(builder::withChild);
+                for (NormalizedNode<?, ?> child : children) {
+                    builder.withChild((DataContainerChild<?, ?>) child);
+                }
+                return builder.build();
+            });
+        } else {
+            fragments.add(new Fragment(node, weight));
+        }
+    }
+
+    // Group parts of a node into fragments of that node. Parts of a single child are kept in separate fragments, as
+    // a fragment can hold only one child with a particular identifier.
+    private static void groupFragments(final List<Fragment> fragments, final List<Fragment> parts,
+            final int segmentSize, final Function<List<NormalizedNode<?, ?>>, NormalizedNode<?, ?>> buildFragment) {
+        List<NormalizedNode<?, ?>> current = new ArrayList<>();
+        int weight = 0;
+        for (Fragment part : parts) {
+            if (!current.isEmpty() && (weight + part.weight > segmentSize
+                    || part.node.getIdentifier().equals(current.get(current.size() - 1).getIdentifier()))) {
+                fragments.add(new Fragment(buildFragment.apply(current), weight));
+                current = new ArrayList<>();
+                weight = 0;
+            }
+            current.add(part.node);
+            weight += part.weight;
+        }
+        if (!current.isEmpty()) {
+            fragments.add(new Fragment(buildFragment.apply(current), weight));
+        }
+    }
+
+    // Number of list entries within a node, counting entries of nested lists individually, but at least one
+    private static int weight(final NormalizedNode<?, ?> node) {
+        return Math.max(1, nestedWeight(node));
+    }
+
+    private static int nestedWeight(final NormalizedNode<?, ?> node) {
+        int ret = 0;
+        if (node instanceof MapNode) {
+            for (MapEntryNode entry : ((MapNode) node).getValue()) {
+                ret += weight(entry);
+            }
+        } else if (isSplittable(node)) {
+            for (DataContainerChild<?, ?> child : ((DataContainerNode<?>) node).getValue()) {
+                ret += nestedWeight(child);
+            }
+        }
+        return ret;
+    }
+
+    private static boolean isSplittable(final NormalizedNode<?, ?> node) {
+        return node instanceof ContainerNode || node instanceof MapEntryNode || node instanceof AugmentationNode
+            || node instanceof ChoiceNode;
+    }
+
+    private static NormalizedNode<?, ?> mergeFragments(final List<? extends NormalizedNode<?, ?>> fragments)
+            throws InvalidNormalizedNodeStreamException {
+        final NormalizedNode<?, ?> first = fragments.get(0);
+        if (fragments.size() == 1) {
+            return first;
+        }
+
+        if (first instanceof MapNode) {
+            final boolean ordered = first instanceof OrderedMapNode;
+            final Map<PathArgument, List<MapEntryNode>> entries = new LinkedHashMap<>();
+            for (NormalizedNode<?, ?> fragment : fragments) {
+                if (!(fragment instanceof MapNode) || fragment instanceof OrderedMapNode != ordered) {
+                    throw new InvalidNormalizedNodeStreamException("Mismatched fragment " + fragment.getIdentifier());
+                }
+                for (MapEntryNode entry : ((MapNode) fragment).getValue()) {
+                    entries.computeIfAbsent(entry.getIdentifier(), key -> new ArrayList<>(1)).add(entry);
+                }
+            }
+
+            final CollectionNodeBuilder<MapEntryNode, ? extends MapNode> builder = mapBuilder((MapNode) first);
+            for (List<MapEntryNode> entryFragments : entries.values()) {
+                builder.withChild((MapEntryNode) mergeFragments(entryFragments));
+            }
+            return builder.build();
+        }
+
+        if (isSplittable(first)) {
+            final Map<PathArgument, List<DataContainerChild<?, ?>>> children = new LinkedHashMap<>();
+            for (NormalizedNode<?, ?> fragment : fragments) {
+                if (!sameKind(first, fragment)) {
+                    throw new InvalidNormalizedNodeStreamException("Mismatched fragment " + fragment.getIdentifier());
+                }
+                for (DataContainerChild<?, ?> child : ((DataContainerNode<?>) fragment).getValue()) {
+                    children.computeIfAbsent(child.getIdentifier(), key -> new ArrayList<>(1)).add(child);
+                }
+            }
+
+            final DataContainerNodeBuilder<?, ?> builder = fragmentBuilder((DataContainerNode<?>) first);
+            for (List<DataContainerChild<?, ?>> childFragments : children.values()) {
+                builder.withChild((DataContainerChild<?, ?>) mergeFragments(childFragments));
+            }
+            return builder.build();
+        }
+
+        // Other nodes, such as map entry keys, are replicated across fragments
+        for (NormalizedNode<?, ?> fragment : fragments) {
+            if (!first.equals(fragment)) {
+                throw new InvalidNormalizedNodeStreamException("Unexpected duplicate child " + first.getIdentifier());
+            }
+        }
+        return first;
+    }
+
+    private static boolean sameKind(final NormalizedNode<?, ?> first, final NormalizedNode<?, ?> other) {
+        if (first instanceof ContainerNode) {
+            return other instanceof ContainerNode;
+        } else if (first instanceof MapEntryNode) {
+            return other instanceof MapEntryNode;
+        } else if (first instanceof AugmentationNode) {
+            return other instanceof AugmentationNode;
+        } else {
+            return other instanceof ChoiceNode;
+        }
+    }
+
+    private static DataContainerNodeBuilder<?, ?> fragmentBuilder(final DataContainerNode<?> node) {
+        if (node instanceof ContainerNode) {
+            return Builders.containerBuilder().withNodeIdentifier(((ContainerNode) node).getIdentifier());
+        } else if (node instanceof MapEntryNode) {
+            return Builders.mapEntryBuilder().withNodeIdentifier(((MapEntryNode) node).getIdentifier());
+        } else if (node instanceof AugmentationNode) {
+            return Builders.augmentationBuilder().withNodeIdentifier(((AugmentationNode) node).getIdentifier());
+        } else if (node instanceof ChoiceNode) {
+            return Builders.choiceBuilder().withNodeIdentifier(((ChoiceNode) node).getIdentifier());
+        } else {
+            throw new IllegalArgumentException("Unsupported node " + node);
+        }
+    }
+
+    private static CollectionNodeBuilder<MapEntryNode, ? extends MapNode> mapBuilder(final MapNode map) {
+        final CollectionNodeBuilder<MapEntryNode, ? extends MapNode> builder = map instanceof OrderedMapNode
+            ? Builders.orderedMapBuilder() : Builders.mapBuilder();
+        return builder.withNodeIdentifier(map.getIdentifier());
+    }
+
+    private static DataContainerNodeBuilder<?, ?> rootBuilder(final byte rootType, final PathArgument identifier)
+            throws InvalidNormalizedNodeStreamException {
+        switch (rootType) {
+            case ROOT_CONTAINER:
+                if (identifier instanceof NodeIdentifier) {
+                    return Builders.containerBuilder().withNodeIdentifier((NodeIdentifier) identifier);
+                }
+                break;
+            case ROOT_MAP_ENTRY:
+                if (identifier instanceof NodeIdentifierWithPredicates) {
+                    return Builders.mapEntryBuilder().withNodeIdentifier((NodeIdentifierWithPredicates) identifier);
+                }
+                break;
+            default:
+                throw new InvalidNormalizedNodeStreamException("Unhandled root type " + rootType);
+        }
+        throw new InvalidNormalizedNodeStreamException("Invalid root type " + rootType + " identifier " + identifier);
+    }
+
+    private static byte[] readSegment(final DataInput input, final int size) throws IOException {
+        // The size comes from the stream, hence grow the buffer as data arrives instead of trusting it up front
+        byte[] buf = new byte[Math.min(size, SEGMENT_READ_CHUNK)];
+        int filled = 0;
+        while (true) {
+            input.readFully(buf, filled, buf.length - filled);
+            filled = buf.length;
+            if (filled == size) {
+                return buf;
+            }
+            buf = Arrays.copyOf(buf, (int) Math.min(size, 2L * filled));
+        }
+    }
+
+    private static byte[] encodeSegment(final List<NormalizedNode<?, ?>> children) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput output = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            output.writeInt(children.size());
+            for (NormalizedNode<?, ?> child : children) {
+                output.writeNormalizedNode(child);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    private static List<NormalizedNode<?, ?>> decodeSegment(final byte[] segment) {
+        try {
+            final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(
+                ByteStreams.newDataInput(segment));
+            final int count = input.readInt();
+            if (count < 0) {
+                throw new InvalidNormalizedNodeStreamException("Invalid segment child count " + count);
+            }
+            final List<NormalizedNode<?, ?>> ret = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                ret.add(input.readNormalizedNode());
+            }
+            return ret;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                Throwables.throwIfInstanceOf(cause.getCause(), IOException.class);
+            }
+            throw e;
+        }
+    }
+}
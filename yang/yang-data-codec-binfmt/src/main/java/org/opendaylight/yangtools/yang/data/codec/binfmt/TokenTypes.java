@@ -28,6 +28,40 @@ final class TokenTypes {
      * present.
      */
     static final short MAGNESIUM_VERSION = 4;
+    /**
+     * Magnesium version with a persistent dictionary. Structurally matches {@link #MAGNESIUM_VERSION}, but the version
+     * is followed by a dictionary fingerprint and table sizes and the coding tables are shared with previous streams,
+     * as maintained by {@link MagnesiumDictionary}.
+     */
+    static final short MAGNESIUM_SHARED_VERSION = 5;
+    /**
+     * Magnesium version with sized nodes. Structurally matches {@link #MAGNESIUM_VERSION}, but the body of each
+     * END_NODE-terminated node is prefixed with its length and followed by a trailer listing coding table entries
+     * defined in it, so that it can be skipped or decoded independently.
+     */
+    static final short MAGNESIUM_SIZED_VERSION = 6;
+    /**
+     * Magnesium version with compression. Everything following the version is a sequence of Deflate-compressed blocks,
+     * as produced by {@link DeflateBlockOutputStream}, which decompress into a {@link #MAGNESIUM_VERSION} stream body.
+     */
+    static final short MAGNESIUM_COMPRESSED_VERSION = 7;
+    /**
+     * Segmented format produced by {@link SegmentedNormalizedNodeInputOutput}. This is not a stream version understood
+     * by {@link VersionedNormalizedNodeDataInput}, which rejects it, but rather a container of multiple
+     * {@link #MAGNESIUM_VERSION} streams.
+     */
+    static final short MAGNESIUM_SEGMENTED_VERSION = 8;
+    /**
+     * Magnesium version with shared identifier prefixes. Structurally matches {@link #MAGNESIUM_VERSION}, but
+     * YangInstanceIdentifiers may refer to previously-coded identifiers and their prefixes, as described by
+     * {@link MagnesiumValue#YIID_REF_1B} and {@link MagnesiumValue#YIID_EXT_1B}.
+     */
+    static final short MAGNESIUM_PATH_SHARING_VERSION = 9;
+    /**
+     * Magnesium version with columnar maps. Structurally matches {@link #MAGNESIUM_VERSION}, but MapNodes with uniform
+     * entries may be encoded column by column, as indicated by {@link MagnesiumNode#MAP_COLUMNAR}.
+     */
+    static final short MAGNESIUM_COLUMNAR_VERSION = 10;
 
     private TokenTypes() {
         // Utility class
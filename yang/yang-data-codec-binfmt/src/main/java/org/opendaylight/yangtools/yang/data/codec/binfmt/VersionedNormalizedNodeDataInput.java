@@ -11,13 +11,21 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.DataInput;
 import java.io.IOException;
+import org.eclipse.jdt.annotation.Nullable;
 
 final class VersionedNormalizedNodeDataInput extends ForwardingNormalizedNodeDataInput {
+    private final @Nullable MagnesiumDictionary dictionary;
+
     private DataInput input;
     private NormalizedNodeDataInput delegate;
 
     VersionedNormalizedNodeDataInput(final DataInput input) {
+        this(input, null);
+    }
+
+    VersionedNormalizedNodeDataInput(final DataInput input, final @Nullable MagnesiumDictionary dictionary) {
         this.input = requireNonNull(input);
+        this.dictionary = dictionary;
     }
 
     @Override
@@ -46,6 +54,27 @@ final class VersionedNormalizedNodeDataInput extends ForwardingNormalizedNodeDat
             case TokenTypes.MAGNESIUM_VERSION:
                 ret = new MagnesiumDataInput(input);
                 break;
+            case TokenTypes.MAGNESIUM_SHARED_VERSION:
+                if (dictionary == null) {
+                    throw defunct("Stream version %s requires a dictionary", version);
+                }
+                ret = MagnesiumSharedDataInput.create(input, dictionary);
+                break;
+            case TokenTypes.MAGNESIUM_SIZED_VERSION:
+                ret = new MagnesiumSizedDataInput(input);
+                break;
+            case TokenTypes.MAGNESIUM_COMPRESSED_VERSION:
+                ret = new MagnesiumCompressedDataInput(input);
+                break;
+            case TokenTypes.MAGNESIUM_PATH_SHARING_VERSION:
+                ret = new MagnesiumPathSharingDataInput(input);
+                break;
+            case TokenTypes.MAGNESIUM_COLUMNAR_VERSION:
+                ret = new MagnesiumColumnarDataInput(input);
+                break;
+            case TokenTypes.MAGNESIUM_SEGMENTED_VERSION:
+                throw defunct("Stream version %s is a segmented stream, use %s to read it", version,
+                    SegmentedNormalizedNodeInputOutput.class.getSimpleName());
             default:
                 throw defunct("Unhandled stream version %s", version);
         }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.netty.ByteBufDataInput;
+import org.opendaylight.yangtools.yang.common.netty.ByteBufDataOutput;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class ByteBufSerializationTest {
+    @Test
+    public void testMagnesiumRoundTrip() throws IOException {
+        final ContainerNode node = TestModel.createTestContainer(Uint64::valueOf);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            out.writeNormalizedNode(node);
+        }
+
+        final ByteBufDataOutput dataOutput = new ByteBufDataOutput(ByteBufAllocator.DEFAULT, 64);
+        try (NormalizedNodeDataOutput out = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(dataOutput)) {
+            out.writeNormalizedNode(node);
+            out.writeNormalizedNode(ImmutableNodes.leafNode(TestModel.SOME_BINARY_DATA_QNAME, new byte[1024]));
+        }
+        final ByteBuf buf = dataOutput.buffer();
+
+        // Identical encoding of the first node
+        assertEquals(ByteBufUtil.hexDump(Unpooled.wrappedBuffer(baos.toByteArray())),
+            ByteBufUtil.hexDump(buf, 0, baos.size()));
+
+        final NormalizedNodeDataInput in = NormalizedNodeDataInput.newDataInput(new ByteBufDataInput(buf));
+        assertEquals(node, in.readNormalizedNode());
+        assertEquals(ImmutableNodes.leafNode(TestModel.SOME_BINARY_DATA_QNAME, new byte[1024]),
+            in.readNormalizedNode());
+        assertEquals(0, buf.readableBytes());
+        buf.release();
+    }
+
+    @Test
+    public void testAllVersionsRoundTrip() throws IOException {
+        // Incompressible, so that the compressed version emits multiple blocks
+        final byte[] binary = new byte[200_000];
+        new Random(0).nextBytes(binary);
+        final LeafNode<byte[]> leaf = ImmutableNodes.leafNode(TestModel.SOME_BINARY_DATA_QNAME, binary);
+
+        for (NormalizedNodeStreamVersion version : NormalizedNodeStreamVersion.values()) {
+            final ContainerNode node = TestModel.createTestContainer(
+                version.compareTo(NormalizedNodeStreamVersion.SODIUM_SR1) < 0 ? BigInteger::new : Uint64::valueOf);
+
+            final ByteBufDataOutput dataOutput = new ByteBufDataOutput(ByteBufAllocator.DEFAULT, 64);
+            try (NormalizedNodeDataOutput out = version.newDataOutput(dataOutput)) {
+                out.writeNormalizedNode(node);
+                out.writeNormalizedNode(leaf);
+            }
+            final ByteBuf buf = dataOutput.buffer();
+
+            final NormalizedNodeDataInput in = NormalizedNodeDataInput.newDataInput(new ByteBufDataInput(buf));
+            assertEquals(version, in.getVersion());
+            assertEquals(version.toString(), node, in.readNormalizedNode());
+            assertEquals(version.toString(), leaf, in.readNormalizedNode());
+            buf.release();
+        }
+    }
+}
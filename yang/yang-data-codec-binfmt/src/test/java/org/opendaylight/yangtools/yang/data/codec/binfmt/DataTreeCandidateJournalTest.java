@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class DataTreeCandidateJournalTest {
+    private static final QName MODULE = QName.create("urn:opendaylight:params:xml:ns:yang:delta-candidate",
+        "delta-candidate").intern();
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName A = QName.create(MODULE, "a");
+    private static final QName ITEM = QName.create(MODULE, "item");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName VALUE = QName.create(MODULE, "value");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private DataTree dataTree;
+    private Path directory;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResource("/delta-candidate.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void before() throws IOException {
+        dataTree = createTree();
+        directory = Files.createTempDirectory("candidate-journal");
+    }
+
+    @After
+    public void after() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testAppendReplay() throws IOException, DataValidationFailedException {
+        try (DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory, 4)) {
+            appendChanges(journal, 0, 10);
+            assertEquals(20, journal.lastSequence());
+        }
+
+        try (DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory)) {
+            assertEquals(20, journal.lastSequence());
+            assertEquals(0, journal.snapshotSequence());
+            assertReplay(journal, 20);
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException, DataValidationFailedException {
+        try (DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory)) {
+            appendChanges(journal, 0, 50);
+            final long before = Files.size(directory.resolve("journal"));
+
+            journal.compact(createTree(), 60);
+            assertEquals(60, journal.snapshotSequence());
+            assertTrue(Files.size(directory.resolve("journal")) < before);
+            assertReplay(journal, 100);
+
+            journal.compact(createTree());
+            assertEquals(100, journal.snapshotSequence());
+            assertReplay(journal, 100);
+
+            appendChanges(journal, 50, 60);
+        }
+
+        try (DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory)) {
+            assertEquals(100, journal.snapshotSequence());
+            assertEquals(120, journal.lastSequence());
+            assertReplay(journal, 120);
+        }
+    }
+
+    @Test
+    public void testTornRecord() throws IOException, DataValidationFailedException {
+        try (DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory)) {
+            appendChanges(journal, 0, 5);
+        }
+        final NormalizedNode<?, ?> expected = dataTree.takeSnapshot().readNode(ROOT_PATH).get();
+
+        // Simulate a crash in the middle of writing a record
+        final Path file = directory.resolve("journal");
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, new byte[] { 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 11, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        try (DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory)) {
+            assertEquals(10, journal.lastSequence());
+            assertEquals(bytes.length, Files.size(file));
+
+            final DataTree replica = createTree();
+            assertEquals(10, journal.replay(replica));
+            assertEquals(expected, replica.takeSnapshot().readNode(ROOT_PATH).get());
+
+            // The journal remains usable
+            appendChanges(journal, 5, 6);
+            assertReplay(journal, 12);
+        }
+    }
+
+    @Test
+    public void testClosed() throws IOException {
+        final DataTreeCandidateJournal journal = DataTreeCandidateJournal.open(directory);
+        journal.close();
+        assertThrows(IllegalStateException.class, journal::sync);
+    }
+
+    private void assertReplay(final DataTreeCandidateJournal journal, final long expectedSequence)
+            throws IOException, DataValidationFailedException {
+        final DataTree replica = createTree();
+        assertEquals(expectedSequence, journal.replay(replica));
+        assertEquals(dataTree.takeSnapshot().readNode(ROOT_PATH), replica.takeSnapshot().readNode(ROOT_PATH));
+    }
+
+    /**
+     * Each step writes leaf 'a' and a new list entry and deletes an older one, appending two candidates.
+     */
+    private void appendChanges(final DataTreeCandidateJournal journal, final int from, final int to)
+            throws IOException, DataValidationFailedException {
+        for (int i = from; i < to; ++i) {
+            DataTreeModification mod = dataTree.takeSnapshot().newModification();
+            if (i == 0) {
+                mod.write(ROOT_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                    .withChild(ImmutableNodes.mapNodeBuilder(ITEM).build())
+                    .build());
+            }
+            mod.write(ROOT_PATH.node(A), ImmutableNodes.leafNode(A, "value " + i));
+            mod.write(itemPath(i), ImmutableNodes.mapEntryBuilder(ITEM, ID, Uint32.valueOf(i))
+                .withChild(ImmutableNodes.leafNode(VALUE, "item " + i))
+                .build());
+            journal.append(commit(mod));
+
+            mod = dataTree.takeSnapshot().newModification();
+            if (i % 3 == 2) {
+                mod.delete(itemPath(i - 1));
+            } else {
+                mod.merge(itemPath(i).node(VALUE), ImmutableNodes.leafNode(VALUE, "updated " + i));
+            }
+            journal.append(commit(mod));
+        }
+    }
+
+    private DataTreeCandidate commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        final DataTreeCandidate candidate = dataTree.prepare(mod);
+        dataTree.commit(candidate);
+        return candidate;
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(NodeIdentifierWithPredicates.of(ITEM, ID, Uint32.valueOf(id)));
+    }
+
+    private static DataTree createTree() {
+        return new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL, SCHEMA_CONTEXT);
+    }
+}
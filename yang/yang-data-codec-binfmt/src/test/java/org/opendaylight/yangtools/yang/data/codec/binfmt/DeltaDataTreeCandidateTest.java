@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.ReusableImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class DeltaDataTreeCandidateTest {
+    private static final QName MODULE = QName.create("urn:opendaylight:params:xml:ns:yang:delta-candidate",
+        "delta-candidate").intern();
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName A = QName.create(MODULE, "a");
+    private static final QName B = QName.create(MODULE, "b");
+    private static final QName NESTED = QName.create(MODULE, "nested");
+    private static final QName X = QName.create(MODULE, "x");
+    private static final QName Y = QName.create(MODULE, "y");
+    private static final QName ITEM = QName.create(MODULE, "item");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName VALUE = QName.create(MODULE, "value");
+    private static final QName TAGS = QName.create(MODULE, "tags");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final int ITEM_COUNT = 100;
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResource("/delta-candidate.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL, SCHEMA_CONTEXT);
+        commit(prepare(createRoot("one", "x", "y", 0, ITEM_COUNT, "first")));
+    }
+
+    @Test
+    public void testDeltaWrite() throws DataValidationFailedException, IOException {
+        final DataTreeSnapshot base = dataTree.takeSnapshot();
+        final DataTreeCandidate candidate = prepare(createRoot("two", "x", null, 1, ITEM_COUNT + 1, "second"));
+        final ContainerNode expected = (ContainerNode) candidate.getRootNode().getModifiedChild(
+            ROOT_PATH.getLastPathArgument()).get().getDataAfter().get();
+
+        final byte[] full = write(candidate, false);
+        final byte[] delta = write(candidate, true);
+        assertTrue(delta.length < full.length / 4);
+
+        final DataTreeCandidate read = read(delta, base);
+        final DataTreeCandidateNode readRoot = read.getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, readRoot.getModificationType());
+        final DataTreeCandidateNode readChild = readRoot.getChildNodes().iterator().next();
+        assertEquals(ModificationType.WRITE, readChild.getModificationType());
+        assertEquals(expected, readChild.getDataAfter().get());
+
+        // Replaying the delta-encoded candidate must result in the same tree
+        commit(candidate);
+        final DataTree replica = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL,
+            SCHEMA_CONTEXT);
+        replica.commit(prepare(replica, createRoot("one", "x", "y", 0, ITEM_COUNT, "first")));
+        final DataTreeModification mod = replica.takeSnapshot().newModification();
+        DataTreeCandidates.applyToModification(mod, read(delta, replica.takeSnapshot()));
+        mod.ready();
+        replica.validate(mod);
+        replica.commit(replica.prepare(mod));
+        assertEquals(dataTree.takeSnapshot().readNode(ROOT_PATH), replica.takeSnapshot().readNode(ROOT_PATH));
+    }
+
+    @Test
+    public void testDeltaRootWrite() throws DataValidationFailedException, IOException {
+        final DataTreeSnapshot base = dataTree.takeSnapshot();
+        final DataTreeCandidate prepared = prepare(createRoot("one", "z", "y", 0, ITEM_COUNT, "first"));
+        final DataTreeCandidate candidate = DataTreeCandidates.newDataTreeCandidate(ROOT_PATH,
+            prepared.getRootNode().getModifiedChild(ROOT_PATH.getLastPathArgument()).get());
+
+        final DataTreeCandidate read = read(write(candidate, true), base);
+        assertEquals(ROOT_PATH, read.getRootPath());
+        assertEquals(ModificationType.WRITE, read.getRootNode().getModificationType());
+        assertEquals(candidate.getRootNode().getDataAfter(), read.getRootNode().getDataAfter());
+    }
+
+    @Test
+    public void testNewNodeWrite() throws DataValidationFailedException, IOException {
+        final DataTree empty = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL,
+            SCHEMA_CONTEXT);
+        final DataTreeCandidate candidate = prepare(empty, createRoot("one", "x", "y", 0, ITEM_COUNT, "first"));
+        assertEquals(write(candidate, false).length, write(candidate, true).length);
+    }
+
+    @Test
+    public void testMissingBase() throws DataValidationFailedException, IOException {
+        final DataTreeCandidate candidate = prepare(createRoot("two", "x", "y", 0, ITEM_COUNT, "first"));
+        final byte[] delta = write(candidate, true);
+
+        assertThrows(InvalidNormalizedNodeStreamException.class, () -> read(delta, null));
+
+        final DataTree empty = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL,
+            SCHEMA_CONTEXT);
+        assertThrows(InvalidNormalizedNodeStreamException.class, () -> read(delta, empty.takeSnapshot()));
+    }
+
+    private DataTreeCandidate prepare(final ContainerNode root) throws DataValidationFailedException {
+        return prepare(dataTree, root);
+    }
+
+    private static DataTreeCandidate prepare(final DataTree tree, final ContainerNode root)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, root);
+        mod.ready();
+        tree.validate(mod);
+        return tree.prepare(mod);
+    }
+
+    private void commit(final DataTreeCandidate candidate) {
+        dataTree.commit(candidate);
+    }
+
+    private static byte[] write(final DataTreeCandidate candidate, final boolean delta) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeStreamVersion.current().newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            if (delta) {
+                DataTreeCandidateInputOutput.writeDeltaDataTreeCandidate(out, candidate);
+            } else {
+                DataTreeCandidateInputOutput.writeDataTreeCandidate(out, candidate);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static DataTreeCandidate read(final byte[] bytes, final DataTreeSnapshot base) throws IOException {
+        return DataTreeCandidateInputOutput.readDataTreeCandidate(
+            NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes)),
+            ReusableImmutableNormalizedNodeStreamWriter.create(), base);
+    }
+
+    private static ContainerNode createRoot(final String valueA, final String valueX, final String valueY,
+            final int firstItem, final int lastItem, final String tag) {
+        final ContainerNode nested = valueY == null
+            ? Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(NESTED))
+                .withChild(ImmutableNodes.leafNode(X, valueX)).build()
+            : Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(NESTED))
+                .withChild(ImmutableNodes.leafNode(X, valueX))
+                .withChild(ImmutableNodes.leafNode(Y, valueY)).build();
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> items = ImmutableNodes.mapNodeBuilder(ITEM);
+        for (int i = firstItem; i < lastItem; ++i) {
+            items.withChild(ImmutableNodes.mapEntryBuilder(ITEM, ID, Uint32.valueOf(i))
+                .withChild(ImmutableNodes.leafNode(VALUE, "value " + i))
+                .build());
+        }
+
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.leafNode(A, valueA))
+            .withChild(ImmutableNodes.leafNode(B, "unchanged"))
+            .withChild(nested)
+            .withChild(items.build())
+            .withChild(Builders.<String>leafSetBuilder().withNodeIdentifier(new NodeIdentifier(TAGS))
+                .withChildValue("common")
+                .withChildValue(tag)
+                .build())
+            .build();
+    }
+}
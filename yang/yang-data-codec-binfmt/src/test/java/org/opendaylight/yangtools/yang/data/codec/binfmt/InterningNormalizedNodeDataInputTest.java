@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class InterningNormalizedNodeDataInputTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:interning", "root");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName ENABLED = QName.create(ROOT, "enabled");
+    private static final QName STATE = QName.create(ROOT, "state");
+    private static final QName RATIO = QName.create(ROOT, "ratio");
+    private static final QName FLAGS = QName.create(ROOT, "flags");
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+    private static DataSchemaContextNode<?> ROOT_CONTEXT;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResource("/interning.yang");
+        ROOT_CONTEXT = DataSchemaContextTree.from(SCHEMA_CONTEXT).getRoot().getChild(new NodeIdentifier(ROOT));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        ROOT_CONTEXT = null;
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Test
+    public void testInterning() throws IOException {
+        final ContainerNode root = createRoot();
+        final NormalizedNode<?, ?> first = roundTrip(root).readNormalizedNode(ROOT_CONTEXT);
+        final NormalizedNode<?, ?> second = roundTrip(root).readNormalizedNode(ROOT_CONTEXT);
+        assertEquals(root, first);
+        assertEquals(root, second);
+
+        // Independently-decoded values are shared
+        assertSame(getValue(first, STATE), getValue(second, STATE));
+        assertSame(getValue(first, ENABLED), getValue(second, ENABLED));
+        assertSame(getFlag(getItem(first, 1), "red"), getFlag(getItem(second, 2), "red"));
+
+        // Identifiers are shared with the schema tree
+        assertSame(ROOT_CONTEXT.getIdentifier(), first.getIdentifier());
+        assertSame(ROOT_CONTEXT.getChild(new NodeIdentifier(ITEM)).getIdentifier(),
+            ((ContainerNode) first).getChild(new NodeIdentifier(ITEM)).get().getIdentifier());
+    }
+
+    @Test
+    public void testNoInterning() throws IOException {
+        final ContainerNode root = createRoot();
+        final NormalizedNode<?, ?> first = roundTrip(root).readNormalizedNode();
+        final NormalizedNode<?, ?> second = roundTrip(root).readNormalizedNode();
+        assertEquals(root, first);
+        assertEquals(first, second);
+        assertNotSame(getValue(first, STATE), getValue(second, STATE));
+    }
+
+    @Test
+    public void testUnknownRoot() throws IOException {
+        // Non-matching schema results in plain decoding
+        final ContainerNode root = createRoot();
+        assertEquals(root, roundTrip(root).readNormalizedNode(DataSchemaContextTree.from(SCHEMA_CONTEXT).getRoot()));
+    }
+
+    @Test
+    public void testDecimalSharing() throws IOException {
+        final NormalizedNode<?, ?> read = roundTrip(createRoot()).readNormalizedNode();
+        assertSame(getChild(getItem(read, 1), RATIO).getValue(), getChild(getItem(read, 2), RATIO).getValue());
+    }
+
+    private static NormalizedNodeDataInput roundTrip(final ContainerNode root) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            nnout.writeNormalizedNode(root);
+        }
+        return NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(baos.toByteArray()));
+    }
+
+    private static ContainerNode createRoot() {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(Builders.mapBuilder().withNodeIdentifier(new NodeIdentifier(ITEM))
+                .withChild(createItem(1))
+                .withChild(createItem(2))
+                .build())
+            .build();
+    }
+
+    private static MapEntryNode createItem(final int id) {
+        return Builders.mapEntryBuilder()
+            .withNodeIdentifier(NodeIdentifierWithPredicates.of(ITEM, ID, Uint32.valueOf(id)))
+            .withChild(ImmutableNodes.leafNode(ID, Uint32.valueOf(id)))
+            .withChild(ImmutableNodes.leafNode(ENABLED, Boolean.TRUE))
+            .withChild(ImmutableNodes.leafNode(STATE, "up"))
+            .withChild(ImmutableNodes.leafNode(RATIO, new BigDecimal("0.25")))
+            .withChild(Builders.<String>leafSetBuilder().withNodeIdentifier(new NodeIdentifier(FLAGS))
+                .withChildValue("red")
+                .build())
+            .build();
+    }
+
+    private static MapEntryNode getItem(final NormalizedNode<?, ?> root, final int id) {
+        final MapNode map = (MapNode) ((ContainerNode) root).getChild(new NodeIdentifier(ITEM)).get();
+        return map.getChild(NodeIdentifierWithPredicates.of(ITEM, ID, Uint32.valueOf(id))).get();
+    }
+
+    private static Object getValue(final NormalizedNode<?, ?> root, final QName child) {
+        return getChild(getItem(root, 1), child).getValue();
+    }
+
+    private static DataContainerChild<?, ?> getChild(final MapEntryNode entry, final QName child) {
+        return entry.getChild(new NodeIdentifier(child)).get();
+    }
+
+    private static NormalizedNode<?, ?> getFlag(final MapEntryNode entry, final String value) {
+        return ((LeafSetNode<?>) getChild(entry, FLAGS)).getChild(new NodeWithValue<>(FLAGS, value)).get();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+
+public class MagnesiumColumnarTest {
+    private static final QName ROUTES = QName.create("urn:opendaylight:params:xml:ns:yang:columnar", "routes");
+    private static final QName ROUTE = QName.create(ROUTES, "route");
+    private static final QName PREFIX = QName.create(ROUTES, "prefix");
+    private static final QName TABLE = QName.create(ROUTES, "table");
+    private static final QName NEXT_HOP = QName.create(ROUTES, "next-hop");
+    private static final QName METRIC = QName.create(ROUTES, "metric");
+    private static final QName PREFERENCE = QName.create(ROUTES, "preference");
+    private static final QName INDEX = QName.create(ROUTES, "index");
+    private static final QName ACTIVE = QName.create(ROUTES, "active");
+    private static final QName DETAILS = QName.create(ROUTES, "details");
+
+    @Test
+    public void testRouteTable() throws IOException {
+        final ContainerNode routes = createRoutes(5000);
+        final byte[] bytes = write(NormalizedNodeStreamVersion.MAGNESIUM_COLUMNAR, routes);
+        assertRoundTrip(bytes, routes);
+
+        final byte[] plain = write(NormalizedNodeStreamVersion.MAGNESIUM, routes);
+        assertTrue("Columnar size " + bytes.length + " plain size " + plain.length, bytes.length * 3 < plain.length);
+    }
+
+    @Test
+    public void testCompositeKeys() throws IOException {
+        final CollectionNodeBuilder<MapEntryNode, OrderedMapNode> builder = Builders.orderedMapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROUTE));
+        for (int i = 0; i < 100; ++i) {
+            final String prefix = "10.0." + i / 10 + ".0/24";
+            final Uint8 table = Uint8.valueOf(i % 10);
+            builder.withChild(Builders.mapEntryBuilder()
+                .withNodeIdentifier(NodeIdentifierWithPredicates.of(ROUTE, ImmutableMap.of(PREFIX, prefix,
+                    TABLE, table)))
+                .withChild(ImmutableNodes.leafNode(PREFIX, prefix))
+                .withChild(ImmutableNodes.leafNode(TABLE, table))
+                .withChild(ImmutableNodes.leafNode(INDEX, Uint64.valueOf(100 - i)))
+                .withChild(ImmutableNodes.leafNode(PREFERENCE, (short) (i * 1000)))
+                .build());
+        }
+        final OrderedMapNode map = builder.build();
+        assertRoundTrip(write(NormalizedNodeStreamVersion.MAGNESIUM_COLUMNAR, map), map);
+    }
+
+    @Test
+    public void testNonUniform() throws IOException {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROUTE));
+        for (int i = 0; i < 20; ++i) {
+            final DataContainerNodeBuilder<NodeIdentifierWithPredicates, MapEntryNode> entry = createRoute(i);
+            if (i == 10) {
+                // A non-leaf child prevents columnar encoding of this map, but not of the nested one
+                entry.withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(DETAILS))
+                    .withChild(createRoutes(20).getValue().iterator().next())
+                    .build());
+            } else if (i == 15) {
+                // So does a missing leaf
+                entry.withoutChild(new NodeIdentifier(METRIC));
+            }
+            builder.withChild(entry.build());
+        }
+        final MapNode map = builder.build();
+        assertRoundTrip(write(NormalizedNodeStreamVersion.MAGNESIUM_COLUMNAR, map), map);
+    }
+
+    private static void assertRoundTrip(final byte[] bytes, final NormalizedNode<?, ?> expected) throws IOException {
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes));
+        assertEquals(NormalizedNodeStreamVersion.MAGNESIUM_COLUMNAR, input.getVersion());
+        assertEquals(expected, input.readNormalizedNode());
+    }
+
+    private static byte[] write(final NormalizedNodeStreamVersion version, final NormalizedNode<?, ?> node)
+            throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(baos))) {
+            nnout.writeNormalizedNode(node);
+        }
+        return baos.toByteArray();
+    }
+
+    private static ContainerNode createRoutes(final int size) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROUTE));
+        for (int i = 0; i < size; ++i) {
+            builder.withChild(createRoute(i).build());
+        }
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROUTES))
+            .withChild(builder.build())
+            .build();
+    }
+
+    private static DataContainerNodeBuilder<NodeIdentifierWithPredicates, MapEntryNode> createRoute(final int id) {
+        final String prefix = "10." + (id >> 16 & 0xFF) + "." + (id >> 8 & 0xFF) + "." + (id & 0xFF) + "/32";
+        return Builders.mapEntryBuilder()
+            .withNodeIdentifier(NodeIdentifierWithPredicates.of(ROUTE, PREFIX, prefix))
+            .withChild(ImmutableNodes.leafNode(PREFIX, prefix))
+            .withChild(ImmutableNodes.leafNode(NEXT_HOP, "192.168.0." + id % 4))
+            .withChild(ImmutableNodes.leafNode(METRIC, Uint32.valueOf(id < 1000 ? 10 : 20)))
+            .withChild(ImmutableNodes.leafNode(INDEX, id))
+            .withChild(ImmutableNodes.leafNode(ACTIVE, id % 7 != 0));
+    }
+}
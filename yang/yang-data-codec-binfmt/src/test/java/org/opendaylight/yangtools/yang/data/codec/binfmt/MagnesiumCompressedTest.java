@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+
+public class MagnesiumCompressedTest {
+    private static final ContainerNode NODE = TestModel.createTestContainer(Uint64::valueOf);
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final ContainerNode large = createLarge();
+        final byte[] bytes = write(NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED, NODE, large);
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes));
+        assertEquals(NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED, input.getVersion());
+        assertEquals(NODE, input.readNormalizedNode());
+        assertEquals(large, input.readNormalizedNode());
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        final ContainerNode large = createLarge();
+        final byte[] plain = write(NormalizedNodeStreamVersion.MAGNESIUM, large);
+        final byte[] compressed = write(NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED, large);
+        assertTrue(compressed.length < plain.length / 2);
+    }
+
+    @Test
+    public void testCorrupted() throws IOException {
+        final byte[] bytes = write(NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED, createLarge());
+        // Damage block data somewhere in the middle of the stream
+        bytes[bytes.length / 2] ^= 0x55;
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes));
+        assertThrows(InvalidNormalizedNodeStreamException.class, input::readNormalizedNode);
+    }
+
+    @Test
+    public void testFlushKeepsPartialBlock() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED.newDataOutput(
+            ByteStreams.newDataOutput(baos));
+        nnout.writeNormalizedNode(NODE);
+        ((AbstractNormalizedNodeDataOutput) nnout).flush();
+        // Only the stream header has been written, the node is still buffered
+        final int headerSize = baos.size();
+        nnout.writeNormalizedNode(NODE);
+        ((AbstractNormalizedNodeDataOutput) nnout).flush();
+        assertEquals(headerSize, baos.size());
+
+        nnout.close();
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(
+            ByteStreams.newDataInput(baos.toByteArray()));
+        assertEquals(NODE, input.readNormalizedNode());
+        assertEquals(NODE, input.readNormalizedNode());
+    }
+
+    @Test
+    public void testFlushEmitsFullBlock() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DeflateBlockOutputStream blocks = new DeflateBlockOutputStream(ByteStreams.newDataOutput(baos),
+            Deflater.BEST_SPEED);
+        blocks.startBlocks();
+        blocks.write(new byte[DeflateBlockOutputStream.BLOCK_SIZE - 1]);
+        blocks.flush();
+        assertEquals(0, baos.size());
+        blocks.write(0);
+        blocks.flush();
+        final int blockSize = baos.size();
+        assertTrue(blockSize > 0);
+
+        blocks.close();
+        assertEquals(blockSize, baos.size());
+        assertThrows(IOException.class, () -> blocks.write(0));
+
+        final DeflateBlockInputStream input = new DeflateBlockInputStream(new DataInputStream(
+            new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(DeflateBlockOutputStream.BLOCK_SIZE, ByteStreams.toByteArray(input).length);
+        input.close();
+        assertThrows(IOException.class, input::read);
+    }
+
+    private static byte[] write(final NormalizedNodeStreamVersion version, final NormalizedNode<?, ?>... nodes)
+            throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(baos))) {
+            for (NormalizedNode<?, ?> node : nodes) {
+                nnout.writeNormalizedNode(node);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static ContainerNode createLarge() {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+        for (int i = 0; i < 10000; ++i) {
+            builder.withChild(ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(TestModel.DESC_QNAME, "Description of entry " + i))
+                .build());
+        }
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(builder.build()).build();
+    }
+}
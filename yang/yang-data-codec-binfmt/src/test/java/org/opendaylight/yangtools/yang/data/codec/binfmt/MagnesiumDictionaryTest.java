@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class MagnesiumDictionaryTest {
+    private static final QName MODULE = QName.create("urn:opendaylight:params:xml:ns:yang:delta-candidate",
+        "delta-candidate").intern();
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName ITEM = QName.create(MODULE, "item");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName VALUE = QName.create(MODULE, "value");
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResource("/delta-candidate.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Test
+    public void testSharedAcrossStreams() throws IOException {
+        final MagnesiumDictionary writer = MagnesiumDictionary.create();
+        final MagnesiumDictionary reader = MagnesiumDictionary.create();
+        final ContainerNode node = TestModel.createTestContainer(Uint64::valueOf);
+
+        final byte[] first = write(writer, node);
+        final byte[] second = write(writer, node);
+        assertTrue(second.length < first.length / 2);
+
+        final NormalizedNodeDataInput firstInput = reader.newDataInput(ByteStreams.newDataInput(first));
+        assertEquals(NormalizedNodeStreamVersion.MAGNESIUM, firstInput.getVersion());
+        assertEquals(node, firstInput.readNormalizedNode());
+        assertEquals(node, reader.newDataInput(ByteStreams.newDataInput(second)).readNormalizedNode());
+    }
+
+    @Test
+    public void testSeeded() throws IOException {
+        final ContainerNode node = createRoot();
+        final byte[] unseeded = write(MagnesiumDictionary.create(), node);
+        final byte[] seeded = write(MagnesiumDictionary.create(SCHEMA_CONTEXT), node);
+        assertTrue(seeded.length < unseeded.length);
+
+        assertEquals(node, MagnesiumDictionary.create(SCHEMA_CONTEXT)
+            .newDataInput(ByteStreams.newDataInput(seeded)).readNormalizedNode());
+
+        // A dictionary with a different seed must be rejected
+        assertThrows(InvalidNormalizedNodeStreamException.class,
+            () -> MagnesiumDictionary.create().newDataInput(ByteStreams.newDataInput(seeded)));
+    }
+
+    @Test
+    public void testOutOfSync() throws IOException {
+        final MagnesiumDictionary writer = MagnesiumDictionary.create();
+        final MagnesiumDictionary reader = MagnesiumDictionary.create();
+        final ContainerNode node = createRoot();
+
+        // First stream is lost, hence the reader does not know about definitions made in it
+        write(writer, node);
+        final byte[] second = write(writer, node);
+        final InvalidNormalizedNodeStreamException ex = assertThrows(InvalidNormalizedNodeStreamException.class,
+            () -> reader.newDataInput(ByteStreams.newDataInput(second)));
+        assertTrue(ex.getMessage().startsWith("Dictionary out of sync"));
+    }
+
+    @Test
+    public void testDictionaryRequired() throws IOException {
+        final byte[] bytes = write(MagnesiumDictionary.create(), createRoot());
+        assertThrows(InvalidNormalizedNodeStreamException.class,
+            () -> NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes)));
+    }
+
+    @Test
+    public void testRoleBinding() throws IOException {
+        final MagnesiumDictionary dictionary = MagnesiumDictionary.create();
+        final byte[] bytes = write(dictionary, createRoot());
+        assertThrows(IllegalStateException.class, () -> dictionary.newDataInput(ByteStreams.newDataInput(bytes)));
+    }
+
+    private static byte[] write(final MagnesiumDictionary dictionary, final NormalizedNode<?, ?> node)
+            throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = dictionary.newDataOutput(ByteStreams.newDataOutput(baos))) {
+            nnout.writeNormalizedNode(node);
+        }
+        return baos.toByteArray();
+    }
+
+    private static ContainerNode createRoot() {
+        return Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(Builders.mapBuilder().withNodeIdentifier(new NodeIdentifier(ITEM))
+                .withChild(Builders.mapEntryBuilder()
+                    .withNodeIdentifier(NodeIdentifierWithPredicates.of(ITEM, ID, Uint32.ONE))
+                    .withChild(ImmutableNodes.leafNode(ID, Uint32.ONE))
+                    .withChild(ImmutableNodes.leafNode(VALUE, "one"))
+                    .build())
+                .build())
+            .build();
+    }
+}
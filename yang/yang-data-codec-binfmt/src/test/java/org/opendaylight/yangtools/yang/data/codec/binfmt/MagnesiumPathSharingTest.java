@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class MagnesiumPathSharingTest {
+    private static final YangInstanceIdentifier LIST_PATH = YangInstanceIdentifier.of(TestModel.TEST_QNAME)
+        .node(TestModel.OUTER_LIST_QNAME);
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final List<YangInstanceIdentifier> paths = createPaths();
+        final byte[] bytes = write(NormalizedNodeStreamVersion.MAGNESIUM_PATH_SHARING, paths);
+        assertTrue(bytes.length < write(NormalizedNodeStreamVersion.MAGNESIUM, paths).length * 2 / 3);
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes));
+        assertEquals(NormalizedNodeStreamVersion.MAGNESIUM_PATH_SHARING, input.getVersion());
+
+        final List<YangInstanceIdentifier> read = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); ++i) {
+            read.add(input.readYangInstanceIdentifier());
+        }
+        assertEquals(paths, read);
+
+        // Paths share their parents with previously-decoded paths and repeated paths are shared as a whole
+        assertSame(read.get(1), read.get(0).getParent());
+        assertSame(read.get(2), read.get(1).getParent());
+        assertSame(read.get(2), read.get(4).getParent());
+        assertSame(read.get(2), read.get(paths.size() - 1));
+    }
+
+    @Test
+    public void testNestedIdentifiers() throws IOException {
+        // Instance-identifier values share the coding with identifiers in the rest of the stream
+        final YangInstanceIdentifier path = entryPath(1);
+        final LeafNode<YangInstanceIdentifier> leaf = ImmutableNodes.leafNode(TestModel.DESC_QNAME, path.node(
+            TestModel.DESC_QNAME));
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM_PATH_SHARING.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            nnout.writeYangInstanceIdentifier(path);
+            nnout.writeNormalizedNode(leaf);
+            nnout.writeYangInstanceIdentifier(path.node(TestModel.DESC_QNAME));
+        }
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(
+            ByteStreams.newDataInput(baos.toByteArray()));
+        final YangInstanceIdentifier readPath = input.readYangInstanceIdentifier();
+        assertEquals(path, readPath);
+        final Object value = input.readNormalizedNode().getValue();
+        assertEquals(leaf.getValue(), value);
+        assertSame(readPath, ((YangInstanceIdentifier) value).getParent());
+        assertSame(value, input.readYangInstanceIdentifier());
+    }
+
+    @Test
+    public void testInvalidReference() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM_PATH_SHARING.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            nnout.writeYangInstanceIdentifier(LIST_PATH);
+        }
+        final byte[] bytes = baos.toByteArray();
+        final byte[] damaged = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, damaged, 0, bytes.length);
+        damaged[bytes.length] = MagnesiumValue.YIID_REF_1B;
+        damaged[bytes.length + 1] = 2;
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(damaged));
+        assertEquals(LIST_PATH, input.readYangInstanceIdentifier());
+        assertThrows(InvalidNormalizedNodeStreamException.class, input::readYangInstanceIdentifier);
+    }
+
+    private static List<YangInstanceIdentifier> createPaths() {
+        final List<YangInstanceIdentifier> ret = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            final YangInstanceIdentifier entry = entryPath(i);
+            ret.add(entry.node(TestModel.ID_QNAME));
+            ret.add(entry);
+            ret.add(LIST_PATH);
+        }
+        ret.add(LIST_PATH);
+        return ret;
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return LIST_PATH.node(NodeIdentifierWithPredicates.of(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+    }
+
+    private static byte[] write(final NormalizedNodeStreamVersion version, final List<YangInstanceIdentifier> paths)
+            throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(baos))) {
+            for (YangInstanceIdentifier path : paths) {
+                nnout.writeYangInstanceIdentifier(path);
+            }
+        }
+        return baos.toByteArray();
+    }
+}
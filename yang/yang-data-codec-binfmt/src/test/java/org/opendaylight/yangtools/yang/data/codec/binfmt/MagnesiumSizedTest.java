@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.SpilledNormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+
+public class MagnesiumSizedTest {
+    private static final ContainerNode NODE = TestModel.createTestContainer(Uint64::valueOf);
+    private static final ContainerNode OTHER = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+
+    @Test
+    public void testEager() throws IOException {
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(write()));
+        assertEquals(NormalizedNodeStreamVersion.MAGNESIUM_SIZED, input.getVersion());
+        assertEquals(NODE, input.readNormalizedNode());
+        assertEquals(OTHER, input.readNormalizedNode());
+    }
+
+    @Test
+    public void testLazy() throws IOException {
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(write()));
+        final NormalizedNode<?, ?> lazy = input.readLazyNormalizedNode();
+        // Subsequent node must be decoded correctly, as the trailers have kept coding tables in sync
+        assertEquals(OTHER, input.readNormalizedNode());
+
+        assertEquals(NODE.getIdentifier(), lazy.getIdentifier());
+        final Optional<DataContainerChild<?, ?>> outerList = ((ContainerNode) lazy).getChild(
+            new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+        assertTrue(outerList.isPresent());
+        final MapNode map = (MapNode) outerList.get();
+        assertFalse(map.getValue().isEmpty());
+        map.getValue().forEach(entry -> assertTrue(entry instanceof SpilledNormalizedNode));
+
+        assertEquals(NODE, lazy);
+        assertEquals(lazy, NODE);
+    }
+
+    @Test
+    public void testLazyLargeTables() throws IOException {
+        // Enough distinct strings to span multiple chunks of coding tables
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+        for (int i = 0; i < 1000; ++i) {
+            builder.withChild(ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(TestModel.DESC_QNAME, "Description of entry " + i))
+                .build());
+        }
+        final ContainerNode large = Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME)).withChild(builder.build()).build();
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(
+            ByteStreams.newDataInput(write(large, OTHER)));
+        final NormalizedNode<?, ?> lazy = input.readLazyNormalizedNode();
+        assertEquals(OTHER, input.readNormalizedNode());
+
+        final MapNode map = (MapNode) ((ContainerNode) lazy).getChild(new NodeIdentifier(TestModel.OUTER_LIST_QNAME))
+            .orElseThrow();
+        final MapEntryNode last = map.getValue().stream()
+            .filter(entry -> entry.getIdentifier().getValue(TestModel.ID_QNAME).equals(999))
+            .findAny().orElseThrow();
+        assertTrue(last instanceof SpilledNormalizedNode);
+        assertEquals(Optional.of(ImmutableNodes.leafNode(TestModel.DESC_QNAME, "Description of entry 999")),
+            last.getChild(new NodeIdentifier(TestModel.DESC_QNAME)));
+        assertTrue(last.toString().contains("inflated=true"));
+
+        assertEquals(large, lazy);
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(write()));
+        input.skipNormalizedNode();
+        assertEquals(OTHER, input.readNormalizedNode());
+    }
+
+    @Test
+    public void testDefaultLazy() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            nnout.writeNormalizedNode(NODE);
+            nnout.writeNormalizedNode(OTHER);
+        }
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.newDataInput(
+            ByteStreams.newDataInput(baos.toByteArray()));
+        input.skipNormalizedNode();
+        assertEquals(OTHER, input.readLazyNormalizedNode());
+    }
+
+    private static byte[] write() throws IOException {
+        return write(NODE, OTHER);
+    }
+
+    private static byte[] write(final NormalizedNode<?, ?>... nodes) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM_SIZED.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            for (NormalizedNode<?, ?> node : nodes) {
+                nnout.writeNormalizedNode(node);
+            }
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class MappedDataTreeSnapshotTest {
+    private static final QName MODULE = QName.create("urn:opendaylight:params:xml:ns:yang:delta-candidate",
+        "delta-candidate").intern();
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName A = QName.create(MODULE, "a");
+    private static final QName NESTED = QName.create(MODULE, "nested");
+    private static final QName X = QName.create(MODULE, "x");
+    private static final QName ITEM = QName.create(MODULE, "item");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName VALUE = QName.create(MODULE, "value");
+    private static final QName TAGS = QName.create(MODULE, "tags");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+    private static final int ITEM_COUNT = 50;
+
+    private static final List<YangInstanceIdentifier> PATHS = List.of(
+        YangInstanceIdentifier.empty(),
+        ROOT_PATH,
+        ROOT_PATH.node(A),
+        ROOT_PATH.node(NESTED).node(X),
+        ROOT_PATH.node(TAGS),
+        ITEM_PATH,
+        itemPath(0),
+        itemPath(ITEM_COUNT - 1).node(VALUE),
+        itemPath(ITEM_COUNT),
+        ROOT_PATH.node(NESTED).node(A),
+        YangInstanceIdentifier.of(A));
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+    private static ContainerNode DATA;
+
+    private Path file;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResource("/delta-candidate.yang");
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> items = ImmutableNodes.mapNodeBuilder(ITEM);
+        for (int i = 0; i < ITEM_COUNT; ++i) {
+            items.withChild(ImmutableNodes.mapEntryBuilder(ITEM, ID, Uint32.valueOf(i))
+                .withChild(ImmutableNodes.leafNode(VALUE, "value " + i))
+                .build());
+        }
+
+        DATA = Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME))
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                .withChild(ImmutableNodes.leafNode(A, "a"))
+                .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(NESTED))
+                    .withChild(ImmutableNodes.leafNode(X, "x"))
+                    .build())
+                .withChild(items.build())
+                .withChild(Builders.<String>leafSetBuilder().withNodeIdentifier(new NodeIdentifier(TAGS))
+                    .withChildValue("tag")
+                    .build())
+                .build())
+            .build();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+        DATA = null;
+    }
+
+    @Before
+    public void before() throws IOException {
+        file = Files.createTempFile("mapped-snapshot", ".bin");
+    }
+
+    @After
+    public void after() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testIndexDepths() throws IOException {
+        for (int depth = 0; depth <= 5; ++depth) {
+            MappedDataTreeSnapshot.write(file, DATA, depth);
+            assertReads(MappedDataTreeSnapshot.open(file, SCHEMA_CONTEXT));
+        }
+    }
+
+    @Test
+    public void testDefaultIndexDepth() throws IOException {
+        MappedDataTreeSnapshot.write(file, DATA);
+        final MappedDataTreeSnapshot snapshot = MappedDataTreeSnapshot.open(file, SCHEMA_CONTEXT);
+        assertEquals(SCHEMA_CONTEXT, snapshot.getSchemaContext());
+
+        // Reverse order, so that children are materialized before their parents
+        for (int i = PATHS.size() - 1; i >= 0; --i) {
+            final YangInstanceIdentifier path = PATHS.get(i);
+            assertEquals(NormalizedNodes.findNode(DATA, path.getPathArguments()), snapshot.readNode(path));
+        }
+    }
+
+    @Test
+    public void testReadOnly() throws IOException, DataValidationFailedException {
+        MappedDataTreeSnapshot.write(file, DATA);
+        final MappedDataTreeSnapshot snapshot = MappedDataTreeSnapshot.open(file, SCHEMA_CONTEXT);
+        assertThrows(UnsupportedOperationException.class, snapshot::newModification);
+
+        // Modifications are made to a data tree loaded from the snapshot
+        final DataTree tree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL,
+            SCHEMA_CONTEXT);
+        final DataTreeModification init = tree.takeSnapshot().newModification();
+        init.write(YangInstanceIdentifier.empty(), snapshot.readNode(YangInstanceIdentifier.empty()).orElseThrow());
+        commit(tree, init);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH.node(A), ImmutableNodes.leafNode(A, "b"));
+        mod.delete(itemPath(0));
+        commit(tree, mod);
+
+        final DataTreeSnapshot modified = tree.takeSnapshot();
+        assertEquals(Optional.of(ImmutableNodes.leafNode(A, "b")), modified.readNode(ROOT_PATH.node(A)));
+        assertEquals(Optional.empty(), modified.readNode(itemPath(0)));
+        assertEquals(snapshot.readNode(itemPath(1)), modified.readNode(itemPath(1)));
+        assertEquals(Optional.of(DATA), snapshot.readNode(YangInstanceIdentifier.empty()));
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 });
+        assertThrows(InvalidNormalizedNodeStreamException.class, () -> MappedDataTreeSnapshot.open(file,
+            SCHEMA_CONTEXT));
+    }
+
+    private static void assertReads(final MappedDataTreeSnapshot snapshot) {
+        for (YangInstanceIdentifier path : PATHS) {
+            assertEquals(NormalizedNodes.findNode(DATA, path.getPathArguments()), snapshot.readNode(path));
+        }
+        assertEquals(Optional.of(DATA), snapshot.readNode(YangInstanceIdentifier.empty()));
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(NodeIdentifierWithPredicates.of(ITEM, ID, Uint32.valueOf(id)));
+    }
+}
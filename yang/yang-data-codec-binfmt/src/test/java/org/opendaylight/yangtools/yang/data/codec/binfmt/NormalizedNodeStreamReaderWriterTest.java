@@ -94,7 +94,15 @@ public class NormalizedNodeStreamReaderWriterTest {
             new Object[] { NormalizedNodeStreamVersion.SODIUM_SR1, Unsigned.UINT64,
                 1_049_618, 2_289_103, 139,   825, 103, 229,  99 },
             new Object[] { NormalizedNodeStreamVersion.MAGNESIUM,  Unsigned.UINT64,
-                1_049_618, 2_289_103, 139,   825, 103, 229,  99 });
+                1_049_618, 2_289_103, 139,   825, 103, 229,  99 },
+            new Object[] { NormalizedNodeStreamVersion.MAGNESIUM_SIZED, Unsigned.UINT64,
+                1_051_517, 4_689_288, 139, 2_419, 103, 268,  99 },
+            new Object[] { NormalizedNodeStreamVersion.MAGNESIUM_COMPRESSED, Unsigned.UINT64,
+                5_825,     444_789, 135,   498, 112, 211, 111 },
+            new Object[] { NormalizedNodeStreamVersion.MAGNESIUM_PATH_SHARING, Unsigned.UINT64,
+                1_049_618, 2_289_103, 139,   825, 103, 229,  99 },
+            new Object[] { NormalizedNodeStreamVersion.MAGNESIUM_COLUMNAR, Unsigned.UINT64,
+                1_049_618,   771_862, 139,   825, 103, 229,  99 });
     }
 
     @Parameter(0)
@@ -119,11 +127,7 @@ public class NormalizedNodeStreamReaderWriterTest {
     @Test
     public void testNormalizedNodeStreaming() throws IOException {
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(bos));
-
         NormalizedNode<?, ?> testContainer = createTestContainer();
-        nnout.writeNormalizedNode(testContainer);
 
         QName toaster = QName.create("http://netconfcentral.org/ns/toaster","2009-11-20","toaster");
         QName darknessFactor = QName.create("http://netconfcentral.org/ns/toaster","2009-11-20","darknessFactor");
@@ -134,7 +138,12 @@ public class NormalizedNodeStreamReaderWriterTest {
 
         ContainerNode toasterContainer = Builders.containerBuilder()
                 .withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME)).withChild(toasterNode).build();
-        nnout.writeNormalizedNode(toasterContainer);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(bos))) {
+            nnout.writeNormalizedNode(testContainer);
+            nnout.writeNormalizedNode(toasterContainer);
+        }
 
         final byte[] bytes = bos.toByteArray();
         assertEquals(normalizedNodeStreamingSize, bytes.length);
@@ -176,9 +185,9 @@ public class NormalizedNodeStreamReaderWriterTest {
                         TestModel.INNER_LIST_QNAME, TestModel.ID_QNAME, 10).build();
 
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(bos));
-
-        nnout.writeYangInstanceIdentifier(path);
+        try (NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(bos))) {
+            nnout.writeYangInstanceIdentifier(path);
+        }
 
         final byte[] bytes = bos.toByteArray();
         assertEquals(yiidStreamingSize, bytes.length);
@@ -192,18 +201,16 @@ public class NormalizedNodeStreamReaderWriterTest {
     @Test
     public void testNormalizedNodeAndYangInstanceIdentifierStreaming() throws IOException {
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        NormalizedNodeDataOutput writer = version.newDataOutput(
-            ByteStreams.newDataOutput(bos));
-
         NormalizedNode<?, ?> testContainer = TestModel.createBaseTestContainerBuilder(uint64).build();
-        writer.writeNormalizedNode(testContainer);
-
         YangInstanceIdentifier path = YangInstanceIdentifier.builder(TestModel.TEST_PATH)
                 .node(TestModel.OUTER_LIST_QNAME).nodeWithKey(
                         TestModel.INNER_LIST_QNAME, TestModel.ID_QNAME, 10).build();
 
-        writer.writeYangInstanceIdentifier(path);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput writer = version.newDataOutput(ByteStreams.newDataOutput(bos))) {
+            writer.writeNormalizedNode(testContainer);
+            writer.writeYangInstanceIdentifier(path);
+        }
 
         final byte[] bytes = bos.toByteArray();
         assertEquals(nnYiidStreamingSize, bytes.length);
@@ -215,8 +222,6 @@ public class NormalizedNodeStreamReaderWriterTest {
 
         YangInstanceIdentifier newPath = reader.readYangInstanceIdentifier();
         Assert.assertEquals(path, newPath);
-
-        writer.close();
     }
 
     @Test(expected = InvalidNormalizedNodeStreamException.class, timeout = 10000)
@@ -260,9 +265,9 @@ public class NormalizedNodeStreamReaderWriterTest {
                             .withValue(new DOMSource(xmlNode)).build()).build();
 
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(bos));
-
-        nnout.writeNormalizedNode(anyXmlContainer);
+        try (NormalizedNodeDataOutput nnout = version.newDataOutput(ByteStreams.newDataOutput(bos))) {
+            nnout.writeNormalizedNode(anyXmlContainer);
+        }
 
         final byte[] bytes = bos.toByteArray();
         assertEquals(anyxmlStreamingSize, bytes.length);
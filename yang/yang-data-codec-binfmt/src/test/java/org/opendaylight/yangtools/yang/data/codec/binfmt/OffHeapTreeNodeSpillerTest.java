@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.SpillingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.SpilledNormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class OffHeapTreeNodeSpillerTest {
+    private static final QName MODULE = QName.create("urn:opendaylight:params:xml:ns:yang:delta-candidate",
+        "delta-candidate").intern();
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName A = QName.create(MODULE, "a");
+    private static final QName NESTED = QName.create(MODULE, "nested");
+    private static final QName X = QName.create(MODULE, "x");
+    private static final QName ITEM = QName.create(MODULE, "item");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName VALUE = QName.create(MODULE, "value");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final int ITEM_COUNT = 20;
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private SpillingDataTree dataTree;
+    private ContainerNode data;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResource("/delta-candidate.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = (SpillingDataTree) new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL,
+            SCHEMA_CONTEXT);
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> items = ImmutableNodes.mapNodeBuilder(ITEM);
+        for (int i = 0; i < ITEM_COUNT; ++i) {
+            items.withChild(ImmutableNodes.mapEntryBuilder(ITEM, ID, Uint32.valueOf(i))
+                .withChild(ImmutableNodes.leafNode(VALUE, "value " + i))
+                .build());
+        }
+        data = Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.leafNode(A, "a"))
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(NESTED))
+                .withChild(ImmutableNodes.leafNode(X, "x"))
+                .build())
+            .withChild(items.build())
+            .build();
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, data);
+        commit(mod);
+    }
+
+    @Test
+    public void testSpillAndModify() throws DataValidationFailedException {
+        final OffHeapTreeNodeSpiller spiller = new OffHeapTreeNodeSpiller(0);
+
+        // First pass only records state
+        assertSpill(spiller, false);
+        assertFalse(readNode(ROOT_PATH) instanceof SpilledNormalizedNode);
+
+        // Second pass spills the entire container
+        assertSpill(spiller, true);
+        final NormalizedNode<?, ?> spilled = readNode(ROOT_PATH);
+        assertTrue(spilled instanceof SpilledNormalizedNode);
+        assertEquals(data, spilled);
+        assertEquals(spilled, data);
+        assertEquals(data.hashCode(), spilled.hashCode());
+        assertEquals(Optional.of(ImmutableNodes.leafNode(VALUE, "value 3")),
+            dataTree.takeSnapshot().readNode(itemPath(3).node(VALUE)));
+
+        // Nothing left to spill
+        assertSpill(spiller, false);
+
+        // Modify a leaf inside the spilled container
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(itemPath(3).node(VALUE), ImmutableNodes.leafNode(VALUE, "modified"));
+        commit(mod);
+        assertEquals(Optional.of(ImmutableNodes.leafNode(VALUE, "modified")),
+            dataTree.takeSnapshot().readNode(itemPath(3).node(VALUE)));
+        assertFalse(readNode(ROOT_PATH) instanceof SpilledNormalizedNode);
+
+        // Unmodified entries and the nested container are cold again
+        assertSpill(spiller, true);
+        assertTrue(readNode(ROOT_PATH.node(NESTED)) instanceof SpilledNormalizedNode);
+        assertTrue(readNode(itemPath(4)) instanceof SpilledNormalizedNode);
+        assertFalse(readNode(itemPath(3)) instanceof SpilledNormalizedNode);
+        assertEquals(Optional.of(ImmutableNodes.leafNode(VALUE, "value 4")),
+            dataTree.takeSnapshot().readNode(itemPath(4).node(VALUE)));
+    }
+
+    @Test
+    public void testMinimumSize() {
+        final OffHeapTreeNodeSpiller spiller = new OffHeapTreeNodeSpiller(Integer.MAX_VALUE);
+        assertSpill(spiller, false);
+        assertSpill(spiller, false);
+        assertFalse(readNode(ROOT_PATH) instanceof SpilledNormalizedNode);
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTreeNodeSpiller(-1));
+    }
+
+    @Test
+    public void testUncommittedPass() {
+        final OffHeapTreeNodeSpiller spiller = new OffHeapTreeNodeSpiller(0);
+
+        // Passes which are not committed do not establish a base
+        dataTree.prepareSpill(spiller);
+        dataTree.prepareSpill(spiller);
+        assertSpill(spiller, false);
+        assertSpill(spiller, true);
+    }
+
+    @Test
+    public void testConcurrentModification() throws DataValidationFailedException {
+        final OffHeapTreeNodeSpiller spiller = new OffHeapTreeNodeSpiller(0);
+        assertSpill(spiller, false);
+
+        final DataTreeCandidate candidate = dataTree.prepareSpill(spiller);
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH.node(A), ImmutableNodes.leafNode(A, "b"));
+        commit(mod);
+        assertThrows(IllegalStateException.class, () -> dataTree.commit(candidate));
+        assertEquals(Optional.of(ImmutableNodes.leafNode(A, "b")),
+            dataTree.takeSnapshot().readNode(ROOT_PATH.node(A)));
+    }
+
+    private void assertSpill(final OffHeapTreeNodeSpiller spiller, final boolean expectSpill) {
+        final DataTreeCandidate candidate = dataTree.prepareSpill(spiller);
+        if (expectSpill) {
+            // Logical content is unchanged, hence there are no modified children
+            assertEquals(ModificationType.SUBTREE_MODIFIED, candidate.getRootNode().getModificationType());
+            assertEquals(List.of(), List.copyOf(candidate.getRootNode().getChildNodes()));
+        } else {
+            assertEquals(ModificationType.UNMODIFIED, candidate.getRootNode().getModificationType());
+        }
+        final Optional<NormalizedNode<?, ?>> before = dataTree.takeSnapshot().readNode(ROOT_PATH);
+        dataTree.commit(candidate);
+        assertEquals(before, dataTree.takeSnapshot().readNode(ROOT_PATH));
+        assertEquals(expectSpill, before.get() != readNode(ROOT_PATH));
+    }
+
+    private NormalizedNode<?, ?> readNode(final YangInstanceIdentifier path) {
+        return dataTree.takeSnapshot().readNode(path).get();
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ROOT_PATH.node(ITEM).node(NodeIdentifierWithPredicates.of(ITEM, ID, Uint32.valueOf(id)));
+    }
+}
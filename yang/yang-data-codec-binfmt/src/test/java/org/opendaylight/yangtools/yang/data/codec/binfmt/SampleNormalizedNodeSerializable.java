@@ -38,6 +38,8 @@ public class SampleNormalizedNodeSerializable implements Serializable {
     }
 
     private void writeObject(final ObjectOutputStream stream) throws IOException {
-        version.newDataOutput(stream).writeNormalizedNode(input);
+        try (NormalizedNodeDataOutput out = version.newDataOutput(stream)) {
+            out.writeNormalizedNode(input);
+        }
     }
 }
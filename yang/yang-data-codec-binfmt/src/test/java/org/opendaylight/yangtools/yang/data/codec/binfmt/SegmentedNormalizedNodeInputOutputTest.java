@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+
+public class SegmentedNormalizedNodeInputOutputTest {
+    private static final QName BIG_LIST = QName.create(TestModel.TEST_QNAME, "big-list");
+    private static final QName ORDERED_LIST = QName.create(TestModel.TEST_QNAME, "ordered-list");
+    private static final QName NAME = QName.create(TestModel.TEST_QNAME, "name");
+    private static final QName NESTED = QName.create(TestModel.TEST_QNAME, "nested");
+    private static final QName INNER_LIST = QName.create(TestModel.TEST_QNAME, "inner-list");
+
+    private static ExecutorService EXECUTOR;
+
+    @BeforeClass
+    public static void beforeClass() {
+        EXECUTOR = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        EXECUTOR.shutdown();
+        EXECUTOR = null;
+    }
+
+    @Test
+    public void testContainerRoundTrip() throws IOException {
+        final DataContainerNodeBuilder<NodeIdentifier, ContainerNode> builder = Builders.containerBuilder(
+            TestModel.createTestContainer(Uint64::valueOf));
+        final CollectionNodeBuilder<MapEntryNode, OrderedMapNode> ordered = Builders.orderedMapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ORDERED_LIST));
+        for (int i = 0; i < 250; ++i) {
+            ordered.withChild(ImmutableNodes.mapEntry(ORDERED_LIST, NAME, "entry " + (250 - i)));
+        }
+        final ContainerNode root = builder.withChild(createMap(1000)).withChild(ordered.build()).build();
+
+        final DataContainerNode<?> read = roundTrip(root, 100);
+        assertEquals(root, read);
+        // Ordering of the ordered map must be retained
+        assertEquals(ordered.build(), read.getChild(new NodeIdentifier(ORDERED_LIST)).get());
+    }
+
+    @Test
+    public void testMapEntryRoundTrip() throws IOException {
+        final MapEntryNode root = ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1)
+            .withChild(createMap(10))
+            .build();
+        assertEquals(root, roundTrip(root, SegmentedNormalizedNodeInputOutput.DEFAULT_SEGMENT_SIZE));
+    }
+
+    @Test
+    public void testNestedRoundTrip() throws IOException {
+        // A container holding a list whose entries hold large lists themselves
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outer = Builders.mapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(BIG_LIST));
+        for (int i = 0; i < 3; ++i) {
+            final CollectionNodeBuilder<MapEntryNode, MapNode> inner = Builders.mapBuilder()
+                .withNodeIdentifier(new NodeIdentifier(INNER_LIST));
+            for (int j = 0; j < 250; ++j) {
+                inner.withChild(ImmutableNodes.mapEntry(INNER_LIST, NAME, "entry " + i + "/" + j));
+            }
+            outer.withChild(ImmutableNodes.mapEntryBuilder(BIG_LIST, TestModel.ID_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(TestModel.DESC_QNAME, "entry " + i))
+                .withChild(inner.build())
+                .build());
+        }
+        final ContainerNode root = Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(NESTED))
+                .withChild(outer.build())
+                .build())
+            .build();
+
+        final byte[] bytes = write(root, 100);
+        assertEquals(9, segmentCount(bytes));
+        assertEquals(root, SegmentedNormalizedNodeInputOutput.readSegmented(ByteStreams.newDataInput(bytes),
+            EXECUTOR));
+    }
+
+    @Test
+    public void testTruncatedSegmentTable() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutput output = ByteStreams.newDataOutput(baos);
+        output.writeByte(TokenTypes.SIGNATURE_MARKER);
+        output.writeShort(TokenTypes.MAGNESIUM_SEGMENTED_VERSION);
+        try (NormalizedNodeDataOutput header = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(output)) {
+            header.writeByte(0);
+            header.writePathArgument(new NodeIdentifier(TestModel.TEST_QNAME));
+            header.writeInt(Integer.MAX_VALUE);
+            header.writeInt(0);
+        }
+
+        final InvalidNormalizedNodeStreamException ex = assertThrows(InvalidNormalizedNodeStreamException.class,
+            () -> SegmentedNormalizedNodeInputOutput.readSegmented(new DataInputStream(
+                new ByteArrayInputStream(baos.toByteArray())), MoreExecutors.directExecutor()));
+        assertEquals("Segment count 2147483647 exceeds available input", ex.getMessage());
+    }
+
+    @Test
+    public void testSegmentedAsStream() throws IOException {
+        final byte[] bytes = write(Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME)).withChild(createMap(10)).build(), 100);
+
+        final InvalidNormalizedNodeStreamException ex = assertThrows(InvalidNormalizedNodeStreamException.class,
+            () -> NormalizedNodeDataInput.newDataInput(ByteStreams.newDataInput(bytes)).getVersion());
+        assertEquals("Stream version 8 is a segmented stream, use SegmentedNormalizedNodeInputOutput to read it",
+            ex.getMessage());
+    }
+
+    @Test
+    public void testNotSegmented() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput nnout = NormalizedNodeStreamVersion.MAGNESIUM.newDataOutput(
+                ByteStreams.newDataOutput(baos))) {
+            nnout.writeNormalizedNode(createMap(1));
+        }
+
+        assertThrows(InvalidNormalizedNodeStreamException.class,
+            () -> SegmentedNormalizedNodeInputOutput.readSegmented(ByteStreams.newDataInput(baos.toByteArray()),
+                MoreExecutors.directExecutor()));
+    }
+
+    private static DataContainerNode<?> roundTrip(final DataContainerNode<?> root, final int segmentSize)
+            throws IOException {
+        return SegmentedNormalizedNodeInputOutput.readSegmented(ByteStreams.newDataInput(write(root, segmentSize)),
+            EXECUTOR);
+    }
+
+    private static byte[] write(final DataContainerNode<?> root, final int segmentSize) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SegmentedNormalizedNodeInputOutput.writeSegmented(ByteStreams.newDataOutput(baos), root, EXECUTOR,
+            segmentSize);
+        return baos.toByteArray();
+    }
+
+    private static int segmentCount(final byte[] bytes) throws IOException {
+        final ByteArrayDataInput input = ByteStreams.newDataInput(bytes);
+        input.readByte();
+        input.readShort();
+        final NormalizedNodeDataInput header = NormalizedNodeDataInput.newDataInput(input);
+        header.readByte();
+        header.readPathArgument();
+        return header.readInt();
+    }
+
+    private static MapNode createMap(final int size) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(BIG_LIST));
+        for (int i = 0; i < size; ++i) {
+            builder.withChild(ImmutableNodes.mapEntryBuilder(BIG_LIST, TestModel.ID_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(TestModel.DESC_QNAME, "entry " + i))
+                .build());
+        }
+        return builder.build();
+    }
+}
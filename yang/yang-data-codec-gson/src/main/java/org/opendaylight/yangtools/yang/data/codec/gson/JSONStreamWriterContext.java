@@ -62,18 +62,30 @@ abstract class JSONStreamWriterContext {
      */
     final void writeChildJsonIdentifier(final EffectiveModelContext schema, final JsonWriter writer, final QName qname)
             throws IOException {
+        final QNameModule module = qname.getModule();
+        final boolean qualified = !module.getNamespace().equals(getNamespace());
+        if (writer instanceof Utf8JsonWriter) {
+            // Reuse the encoded name if we have seen it before
+            final Utf8JsonWriter utf8 = (Utf8JsonWriter) writer;
+            if (!utf8.cachedName(qname, qualified)) {
+                utf8.cacheName(qname, qualified, jsonIdentifier(schema, qname, qualified));
+            }
+        } else {
+            writer.name(jsonIdentifier(schema, qname, qualified));
+        }
+    }
 
+    private static String jsonIdentifier(final EffectiveModelContext schema, final QName qname,
+            final boolean qualified) {
         final StringBuilder sb = new StringBuilder();
         // Prepend module name if namespaces do not match
-        final QNameModule module = qname.getModule();
-        if (!module.getNamespace().equals(getNamespace())) {
+        if (qualified) {
+            final QNameModule module = qname.getModule();
             final Optional<String> modules = schema.findModule(module).map(Module::getName);
             checkArgument(modules.isPresent(), "Could not find module for namespace {}", module);
             sb.append(modules.get()).append(':');
         }
-        sb.append(qname.getLocalName());
-
-        writer.name(sb.toString());
+        return sb.append(qname.getLocalName()).toString();
     }
 
     /**
@@ -42,11 +42,9 @@ import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.MultipleEntryDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.OperationAsContainer;
+import org.opendaylight.yangtools.yang.data.util.ParsePlan;
 import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
 import org.opendaylight.yangtools.yang.data.util.SimpleNodeDataWithSchema;
-import org.opendaylight.yangtools.yang.model.api.CaseSchemaNode;
-import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
-import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.OperationDefinition;
@@ -74,13 +72,20 @@ public final class JsonParserStream implements Closeable, Flushable {
 
     // TODO: consider class specialization to remove this field
     private final boolean lenient;
+    private final boolean streaming;
 
     private JsonParserStream(final NormalizedNodeStreamWriter writer, final JSONCodecFactory codecs,
             final DataSchemaNode parentNode, final boolean lenient) {
+        this(writer, codecs, parentNode, lenient, false);
+    }
+
+    private JsonParserStream(final NormalizedNodeStreamWriter writer, final JSONCodecFactory codecs,
+            final DataSchemaNode parentNode, final boolean lenient, final boolean streaming) {
         this.writer = requireNonNull(writer);
         this.codecs = requireNonNull(codecs);
         this.parentNode = parentNode;
         this.lenient = lenient;
+        this.streaming = streaming;
     }
 
     /**
@@ -155,6 +160,47 @@ public final class JsonParserStream implements Closeable, Flushable {
         return new JsonParserStream(writer, codecFactory, validateParent(parentNode), true);
     }
 
+    /**
+     * Create a new {@link JsonParserStream} backed by specified {@link NormalizedNodeStreamWriter}
+     * and {@link JSONCodecFactory}. The stream will be logically rooted at the top of the SchemaContext associated
+     * with the specified codec factory.
+     *
+     * <p>
+     * Returned parser will emit events into the writer as soon as the corresponding JSON tokens are read, rather than
+     * building an intermediate representation of the entire input first. Children are held in memory only where their
+     * order does not allow them to be emitted immediately, such as list entry children preceding the key leaves.
+     * Members of an augmentation or a choice must not be interleaved with containers and lists which are not members
+     * of the same augmentation or choice.
+     *
+     * @param writer NormalizedNodeStreamWriter to use for instantiation of normalized nodes
+     * @param codecFactory {@link JSONCodecFactory} to use for parsing leaves
+     * @return A new {@link JsonParserStream}
+     * @throws NullPointerException if any of the arguments are null
+     */
+    public static @NonNull JsonParserStream createStreaming(final @NonNull NormalizedNodeStreamWriter writer,
+            final @NonNull JSONCodecFactory codecFactory) {
+        return new JsonParserStream(writer, codecFactory, codecFactory.getEffectiveModelContext(), false, true);
+    }
+
+    /**
+     * Create a new {@link JsonParserStream} backed by specified {@link NormalizedNodeStreamWriter}
+     * and {@link JSONCodecFactory}. The stream will be logically rooted at the specified parent node.
+     *
+     * <p>
+     * Returned parser will emit events into the writer as soon as the corresponding JSON tokens are read, as described
+     * in {@link #createStreaming(NormalizedNodeStreamWriter, JSONCodecFactory)}.
+     *
+     * @param writer NormalizedNodeStreamWriter to use for instantiation of normalized nodes
+     * @param codecFactory {@link JSONCodecFactory} to use for parsing leaves
+     * @param parentNode Logical root node
+     * @return A new {@link JsonParserStream}
+     * @throws NullPointerException if any of the arguments are null
+     */
+    public static @NonNull JsonParserStream createStreaming(final @NonNull NormalizedNodeStreamWriter writer,
+            final @NonNull JSONCodecFactory codecFactory, final @NonNull SchemaNode parentNode) {
+        return new JsonParserStream(writer, codecFactory, validateParent(parentNode), false, true);
+    }
+
     public JsonParserStream parse(final JsonReader reader) {
         // code copied from gson's JsonParser and Stream classes
 
@@ -164,6 +210,11 @@ public final class JsonParserStream implements Closeable, Flushable {
         try {
             reader.peek();
             isEmpty = false;
+            if (streaming) {
+                new StreamingJsonParser(this, writer, lenient).parse(reader, parentNode);
+                return this;
+            }
+
             final CompositeNodeDataWithSchema<?> compositeNodeDataWithSchema =
                     new CompositeNodeDataWithSchema<>(parentNode);
             read(reader, compositeNodeDataWithSchema);
@@ -227,16 +278,14 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
-    private void readAnyXmlValue(final JsonReader in, final AnyXmlNodeDataWithSchema parent,
-            final String anyXmlObjectName) throws IOException {
+    DOMSource readAnyXmlValue(final JsonReader in, final String anyXmlObjectName) throws IOException {
         final String anyXmlObjectNS = getCurrentNamespace().toString();
         final Document doc = UntrustedXML.newDocumentBuilder().newDocument();
         final Element rootElement = doc.createElementNS(anyXmlObjectNS, anyXmlObjectName);
         doc.appendChild(rootElement);
         traverseAnyXmlValue(in, doc, rootElement);
 
-        final DOMSource domSource = new DOMSource(doc.getDocumentElement());
-        parent.setValue(domSource);
+        return new DOMSource(doc.getDocumentElement());
     }
 
     public void read(final JsonReader in, AbstractNodeDataWithSchema<?> parent) throws IOException {
@@ -308,7 +357,7 @@ public final class JsonParserStream implements Closeable, Flushable {
                     final AbstractNodeDataWithSchema<?> newChild = ((CompositeNodeDataWithSchema<?>) parent)
                             .addChild(childDataSchemaNodes);
                     if (newChild instanceof AnyXmlNodeDataWithSchema) {
-                        readAnyXmlValue(in, (AnyXmlNodeDataWithSchema) newChild, jsonElementName);
+                        ((AnyXmlNodeDataWithSchema) newChild).setValue(readAnyXmlValue(in, jsonElementName));
                     } else {
                         read(in, newChild);
                     }
@@ -348,15 +397,15 @@ public final class JsonParserStream implements Closeable, Flushable {
         return codecs.codecFor((TypedDataSchemaNode) node).parseValue(null, value);
     }
 
-    private void removeNamespace() {
+    void removeNamespace() {
         namespaces.pop();
     }
 
-    private void addNamespace(final URI namespace) {
+    void addNamespace(final URI namespace) {
         namespaces.push(namespace);
     }
 
-    private Entry<String, URI> resolveNamespace(final String childName, final DataSchemaNode dataSchemaNode) {
+    Entry<String, URI> resolveNamespace(final String childName, final DataSchemaNode dataSchemaNode) {
         final int lastIndexOfColon = childName.lastIndexOf(':');
         String moduleNamePart = null;
         String nodeNamePart = null;
@@ -373,7 +422,7 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
 
         if (namespace == null) {
-            final Set<URI> potentialUris = resolveAllPotentialNamespaces(nodeNamePart, dataSchemaNode);
+            final Set<URI> potentialUris = ParsePlan.of(dataSchemaNode).namespacesOf(nodeNamePart);
             if (potentialUris.contains(getCurrentNamespace())) {
                 namespace = getCurrentNamespace();
             } else if (potentialUris.size() == 1) {
@@ -400,27 +449,6 @@ public final class JsonParserStream implements Closeable, Flushable {
         return builder.toString();
     }
 
-    private Set<URI> resolveAllPotentialNamespaces(final String elementName, final DataSchemaNode dataSchemaNode) {
-        final Set<URI> potentialUris = new HashSet<>();
-        final Set<ChoiceSchemaNode> choices = new HashSet<>();
-        if (dataSchemaNode instanceof DataNodeContainer) {
-            for (final DataSchemaNode childSchemaNode : ((DataNodeContainer) dataSchemaNode).getChildNodes()) {
-                if (childSchemaNode instanceof ChoiceSchemaNode) {
-                    choices.add((ChoiceSchemaNode)childSchemaNode);
-                } else if (childSchemaNode.getQName().getLocalName().equals(elementName)) {
-                    potentialUris.add(childSchemaNode.getQName().getNamespace());
-                }
-            }
-
-            for (final ChoiceSchemaNode choiceNode : choices) {
-                for (final CaseSchemaNode concreteCase : choiceNode.getCases()) {
-                    potentialUris.addAll(resolveAllPotentialNamespaces(elementName, concreteCase));
-                }
-            }
-        }
-        return potentialUris;
-    }
-
     private URI getCurrentNamespace() {
         return namespaces.peek();
     }
@@ -9,6 +9,7 @@ package org.opendaylight.yangtools.yang.data.codec.gson;
 
 import com.google.common.annotations.Beta;
 import com.google.gson.stream.JsonWriter;
+import java.io.OutputStream;
 import java.io.Writer;
 
 /**
@@ -43,4 +44,30 @@ public final class JsonWriterFactory {
         jsonWriter.setIndent(indent);
         return jsonWriter;
     }
+
+    /**
+     * Create a new JsonWriter, which writes UTF-8 encoded output to the specified output stream. The returned writer
+     * does not go through a {@link Writer} and caches encoded member names emitted by
+     * {@link JSONNormalizedNodeStreamWriter}, making it more efficient for large outputs.
+     *
+     * @param stream Output stream
+     * @return A JsonWriter instance
+     */
+    public static JsonWriter createJsonWriter(final OutputStream stream) {
+        return new Utf8JsonWriter(stream);
+    }
+
+    /**
+     * Create a new JsonWriter, which writes UTF-8 encoded output to the specified output stream. The returned writer
+     * does not go through a {@link Writer} and caches encoded member names emitted by
+     * {@link JSONNormalizedNodeStreamWriter}, making it more efficient for large outputs. Its indentation cannot be
+     * changed through {@link JsonWriter#setIndent(String)}.
+     *
+     * @param stream Output stream
+     * @param indentSize size of the indent
+     * @return A JsonWriter instance
+     */
+    public static JsonWriter createJsonWriter(final OutputStream stream, final int indentSize) {
+        return new Utf8JsonWriter(stream, indentSize);
+    }
 }
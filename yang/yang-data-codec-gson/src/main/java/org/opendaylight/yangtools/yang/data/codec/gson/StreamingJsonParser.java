@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.opendaylight.yangtools.odlext.model.api.YangModeledAnyxmlSchemaNode;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.AnydataNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ContainerNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
+import org.opendaylight.yangtools.yang.data.util.StreamingNodeFrame;
+import org.opendaylight.yangtools.yang.data.util.YangModeledAnyXmlNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.model.api.AnydataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AnyxmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-pass counterpart to {@link JsonParserStream#read(JsonReader, AbstractNodeDataWithSchema)}. Rather than
+ * building a complete {@link AbstractNodeDataWithSchema} tree, this parser emits {@link NormalizedNodeStreamWriter}
+ * events as soon as the corresponding JSON tokens are read, so that memory usage does not depend on the size of
+ * the input.
+ *
+ * <p>
+ * Children are buffered only where the ordering of JSON members does not match what the writer expects, as detailed
+ * in {@link StreamingNodeFrame}. Since an augmentation or choice cannot be reopened once it has been closed, members
+ * of a single augmentation or choice must not be split by a container, list or leaf-list which is not a member. Such
+ * input is rejected with an {@link IllegalStateException}.
+ */
+final class StreamingJsonParser {
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingJsonParser.class);
+
+    private final NormalizedNodeStreamWriter writer;
+    private final JsonParserStream stream;
+    private final boolean lenient;
+
+    StreamingJsonParser(final JsonParserStream stream, final NormalizedNodeStreamWriter writer,
+            final boolean lenient) {
+        this.stream = requireNonNull(stream);
+        this.writer = requireNonNull(writer);
+        this.lenient = lenient;
+    }
+
+    void parse(final JsonReader in, final DataSchemaNode root) throws IOException {
+        readObject(in, StreamingNodeFrame.of(writer, root, false));
+    }
+
+    private void readObject(final JsonReader in, final StreamingNodeFrame frame) throws IOException {
+        final DataSchemaNode lookupSchema = frame.getLookupSchema();
+        final JsonToken token = in.peek();
+        checkState(token == JsonToken.BEGIN_OBJECT, "Expected an object for %s, encountered %s",
+            lookupSchema.getQName(), token);
+
+        final Set<String> namesakes = new HashSet<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            final String jsonElementName = in.nextName();
+            final Entry<String, URI> namespaceAndName = stream.resolveNamespace(jsonElementName, lookupSchema);
+            final String localName = namespaceAndName.getKey();
+            final URI namespace = namespaceAndName.getValue();
+            if (lenient && (localName == null || namespace == null)) {
+                LOG.debug("Schema node with name {} was not found under {}", localName, lookupSchema.getQName());
+                in.skipValue();
+                continue;
+            }
+            stream.addNamespace(namespace);
+            if (!namesakes.add(jsonElementName)) {
+                throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
+            }
+
+            final Deque<DataSchemaNode> childDataSchemaNodes = ParserStreamUtils.findSchemaNodeByNameAndNamespace(
+                lookupSchema, localName, namespace);
+            checkState(!childDataSchemaNodes.isEmpty(),
+                "Schema node with name %s and namespace %s does not exist at %s", localName, namespace,
+                lookupSchema);
+
+            final List<Object> wrappers = frame.wrappersOf(childDataSchemaNodes);
+            final DataSchemaNode childSchema = childDataSchemaNodes.pop();
+            if (childSchema instanceof LeafSchemaNode) {
+                frame.addScalar(wrappers, readScalar(in, new LeafNodeDataWithSchema((LeafSchemaNode) childSchema)));
+            } else if (childSchema instanceof AnyxmlSchemaNode
+                    && !(childSchema instanceof YangModeledAnyxmlSchemaNode)) {
+                final AnyXmlNodeDataWithSchema anyxml = new AnyXmlNodeDataWithSchema((AnyxmlSchemaNode) childSchema);
+                anyxml.setValue(stream.readAnyXmlValue(in, jsonElementName));
+                frame.addScalar(wrappers, anyxml);
+            } else if (childSchema instanceof AnydataSchemaNode) {
+                frame.addScalar(wrappers, readScalar(in,
+                    new AnydataNodeDataWithSchema((AnydataSchemaNode) childSchema)));
+            } else if (frame.isStarted()) {
+                frame.switchTo(wrappers);
+                streamComposite(in, childSchema);
+            } else {
+                // We cannot emit anything until the entry has been started, read the child into memory
+                final AbstractNodeDataWithSchema<?> child = newComposite(childSchema);
+                stream.read(in, child);
+                frame.addPending(wrappers, child);
+            }
+            stream.removeNamespace();
+        }
+        in.endObject();
+        frame.finish();
+    }
+
+    private AbstractNodeDataWithSchema<?> readScalar(final JsonReader in, final AbstractNodeDataWithSchema<?> node)
+            throws IOException {
+        stream.read(in, node);
+        return node;
+    }
+
+    private void streamComposite(final JsonReader in, final DataSchemaNode schema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        if (schema instanceof ContainerSchemaNode) {
+            writer.nextDataSchemaNode(schema);
+            writer.startContainerNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            readObject(in, StreamingNodeFrame.of(writer, schema, true));
+        } else if (schema instanceof ListSchemaNode) {
+            streamList(in, (ListSchemaNode) schema, identifier);
+        } else if (schema instanceof LeafListSchemaNode) {
+            streamLeafList(in, (LeafListSchemaNode) schema, identifier);
+        } else if (schema instanceof YangModeledAnyxmlSchemaNode) {
+            final YangModeledAnyxmlSchemaNode anyxml = (YangModeledAnyxmlSchemaNode) schema;
+            writer.nextDataSchemaNode(anyxml);
+            writer.startYangModeledAnyXmlNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            readObject(in, StreamingNodeFrame.of(writer, anyxml, true));
+        } else {
+            throw new IllegalStateException("Unhandled schema node " + schema);
+        }
+    }
+
+    private void streamList(final JsonReader in, final ListSchemaNode schema, final NodeIdentifier identifier)
+            throws IOException {
+        final List<QName> keyDef = schema.getKeyDefinition();
+        writer.nextDataSchemaNode(schema);
+        if (keyDef.isEmpty()) {
+            writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else if (schema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+
+        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                streamListEntry(in, schema, identifier);
+            }
+            in.endArray();
+        } else {
+            // Lists with a single entry are sometimes encoded without the wrapping array
+            streamListEntry(in, schema, identifier);
+        }
+        writer.endNode();
+    }
+
+    private void streamListEntry(final JsonReader in, final ListSchemaNode schema, final NodeIdentifier identifier)
+            throws IOException {
+        if (!schema.getKeyDefinition().isEmpty()) {
+            readObject(in, StreamingNodeFrame.ofMapEntry(writer, schema, null));
+        } else {
+            writer.nextDataSchemaNode(schema);
+            writer.startUnkeyedListItem(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            readObject(in, StreamingNodeFrame.of(writer, schema, true));
+        }
+    }
+
+    private void streamLeafList(final JsonReader in, final LeafListSchemaNode schema,
+            final NodeIdentifier identifier) throws IOException {
+        final JsonToken token = in.peek();
+        checkState(token == JsonToken.BEGIN_ARRAY, "Expected an array for %s, encountered %s", schema.getQName(),
+            token);
+
+        writer.nextDataSchemaNode(schema);
+        if (schema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(schema);
+            stream.read(in, entry);
+            entry.write(writer);
+        }
+        in.endArray();
+        writer.endNode();
+    }
+
+    private static AbstractNodeDataWithSchema<?> newComposite(final DataSchemaNode schema) {
+        if (schema instanceof ContainerSchemaNode) {
+            return new ContainerNodeDataWithSchema((ContainerSchemaNode) schema);
+        } else if (schema instanceof ListSchemaNode) {
+            return new ListNodeDataWithSchema((ListSchemaNode) schema);
+        } else if (schema instanceof LeafListSchemaNode) {
+            return new LeafListNodeDataWithSchema((LeafListSchemaNode) schema);
+        } else if (schema instanceof YangModeledAnyxmlSchemaNode) {
+            return new YangModeledAnyXmlNodeDataWithSchema((YangModeledAnyxmlSchemaNode) schema);
+        } else {
+            throw new IllegalStateException("Unhandled schema node " + schema);
+        }
+    }
+}
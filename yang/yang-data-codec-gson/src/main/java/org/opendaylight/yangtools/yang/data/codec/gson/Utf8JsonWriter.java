@@ -0,0 +1,546 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint8;
+
+/**
+ * A {@link JsonWriter} which encodes its output as UTF-8 directly into an {@link OutputStream}, without going through
+ * a {@link Writer}. Its output is identical to that of a plain JsonWriter, except that indentation has to be specified
+ * at construction time, as {@link #setIndent(String)} cannot be intercepted.
+ *
+ * <p>
+ * Member names emitted by {@link JSONStreamWriterContext} are encoded once per {@link QName} and qualification and then
+ * reused from a cache. Integral values, including {@link Uint8}, {@link Uint16} and {@link Uint32}, are formatted
+ * straight into the output buffer.
+ */
+final class Utf8JsonWriter extends JsonWriter {
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private static final int BUFFER_SIZE = 8192;
+    // Worst-case expansion of a single char: a \\uXXXX escape
+    private static final int MAX_CHAR_BYTES = 6;
+    // Chars which fit into the buffer at once, with room for the enclosing quotes
+    private static final int CHUNK_CHARS = BUFFER_SIZE / MAX_CHAR_BYTES - 2;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LONG_MIN = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<QName, byte[]> localNames = new HashMap<>();
+    private final Map<QName, byte[]> qualifiedNames = new HashMap<>();
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final OutputStream out;
+    private final byte[] indent;
+
+    private int[] stack = new int[32];
+    private int stackSize = 0;
+    private int pos = 0;
+    private byte[] deferredName;
+
+    Utf8JsonWriter(final OutputStream out) {
+        this(out, 0);
+    }
+
+    Utf8JsonWriter(final OutputStream out, final int indentSize) {
+        super(Writer.nullWriter());
+        this.out = requireNonNull(out);
+        if (indentSize > 0) {
+            indent = new byte[indentSize];
+            Arrays.fill(indent, (byte) ' ');
+        } else {
+            indent = null;
+        }
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Emit a member name from the name cache.
+     *
+     * @param qname Member's QName
+     * @param qualified True if the name is qualified with a module name
+     * @return True if the name was found in the cache and emitted, false otherwise
+     * @throws IOException when the output reports it
+     */
+    boolean cachedName(final QName qname, final boolean qualified) throws IOException {
+        final byte[] cached = (qualified ? qualifiedNames : localNames).get(qname);
+        if (cached == null) {
+            return false;
+        }
+        deferName(cached);
+        return true;
+    }
+
+    /**
+     * Emit a member name and store it in the name cache.
+     *
+     * @param qname Member's QName
+     * @param qualified True if the name is qualified with a module name
+     * @param name Member name
+     * @throws IOException when the output reports it
+     */
+    void cacheName(final QName qname, final boolean qualified, final String name) throws IOException {
+        final byte[] encoded = encodeName(name);
+        (qualified ? qualifiedNames : localNames).put(qname, encoded);
+        deferName(encoded);
+    }
+
+    @Override
+    public JsonWriter name(final String name) throws IOException {
+        deferName(encodeName(requireNonNull(name, "name == null")));
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        return openScope(EMPTY_ARRAY, (byte) '[');
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        return closeScope(EMPTY_ARRAY, NONEMPTY_ARRAY, (byte) ']');
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        return openScope(EMPTY_OBJECT, (byte) '{');
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        return closeScope(EMPTY_OBJECT, NONEMPTY_OBJECT, (byte) '}');
+    }
+
+    @Override
+    public JsonWriter value(final String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final boolean value) throws IOException {
+        writeDeferredName();
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final Boolean value) throws IOException {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(final double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        beforeValue();
+        writeRaw(Double.toString(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final long value) throws IOException {
+        writeDeferredName();
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof Uint8 || value instanceof Uint16 || value instanceof Uint32) {
+            return value(value.longValue());
+        }
+
+        final String str = value.toString();
+        if (!isLenient() && (str.equals("-Infinity") || str.equals("Infinity") || str.equals("NaN"))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        beforeValue();
+        writeRaw(str);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(final String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        beforeValue();
+        writeRaw(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+
+        final int size = stackSize;
+        if (size > 1 || size == 1 && stack[0] != NONEMPTY_DOCUMENT) {
+            throw new IOException("Incomplete document");
+        }
+        stackSize = 0;
+    }
+
+    private void deferName(final byte[] name) {
+        if (deferredName != null) {
+            throw new IllegalStateException();
+        }
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        deferredName = name;
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            beforeName();
+            writeBytes(deferredName);
+            deferredName = null;
+        }
+    }
+
+    private JsonWriter openScope(final int empty, final byte openBracket) throws IOException {
+        beforeValue();
+        push(empty);
+        writeByte(openBracket);
+        return this;
+    }
+
+    private JsonWriter closeScope(final int empty, final int nonempty, final byte closeBracket) throws IOException {
+        final int context = peek();
+        if (context != nonempty && context != empty) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+        if (deferredName != null) {
+            throw new IllegalStateException("Dangling name: "
+                + new String(deferredName, StandardCharsets.UTF_8));
+        }
+
+        stackSize--;
+        if (context == nonempty) {
+            newline();
+        }
+        writeByte(closeBracket);
+        return this;
+    }
+
+    private void push(final int newTop) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = newTop;
+    }
+
+    private int peek() {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        return stack[stackSize - 1];
+    }
+
+    private void replaceTop(final int topOfStack) {
+        stack[stackSize - 1] = topOfStack;
+    }
+
+    private void newline() throws IOException {
+        if (indent != null) {
+            writeByte((byte) '\n');
+            for (int i = 1; i < stackSize; i++) {
+                writeBytes(indent);
+            }
+        }
+    }
+
+    private void beforeName() throws IOException {
+        final int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            writeByte((byte) ',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+        newline();
+        replaceTop(DANGLING_NAME);
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case NONEMPTY_DOCUMENT:
+                if (!isLenient()) {
+                    throw new IllegalStateException("JSON must have only one top-level value.");
+                }
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                newline();
+                break;
+            case NONEMPTY_ARRAY:
+                writeByte((byte) ',');
+                newline();
+                break;
+            case DANGLING_NAME:
+                writeByte((byte) ':');
+                if (indent != null) {
+                    writeByte((byte) ' ');
+                }
+                replaceTop(NONEMPTY_OBJECT);
+                break;
+            default:
+                throw new IllegalStateException("Nesting problem.");
+        }
+    }
+
+    private byte[] encodeName(final String name) {
+        final byte[] tmp = new byte[name.length() * MAX_CHAR_BYTES + 2];
+        tmp[0] = '"';
+        int len = encode(name, 0, name.length(), tmp, 1, isHtmlSafe());
+        tmp[len++] = '"';
+        return Arrays.copyOf(tmp, len);
+    }
+
+    private void writeString(final String str) throws IOException {
+        final boolean htmlSafe = isHtmlSafe();
+        final int length = str.length();
+
+        int offset = 0;
+        writeByte((byte) '"');
+        while (offset < length) {
+            int end = Math.min(length, offset + CHUNK_CHARS);
+            if (end < length && Character.isHighSurrogate(str.charAt(end - 1))) {
+                // Do not split surrogate pairs
+                end--;
+            }
+            ensureCapacity((end - offset) * MAX_CHAR_BYTES);
+            pos = encode(str, offset, end, buf, pos, htmlSafe);
+            offset = end;
+        }
+        writeByte((byte) '"');
+    }
+
+    /**
+     * Encode a range of a string as the contents of a JSON string literal, escaping the same characters as
+     * {@link JsonWriter} does.
+     */
+    private static int encode(final String str, final int from, final int to, final byte[] dst, final int offset,
+            final boolean htmlSafe) {
+        int ptr = offset;
+        for (int i = from; i < to; ++i) {
+            final char ch = str.charAt(i);
+            if (ch < 0x80) {
+                switch (ch) {
+                    case '"':
+                    case '\\':
+                        dst[ptr++] = '\\';
+                        dst[ptr++] = (byte) ch;
+                        break;
+                    case '\t':
+                        dst[ptr++] = '\\';
+                        dst[ptr++] = 't';
+                        break;
+                    case '\b':
+                        dst[ptr++] = '\\';
+                        dst[ptr++] = 'b';
+                        break;
+                    case '\n':
+                        dst[ptr++] = '\\';
+                        dst[ptr++] = 'n';
+                        break;
+                    case '\r':
+                        dst[ptr++] = '\\';
+                        dst[ptr++] = 'r';
+                        break;
+                    case '\f':
+                        dst[ptr++] = '\\';
+                        dst[ptr++] = 'f';
+                        break;
+                    case '<':
+                    case '>':
+                    case '&':
+                    case '=':
+                    case '\'':
+                        if (htmlSafe) {
+                            ptr = escape(ch, dst, ptr);
+                        } else {
+                            dst[ptr++] = (byte) ch;
+                        }
+                        break;
+                    default:
+                        if (ch < 0x20) {
+                            ptr = escape(ch, dst, ptr);
+                        } else {
+                            dst[ptr++] = (byte) ch;
+                        }
+                }
+            } else if (ch < 0x800) {
+                dst[ptr++] = (byte) (0xC0 | ch >> 6);
+                dst[ptr++] = (byte) (0x80 | ch & 0x3F);
+            } else if (ch == '\u2028' || ch == '\u2029') {
+                ptr = escape(ch, dst, ptr);
+            } else if (Character.isSurrogate(ch)) {
+                if (Character.isHighSurrogate(ch) && i + 1 < to && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    final int cp = Character.toCodePoint(ch, str.charAt(++i));
+                    dst[ptr++] = (byte) (0xF0 | cp >> 18);
+                    dst[ptr++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    dst[ptr++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    dst[ptr++] = (byte) (0x80 | cp & 0x3F);
+                } else {
+                    // Malformed input, replaced just as an OutputStreamWriter would
+                    dst[ptr++] = '?';
+                }
+            } else {
+                dst[ptr++] = (byte) (0xE0 | ch >> 12);
+                dst[ptr++] = (byte) (0x80 | ch >> 6 & 0x3F);
+                dst[ptr++] = (byte) (0x80 | ch & 0x3F);
+            }
+        }
+        return ptr;
+    }
+
+    private static int escape(final char ch, final byte[] dst, final int offset) {
+        dst[offset] = '\\';
+        dst[offset + 1] = 'u';
+        dst[offset + 2] = HEX[ch >> 12 & 0xF];
+        dst[offset + 3] = HEX[ch >> 8 & 0xF];
+        dst[offset + 4] = HEX[ch >> 4 & 0xF];
+        dst[offset + 5] = HEX[ch & 0xF];
+        return offset + 6;
+    }
+
+    private void writeLong(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeBytes(LONG_MIN);
+            return;
+        }
+
+        // At most 19 digits and a sign
+        ensureCapacity(20);
+        long remaining = value;
+        if (remaining < 0) {
+            buf[pos++] = '-';
+            remaining = -remaining;
+        }
+
+        final int end = pos + digits(remaining);
+        int ptr = end;
+        do {
+            buf[--ptr] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        pos = end;
+    }
+
+    private static int digits(final long value) {
+        long limit = 10;
+        for (int i = 1; i < 19; ++i) {
+            if (value < limit) {
+                return i;
+            }
+            limit *= 10;
+        }
+        return 19;
+    }
+
+    private void writeRaw(final String str) throws IOException {
+        // Numbers and raw JSON values are usually ASCII, but we cannot rely on that
+        writeBytes(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeByte(final byte value) throws IOException {
+        ensureCapacity(1);
+        buf[pos++] = value;
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        if (bytes.length > buf.length) {
+            flushBuffer();
+            out.write(bytes);
+            return;
+        }
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    private void ensureCapacity(final int bytes) throws IOException {
+        if (buf.length - pos < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos != 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.normalizedNodesToJsonString;
+
+import com.google.gson.stream.JsonReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.ForwardingNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+public class StreamingJsonParserTest extends AbstractComplexJsonTest {
+    private static final String[] RESOURCES = {
+        "case-node-augmentation-in-choice-in-container.json",
+        "case-node-external-augmentation-in-choice-in-container.json",
+        "choice-node-augmentation-in-container.json",
+        "choice-node-in-container.json",
+        "keyed-list-node-in-container.json",
+        "leaf-node-in-container.json",
+        "leaf-node-via-augmentation-in-container.json",
+        "leaflist-node-in-container.json",
+        "missing-module-in-top-level.json",
+        "multiple-choice-augmentation-in-container.json",
+        "type-empty.json",
+        "unkeyed-node-in-container.json",
+    };
+
+    @Test
+    public void testSameResults() throws IOException, URISyntaxException {
+        for (String resource : RESOURCES) {
+            final String inputJson = loadTextFile("/complexjson/" + resource);
+            assertEquals(resource, parse(inputJson, false), parse(inputJson, true));
+        }
+    }
+
+    @Test
+    public void testAnyxml() throws IOException, URISyntaxException {
+        // DOMSource does not implement equals(), hence we compare the serialized forms
+        for (String resource : new String[] {
+            "anyxml-node-with-composite-value-in-container.json", "anyxml-node-with-simple-value-in-container.json",
+            "complex-json.json"
+        }) {
+            final String inputJson = loadTextFile("/complexjson/" + resource);
+            assertEquals(resource, normalizedNodesToJsonString(parse(inputJson, false), schemaContext, SchemaPath.ROOT),
+                normalizedNodesToJsonString(parse(inputJson, true), schemaContext, SchemaPath.ROOT));
+        }
+    }
+
+    @Test
+    public void testListWithoutArray() throws IOException, URISyntaxException {
+        final SchemaNode parentNode = schemaContext.findDataChildByName(CONT_1).get();
+        for (String resource : new String[] {
+            "keyed-list-restconf-behaviour.json", "keyed-list-yang-json-behaviour.json"
+        }) {
+            final String inputJson = loadTextFile("/complexjson/" + resource);
+            final NormalizedNodeResult result = new NormalizedNodeResult();
+            JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), lhotkaCodecFactory, parentNode)
+                .parse(new JsonReader(new StringReader(inputJson)));
+
+            final NormalizedNodeResult streamed = new NormalizedNodeResult();
+            JsonParserStream.createStreaming(ImmutableNormalizedNodeStreamWriter.from(streamed), lhotkaCodecFactory,
+                parentNode).parse(new JsonReader(new StringReader(inputJson)));
+            assertEquals(resource, result.getResult(), streamed.getResult());
+        }
+    }
+
+    @Test
+    public void testInterleavedMembers() {
+        // Augmented leaves are split by a leaf and an augmented container, keys are specified after the lists' content
+        final String inputJson = "{\"complexjson:cont1\": {"
+            + "\"lf12_1\": \"one\", \"lf11\": 5, \"lf12_2\": \"two\", \"cont11\": {\"lf111\": \"three\"},"
+            + "\"lst11\": [{\"lf113\": \"four\", \"lf111\": \"five\", \"key111\": \"six\"},"
+            + "{\"lf111\": \"seven\", \"key111\": \"eight\"}],"
+            + "\"lflst11\": [\"nine\"], \"complexjson-augmentation:lf12_1aug\": \"ten\", \"lf12_3\": \"eleven\"}}";
+        assertEquals(parse(inputJson, false), parse(inputJson, true));
+    }
+
+    @Test
+    public void testSplitAugmentation() {
+        final String inputJson = "{\"complexjson:cont1\": {"
+            + "\"case1-container\": {\"case1-leaf\": \"one\"},"
+            + "\"lflst11\": [\"two\"],"
+            + "\"case11-choice-case-container\": {\"case11-choice-case-leaf\": \"three\"}}}";
+        // Non-streaming parser is fine with this ...
+        parse(inputJson, false);
+        // ... but streaming parser cannot reopen the augmentation
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, () -> parse(inputJson, true));
+        assertTrue(ex.getMessage(), ex.getMessage().contains("has already been completed"));
+    }
+
+    @Test
+    public void testMissingKey() {
+        final String inputJson = "{\"complexjson:cont1\": {\"lst11\": [{\"key111\": \"one\", \"lf113\": \"two\"}]}}";
+        final IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> parse(inputJson, true));
+        assertTrue(ex.getMessage(), ex.getMessage().contains("is missing key leaves"));
+    }
+
+    @Test
+    public void testEntriesEmittedEarly() throws IOException {
+        final int size = 20000;
+        final StringBuilder sb = new StringBuilder("{\"complexjson:cont1\": {\"lst11\": [");
+        for (int i = 0; i < size; ++i) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("{\"key111\": \"key").append(i).append("\", \"lf111\": \"value").append(i)
+                .append("\", \"lf113\": \"some longer value of entry ").append(i).append("\"}");
+        }
+        final String inputJson = sb.append("]}}").toString();
+
+        final CountingReader reader = new CountingReader(new StringReader(inputJson));
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter delegate = ImmutableNormalizedNodeStreamWriter.from(result);
+        final long[] firstEntry = { -1 };
+        final NormalizedNodeStreamWriter writer = new ForwardingNormalizedNodeStreamWriter() {
+            @Override
+            protected NormalizedNodeStreamWriter delegate() {
+                return delegate;
+            }
+
+            @Override
+            public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+                    throws IOException {
+                if (firstEntry[0] == -1) {
+                    firstEntry[0] = reader.count;
+                }
+                super.startMapEntryNode(identifier, childSizeHint);
+            }
+        };
+
+        try (JsonParserStream parser = JsonParserStream.createStreaming(writer, lhotkaCodecFactory)) {
+            parser.parse(new JsonReader(reader));
+        }
+        assertEquals(parse(inputJson, false), result.getResult());
+
+        // The first entry has to be emitted while the reader is still well within the input
+        assertTrue("First entry emitted at " + firstEntry[0], firstEntry[0] > 0
+            && firstEntry[0] < inputJson.length() / 100);
+    }
+
+    private static NormalizedNode<?, ?> parse(final String inputJson, final boolean streaming) {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter streamWriter = ImmutableNormalizedNodeStreamWriter.from(result);
+        final JsonParserStream jsonParser = streaming
+            ? JsonParserStream.createStreaming(streamWriter, lhotkaCodecFactory)
+                : JsonParserStream.create(streamWriter, lhotkaCodecFactory);
+        jsonParser.parse(new JsonReader(new StringReader(inputJson)));
+        return result.getResult();
+    }
+
+    private static final class CountingReader extends FilterReader {
+        long count;
+
+        CountingReader(final Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            final int ret = super.read(cbuf, off, len);
+            if (ret > 0) {
+                count += ret;
+            }
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+public class Utf8JsonWriterTest extends AbstractComplexJsonTest {
+    @FunctionalInterface
+    private interface JsonWriterCallback {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    @Test
+    public void testSameNormalizedNodeOutput() throws IOException, URISyntaxException {
+        for (String resource : new String[] {
+            "anyxml-node-with-composite-value-in-container.json", "complex-json.json",
+            "keyed-list-node-in-container.json", "leaflist-node-in-container.json",
+            "multiple-choice-augmentation-in-container.json", "type-empty.json", "unkeyed-node-in-container.json",
+        }) {
+            final NormalizedNode<?, ?> data = parse(loadTextFile("/complexjson/" + resource));
+            for (int indent : new int[] { 0, 2 }) {
+                assertSame(resource, indent, writer -> {
+                    final NormalizedNodeStreamWriter jsonStream = JSONNormalizedNodeStreamWriter
+                        .createExclusiveWriter(lhotkaCodecFactory, SchemaPath.ROOT, null, writer);
+                    final NormalizedNodeWriter nodeWriter = NormalizedNodeWriter.forStreamWriter(jsonStream);
+                    nodeWriter.write(data);
+                    nodeWriter.close();
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testStrings() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; ++i) {
+            sb.append("\"\\/\t\b\n\r\f\u0001\u001f<>&='abéࠀ  😀");
+        }
+        final String longString = sb.toString();
+
+        for (boolean htmlSafe : new boolean[] { false, true }) {
+            for (int indent : new int[] { 0, 4 }) {
+                assertSame(longString, indent, writer -> {
+                    writer.setHtmlSafe(htmlSafe);
+                    writer.beginObject();
+                    writer.name("na\"meé").value("value");
+                    writer.name("long").value(longString);
+                    writer.name("lonely").value(new String(new char[] { 0xD800, 'x', 0xDC00 }));
+                    writer.name("array").beginArray().value("one").value((String) null).beginObject().endObject()
+                        .beginArray().endArray().jsonValue("{\"raw\":true}").endArray();
+                    writer.endObject();
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testValues() throws IOException {
+        assertSame("values", 2, writer -> {
+            writer.beginArray();
+            writer.value(0).value(-1).value(7).value(Long.MAX_VALUE).value(Long.MIN_VALUE).value(1000000000000000000L);
+            writer.value(Uint8.MAX_VALUE).value(Uint16.valueOf(300)).value(Uint32.MAX_VALUE).value(Uint64.MAX_VALUE);
+            writer.value(Integer.valueOf(-42)).value(Short.valueOf((short) 12)).value(Byte.valueOf((byte) -3));
+            writer.value(new BigDecimal("1.50")).value(1.25).value(Double.valueOf(-0.5)).value(Float.valueOf(2.5F));
+            writer.value(true).value(Boolean.FALSE).value((Boolean) null).nullValue();
+            writer.endArray();
+        });
+    }
+
+    @Test
+    public void testNulls() throws IOException {
+        assertSame("nulls", 0, writer -> {
+            writer.setSerializeNulls(false);
+            writer.beginObject().name("skipped").nullValue().name("kept").value(1).endObject();
+        });
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        final JsonWriter writer = JsonWriterFactory.createJsonWriter(new ByteArrayOutputStream());
+        assertThrows(IllegalArgumentException.class, () -> writer.value(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> writer.value(Double.valueOf(Double.POSITIVE_INFINITY)));
+        writer.beginObject();
+        assertThrows(IllegalStateException.class, () -> writer.value("value"));
+        writer.name("name");
+        assertThrows(IllegalStateException.class, () -> writer.name("other"));
+        assertThrows(IllegalStateException.class, writer::endObject);
+        assertThrows(IOException.class, writer::close);
+    }
+
+    private static void assertSame(final String message, final int indent, final JsonWriterCallback callback)
+            throws IOException {
+        final StringWriter expected = new StringWriter();
+        try (JsonWriter writer = JsonWriterFactory.createJsonWriter(expected, indent)) {
+            callback.write(writer);
+        }
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (JsonWriter writer = JsonWriterFactory.createJsonWriter(actual, indent)) {
+            callback.write(writer);
+        }
+        // Unpaired surrogates are replaced during encoding, hence we need to compare encoded forms
+        assertEquals(message, new String(expected.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+            new String(actual.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static NormalizedNode<?, ?> parse(final String inputJson) {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter streamWriter = ImmutableNormalizedNodeStreamWriter.from(result);
+        JsonParserStream.create(streamWriter, lhotkaCodecFactory).parse(new JsonReader(new StringReader(inputJson)));
+        return result.getResult();
+    }
+}
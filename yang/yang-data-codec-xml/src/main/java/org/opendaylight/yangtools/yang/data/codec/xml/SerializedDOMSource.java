@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * A {@link DOMSource} of an anyxml or anydata element captured from an {@link XMLStreamReader}. The element is copied
+ * into its serialized form, which is parsed into a DOM only when {@link #getNode()} is invoked for the first time.
+ *
+ * <p>
+ * Note this is a copy: content which is accessed is serialized once and parsed once more, which is more expensive
+ * than building the DOM directly. In exchange, content which is never inspected is retained as a compact string
+ * rather than as a DOM tree.
+ */
+final class SerializedDOMSource extends DOMSource {
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private String xml;
+
+    private SerializedDOMSource(final String xml) {
+        this.xml = requireNonNull(xml);
+    }
+
+    /**
+     * Capture the element the reader is positioned at. When this method returns, the reader is positioned at the
+     * element's END_ELEMENT event.
+     *
+     * @param in Reader positioned at a START_ELEMENT event
+     * @return A new source
+     * @throws XMLStreamException if an error occurs while reading the element
+     */
+    static SerializedDOMSource capture(final XMLStreamReader in) throws XMLStreamException {
+        checkState(in.isStartElement(), "Expected START_ELEMENT, encountered %s", in.getEventType());
+
+        final StringWriter sw = new StringWriter();
+        final XMLStreamWriter out = OUTPUT_FACTORY.createXMLStreamWriter(sw);
+        // Namespace bindings in effect in the output, innermost element first
+        final Deque<Map<String, String>> scopes = new ArrayDeque<>();
+        while (true) {
+            switch (in.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    final Map<String, String> scope = new HashMap<>();
+                    scopes.push(scope);
+                    copyStartElement(in, out, scopes, scope);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    out.writeEndElement();
+                    scopes.pop();
+                    if (scopes.isEmpty()) {
+                        out.close();
+                        return new SerializedDOMSource(sw.toString());
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    out.writeCharacters(in.getTextCharacters(), in.getTextStart(), in.getTextLength());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    out.writeCData(in.getText());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    out.writeComment(in.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    out.writeProcessingInstruction(in.getPITarget(), in.getPIData());
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    out.writeEntityRef(in.getLocalName());
+                    break;
+                default:
+                    throw new XMLStreamException("Unexpected event " + in.getEventType() + " in anyxml content",
+                        in.getLocation());
+            }
+            in.next();
+        }
+    }
+
+    @Override
+    public synchronized Node getNode() {
+        if (xml != null) {
+            final Node node;
+            try {
+                node = UntrustedXML.newDocumentBuilder().parse(new InputSource(new StringReader(xml)))
+                    .getDocumentElement();
+            } catch (SAXException | IOException e) {
+                throw new IllegalStateException("Failed to materialize captured content", e);
+            }
+            xml = null;
+            super.setNode(node);
+        }
+        return super.getNode();
+    }
+
+    @Override
+    public synchronized void setNode(final Node node) {
+        xml = null;
+        super.setNode(node);
+    }
+
+    private static void copyStartElement(final XMLStreamReader in, final XMLStreamWriter out,
+            final Deque<Map<String, String>> scopes, final Map<String, String> scope) throws XMLStreamException {
+        final String prefix = nonNull(in.getPrefix());
+        final String namespace = nonNull(in.getNamespaceURI());
+        out.writeStartElement(prefix, in.getLocalName(), namespace);
+
+        // Retain declarations, as the content may use them in values, for example in identityref values
+        for (int i = 0; i < in.getNamespaceCount(); ++i) {
+            declareNamespace(out, scope, nonNull(in.getNamespacePrefix(i)), nonNull(in.getNamespaceURI(i)));
+        }
+        // Namespaces declared outside of the captured element need to be declared explicitly
+        ensureNamespace(out, scopes, scope, prefix, namespace);
+
+        for (int i = 0; i < in.getAttributeCount(); ++i) {
+            final String attrPrefix = nonNull(in.getAttributePrefix(i));
+            final String attrNamespace = nonNull(in.getAttributeNamespace(i));
+            if (!attrPrefix.isEmpty()) {
+                ensureNamespace(out, scopes, scope, attrPrefix, attrNamespace);
+            }
+            out.writeAttribute(attrPrefix, attrNamespace, in.getAttributeLocalName(i), in.getAttributeValue(i));
+        }
+    }
+
+    private static void ensureNamespace(final XMLStreamWriter out, final Deque<Map<String, String>> scopes,
+            final Map<String, String> scope, final String prefix, final String namespace) throws XMLStreamException {
+        for (Map<String, String> enclosing : scopes) {
+            final String bound = enclosing.get(prefix);
+            if (bound != null) {
+                if (bound.equals(namespace)) {
+                    return;
+                }
+                break;
+            }
+        }
+        // Unbound default namespace is the empty namespace
+        if (!prefix.isEmpty() || !namespace.isEmpty() || scopes.stream().anyMatch(map -> map.containsKey(""))) {
+            declareNamespace(out, scope, prefix, namespace);
+        }
+    }
+
+    private static void declareNamespace(final XMLStreamWriter out, final Map<String, String> scope,
+            final String prefix, final String namespace) throws XMLStreamException {
+        if (prefix.isEmpty()) {
+            out.writeDefaultNamespace(namespace);
+        } else {
+            out.writeNamespace(prefix, namespace);
+        }
+        scope.put(prefix, namespace);
+    }
+
+    private static String nonNull(final String str) {
+        return str != null ? str : "";
+    }
+}
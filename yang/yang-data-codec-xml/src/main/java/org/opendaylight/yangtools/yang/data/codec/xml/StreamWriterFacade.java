@@ -37,6 +37,8 @@ final class StreamWriterFacade extends ValueWriter {
 
     private final XMLStreamWriter writer;
     private final RandomPrefix prefixes;
+    // Non-null if the writer can emit elements based on QNames
+    private final Utf8XMLStreamWriter utf8;
 
     // QName of an element we delayed emitting. This only happens if it is a naked element, without any attributes,
     // namespace declarations or value.
@@ -45,6 +47,7 @@ final class StreamWriterFacade extends ValueWriter {
     StreamWriterFacade(final XMLStreamWriter writer) {
         this.writer = requireNonNull(writer);
         prefixes = new RandomPrefix(writer.getNamespaceContext());
+        utf8 = writer instanceof Utf8XMLStreamWriter ? (Utf8XMLStreamWriter) writer : null;
     }
 
     void writeCharacters(final String text) throws XMLStreamException {
@@ -81,8 +84,7 @@ final class StreamWriterFacade extends ValueWriter {
 
     private void flushElement() throws XMLStreamException {
         if (openElement != null) {
-            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, openElement.getLocalName(),
-                openElement.getNamespace().toString());
+            startElement(openElement);
             openElement = null;
         }
     }
@@ -100,7 +102,7 @@ final class StreamWriterFacade extends ValueWriter {
         }
 
         if (!reuseNamespace) {
-            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, qname.getLocalName(), namespace);
+            startElement(qname);
             writer.writeDefaultNamespace(namespace);
         } else {
             openElement = qname;
@@ -109,14 +111,27 @@ final class StreamWriterFacade extends ValueWriter {
 
     void writeEndElement() throws XMLStreamException {
         if (openElement != null) {
-            writer.writeEmptyElement(XMLConstants.DEFAULT_NS_PREFIX, openElement.getLocalName(),
-                openElement.getNamespace().toString());
+            if (utf8 != null) {
+                utf8.writeEmptyElement(openElement);
+            } else {
+                writer.writeEmptyElement(XMLConstants.DEFAULT_NS_PREFIX, openElement.getLocalName(),
+                    openElement.getNamespace().toString());
+            }
             openElement = null;
         } else {
             writer.writeEndElement();
         }
     }
 
+    private void startElement(final QName qname) throws XMLStreamException {
+        if (utf8 != null) {
+            utf8.writeStartElement(qname);
+        } else {
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, qname.getLocalName(),
+                qname.getNamespace().toString());
+        }
+    }
+
     String getPrefix(final URI uri, final String str) throws XMLStreamException {
         final String prefix = writer.getPrefix(str);
         if (prefix != null) {
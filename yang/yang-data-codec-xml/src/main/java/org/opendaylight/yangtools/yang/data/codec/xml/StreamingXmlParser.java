@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.net.URI;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.opendaylight.yangtools.odlext.model.api.YangModeledAnyxmlSchemaNode;
+import org.opendaylight.yangtools.rfc7952.data.api.StreamWriterMetadataExtension;
+import org.opendaylight.yangtools.rfc8528.data.api.MountPointContextFactory;
+import org.opendaylight.yangtools.rfc8528.data.api.MountPointIdentifier;
+import org.opendaylight.yangtools.rfc8528.model.api.MountPointSchemaNode;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.AnydataNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ContainerNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
+import org.opendaylight.yangtools.yang.data.util.StreamingNodeFrame;
+import org.opendaylight.yangtools.yang.data.util.YangModeledAnyXmlNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.model.api.AnydataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AnyxmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-pass counterpart to {@link XmlParserStream#read(XMLStreamReader, AbstractNodeDataWithSchema, String)}. Rather
+ * than building a complete {@link AbstractNodeDataWithSchema} tree, this parser emits
+ * {@link NormalizedNodeStreamWriter} events as soon as the corresponding XML elements are read, so that memory usage
+ * does not depend on the size of the input. Anyxml and anydata values are copied into {@link SerializedDOMSource}s,
+ * which are parsed into DOM only when accessed.
+ *
+ * <p>
+ * Children are buffered only where the ordering of XML elements does not match what the writer expects, as detailed
+ * in {@link StreamingNodeFrame}. Since a list, leaf-list, augmentation or choice cannot be reopened once it has been
+ * closed, elements belonging to any of these must not be split by a container, list or leaf-list which does not
+ * belong to it. Such input is rejected with an {@link IllegalStateException}.
+ */
+final class StreamingXmlParser {
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingXmlParser.class);
+
+    private final NormalizedNodeStreamWriter writer;
+    private final StreamWriterMetadataExtension metaWriter;
+    private final XmlParserStream stream;
+    private final XmlCodecFactory codecs;
+    private final boolean strictParsing;
+    // Names of elements enclosing the current element, outermost first
+    private final Deque<QName> elementPath = new ArrayDeque<>();
+
+    private String rootElement;
+
+    StreamingXmlParser(final XmlParserStream stream, final NormalizedNodeStreamWriter writer,
+            final XmlCodecFactory codecs, final boolean strictParsing) {
+        this.stream = requireNonNull(stream);
+        this.writer = requireNonNull(writer);
+        this.codecs = requireNonNull(codecs);
+        this.strictParsing = strictParsing;
+        metaWriter = writer.getExtensions().getInstance(StreamWriterMetadataExtension.class);
+    }
+
+    /**
+     * Check whether a root node can be parsed by this class. Other nodes do not have any children and hence do not
+     * benefit from streaming.
+     */
+    static boolean supports(final DataSchemaNode root) {
+        return root instanceof ContainerSchemaNode || root instanceof ListSchemaNode
+            || root instanceof YangModeledAnyxmlSchemaNode;
+    }
+
+    void parse(final XMLStreamReader in, final DataSchemaNode root) throws XMLStreamException, IOException {
+        rootElement = in.getLocalName();
+        if (root instanceof ListSchemaNode) {
+            // Consecutive entries form the list, just like XmlParserStream.read() does
+            final ListSchemaNode list = (ListSchemaNode) root;
+            final String localName = list.getQName().getLocalName();
+            startList(list);
+            while (in.isStartElement() && localName.equals(in.getLocalName())) {
+                streamListEntry(in, list);
+            }
+            writer.endNode();
+        } else {
+            streamComposite(in, root);
+        }
+    }
+
+    /**
+     * Read children of the element the reader is positioned at. When this method returns, the reader is positioned at
+     * the element following the element's end.
+     */
+    private void readChildren(final XMLStreamReader in, final StreamingNodeFrame frame)
+            throws XMLStreamException, IOException {
+        final DataSchemaNode lookupSchema = frame.getLookupSchema();
+        final Set<Entry<String, String>> namesakes = new HashSet<>();
+        elementPath.addLast(lookupSchema.getQName());
+
+        in.nextTag();
+        while (in.isStartElement()) {
+            final String xmlElementName = in.getLocalName();
+            final String elementNS = in.getNamespaceURI();
+            final boolean added = namesakes.add(new SimpleImmutableEntry<>(elementNS, xmlElementName));
+
+            final URI nsUri;
+            try {
+                nsUri = stream.rawXmlNamespace(elementNS).getNamespace();
+            } catch (IllegalArgumentException e) {
+                throw new XMLStreamException("Failed to convert namespace " + xmlElementName, in.getLocation(), e);
+            }
+
+            final Deque<DataSchemaNode> childDataSchemaNodes =
+                    ParserStreamUtils.findSchemaNodeByNameAndNamespace(lookupSchema, xmlElementName, nsUri);
+            if (!childDataSchemaNodes.isEmpty()) {
+                final DataSchemaNode last = childDataSchemaNodes.getLast();
+                if (!added && !(last instanceof ListSchemaNode) && !(last instanceof LeafListSchemaNode)) {
+                    throw new XMLStreamException(String.format(
+                        "Duplicate element \"%s\" in namespace \"%s\" with parent \"%s\" in XML input",
+                        xmlElementName, elementNS, lookupSchema), in.getLocation());
+                }
+
+                final List<Object> wrappers = frame.wrappersOf(childDataSchemaNodes);
+                readChild(in, frame, wrappers, childDataSchemaNodes.pop());
+                continue;
+            }
+
+            if (readMountPointChild(in, frame, nsUri, xmlElementName)) {
+                continue;
+            }
+
+            // We have not handled the node -- let's decide what to do about that
+            if (strictParsing) {
+                throw new XMLStreamException(String.format(
+                    "Schema for node with name %s and namespace %s does not exist at %s", xmlElementName,
+                    elementNS, elementPath), in.getLocation());
+            }
+
+            LOG.debug("Skipping unknown node ns=\"{}\" localName=\"{}\" at path {}", elementNS, xmlElementName,
+                elementPath);
+            XmlParserStream.skipUnknownNode(in);
+        }
+
+        frame.finish();
+        elementPath.removeLast();
+        skipToNextTag(in);
+    }
+
+    private void readChild(final XMLStreamReader in, final StreamingNodeFrame frame, final List<Object> wrappers,
+            final DataSchemaNode child) throws XMLStreamException, IOException {
+        if (child instanceof LeafSchemaNode) {
+            final LeafNodeDataWithSchema leaf = new LeafNodeDataWithSchema((LeafSchemaNode) child);
+            stream.read(in, leaf, rootElement);
+            frame.addScalar(wrappers, leaf);
+        } else if (child instanceof AnyxmlSchemaNode && !(child instanceof YangModeledAnyxmlSchemaNode)) {
+            final AnyXmlNodeDataWithSchema anyxml = new AnyXmlNodeDataWithSchema((AnyxmlSchemaNode) child);
+            anyxml.setValue(SerializedDOMSource.capture(in));
+            skipToNextTag(in);
+            frame.addScalar(wrappers, anyxml);
+        } else if (child instanceof AnydataSchemaNode) {
+            final AnydataNodeDataWithSchema anydata = new AnydataNodeDataWithSchema((AnydataSchemaNode) child,
+                DOMSourceAnydata.class);
+            anydata.setAttributes(stream.getElementAttributes(in));
+            anydata.setValue(new DOMSourceAnydata(SerializedDOMSource.capture(in)));
+            skipToNextTag(in);
+            frame.addScalar(wrappers, anydata);
+        } else if (child instanceof ListSchemaNode || child instanceof LeafListSchemaNode) {
+            final AbstractNodeDataWithSchema<?> pending = frame.findPending(child);
+            if (pending != null) {
+                // Entries of this node are being buffered, keep on doing that
+                stream.read(in, XmlParserStream.newEntryNode(pending), rootElement);
+            } else if (!frame.isStarted()) {
+                final AbstractNodeDataWithSchema<?> node = child instanceof ListSchemaNode
+                    ? new ListNodeDataWithSchema((ListSchemaNode) child)
+                        : new LeafListNodeDataWithSchema((LeafListSchemaNode) child);
+                stream.read(in, XmlParserStream.newEntryNode(node), rootElement);
+                frame.addPending(wrappers, node);
+            } else if (child instanceof ListSchemaNode) {
+                final ListSchemaNode list = (ListSchemaNode) child;
+                if (frame.enterMultiple(wrappers, list)) {
+                    startList(list);
+                }
+                streamListEntry(in, list);
+            } else {
+                final LeafListSchemaNode leafList = (LeafListSchemaNode) child;
+                if (frame.enterMultiple(wrappers, leafList)) {
+                    startLeafList(leafList);
+                }
+                final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(leafList);
+                stream.read(in, entry, rootElement);
+                entry.write(writer);
+            }
+        } else if (frame.isStarted()) {
+            frame.switchTo(wrappers);
+            streamComposite(in, child);
+        } else {
+            // We cannot emit anything until the entry has been started, read the child into memory
+            final AbstractNodeDataWithSchema<?> node;
+            if (child instanceof ContainerSchemaNode) {
+                node = new ContainerNodeDataWithSchema((ContainerSchemaNode) child);
+            } else if (child instanceof YangModeledAnyxmlSchemaNode) {
+                node = new YangModeledAnyXmlNodeDataWithSchema((YangModeledAnyxmlSchemaNode) child);
+            } else {
+                throw new IllegalStateException("Unhandled schema node " + child);
+            }
+            stream.read(in, node, rootElement);
+            frame.addPending(wrappers, node);
+        }
+    }
+
+    private boolean readMountPointChild(final XMLStreamReader in, final StreamingNodeFrame frame, final URI nsUri,
+            final String xmlElementName) throws XMLStreamException {
+        final DataSchemaNode lookupSchema = frame.getLookupSchema();
+        final Optional<MountPointSchemaNode> optMount;
+        if (lookupSchema instanceof ContainerSchemaNode) {
+            optMount = MountPointSchemaNode.streamAll((ContainerSchemaNode) lookupSchema).findFirst();
+        } else if (lookupSchema instanceof ListSchemaNode) {
+            optMount = MountPointSchemaNode.streamAll((ListSchemaNode) lookupSchema).findFirst();
+        } else {
+            return false;
+        }
+        if (optMount.isEmpty()) {
+            return false;
+        }
+
+        final MountPointIdentifier mountId = MountPointIdentifier.of(optMount.get().getQName());
+        LOG.debug("Assuming node {} and namespace {} belongs to mount point {}", xmlElementName, nsUri, mountId);
+        final Optional<MountPointContextFactory> optFactory = codecs.mountPointContext().findMountPoint(mountId);
+        if (optFactory.isEmpty()) {
+            LOG.debug("Mount point {} not attached", mountId);
+            return false;
+        }
+
+        XmlParserStream.addMountPointChild(frame.getMountPointData(mountId, optFactory.get()), nsUri, xmlElementName,
+            SerializedDOMSource.capture(in));
+        skipToNextTag(in);
+        return true;
+    }
+
+    private void streamComposite(final XMLStreamReader in, final DataSchemaNode schema)
+            throws XMLStreamException, IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        if (schema instanceof ContainerSchemaNode) {
+            final ImmutableMap<QName, Object> attributes = stream.getElementAttributes(in);
+            writer.nextDataSchemaNode(schema);
+            writer.startContainerNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            if (metaWriter != null && !attributes.isEmpty()) {
+                metaWriter.metadata(attributes);
+            }
+        } else if (schema instanceof YangModeledAnyxmlSchemaNode) {
+            writer.nextDataSchemaNode(schema);
+            writer.startYangModeledAnyXmlNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            throw new IllegalStateException("Unhandled schema node " + schema);
+        }
+        readChildren(in, StreamingNodeFrame.of(writer, schema, true));
+    }
+
+    private void streamListEntry(final XMLStreamReader in, final ListSchemaNode schema)
+            throws XMLStreamException, IOException {
+        if (!schema.getKeyDefinition().isEmpty()) {
+            readChildren(in, StreamingNodeFrame.ofMapEntry(writer, schema, stream.getElementAttributes(in)));
+        } else {
+            writer.nextDataSchemaNode(schema);
+            writer.startUnkeyedListItem(NodeIdentifier.create(schema.getQName()),
+                NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            readChildren(in, StreamingNodeFrame.of(writer, schema, true));
+        }
+    }
+
+    private void startList(final ListSchemaNode schema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.getKeyDefinition().isEmpty()) {
+            writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else if (schema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+    }
+
+    private void startLeafList(final LeafListSchemaNode schema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+    }
+
+    private static void skipToNextTag(final XMLStreamReader in) throws XMLStreamException {
+        if (!XmlParserStream.isNextEndDocument(in) && !XmlParserStream.isAtElement(in)) {
+            in.nextTag();
+        }
+    }
+}
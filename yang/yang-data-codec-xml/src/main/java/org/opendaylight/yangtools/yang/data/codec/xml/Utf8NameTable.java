@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.model.api.Module;
+
+/**
+ * UTF-8 encoded forms of names used by {@link Utf8XMLStreamWriter}, shared by all writers operating on a particular
+ * {@link EffectiveModelContext}. Namespaces of all modules are encoded up front, element tags are encoded as they are
+ * encountered.
+ */
+final class Utf8NameTable {
+    /**
+     * Encoded start and end tags of an element in the default namespace.
+     */
+    static final class ElementName {
+        // "<local-name"
+        final byte @NonNull [] startTag;
+        // "</local-name>"
+        final byte @NonNull [] endTag;
+
+        ElementName(final String localName) {
+            final byte[] name = localName.getBytes(StandardCharsets.UTF_8);
+            startTag = new byte[name.length + 1];
+            startTag[0] = '<';
+            System.arraycopy(name, 0, startTag, 1, name.length);
+            endTag = new byte[name.length + 3];
+            endTag[0] = '<';
+            endTag[1] = '/';
+            System.arraycopy(name, 0, endTag, 2, name.length);
+            endTag[name.length + 2] = '>';
+        }
+    }
+
+    private static final LoadingCache<EffectiveModelContext, Utf8NameTable> TABLES = CacheBuilder.newBuilder()
+            .weakKeys().build(new CacheLoader<EffectiveModelContext, Utf8NameTable>() {
+                @Override
+                public Utf8NameTable load(final EffectiveModelContext key) {
+                    return new Utf8NameTable(key);
+                }
+            });
+
+    private final ConcurrentMap<QName, ElementName> elements = new ConcurrentHashMap<>();
+    // Namespace URI -> escaped attribute value
+    private final ImmutableMap<String, byte[]> namespaces;
+
+    private Utf8NameTable(final EffectiveModelContext context) {
+        final Map<String, byte[]> tmp = new HashMap<>();
+        for (Module module : context.getModules()) {
+            tmp.computeIfAbsent(module.getNamespace().toString(), Utf8XMLStreamWriter::encodeAttributeValue);
+        }
+        namespaces = ImmutableMap.copyOf(tmp);
+    }
+
+    static @NonNull Utf8NameTable of(final EffectiveModelContext context) {
+        return TABLES.getUnchecked(requireNonNull(context));
+    }
+
+    @NonNull ElementName element(final QName qname) {
+        final ElementName existing = elements.get(qname);
+        return existing != null ? existing
+            : elements.computeIfAbsent(qname, key -> new ElementName(key.getLocalName()));
+    }
+
+    byte @NonNull [] namespace(final String namespace) {
+        final byte[] known = namespaces.get(namespace);
+        return known != null ? known : Utf8XMLStreamWriter.encodeAttributeValue(namespace);
+    }
+}
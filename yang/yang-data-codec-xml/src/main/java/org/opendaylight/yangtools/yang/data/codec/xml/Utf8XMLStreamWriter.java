@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.codec.xml.Utf8NameTable.ElementName;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+
+/**
+ * An {@link XMLStreamWriter} which encodes its output as UTF-8 directly into an {@link OutputStream}. It is a
+ * non-repairing writer producing the same output as the JDK's default implementation, but it does not go through
+ * a {@link java.io.Writer} and it keeps its namespace bindings in flat arrays.
+ *
+ * <p>
+ * When used with {@link XMLStreamNormalizedNodeStreamWriter}, start and end tags of elements and namespace declarations
+ * are taken from a table of pre-encoded names shared by all writers using the same {@link EffectiveModelContext}.
+ */
+@Beta
+public final class Utf8XMLStreamWriter implements XMLStreamWriter {
+    private static final int BUFFER_SIZE = 8192;
+    // Worst-case expansion of a single char: &quot;
+    private static final int MAX_CHAR_BYTES = 6;
+    private static final int CHUNK_CHARS = BUFFER_SIZE / MAX_CHAR_BYTES;
+
+    private static final byte[] AMP = "&amp;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LT = "&lt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GT = "&gt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUOT = "&quot;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] XMLNS = " xmlns".getBytes(StandardCharsets.US_ASCII);
+
+    private final NamespaceContext namespaceContext = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(final String prefix) {
+            return lookupNamespace(prefix);
+        }
+
+        @Override
+        public String getPrefix(final String namespaceURI) {
+            return lookupPrefix(namespaceURI);
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(final String namespaceURI) {
+            return lookupPrefixes(namespaceURI).iterator();
+        }
+    };
+
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final @NonNull OutputStream out;
+    private final @NonNull Utf8NameTable names;
+
+    // End tags of open elements
+    private byte[][] endTags = new byte[16][];
+    // Number of namespace bindings in effect before each open element
+    private int[] scopes = new int[16];
+    private int depth;
+
+    // Namespace bindings in effect, innermost last
+    private String[] bindingPrefixes = new String[16];
+    private String[] bindingNamespaces = new String[16];
+    private int bindings;
+    private NamespaceContext rootContext;
+
+    // A start tag has been emitted, but not terminated
+    private boolean startTagOpen;
+    // The open start tag belongs to an empty element
+    private boolean emptyElement;
+    private int pos;
+
+    private Utf8XMLStreamWriter(final OutputStream out, final Utf8NameTable names) {
+        this.out = requireNonNull(out);
+        this.names = requireNonNull(names);
+    }
+
+    /**
+     * Create a new writer, which writes UTF-8 encoded output to the specified stream. The stream is not closed when
+     * the writer is closed.
+     *
+     * @param out Output stream
+     * @param context Model context of the data being written
+     * @return A new writer
+     * @throws NullPointerException if any argument is null
+     */
+    public static @NonNull XMLStreamWriter create(final OutputStream out, final EffectiveModelContext context) {
+        return new Utf8XMLStreamWriter(out, Utf8NameTable.of(context));
+    }
+
+    /**
+     * Write a start tag of an element in the default namespace, binding the default namespace to the element's
+     * namespace. This is equivalent to {@code writeStartElement("", localName, namespace)}.
+     *
+     * @param qname Element name
+     * @throws XMLStreamException if the output reports an error
+     */
+    void writeStartElement(final QName qname) throws XMLStreamException {
+        final ElementName name = names.element(qname);
+        startElement(name.startTag, name.endTag);
+        bind(XMLConstants.DEFAULT_NS_PREFIX, qname.getNamespace().toString());
+    }
+
+    @Override
+    public void writeStartElement(final String localName) throws XMLStreamException {
+        startElement(XMLConstants.DEFAULT_NS_PREFIX, requireNonNull(localName));
+    }
+
+    @Override
+    public void writeStartElement(final String namespaceURI, final String localName) throws XMLStreamException {
+        startElement(requirePrefix(namespaceURI), requireNonNull(localName));
+    }
+
+    @Override
+    public void writeStartElement(final String prefix, final String localName, final String namespaceURI)
+            throws XMLStreamException {
+        startElement(nonNull(prefix), requireNonNull(localName));
+        if (namespaceURI != null) {
+            bind(nonNull(prefix), namespaceURI);
+        }
+    }
+
+    /**
+     * Write an empty element in the default namespace, binding the default namespace to the element's namespace.
+     * This is equivalent to {@code writeEmptyElement("", localName, namespace)}.
+     *
+     * @param qname Element name
+     * @throws XMLStreamException if the output reports an error
+     */
+    void writeEmptyElement(final QName qname) throws XMLStreamException {
+        writeStartElement(qname);
+        emptyElement = true;
+    }
+
+    @Override
+    public void writeEmptyElement(final String localName) throws XMLStreamException {
+        writeStartElement(localName);
+        emptyElement = true;
+    }
+
+    @Override
+    public void writeEmptyElement(final String namespaceURI, final String localName) throws XMLStreamException {
+        writeStartElement(namespaceURI, localName);
+        emptyElement = true;
+    }
+
+    @Override
+    public void writeEmptyElement(final String prefix, final String localName, final String namespaceURI)
+            throws XMLStreamException {
+        writeStartElement(prefix, localName, namespaceURI);
+        emptyElement = true;
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        closeStartTag();
+        if (depth == 0) {
+            throw new XMLStreamException("No element was found to write");
+        }
+        writeBytes(endTags[depth - 1]);
+        popElement();
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        closeStartTag();
+        while (depth != 0) {
+            writeEndElement();
+        }
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        flushBuffer();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new XMLStreamException("Failed to flush output", e);
+        }
+    }
+
+    @Override
+    public void writeAttribute(final String localName, final String value) throws XMLStreamException {
+        attribute(XMLConstants.DEFAULT_NS_PREFIX, localName, value);
+    }
+
+    @Override
+    public void writeAttribute(final String prefix, final String namespaceURI, final String localName,
+            final String value) throws XMLStreamException {
+        attribute(nonNull(prefix), localName, value);
+    }
+
+    @Override
+    public void writeAttribute(final String namespaceURI, final String localName, final String value)
+            throws XMLStreamException {
+        attribute(requirePrefix(namespaceURI), localName, value);
+    }
+
+    @Override
+    public void writeNamespace(final String prefix, final String namespaceURI) throws XMLStreamException {
+        if (prefix == null || prefix.isEmpty() || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+            writeDefaultNamespace(namespaceURI);
+            return;
+        }
+
+        checkStartTag();
+        writeBytes(XMLNS);
+        writeByte((byte) ':');
+        writeAscii(prefix);
+        writeQuoted(names.namespace(nonNull(namespaceURI)));
+        bind(prefix, nonNull(namespaceURI));
+    }
+
+    @Override
+    public void writeDefaultNamespace(final String namespaceURI) throws XMLStreamException {
+        checkStartTag();
+        writeBytes(XMLNS);
+        writeQuoted(names.namespace(nonNull(namespaceURI)));
+        bind(XMLConstants.DEFAULT_NS_PREFIX, nonNull(namespaceURI));
+    }
+
+    @Override
+    public void writeComment(final String data) throws XMLStreamException {
+        closeStartTag();
+        writeAscii("<!--");
+        if (data != null) {
+            writeRaw(data);
+        }
+        writeAscii("-->");
+    }
+
+    @Override
+    public void writeProcessingInstruction(final String target) throws XMLStreamException {
+        closeStartTag();
+        writeAscii("<?");
+        writeRaw(target);
+        writeAscii("?>");
+    }
+
+    @Override
+    public void writeProcessingInstruction(final String target, final String data) throws XMLStreamException {
+        closeStartTag();
+        writeAscii("<?");
+        writeRaw(target);
+        writeByte((byte) ' ');
+        writeRaw(data);
+        writeAscii("?>");
+    }
+
+    @Override
+    public void writeCData(final String data) throws XMLStreamException {
+        closeStartTag();
+        writeAscii("<![CDATA[");
+        writeRaw(data);
+        writeAscii("]]>");
+    }
+
+    @Override
+    public void writeDTD(final String dtd) throws XMLStreamException {
+        closeStartTag();
+        writeRaw(dtd);
+    }
+
+    @Override
+    public void writeEntityRef(final String name) throws XMLStreamException {
+        closeStartTag();
+        writeByte((byte) '&');
+        writeRaw(name);
+        writeByte((byte) ';');
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        writeAscii("<?xml version=\"1.0\" ?>");
+    }
+
+    @Override
+    public void writeStartDocument(final String version) throws XMLStreamException {
+        writeAscii("<?xml version=\"");
+        writeRaw(version);
+        writeAscii("\"?>");
+    }
+
+    @Override
+    public void writeStartDocument(final String encoding, final String version) throws XMLStreamException {
+        writeAscii("<?xml version=\"");
+        writeRaw(version);
+        writeAscii("\" encoding=\"");
+        writeRaw(encoding);
+        writeAscii("\"?>");
+    }
+
+    @Override
+    public void writeCharacters(final String text) throws XMLStreamException {
+        closeStartTag();
+        writeEscaped(text, false);
+    }
+
+    @Override
+    public void writeCharacters(final char[] text, final int start, final int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    @Override
+    public String getPrefix(final String uri) {
+        return lookupPrefix(uri);
+    }
+
+    @Override
+    public void setPrefix(final String prefix, final String uri) {
+        bind(nonNull(prefix), nonNull(uri));
+    }
+
+    @Override
+    public void setDefaultNamespace(final String uri) {
+        bind(XMLConstants.DEFAULT_NS_PREFIX, nonNull(uri));
+    }
+
+    @Override
+    public void setNamespaceContext(final NamespaceContext context) throws XMLStreamException {
+        if (depth != 0 || pos != 0) {
+            throw new XMLStreamException("Namespace context can be set only before any output is written");
+        }
+        rootContext = context;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return namespaceContext;
+    }
+
+    @Override
+    public Object getProperty(final String name) {
+        throw new IllegalArgumentException("Property " + name + " is not supported");
+    }
+
+    static byte @NonNull [] encodeAttributeValue(final String value) {
+        final byte[] tmp = new byte[value.length() * MAX_CHAR_BYTES];
+        return Arrays.copyOf(tmp, encode(value, 0, value.length(), tmp, 0, true));
+    }
+
+    private void startElement(final String prefix, final String localName) throws XMLStreamException {
+        final String name = prefix.isEmpty() ? localName : prefix + ':' + localName;
+        final byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        final byte[] startTag = new byte[encoded.length + 1];
+        startTag[0] = '<';
+        System.arraycopy(encoded, 0, startTag, 1, encoded.length);
+        final byte[] endTag = new byte[encoded.length + 3];
+        endTag[0] = '<';
+        endTag[1] = '/';
+        System.arraycopy(encoded, 0, endTag, 2, encoded.length);
+        endTag[encoded.length + 2] = '>';
+        startElement(startTag, endTag);
+    }
+
+    private void startElement(final byte[] startTag, final byte[] endTag) throws XMLStreamException {
+        closeStartTag();
+        if (depth == endTags.length) {
+            endTags = Arrays.copyOf(endTags, depth * 2);
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        endTags[depth] = endTag;
+        scopes[depth] = bindings;
+        depth++;
+
+        writeBytes(startTag);
+        startTagOpen = true;
+    }
+
+    private void popElement() {
+        depth--;
+        bindings = scopes[depth];
+        endTags[depth] = null;
+    }
+
+    private void closeStartTag() throws XMLStreamException {
+        if (startTagOpen) {
+            startTagOpen = false;
+            if (emptyElement) {
+                emptyElement = false;
+                writeAscii("/>");
+                popElement();
+            } else {
+                writeByte((byte) '>');
+            }
+        }
+    }
+
+    private void checkStartTag() throws XMLStreamException {
+        if (!startTagOpen) {
+            throw new XMLStreamException("Attribute not associated with any element");
+        }
+    }
+
+    private void attribute(final String prefix, final String localName, final String value)
+            throws XMLStreamException {
+        checkStartTag();
+        writeByte((byte) ' ');
+        if (!prefix.isEmpty()) {
+            writeRaw(prefix);
+            writeByte((byte) ':');
+        }
+        writeRaw(localName);
+        writeAscii("=\"");
+        writeEscaped(value, true);
+        writeByte((byte) '"');
+    }
+
+    private String requirePrefix(final String namespaceURI) throws XMLStreamException {
+        final String prefix = lookupPrefix(namespaceURI);
+        if (prefix == null) {
+            throw new XMLStreamException("Prefix cannot be null");
+        }
+        return prefix;
+    }
+
+    private void bind(final String prefix, final String namespace) {
+        if (bindings == bindingPrefixes.length) {
+            bindingPrefixes = Arrays.copyOf(bindingPrefixes, bindings * 2);
+            bindingNamespaces = Arrays.copyOf(bindingNamespaces, bindings * 2);
+        }
+        bindingPrefixes[bindings] = prefix;
+        bindingNamespaces[bindings] = namespace;
+        bindings++;
+    }
+
+    private int findBinding(final String prefix) {
+        for (int i = bindings - 1; i >= 0; --i) {
+            if (prefix.equals(bindingPrefixes[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String lookupNamespace(final String prefix) {
+        switch (requireNonNull(prefix)) {
+            case XMLConstants.XML_NS_PREFIX:
+                return XMLConstants.XML_NS_URI;
+            case XMLConstants.XMLNS_ATTRIBUTE:
+                return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+            default:
+                final int index = findBinding(prefix);
+                if (index != -1) {
+                    return bindingNamespaces[index];
+                }
+                return rootContext == null ? null : rootContext.getNamespaceURI(prefix);
+        }
+    }
+
+    String lookupPrefix(final String namespace) {
+        for (int i = bindings - 1; i >= 0; --i) {
+            // The binding has to be the innermost one for its prefix
+            if (namespace.equals(bindingNamespaces[i]) && findBinding(bindingPrefixes[i]) == i) {
+                return bindingPrefixes[i];
+            }
+        }
+        return rootContext == null ? null : rootContext.getPrefix(namespace);
+    }
+
+    List<String> lookupPrefixes(final String namespace) {
+        final List<String> ret = new ArrayList<>();
+        for (int i = bindings - 1; i >= 0; --i) {
+            if (namespace.equals(bindingNamespaces[i]) && findBinding(bindingPrefixes[i]) == i) {
+                ret.add(bindingPrefixes[i]);
+            }
+        }
+        return ret;
+    }
+
+    private void writeEscaped(final String str, final boolean attribute) throws XMLStreamException {
+        final int length = str.length();
+        int offset = 0;
+        while (offset < length) {
+            int end = Math.min(length, offset + CHUNK_CHARS);
+            if (end < length && Character.isHighSurrogate(str.charAt(end - 1))) {
+                // Do not split surrogate pairs
+                end--;
+            }
+            ensureCapacity((end - offset) * MAX_CHAR_BYTES);
+            pos = encode(str, offset, end, buf, pos, attribute);
+            offset = end;
+        }
+    }
+
+    /**
+     * Encode a range of a string as UTF-8, escaping the same characters the JDK's XMLStreamWriter does: '&amp;',
+     * '&lt;' and '&gt;', and also '"' in attribute values.
+     */
+    private static int encode(final String str, final int from, final int to, final byte[] dst, final int offset,
+            final boolean attribute) {
+        int ptr = offset;
+        for (int i = from; i < to; ++i) {
+            final char ch = str.charAt(i);
+            if (ch < 0x80) {
+                switch (ch) {
+                    case '&':
+                        ptr = append(AMP, dst, ptr);
+                        break;
+                    case '<':
+                        ptr = append(LT, dst, ptr);
+                        break;
+                    case '>':
+                        ptr = append(GT, dst, ptr);
+                        break;
+                    case '"':
+                        if (attribute) {
+                            ptr = append(QUOT, dst, ptr);
+                        } else {
+                            dst[ptr++] = '"';
+                        }
+                        break;
+                    default:
+                        dst[ptr++] = (byte) ch;
+                }
+            } else if (ch < 0x800) {
+                dst[ptr++] = (byte) (0xC0 | ch >> 6);
+                dst[ptr++] = (byte) (0x80 | ch & 0x3F);
+            } else if (Character.isSurrogate(ch)) {
+                if (Character.isHighSurrogate(ch) && i + 1 < to && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    final int cp = Character.toCodePoint(ch, str.charAt(++i));
+                    dst[ptr++] = (byte) (0xF0 | cp >> 18);
+                    dst[ptr++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    dst[ptr++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    dst[ptr++] = (byte) (0x80 | cp & 0x3F);
+                } else {
+                    // Malformed input, replaced just as an OutputStreamWriter would
+                    dst[ptr++] = '?';
+                }
+            } else {
+                dst[ptr++] = (byte) (0xE0 | ch >> 12);
+                dst[ptr++] = (byte) (0x80 | ch >> 6 & 0x3F);
+                dst[ptr++] = (byte) (0x80 | ch & 0x3F);
+            }
+        }
+        return ptr;
+    }
+
+    private static int append(final byte[] bytes, final byte[] dst, final int offset) {
+        System.arraycopy(bytes, 0, dst, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
+    private void writeQuoted(final byte[] value) throws XMLStreamException {
+        writeAscii("=\"");
+        writeBytes(value);
+        writeByte((byte) '"');
+    }
+
+    private void writeAscii(final String str) throws XMLStreamException {
+        final int length = str.length();
+        if (length > buf.length) {
+            writeRaw(str);
+            return;
+        }
+        ensureCapacity(length);
+        for (int i = 0; i < length; ++i) {
+            buf[pos++] = (byte) str.charAt(i);
+        }
+    }
+
+    private void writeRaw(final String str) throws XMLStreamException {
+        writeBytes(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeByte(final byte value) throws XMLStreamException {
+        ensureCapacity(1);
+        buf[pos++] = value;
+    }
+
+    private void writeBytes(final byte[] bytes) throws XMLStreamException {
+        if (bytes.length > buf.length) {
+            flushBuffer();
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new XMLStreamException("Failed to write output", e);
+            }
+            return;
+        }
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    private void ensureCapacity(final int bytes) throws XMLStreamException {
+        if (buf.length - pos < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws XMLStreamException {
+        if (pos != 0) {
+            try {
+                out.write(buf, 0, pos);
+            } catch (IOException e) {
+                throw new XMLStreamException("Failed to write output", e);
+            }
+            pos = 0;
+        }
+    }
+
+    private static String nonNull(final String str) {
+        return str != null ? str : "";
+    }
+}
@@ -142,13 +142,15 @@ public final class XmlParserStream implements Closeable, Flushable {
     private final XmlCodecFactory codecs;
     private final DataSchemaNode parentNode;
     private final boolean strictParsing;
+    private final boolean streaming;
 
     private XmlParserStream(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecs,
-            final DataSchemaNode parentNode, final boolean strictParsing) {
+            final DataSchemaNode parentNode, final boolean strictParsing, final boolean streaming) {
         this.writer = requireNonNull(writer);
         this.codecs = requireNonNull(codecs);
         this.parentNode = parentNode;
         this.strictParsing = strictParsing;
+        this.streaming = streaming;
     }
 
     /**
@@ -178,15 +180,7 @@ public final class XmlParserStream implements Closeable, Flushable {
      */
     public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecs,
             final SchemaNode parentNode, final boolean strictParsing) {
-        final DataSchemaNode parent;
-        if (parentNode instanceof DataSchemaNode) {
-            parent = (DataSchemaNode) parentNode;
-        } else if (parentNode instanceof OperationDefinition) {
-            parent = OperationAsContainer.of((OperationDefinition) parentNode);
-        } else {
-            throw new IllegalArgumentException("Illegal parent node " + parentNode);
-        }
-        return new XmlParserStream(writer, codecs, parent, strictParsing);
+        return new XmlParserStream(writer, codecs, toDataSchemaNode(parentNode), strictParsing, false);
     }
 
     /**
@@ -229,6 +223,59 @@ public final class XmlParserStream implements Closeable, Flushable {
         return create(writer, XmlCodecFactory.create(mountCtx), parentNode, strictParsing);
     }
 
+    /**
+     * Construct a new {@link XmlParserStream} operating in single-pass streaming mode with strict parsing mode
+     * switched on. See {@link #createStreaming(NormalizedNodeStreamWriter, XmlCodecFactory, SchemaNode, boolean)}
+     * for details.
+     *
+     * @param writer Output writer
+     * @param codecs Shared codecs
+     * @param parentNode Parent root node
+     * @return A new stream instance
+     */
+    public static XmlParserStream createStreaming(final NormalizedNodeStreamWriter writer,
+            final XmlCodecFactory codecs, final SchemaNode parentNode) {
+        return createStreaming(writer, codecs, parentNode, true);
+    }
+
+    /**
+     * Construct a new {@link XmlParserStream} operating in single-pass streaming mode. Unlike the default mode, which
+     * reads the entire document into memory before emitting anything into the writer, this mode emits events as soon
+     * as the corresponding XML elements are read. Memory usage is therefore bounded by the depth of the document rather
+     * than by its size.
+     *
+     * <p>
+     * Anyxml and anydata content is still copied: each such element is re-serialized and retained in its serialized
+     * form, which is parsed into a DOM when it is first accessed. Accessing the content is therefore more expensive
+     * than in the default mode, only content which is never accessed avoids the cost of building a DOM.
+     *
+     * <p>
+     * The price for this is that entries of a list or a leaf-list, as well as members of an augmentation or a choice,
+     * need to be specified without intervening containers, lists or leaf-lists which do not belong to them. Such input
+     * is rejected with an {@link IllegalStateException}, while the default mode accepts it.
+     *
+     * @param writer Output writer
+     * @param codecs Shared codecs
+     * @param parentNode Parent root node
+     * @param strictParsing parsing mode, as in {@link #create(NormalizedNodeStreamWriter, XmlCodecFactory, SchemaNode,
+     *                      boolean)}
+     * @return A new stream instance
+     */
+    public static XmlParserStream createStreaming(final NormalizedNodeStreamWriter writer,
+            final XmlCodecFactory codecs, final SchemaNode parentNode, final boolean strictParsing) {
+        return new XmlParserStream(writer, codecs, toDataSchemaNode(parentNode), strictParsing, true);
+    }
+
+    private static DataSchemaNode toDataSchemaNode(final SchemaNode parentNode) {
+        if (parentNode instanceof DataSchemaNode) {
+            return (DataSchemaNode) parentNode;
+        } else if (parentNode instanceof OperationDefinition) {
+            return OperationAsContainer.of((OperationDefinition) parentNode);
+        } else {
+            throw new IllegalArgumentException("Illegal parent node " + parentNode);
+        }
+    }
+
     /**
      * This method parses the XML source and emits node events into a NormalizedNodeStreamWriter based on the
      * YANG-modeled data contained in the XML source.
@@ -250,6 +297,11 @@ public final class XmlParserStream implements Closeable, Flushable {
             IOException, SAXException {
         if (reader.hasNext()) {
             reader.nextTag();
+            if (streaming && StreamingXmlParser.supports(parentNode)) {
+                new StreamingXmlParser(this, writer, codecs, strictParsing).parse(reader, parentNode);
+                return this;
+            }
+
             final AbstractNodeDataWithSchema<?> nodeDataWithSchema;
             if (parentNode instanceof ContainerSchemaNode) {
                 nodeDataWithSchema = new ContainerNodeDataWithSchema((ContainerSchemaNode) parentNode);
@@ -299,7 +351,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         return parse(new DOMSourceXMLStreamReader(src));
     }
 
-    private ImmutableMap<QName, Object> getElementAttributes(final XMLStreamReader in) {
+    ImmutableMap<QName, Object> getElementAttributes(final XMLStreamReader in) {
         checkState(in.isStartElement(), "Attributes can be extracted only from START_ELEMENT.");
         final Map<QName, Object> attributes = new LinkedHashMap<>();
 
@@ -341,7 +393,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         return ImmutableMap.copyOf(attributes);
     }
 
-    private static Document readAnyXmlValue(final XMLStreamReader in) throws XMLStreamException {
+    static Document readAnyXmlValue(final XMLStreamReader in) throws XMLStreamException {
         // Underlying reader might return null when asked for version, however when such reader is plugged into
         // Stax -> DOM transformer, it fails with NPE due to null version. Use default xml version in such case.
         final XMLStreamReader inWrapper;
@@ -366,7 +418,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         return (Document) result.getNode();
     }
 
-    private void read(final XMLStreamReader in, final AbstractNodeDataWithSchema<?> parent, final String rootElement)
+    void read(final XMLStreamReader in, final AbstractNodeDataWithSchema<?> parent, final String rootElement)
             throws XMLStreamException {
         if (!in.hasNext()) {
             return;
@@ -558,7 +610,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         return last instanceof ListSchemaNode || last instanceof LeafListSchemaNode;
     }
 
-    private static void addMountPointChild(final MountPointData mount, final URI namespace, final String localName,
+    static void addMountPointChild(final MountPointData mount, final URI namespace, final String localName,
             final DOMSource source) {
         final DOMSourceMountPointChild child = new DOMSourceMountPointChild(source);
         if (YangLibraryConstants.MODULE_NAMESPACE.equals(namespace)) {
@@ -577,16 +629,16 @@ public final class XmlParserStream implements Closeable, Flushable {
         mount.addChild(child);
     }
 
-    private static boolean isNextEndDocument(final XMLStreamReader in) throws XMLStreamException {
+    static boolean isNextEndDocument(final XMLStreamReader in) throws XMLStreamException {
         return !in.hasNext() || in.next() == XMLStreamConstants.END_DOCUMENT;
     }
 
-    private static boolean isAtElement(final XMLStreamReader in) {
+    static boolean isAtElement(final XMLStreamReader in) {
         return in.getEventType() == XMLStreamConstants.START_ELEMENT
                 || in.getEventType() == XMLStreamConstants.END_ELEMENT;
     }
 
-    private static void skipUnknownNode(final XMLStreamReader in) throws XMLStreamException {
+    static void skipUnknownNode(final XMLStreamReader in) throws XMLStreamException {
         // in case when the unknown node and at least one of its descendant nodes have the same name
         // we cannot properly reach the end just by checking if the current node is an end element and has the same name
         // as the root unknown element. therefore we ignore the names completely and just track the level of nesting
@@ -642,7 +694,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         return codecs.codecFor((TypedDataSchemaNode) node).parseValue(namespaceCtx, (String) value);
     }
 
-    private static AbstractNodeDataWithSchema<?> newEntryNode(final AbstractNodeDataWithSchema<?> parent) {
+    static AbstractNodeDataWithSchema<?> newEntryNode(final AbstractNodeDataWithSchema<?> parent) {
         verify(parent instanceof MultipleEntryDataWithSchema, "Unexpected parent %s", parent);
         return ((MultipleEntryDataWithSchema<?>) parent).newChildEntry();
     }
@@ -666,7 +718,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         });
     }
 
-    private QNameModule rawXmlNamespace(final String xmlNamespace) {
+    QNameModule rawXmlNamespace(final String xmlNamespace) {
         return rawNamespaces.computeIfAbsent(xmlNamespace, nsUri -> QNameModule.create(URI.create(nsUri)));
     }
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URISyntaxException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DOMSourceAnyxmlNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.ForwardingNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+public class StreamingXmlParserTest {
+    private static final QNameModule BAZ_MODULE = QNameModule.create(URI.create("baz-namespace"));
+    private static final QNameModule FOO_MODULE = QNameModule.create(URI.create("foo-namespace"));
+    private static final QNameModule TEST_MODULE = QNameModule.create(
+        URI.create("urn:opendaylight:params:xml:ns:yang:controller:test"), Revision.of("2014-03-13"));
+
+    private static EffectiveModelContext bazContext;
+    private static XmlCodecFactory bazCodecs;
+    private static DataSchemaNode outerContainer;
+
+    @BeforeClass
+    public static void beforeClass() {
+        bazContext = YangParserTestUtils.parseYangResourceDirectory("/");
+        bazCodecs = XmlCodecFactory.create(bazContext);
+        outerContainer = bazContext.findDataChildByName(QName.create(BAZ_MODULE, "outer-container")).get();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        bazContext = null;
+        bazCodecs = null;
+        outerContainer = null;
+    }
+
+    @Test
+    public void testSameResults() throws Exception {
+        assertSameResults(bazCodecs, outerContainer, "/baz.xml");
+
+        for (String resource : new String[] {
+            "/schema/augment_choice_hell_ok.xml", "/schema/augment_choice_hell_ok2.xml",
+            "/schema/augment_choice_hell_ok3.xml"
+        }) {
+            final EffectiveModelContext context = YangParserTestUtils.parseYangResource(
+                "/schema/augment_choice_hell.yang");
+            assertSameResults(XmlCodecFactory.create(context), context.findDataChildByName(
+                QName.create(TEST_MODULE, "container")).get(), resource);
+        }
+        for (String resource : new String[] {
+            "/schema/simple2.xml", "/schema/simple_xml_with_attributes.xml"
+        }) {
+            final EffectiveModelContext context = YangParserTestUtils.parseYangResource("/schema/test.yang");
+            assertSameResults(XmlCodecFactory.create(context), context.findDataChildByName(
+                QName.create(TEST_MODULE, "container")).get(), resource);
+        }
+    }
+
+    @Test
+    public void testSameSerialization() throws Exception {
+        // DOMSource does not implement equals(), hence we compare the serialized forms of documents with anyxml
+        final EffectiveModelContext context = YangParserTestUtils.parseYangResource("/schema/test.yang");
+        final XmlCodecFactory codecs = XmlCodecFactory.create(context);
+        final DataSchemaNode container = context.findDataChildByName(QName.create(TEST_MODULE, "container")).get();
+
+        final NormalizedNode<?, ?> expected;
+        try (InputStream is = StreamingXmlParserTest.class.getResourceAsStream("/schema/simple.xml")) {
+            expected = parse(codecs, container, UntrustedXML.createXMLStreamReader(is), false);
+        }
+        final NormalizedNode<?, ?> actual;
+        try (InputStream is = StreamingXmlParserTest.class.getResourceAsStream("/schema/simple.xml")) {
+            actual = parse(codecs, container, UntrustedXML.createXMLStreamReader(is), true);
+        }
+        assertEquals(serialize(context, expected), serialize(context, actual));
+    }
+
+    @Test
+    public void testLazyAnyxml() throws Exception {
+        final DataSchemaNode parentContainer = bazContext.findDataChildByName(
+            QName.create(FOO_MODULE, "parent-container")).get();
+        final NormalizedNode<?, ?> expected = parse(bazCodecs, parentContainer,
+            UntrustedXML.createXMLStreamReader(StreamingXmlParserTest.class.getResourceAsStream("/foo.xml")), false);
+        final NormalizedNode<?, ?> actual = parse(bazCodecs, parentContainer,
+            UntrustedXML.createXMLStreamReader(StreamingXmlParserTest.class.getResourceAsStream("/foo.xml")), true);
+
+        final DOMSource expectedSource = anyxmlValue(expected);
+        final DOMSource actualSource = anyxmlValue(actual);
+        assertTrue(actualSource instanceof SerializedDOMSource);
+
+        final Element expectedElement = (Element) expectedSource.getNode();
+        final Element actualElement = (Element) actualSource.getNode();
+        assertEquals(expectedElement.getLocalName(), actualElement.getLocalName());
+        assertEquals(expectedElement.getNamespaceURI(), actualElement.getNamespaceURI());
+        assertEquals(expectedElement.getTextContent(), actualElement.getTextContent());
+        assertEquals("< & sub-element value", actualElement.getTextContent());
+    }
+
+    @Test
+    public void testInterleavedEntries() throws Exception {
+        // Keys are not first and list entries are interleaved with a leaf
+        final String xml = "<outer-container xmlns=\"baz-namespace\"><my-container-1>"
+            + "<my-leaf-list>lflvalue1</my-leaf-list>"
+            + "<my-keyed-list><my-leaf-in-list-1>one</my-leaf-in-list-1><my-key-leaf>key1</my-key-leaf></my-keyed-list>"
+            + "<my-leaf-1>value1</my-leaf-1>"
+            + "<my-keyed-list><my-key-leaf>key2</my-key-leaf><my-leaf-in-list-2>two</my-leaf-in-list-2></my-keyed-list>"
+            + "</my-container-1></outer-container>";
+        assertEquals(parse(xml, false), parse(xml, true));
+    }
+
+    @Test
+    public void testSplitLeafList() throws Exception {
+        final String xml = "<outer-container xmlns=\"baz-namespace\"><my-container-1>"
+            + "<my-leaf-list>lflvalue1</my-leaf-list>"
+            + "<my-keyed-list><my-key-leaf>key1</my-key-leaf></my-keyed-list>"
+            + "<my-leaf-list>lflvalue2</my-leaf-list>"
+            + "</my-container-1></outer-container>";
+        // Non-streaming parser is fine with this ...
+        parse(xml, false);
+        // ... but streaming parser cannot reopen the leaf-list
+        final IllegalStateException ex = assertThrows(IllegalStateException.class, () -> parse(xml, true));
+        assertTrue(ex.getMessage(), ex.getMessage().contains("has already been completed"));
+    }
+
+    @Test
+    public void testUnknownElementPath() {
+        final String xml = "<outer-container xmlns=\"baz-namespace\"><my-container-1><unknown/></my-container-1>"
+            + "</outer-container>";
+        final XMLStreamException ex = assertThrows(XMLStreamException.class, () -> parse(xml, true));
+        assertTrue(ex.getMessage(), ex.getMessage().endsWith("Schema for node with name unknown and namespace "
+            + "baz-namespace does not exist at [(baz-namespace)outer-container, (baz-namespace)my-container-1]"));
+    }
+
+    @Test
+    public void testEntriesEmittedEarly() throws Exception {
+        final int size = 20000;
+        final StringBuilder sb = new StringBuilder("<outer-container xmlns=\"baz-namespace\"><my-container-1>");
+        for (int i = 0; i < size; ++i) {
+            sb.append("<my-keyed-list><my-key-leaf>key").append(i).append("</my-key-leaf><my-leaf-in-list-1>value")
+                .append(i).append("</my-leaf-in-list-1></my-keyed-list>");
+        }
+        final String xml = sb.append("</my-container-1></outer-container>").toString();
+
+        final CountingReader reader = new CountingReader(new StringReader(xml));
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter delegate = ImmutableNormalizedNodeStreamWriter.from(result);
+        final long[] firstEntry = { -1 };
+        final NormalizedNodeStreamWriter writer = new ForwardingNormalizedNodeStreamWriter() {
+            @Override
+            protected NormalizedNodeStreamWriter delegate() {
+                return delegate;
+            }
+
+            @Override
+            public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+                    throws IOException {
+                if (firstEntry[0] == -1) {
+                    firstEntry[0] = reader.count;
+                }
+                super.startMapEntryNode(identifier, childSizeHint);
+            }
+        };
+
+        XmlParserStream.createStreaming(writer, bazCodecs, outerContainer).parse(
+            UntrustedXML.createXMLStreamReader(reader));
+        assertEquals(parse(xml, false), result.getResult());
+
+        // The first entry has to be emitted while the reader is still well within the input
+        assertTrue("First entry emitted at " + firstEntry[0], firstEntry[0] > 0 && firstEntry[0] < xml.length() / 100);
+    }
+
+    private static void assertSameResults(final XmlCodecFactory codecs, final DataSchemaNode parentNode,
+            final String resource) throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        final NormalizedNode<?, ?> expected;
+        try (InputStream is = StreamingXmlParserTest.class.getResourceAsStream(resource)) {
+            expected = parse(codecs, parentNode, UntrustedXML.createXMLStreamReader(is), false);
+        }
+        try (InputStream is = StreamingXmlParserTest.class.getResourceAsStream(resource)) {
+            assertEquals(resource, expected, parse(codecs, parentNode, UntrustedXML.createXMLStreamReader(is), true));
+        }
+    }
+
+    private static NormalizedNode<?, ?> parse(final String xml, final boolean streaming)
+            throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        return parse(bazCodecs, outerContainer, UntrustedXML.createXMLStreamReader(new StringReader(xml)), streaming);
+    }
+
+    private static NormalizedNode<?, ?> parse(final XmlCodecFactory codecs, final DataSchemaNode parentNode,
+            final XMLStreamReader reader, final boolean streaming)
+                throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter streamWriter = ImmutableNormalizedNodeStreamWriter.from(result);
+        final XmlParserStream xmlParser = streaming ? XmlParserStream.createStreaming(streamWriter, codecs, parentNode)
+            : XmlParserStream.create(streamWriter, codecs, parentNode);
+        xmlParser.parse(reader);
+        return result.getResult();
+    }
+
+    private static String serialize(final EffectiveModelContext context, final NormalizedNode<?, ?> data)
+            throws XMLStreamException, IOException {
+        final StringWriter sw = new StringWriter();
+        final XMLStreamWriter xmlWriter = TestFactories.DEFAULT_OUTPUT_FACTORY.createXMLStreamWriter(sw);
+        try (NormalizedNodeWriter writer = NormalizedNodeWriter.forStreamWriter(
+                XMLStreamNormalizedNodeStreamWriter.create(xmlWriter, context))) {
+            writer.write(data);
+        }
+        return sw.toString();
+    }
+
+    private static DOMSource anyxmlValue(final NormalizedNode<?, ?> parent) {
+        final ContainerNode container = (ContainerNode) ((ContainerNode) parent).getChild(
+            new NodeIdentifier(QName.create(FOO_MODULE, "anyxml-container"))).get();
+        return ((DOMSourceAnyxmlNode) container.getChild(new NodeIdentifier(QName.create(FOO_MODULE, "my-anyxml")))
+            .get()).getValue();
+    }
+
+    private static final class CountingReader extends FilterReader {
+        long count;
+
+        CountingReader(final Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            final int ret = super.read(cbuf, off, len);
+            if (ret > 0) {
+                count += ret;
+            }
+            return ret;
+        }
+    }
+}
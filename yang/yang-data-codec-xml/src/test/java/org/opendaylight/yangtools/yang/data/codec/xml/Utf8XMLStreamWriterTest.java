@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class Utf8XMLStreamWriterTest {
+    @FunctionalInterface
+    private interface WriterCallback {
+        void write(XMLStreamWriter writer) throws XMLStreamException, IOException;
+    }
+
+    private static final QNameModule BAZ_MODULE = QNameModule.create(URI.create("baz-namespace"));
+    private static final QNameModule FOO_MODULE = QNameModule.create(URI.create("foo-namespace"));
+    private static final QNameModule TEST_MODULE = QNameModule.create(
+        URI.create("urn:opendaylight:params:xml:ns:yang:controller:test"), Revision.of("2014-03-13"));
+
+    private static EffectiveModelContext bazContext;
+    private static EffectiveModelContext testContext;
+
+    @BeforeClass
+    public static void beforeClass() {
+        bazContext = YangParserTestUtils.parseYangResourceDirectory("/");
+        testContext = YangParserTestUtils.parseYangResource("/schema/test.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        bazContext = null;
+        testContext = null;
+    }
+
+    @Test
+    public void testSameNormalizedNodeOutput() throws Exception {
+        assertSameOutput(bazContext, QName.create(BAZ_MODULE, "outer-container"), "/baz.xml");
+        assertSameOutput(bazContext, QName.create(FOO_MODULE, "parent-container"), "/foo.xml");
+        for (String resource : new String[] {
+            "/schema/simple.xml", "/schema/simple2.xml", "/schema/simple_xml_with_attributes.xml"
+        }) {
+            assertSameOutput(testContext, QName.create(TEST_MODULE, "container"), resource);
+        }
+    }
+
+    @Test
+    public void testSameRawOutput() throws Exception {
+        assertSameOutput("raw", writer -> {
+            writer.writeStartDocument();
+            writer.writeStartElement("", "a", "urn:x");
+            writer.writeDefaultNamespace("urn:x");
+            writer.writeNamespace("p", "urn:p&\"<>");
+            writer.writeAttribute("p", "urn:p&\"<>", "at", "v&<>\"'\n\t\r");
+            writer.writeAttribute("plain", "x");
+            writer.writeStartElement("", "b", "urn:x");
+            writer.writeEndElement();
+            writer.writeEmptyElement("", "c", "urn:x");
+            writer.writeEmptyElement("c2");
+            writer.writeAttribute("k", "v");
+            writer.writeCharacters("t&<>\"'\n\t\réࠀ😀");
+            writer.writeCharacters("xyz".toCharArray(), 1, 1);
+            writer.writeCData("cd");
+            writer.writeComment("co");
+            writer.writeProcessingInstruction("pi", "data");
+            writer.writeProcessingInstruction("pi2");
+            writer.writeEntityRef("amp");
+            writer.writeStartElement("q", "d", "urn:q");
+            writer.writeNamespace("q", "urn:q");
+            writer.writeStartElement("urn:q", "e");
+            writer.writeAttribute("urn:q", "f", "g");
+            writer.writeEndDocument();
+        });
+    }
+
+    @Test
+    public void testLongText() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; ++i) {
+            sb.append("<&>\"é😀 ");
+        }
+        final String text = sb.toString();
+        assertSameOutput("long", writer -> {
+            writer.writeStartElement("a");
+            writer.writeAttribute("attr", text);
+            writer.writeCharacters(text);
+            writer.writeEndElement();
+        });
+    }
+
+    @Test
+    public void testNamespaceContext() throws XMLStreamException {
+        final XMLStreamWriter writer = Utf8XMLStreamWriter.create(new ByteArrayOutputStream(), testContext);
+        final NamespaceContext context = writer.getNamespaceContext();
+        writer.writeStartElement("", "a", "urn:a");
+        writer.writeNamespace("p", "urn:p");
+        assertEquals("urn:a", context.getNamespaceURI(""));
+        assertEquals("p", writer.getPrefix("urn:p"));
+
+        writer.writeStartElement("", "b", "urn:b");
+        writer.writeNamespace("p", "urn:other");
+        assertEquals("urn:b", context.getNamespaceURI(""));
+        assertNull(writer.getPrefix("urn:p"));
+        assertNull(writer.getPrefix("urn:a"));
+
+        writer.writeEndElement();
+        assertEquals("urn:a", context.getNamespaceURI(""));
+        assertEquals("p", writer.getPrefix("urn:p"));
+        assertNull(context.getNamespaceURI("q"));
+
+        assertThrows(XMLStreamException.class, () -> writer.writeStartElement("urn:unbound", "c"));
+        writer.writeEndElement();
+        assertThrows(XMLStreamException.class, writer::writeEndElement);
+        assertThrows(XMLStreamException.class, () -> writer.writeAttribute("a", "b"));
+    }
+
+    private static void assertSameOutput(final EffectiveModelContext context, final QName parent,
+            final String resource) throws Exception {
+        final DataSchemaNode parentNode = context.findDataChildByName(parent).get();
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        try (InputStream is = Utf8XMLStreamWriterTest.class.getResourceAsStream(resource)) {
+            XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), context, parentNode)
+                .parse(UntrustedXML.createXMLStreamReader(is));
+        }
+        final NormalizedNode<?, ?> data = result.getResult();
+
+        assertSameOutput(resource, writer -> {
+            try (NormalizedNodeWriter nodeWriter = NormalizedNodeWriter.forStreamWriter(
+                    XMLStreamNormalizedNodeStreamWriter.create(writer, context))) {
+                nodeWriter.write(data);
+            }
+        }, context);
+    }
+
+    private static void assertSameOutput(final String message, final WriterCallback callback) throws Exception {
+        assertSameOutput(message, callback, testContext);
+    }
+
+    private static void assertSameOutput(final String message, final WriterCallback callback,
+            final EffectiveModelContext context) throws Exception {
+        final StringWriter expected = new StringWriter();
+        final XMLStreamWriter expectedWriter = TestFactories.DEFAULT_OUTPUT_FACTORY.createXMLStreamWriter(expected);
+        callback.write(expectedWriter);
+        expectedWriter.close();
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        final XMLStreamWriter actualWriter = Utf8XMLStreamWriter.create(actual, context);
+        callback.write(actualWriter);
+        actualWriter.close();
+
+        assertEquals(message, expected.toString(), new String(actual.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
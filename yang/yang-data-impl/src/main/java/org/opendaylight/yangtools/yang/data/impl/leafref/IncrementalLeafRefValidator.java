@@ -0,0 +1,588 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ValueNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Leafref validator which maintains an index of leafref target values and a reverse index from those values to the
+ * leafrefs referencing them. Both indices track individual leaf instances, identified by their
+ * {@link YangInstanceIdentifier}, grouped by the schema path they are looked up by. The index is kept up-to-date with
+ * committed {@link DataTreeCandidate}s, so that validation of a candidate needs to look only at those leafrefs and
+ * targets which were touched by it.
+ *
+ * <p>
+ * A candidate may build on other candidates which have not been committed yet, such as when it is prepared on top of a
+ * {@link org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip}. Their effects are applied on top
+ * of the index for the purposes of validation.
+ *
+ * <p>
+ * Leafrefs whose target path contains predicates cannot be resolved from the index. Whenever a candidate touches
+ * such a leafref or its target, validation falls back to {@link LeafRefValidation#validate(DataTreeCandidate,
+ * LeafRefContext)}. The same happens when a candidate cannot be related to the indexed state.
+ *
+ * <p>
+ * Instances are thread-safe, but are expected to be driven by a single data tree, i.e. each candidate is validated
+ * via {@link #validate(List, DataTreeCandidate)} and, if it is committed, reported via
+ * {@link #onCommit(DataTreeCandidate)}.
+ */
+@Beta
+public final class IncrementalLeafRefValidator {
+    private static final Logger LOG = LoggerFactory.getLogger(IncrementalLeafRefValidator.class);
+
+    private final Map<LeafRefContext, List<QName>> targetKeys = new HashMap<>();
+    private final Map<LeafRefContext, List<QName>> referenceKeys = new HashMap<>();
+    private final Set<List<QName>> complexTargets = new HashSet<>();
+    private final @NonNull LeafRefContext rootContext;
+
+    // Target path -> value -> target instances carrying that value
+    private final Map<List<QName>, Map<Object, Set<YangInstanceIdentifier>>> targets = new HashMap<>();
+    // Target path -> value -> leafref instances carrying that value
+    private final Map<List<QName>, Map<Object, Set<YangInstanceIdentifier>>> references = new HashMap<>();
+    // Changes to the index made by candidates we have seen, so that uncommitted candidates are examined only once
+    private final Cache<DataTreeCandidate, Delta> deltas = CacheBuilder.newBuilder().weakKeys().build();
+
+    private boolean indexed;
+    private NormalizedNode<?, ?> indexedRoot;
+
+    public IncrementalLeafRefValidator(final LeafRefContext rootContext) {
+        this.rootContext = requireNonNull(rootContext);
+        findComplexTargets(rootContext);
+    }
+
+    /**
+     * Validate leafrefs touched by a candidate, which builds directly on the committed state.
+     *
+     * @param candidate Candidate to validate, rooted at {@link YangInstanceIdentifier#empty()}
+     * @throws LeafRefDataValidationFailedException if the candidate violates any leafref constraints
+     * @throws IllegalArgumentException if the candidate is not rooted at {@link YangInstanceIdentifier#empty()}
+     */
+    public void validate(final DataTreeCandidate candidate) throws LeafRefDataValidationFailedException {
+        validate(ImmutableList.of(), candidate);
+    }
+
+    /**
+     * Validate leafrefs touched by a candidate, which builds on a chain of candidates which may not have been
+     * committed yet. Candidates in the chain which have already been committed are ignored.
+     *
+     * @param uncommitted Candidates the candidate builds on, oldest first
+     * @param candidate Candidate to validate, rooted at {@link YangInstanceIdentifier#empty()}
+     * @throws LeafRefDataValidationFailedException if the candidate violates any leafref constraints
+     * @throws IllegalArgumentException if the candidate is not rooted at {@link YangInstanceIdentifier#empty()}
+     */
+    public synchronized void validate(final List<? extends DataTreeCandidate> uncommitted,
+            final DataTreeCandidate candidate) throws LeafRefDataValidationFailedException {
+        checkArgument(candidate.getRootPath().isEmpty(), "Unsupported candidate root %s", candidate.getRootPath());
+
+        final NormalizedNode<?, ?> before = dataBefore(candidate);
+        final List<? extends DataTreeCandidate> pending;
+        if (!indexed) {
+            rebuildIndex(uncommitted.isEmpty() ? before : dataBefore(uncommitted.get(0)));
+            pending = uncommitted;
+        } else if (indexedRoot == before) {
+            pending = ImmutableList.of();
+        } else {
+            pending = findPending(uncommitted);
+            if (pending == null) {
+                LOG.debug("Candidate {} does not build on indexed state, performing full validation", candidate);
+                LeafRefValidation.validate(candidate, rootContext);
+                return;
+            }
+        }
+
+        final Delta delta = new Delta();
+        for (DataTreeCandidate prev : pending) {
+            delta.append(deltaOf(prev));
+        }
+        delta.append(deltaOf(candidate));
+
+        if (delta.complex) {
+            LOG.debug("Candidate {} touches leafrefs with predicates, performing full validation", candidate);
+            LeafRefValidation.validate(candidate, rootContext);
+        } else {
+            checkDelta(delta);
+        }
+    }
+
+    /**
+     * Update the index to reflect a committed candidate.
+     *
+     * @param candidate Committed candidate
+     */
+    public synchronized void onCommit(final DataTreeCandidate candidate) {
+        if (!indexed || indexedRoot != dataBefore(candidate) || !candidate.getRootPath().isEmpty()) {
+            LOG.debug("Candidate {} does not build on indexed state, invalidating index", candidate);
+            invalidate();
+            return;
+        }
+
+        applyDelta(deltaOf(candidate));
+        deltas.invalidate(candidate);
+        indexedRoot = candidate.getRootNode().getDataAfter().orElse(null);
+    }
+
+    /**
+     * Update the index to reflect committed data being replaced by an equivalent copy, such as when parts of it are
+     * moved off-heap.
+     *
+     * @param before Data being replaced
+     * @param after Equivalent data
+     */
+    public synchronized void onRootReplaced(final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after) {
+        if (indexed && indexedRoot == before) {
+            indexedRoot = after;
+        }
+    }
+
+    private void invalidate() {
+        indexed = false;
+        indexedRoot = null;
+        targets.clear();
+        references.clear();
+        deltas.invalidateAll();
+    }
+
+    private void rebuildIndex(final NormalizedNode<?, ?> root) {
+        invalidate();
+        if (root != null) {
+            final Delta delta = new Delta();
+            collectData(delta, root, rootContext, rootContext, YangInstanceIdentifier.empty(), true);
+            applyDelta(delta);
+        }
+        indexedRoot = root;
+        indexed = true;
+    }
+
+    private List<? extends DataTreeCandidate> findPending(final List<? extends DataTreeCandidate> uncommitted) {
+        for (int i = uncommitted.size() - 1; i >= 0; --i) {
+            if (dataBefore(uncommitted.get(i)) == indexedRoot) {
+                return uncommitted.subList(i, uncommitted.size());
+            }
+        }
+        return null;
+    }
+
+    private Delta deltaOf(final DataTreeCandidate candidate) {
+        Delta delta = deltas.getIfPresent(candidate);
+        if (delta == null) {
+            delta = new Delta();
+            collectChildren(delta, candidate.getRootNode(), rootContext, rootContext, YangInstanceIdentifier.empty());
+            deltas.put(candidate, delta);
+        }
+        return delta;
+    }
+
+    private void findComplexTargets(final LeafRefContext context) {
+        for (LeafRefContext child : context.getReferencingChilds().values()) {
+            if (child.isReferencing()) {
+                for (QNameWithPredicate element : child.getAbsoluteLeafRefTargetPath().getPathFromRoot()) {
+                    if (!element.getQNamePredicates().isEmpty()) {
+                        complexTargets.add(referenceKey(child));
+                        break;
+                    }
+                }
+            }
+            findComplexTargets(child);
+        }
+    }
+
+    private List<QName> targetKey(final LeafRefContext context) {
+        return targetKeys.computeIfAbsent(context, ctx -> toKey(ctx.getLeafRefNodePath()));
+    }
+
+    private List<QName> referenceKey(final LeafRefContext context) {
+        return referenceKeys.computeIfAbsent(context, ctx -> toKey(ctx.getAbsoluteLeafRefTargetPath()));
+    }
+
+    private static List<QName> toKey(final LeafRefPath path) {
+        final ImmutableList.Builder<QName> builder = ImmutableList.builder();
+        for (QNameWithPredicate element : path.getPathFromRoot()) {
+            builder.add(element.getQName());
+        }
+        return builder.build();
+    }
+
+    private void collectChildren(final Delta delta, final DataTreeCandidateNode node, final LeafRefContext referenced,
+            final LeafRefContext referencing, final YangInstanceIdentifier path) {
+        final NormalizedNode<?, ?> parent = dataOf(node);
+        for (DataTreeCandidateNode child : node.getChildNodes()) {
+            if (child.getModificationType() != ModificationType.UNMODIFIED) {
+                final NormalizedNode<?, ?> data = dataOf(child);
+                final LeafRefContext childReferenced = referencedChild(referenced, parent, data);
+                final LeafRefContext childReferencing = referencingChild(referencing, parent, data);
+                if (childReferenced != null || childReferencing != null) {
+                    collectNode(delta, child, childReferenced, childReferencing, path.node(child.getIdentifier()));
+                }
+            }
+        }
+    }
+
+    private void collectNode(final Delta delta, final DataTreeCandidateNode node, final LeafRefContext referenced,
+            final LeafRefContext referencing, final YangInstanceIdentifier path) {
+        if (node.getModificationType() == ModificationType.SUBTREE_MODIFIED) {
+            collectChildren(delta, node, referenced, referencing, path);
+        } else {
+            collectDiff(delta, node.getDataBefore().orElse(null), node.getDataAfter().orElse(null), referenced,
+                referencing, path);
+        }
+    }
+
+    private void collectDiff(final Delta delta, final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after,
+            final LeafRefContext referenced, final LeafRefContext referencing, final YangInstanceIdentifier path) {
+        if (before == after) {
+            return;
+        }
+        if (before == null) {
+            collectData(delta, after, referenced, referencing, path, true);
+            return;
+        }
+        if (after == null) {
+            collectData(delta, before, referenced, referencing, path, false);
+            return;
+        }
+        if (before instanceof ValueNode && after instanceof ValueNode
+                && Objects.equals(before.getValue(), after.getValue())) {
+            return;
+        }
+        if (!isAddressable(before) || !isAddressable(after)) {
+            collectData(delta, before, referenced, referencing, path, false);
+            collectData(delta, after, referenced, referencing, path, true);
+            return;
+        }
+
+        for (NormalizedNode<?, ?> child : childrenOf(before)) {
+            final LeafRefContext childReferenced = referencedChild(referenced, before, child);
+            final LeafRefContext childReferencing = referencingChild(referencing, before, child);
+            if (childReferenced != null || childReferencing != null) {
+                collectDiff(delta, child, NormalizedNodes.getDirectChild(after, child.getIdentifier()).orElse(null),
+                    childReferenced, childReferencing, path.node(child.getIdentifier()));
+            }
+        }
+        for (NormalizedNode<?, ?> child : childrenOf(after)) {
+            if (NormalizedNodes.getDirectChild(before, child.getIdentifier()).isEmpty()) {
+                final LeafRefContext childReferenced = referencedChild(referenced, after, child);
+                final LeafRefContext childReferencing = referencingChild(referencing, after, child);
+                if (childReferenced != null || childReferencing != null) {
+                    collectData(delta, child, childReferenced, childReferencing, path.node(child.getIdentifier()),
+                        true);
+                }
+            }
+        }
+    }
+
+    private void collectData(final Delta delta, final NormalizedNode<?, ?> data, final LeafRefContext referenced,
+            final LeafRefContext referencing, final YangInstanceIdentifier path, final boolean added) {
+        if (data instanceof ValueNode) {
+            final Object value = data.getValue();
+            if (referenced != null && referenced.isReferenced()) {
+                delta.updateTarget(targetKey(referenced), path, value, added);
+            }
+            if (referencing != null && referencing.isReferencing()) {
+                delta.updateReference(referenceKey(referencing), path, value, added);
+            }
+            return;
+        }
+
+        for (NormalizedNode<?, ?> child : childrenOf(data)) {
+            final LeafRefContext childReferenced = referencedChild(referenced, data, child);
+            final LeafRefContext childReferencing = referencingChild(referencing, data, child);
+            if (childReferenced != null || childReferencing != null) {
+                collectData(delta, child, childReferenced, childReferencing, path.node(child.getIdentifier()), added);
+            }
+        }
+    }
+
+    private void checkDelta(final Delta delta) throws LeafRefDataValidationFailedException {
+        final Map<List<QName>, Map<Object, Integer>> targetChanges = delta.targetChanges();
+        final List<String> errors = new ArrayList<>();
+
+        // Newly-introduced leafref values need to have a target
+        for (Entry<YangInstanceIdentifier, Change> entry : delta.references.entrySet()) {
+            final Change change = entry.getValue();
+            if (change.after != null && change.isEffective()
+                    && targetCount(targetChanges, change.key, change.after) <= 0) {
+                errors.add(String.format("Invalid leafref value [%s] of LEAFREF node: %s leafRef target path: %s",
+                    change.after, entry.getKey(), change.key));
+            }
+        }
+
+        // Removed target values must not be referenced by any remaining leafref
+        for (Entry<List<QName>, Map<Object, Integer>> byKey : targetChanges.entrySet()) {
+            final List<QName> key = byKey.getKey();
+            final Map<Object, Set<YangInstanceIdentifier>> keyReferences = references.get(key);
+            if (keyReferences == null) {
+                continue;
+            }
+
+            for (Entry<Object, Integer> byValue : byKey.getValue().entrySet()) {
+                final Object value = byValue.getKey();
+                if (byValue.getValue() >= 0 || targetCount(targetChanges, key, value) > 0) {
+                    continue;
+                }
+
+                final Set<YangInstanceIdentifier> existing = keyReferences.get(value);
+                if (existing == null) {
+                    continue;
+                }
+                for (YangInstanceIdentifier leafref : existing) {
+                    // Leafrefs changed by the delta have been checked above
+                    final Change change = delta.references.get(leafref);
+                    if (change == null || !change.isEffective()) {
+                        errors.add(String.format("Invalid leafref value [%s] of LEAFREF node: %s, its target was "
+                            + "removed from path: %s", value, leafref, key));
+                    }
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            LOG.debug("Leafref validation failed: {}", errors);
+            throw new LeafRefDataValidationFailedException(String.join(" ", errors), errors.size());
+        }
+    }
+
+    private int targetCount(final Map<List<QName>, Map<Object, Integer>> targetChanges, final List<QName> key,
+            final Object value) {
+        final Map<Object, Set<YangInstanceIdentifier>> byValue = targets.get(key);
+        final Set<YangInstanceIdentifier> instances = byValue == null ? null : byValue.get(value);
+        final Map<Object, Integer> changes = targetChanges.get(key);
+        final Integer change = changes == null ? null : changes.get(value);
+        return (instances == null ? 0 : instances.size()) + (change == null ? 0 : change);
+    }
+
+    private void applyDelta(final Delta delta) {
+        applyChanges(targets, delta.targets);
+        applyChanges(references, delta.references);
+    }
+
+    private static void applyChanges(final Map<List<QName>, Map<Object, Set<YangInstanceIdentifier>>> index,
+            final Map<YangInstanceIdentifier, Change> changes) {
+        for (Entry<YangInstanceIdentifier, Change> entry : changes.entrySet()) {
+            final Change change = entry.getValue();
+            if (!change.isEffective()) {
+                continue;
+            }
+
+            final YangInstanceIdentifier path = entry.getKey();
+            if (change.before != null) {
+                final Map<Object, Set<YangInstanceIdentifier>> byValue = index.get(change.key);
+                if (byValue != null) {
+                    final Set<YangInstanceIdentifier> instances = byValue.get(change.before);
+                    if (instances != null && instances.remove(path) && instances.isEmpty()) {
+                        byValue.remove(change.before);
+                        if (byValue.isEmpty()) {
+                            index.remove(change.key);
+                        }
+                    }
+                }
+            }
+            if (change.after != null) {
+                index.computeIfAbsent(change.key, key -> new HashMap<>())
+                    .computeIfAbsent(change.after, value -> new HashSet<>()).add(path);
+            }
+        }
+    }
+
+    private static LeafRefContext referencedChild(final LeafRefContext context, final NormalizedNode<?, ?> parent,
+            final NormalizedNode<?, ?> child) {
+        if (context == null || isTransparent(child)) {
+            return context;
+        }
+
+        final QName qname = child.getNodeType();
+        if (parent instanceof ChoiceNode) {
+            for (LeafRefContext caseContext : context.getReferencedByChilds().values()) {
+                final LeafRefContext found = caseContext.getReferencedChildByName(qname);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+        return context.getReferencedChildByName(qname);
+    }
+
+    private static LeafRefContext referencingChild(final LeafRefContext context, final NormalizedNode<?, ?> parent,
+            final NormalizedNode<?, ?> child) {
+        if (context == null || isTransparent(child)) {
+            return context;
+        }
+
+        final QName qname = child.getNodeType();
+        if (parent instanceof ChoiceNode) {
+            for (LeafRefContext caseContext : context.getReferencingChilds().values()) {
+                final LeafRefContext found = caseContext.getReferencingChildByName(qname);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+        return context.getReferencingChildByName(qname);
+    }
+
+    private static boolean isTransparent(final NormalizedNode<?, ?> node) {
+        return node instanceof MapEntryNode || node instanceof UnkeyedListEntryNode
+            || node instanceof LeafSetEntryNode || node instanceof AugmentationNode;
+    }
+
+    private static boolean isAddressable(final NormalizedNode<?, ?> node) {
+        return node instanceof DataContainerNode || node instanceof MapNode || node instanceof LeafSetNode;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<? extends NormalizedNode<?, ?>> childrenOf(final NormalizedNode<?, ?> node) {
+        if (node instanceof NormalizedNodeContainer || node instanceof UnkeyedListNode) {
+            return (Collection<? extends NormalizedNode<?, ?>>) node.getValue();
+        }
+        return ImmutableList.of();
+    }
+
+    private static NormalizedNode<?, ?> dataOf(final DataTreeCandidateNode node) {
+        return node.getDataAfter().orElseGet(() -> node.getDataBefore().orElse(null));
+    }
+
+    private static NormalizedNode<?, ?> dataBefore(final DataTreeCandidate candidate) {
+        return candidate.getRootNode().getDataBefore().orElse(null);
+    }
+
+    /**
+     * Change of a single leaf instance, {@code null} values indicate the instance is not present.
+     */
+    private static final class Change {
+        final List<QName> key;
+
+        Object before;
+        Object after;
+
+        Change(final List<QName> key) {
+            this.key = requireNonNull(key);
+        }
+
+        Change(final Change other) {
+            key = other.key;
+            before = other.before;
+            after = other.after;
+        }
+
+        boolean isEffective() {
+            return !Objects.equals(before, after);
+        }
+    }
+
+    /**
+     * Changes to the index resulting from one or more candidates, tracked per leaf instance.
+     */
+    private final class Delta {
+        final Map<YangInstanceIdentifier, Change> targets = new HashMap<>();
+        final Map<YangInstanceIdentifier, Change> references = new HashMap<>();
+        boolean complex;
+
+        void updateTarget(final List<QName> key, final YangInstanceIdentifier path, final Object value,
+                final boolean isAdded) {
+            complex |= complexTargets.contains(key);
+            record(targets, key, path, value, isAdded);
+        }
+
+        void updateReference(final List<QName> key, final YangInstanceIdentifier path, final Object value,
+                final boolean isAdded) {
+            complex |= complexTargets.contains(key);
+            record(references, key, path, value, isAdded);
+        }
+
+        /**
+         * Append changes made by a subsequent candidate.
+         *
+         * @param next Changes made by the next candidate
+         */
+        void append(final Delta next) {
+            complex |= next.complex;
+            appendChanges(targets, next.targets);
+            appendChanges(references, next.references);
+        }
+
+        /**
+         * Return net change of the number of target instances carrying each value.
+         *
+         * @return Target path -> value -> change
+         */
+        Map<List<QName>, Map<Object, Integer>> targetChanges() {
+            final Map<List<QName>, Map<Object, Integer>> ret = new HashMap<>();
+            for (Change change : targets.values()) {
+                if (change.isEffective()) {
+                    final Map<Object, Integer> byValue = ret.computeIfAbsent(change.key, key -> new HashMap<>());
+                    if (change.before != null) {
+                        byValue.merge(change.before, -1, Integer::sum);
+                    }
+                    if (change.after != null) {
+                        byValue.merge(change.after, 1, Integer::sum);
+                    }
+                }
+            }
+            return ret;
+        }
+
+        private void record(final Map<YangInstanceIdentifier, Change> changes, final List<QName> key,
+                final YangInstanceIdentifier path, final Object value, final boolean isAdded) {
+            final Change change = changes.computeIfAbsent(path, k -> new Change(key));
+            if (isAdded) {
+                change.after = value;
+            } else {
+                change.before = value;
+            }
+        }
+
+        private void appendChanges(final Map<YangInstanceIdentifier, Change> changes,
+                final Map<YangInstanceIdentifier, Change> next) {
+            for (Entry<YangInstanceIdentifier, Change> entry : next.entrySet()) {
+                final Change existing = changes.get(entry.getKey());
+                if (existing != null) {
+                    existing.after = entry.getValue().after;
+                } else {
+                    changes.put(entry.getKey(), new Change(entry.getValue()));
+                }
+            }
+        }
+    }
+}
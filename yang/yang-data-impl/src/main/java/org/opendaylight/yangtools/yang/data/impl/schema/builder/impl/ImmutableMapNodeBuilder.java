@@ -7,7 +7,6 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.builder.impl;
 
-import com.google.common.collect.Maps;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,7 +35,8 @@ public class ImmutableMapNodeBuilder implements CollectionNodeBuilder<MapEntryNo
 
     protected ImmutableMapNodeBuilder(final int sizeHint) {
         if (sizeHint >= 0) {
-            this.value = Maps.newHashMapWithExpectedSize(sizeHint);
+            // Large lists are populated directly into a persistent map, so that build() does not need to copy them
+            this.value = MapAdaptor.getDefaultInstance().initialSnapshot(sizeHint);
         } else {
             this.value = new HashMap<>(DEFAULT_CAPACITY);
         }
@@ -8,11 +8,13 @@
 package org.opendaylight.yangtools.yang.data.impl.schema.nodes;
 
 import com.google.common.base.MoreObjects.ToStringHelper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.opendaylight.yangtools.concepts.AbstractIdentifiable;
 import org.opendaylight.yangtools.concepts.Immutable;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.SpilledNormalizedNode;
 
 public abstract class AbstractImmutableNormalizedNode<K extends PathArgument, V> extends AbstractIdentifiable<K>
         implements NormalizedNode<K, V>, Immutable {
@@ -35,10 +37,15 @@ public abstract class AbstractImmutableNormalizedNode<K extends PathArgument, V>
     protected abstract int valueHashCode();
 
     @Override
+    @SuppressFBWarnings(value = "EQ_CHECK_FOR_OPERAND_NOT_COMPATIBLE_WITH_THIS",
+        justification = "Spilled nodes compare equal to their inflated counterparts")
     public final boolean equals(final Object obj) {
         if (this == obj) {
             return true;
         }
+        if (obj instanceof SpilledNormalizedNode) {
+            return equals(((SpilledNormalizedNode<?, ?>) obj).inflate());
+        }
         if (obj == null || this.getClass() != obj.getClass()) {
             return false;
         }
@@ -9,20 +9,66 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.collect.ImmutableList;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
 
 @NonNullByDefault
 abstract class AbstractDataTreeCandidate extends AbstractDataTreeTip implements DataTreeCandidateTip {
+    private static final WeakReference<AbstractDataTreeCandidate> NO_PARENT = new WeakReference<>(null);
+
     private final YangInstanceIdentifier rootPath;
+    private final @Nullable IncrementalLeafRefValidator leafRefValidator;
+    // The candidate this candidate was prepared on. This is a weak reference, so that a chain of candidates does not
+    // retain its predecessors once they have been committed or abandoned.
+    private final WeakReference<AbstractDataTreeCandidate> parent;
 
     protected AbstractDataTreeCandidate(final YangInstanceIdentifier rootPath) {
+        this(rootPath, null, null);
+    }
+
+    protected AbstractDataTreeCandidate(final YangInstanceIdentifier rootPath,
+            final @Nullable IncrementalLeafRefValidator leafRefValidator,
+            final @Nullable AbstractDataTreeCandidate parent) {
         this.rootPath = requireNonNull(rootPath);
+        this.leafRefValidator = leafRefValidator;
+        this.parent = parent == null ? NO_PARENT : new WeakReference<>(parent);
     }
 
     @Override
     public final YangInstanceIdentifier getRootPath() {
         return rootPath;
     }
+
+    @Override
+    final @Nullable IncrementalLeafRefValidator leafRefValidator() {
+        return leafRefValidator;
+    }
+
+    @Override
+    final AbstractDataTreeCandidate candidateParent() {
+        return this;
+    }
+
+    @Override
+    final List<DataTreeCandidate> uncommittedCandidates() {
+        final Deque<DataTreeCandidate> ret = new ArrayDeque<>();
+        AbstractDataTreeCandidate current = this;
+        do {
+            // No-op candidates have the same root as their parent and do not contribute anything
+            if (!(current instanceof NoopDataTreeCandidate)) {
+                ret.addFirst(current);
+            }
+            current = current.parent.get();
+        } while (current != null);
+        return ImmutableList.copyOf(ret);
+    }
 }
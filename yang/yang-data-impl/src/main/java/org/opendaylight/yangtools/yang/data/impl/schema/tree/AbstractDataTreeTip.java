@@ -10,16 +10,24 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchAwareDataTreeTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.PreparedBatch;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefDataValidationFailedException;
 
-abstract class AbstractDataTreeTip implements DataTreeTip {
+abstract class AbstractDataTreeTip implements BatchAwareDataTreeTip {
     /**
      * Return the current root node of this tip.
      *
@@ -29,13 +37,67 @@ abstract class AbstractDataTreeTip implements DataTreeTip {
 
     abstract @NonNull YangInstanceIdentifier getRootPath();
 
+    /**
+     * Return the leafref validator which applies to modifications of this tip.
+     *
+     * @return Leafref validator, {@code null} if leafref validation is not enabled
+     */
+    abstract @Nullable IncrementalLeafRefValidator leafRefValidator();
+
+    /**
+     * Return the candidate which is the parent of candidates prepared on this tip.
+     *
+     * @return Parent candidate, {@code null} if this tip is not a candidate
+     */
+    @Nullable AbstractDataTreeCandidate candidateParent() {
+        return null;
+    }
+
+    /**
+     * Return the candidates this tip builds on, oldest first. Some of them may have been committed already.
+     *
+     * @return Candidates this tip builds on
+     */
+    List<DataTreeCandidate> uncommittedCandidates() {
+        return ImmutableList.of();
+    }
+
     @Override
     public final void validate(final DataTreeModification modification) throws DataValidationFailedException {
         final InMemoryDataTreeModification m = checkedCast(modification);
         checkArgument(m.isSealed(), "Attempted to verify unsealed modification %s", m);
 
+        final TreeNode currentRoot = getTipRoot();
         m.getStrategy().checkApplicable(new ModificationPath(getRootPath()), m.getRootModification(),
-            Optional.of(getTipRoot()), m.getVersion());
+            Optional.of(currentRoot), m.getVersion());
+
+        final IncrementalLeafRefValidator validator = leafRefValidator();
+        if (validator != null) {
+            // Prepare the candidate, so it can be validated, and stash it so prepare() does not have to compute it
+            // again
+            final DataTreeCandidateTip candidate = prepare(m, currentRoot);
+            m.setValidatedCandidate(currentRoot, candidate);
+            validateLeafRefs(validator, candidate);
+        }
+    }
+
+    /**
+     * Validate leafrefs touched by a candidate prepared on this tip, taking into account any uncommitted candidates
+     * this tip builds on.
+     *
+     * @param validator Leafref validator
+     * @param candidate Candidate to validate
+     * @throws DataValidationFailedException if the candidate violates any leafref constraints
+     */
+    final void validateLeafRefs(final IncrementalLeafRefValidator validator, final DataTreeCandidate candidate)
+            throws DataValidationFailedException {
+        if (!(candidate instanceof NoopDataTreeCandidate)) {
+            try {
+                validator.validate(uncommittedCandidates(), candidate);
+            } catch (LeafRefDataValidationFailedException e) {
+                throw new DataValidationFailedException(YangInstanceIdentifier.empty(), e.getMessage(), e);
+            }
+        }
     }
 
     @Override
@@ -43,17 +105,43 @@ abstract class AbstractDataTreeTip implements DataTreeTip {
         final InMemoryDataTreeModification m = checkedCast(modification);
         checkArgument(m.isSealed(), "Attempted to prepare unsealed modification %s", m);
 
-        final ModifiedNode root = m.getRootModification();
-
         final TreeNode currentRoot = getTipRoot();
+        final DataTreeCandidateTip validated = m.getValidatedCandidate(currentRoot);
+        return validated != null ? validated : prepare(m, currentRoot);
+    }
+
+    final @NonNull DataTreeCandidateTip prepare(final InMemoryDataTreeModification mod, final TreeNode currentRoot) {
+        final ModifiedNode root = mod.getRootModification();
         if (root.getOperation() == LogicalOperation.NONE) {
-            return new NoopDataTreeCandidate(YangInstanceIdentifier.empty(), root, currentRoot);
+            return newNoopCandidate(root, currentRoot);
         }
 
-        final Optional<? extends TreeNode> newRoot = m.getStrategy().apply(m.getRootModification(),
-            Optional.of(currentRoot), m.getVersion());
-        checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", modification);
-        return new InMemoryDataTreeCandidate(YangInstanceIdentifier.empty(), root, currentRoot, newRoot.get());
+        final Optional<? extends TreeNode> newRoot = mod.getStrategy().apply(mod.getRootModification(),
+            Optional.of(currentRoot), mod.getVersion());
+        checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", mod);
+        return newCandidate(root, currentRoot, newRoot.get());
+    }
+
+    final @NonNull InMemoryDataTreeCandidate newCandidate(final ModifiedNode root, final TreeNode beforeRoot,
+            final TreeNode afterRoot) {
+        return new InMemoryDataTreeCandidate(YangInstanceIdentifier.empty(), root, beforeRoot, afterRoot,
+            leafRefValidator(), candidateParent());
+    }
+
+    final @NonNull NoopDataTreeCandidate newNoopCandidate(final ModifiedNode root, final TreeNode currentRoot) {
+        return new NoopDataTreeCandidate(YangInstanceIdentifier.empty(), root, currentRoot, leafRefValidator(),
+            candidateParent());
+    }
+
+    @Override
+    public final PreparedBatch prepareBatch(final List<? extends DataTreeModification> modifications) {
+        final List<InMemoryDataTreeModification> mods = new ArrayList<>(modifications.size());
+        for (DataTreeModification modification : modifications) {
+            final InMemoryDataTreeModification m = checkedCast(modification);
+            checkArgument(m.isSealed(), "Attempted to prepare unsealed modification %s", m);
+            mods.add(m);
+        }
+        return ModificationBatch.prepare(this, mods);
     }
 
     private static InMemoryDataTreeModification checkedCast(final DataTreeModification mod) {
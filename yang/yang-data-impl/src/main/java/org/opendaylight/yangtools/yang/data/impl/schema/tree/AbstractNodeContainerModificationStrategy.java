@@ -89,11 +89,13 @@ abstract class AbstractNodeContainerModificationStrategy<T extends WithStatus>
 
     private final NormalizedNodeContainerSupport<?, ?> support;
     private final boolean verifyChildrenStructure;
+    private final int parallelThreshold;
 
     AbstractNodeContainerModificationStrategy(final NormalizedNodeContainerSupport<?, ?> support,
             final DataTreeConfiguration treeConfig) {
         this.support = requireNonNull(support);
         this.verifyChildrenStructure = treeConfig.getTreeType() == TreeType.CONFIGURATION;
+        this.parallelThreshold = treeConfig.getParallelThreshold();
     }
 
     @Override
@@ -213,7 +215,10 @@ abstract class AbstractNodeContainerModificationStrategy<T extends WithStatus>
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private TreeNode mutateChildren(final MutableTreeNode meta, final NormalizedNodeContainerBuilder data,
-            final Version nodeVersion, final Iterable<ModifiedNode> modifications) {
+            final Version nodeVersion, final Collection<ModifiedNode> modifications) {
+        if (ParallelChildren.shouldParallelize(parallelThreshold, modifications.size())) {
+            return parallelMutateChildren(meta, data, nodeVersion, modifications);
+        }
 
         for (final ModifiedNode mod : modifications) {
             final PathArgument id = mod.getIdentifier();
@@ -234,6 +239,43 @@ abstract class AbstractNodeContainerModificationStrategy<T extends WithStatus>
         return meta.seal();
     }
 
+    /**
+     * Parallel version of {@link #mutateChildren(MutableTreeNode, NormalizedNodeContainerBuilder, Version,
+     * Collection)}. Children are applied concurrently, as each of them operates on its own subtree, but their results
+     * are integrated into {@code meta} and {@code data} sequentially and in the original order, so the outcome is the
+     * same as with sequential application.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private TreeNode parallelMutateChildren(final MutableTreeNode meta, final NormalizedNodeContainerBuilder data,
+            final Version nodeVersion, final Collection<ModifiedNode> modifications) {
+        final ModifiedNode[] mods = modifications.toArray(new ModifiedNode[0]);
+        final Optional<? extends TreeNode>[] results = new Optional[mods.length];
+        for (int i = 0; i < mods.length; ++i) {
+            results[i] = meta.getChild(mods[i].getIdentifier());
+        }
+
+        ParallelChildren.forEach(mods.length, i -> {
+            final ModifiedNode mod = mods[i];
+            results[i] = resolveChildOperation(mod.getIdentifier()).apply(mod, results[i], nodeVersion);
+        });
+
+        for (int i = 0; i < mods.length; ++i) {
+            final Optional<? extends TreeNode> result = results[i];
+            if (result.isPresent()) {
+                final TreeNode tn = result.get();
+                meta.addChild(tn);
+                data.addChild(tn.getData());
+            } else {
+                final PathArgument id = mods[i].getIdentifier();
+                meta.removeChild(id);
+                data.removeChild(id);
+            }
+        }
+
+        meta.setData(data.build());
+        return meta.seal();
+    }
+
     @Override
     protected TreeNode applyMerge(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
         /*
@@ -411,7 +453,13 @@ abstract class AbstractNodeContainerModificationStrategy<T extends WithStatus>
      */
     private void checkChildPreconditions(final ModificationPath path, final NodeModification modification,
             final TreeNode current, final Version version) throws DataValidationFailedException {
-        for (final NodeModification childMod : modification.getChildren()) {
+        final Collection<? extends NodeModification> children = modification.getChildren();
+        if (ParallelChildren.shouldParallelize(parallelThreshold, children.size())) {
+            parallelCheckChildPreconditions(path, children, current, version);
+            return;
+        }
+
+        for (final NodeModification childMod : children) {
             final PathArgument childId = childMod.getIdentifier();
             final Optional<? extends TreeNode> childMeta = current.getChild(childId);
 
@@ -424,6 +472,27 @@ abstract class AbstractNodeContainerModificationStrategy<T extends WithStatus>
         }
     }
 
+    private void parallelCheckChildPreconditions(final ModificationPath path,
+            final Collection<? extends NodeModification> children, final TreeNode current, final Version version)
+                throws DataValidationFailedException {
+        final NodeModification[] mods = children.toArray(new NodeModification[0]);
+        final YangInstanceIdentifier parentPath = path.toInstanceIdentifier();
+
+        // The first task reuses our path, only forked tasks need their own copy
+        ParallelChildren.forEach(mods.length, path, ignored -> new ModificationPath(parentPath), (taskPath, i) -> {
+            final NodeModification childMod = mods[i];
+            final PathArgument childId = childMod.getIdentifier();
+
+            taskPath.push(childId);
+            try {
+                resolveChildOperation(childId).checkApplicable(taskPath, childMod, current.getChild(childId),
+                    version);
+            } finally {
+                taskPath.pop();
+            }
+        });
+    }
+
     @Override
     public final String toString() {
         return addToStringAttributes(MoreObjects.toStringHelper(this)).toString();
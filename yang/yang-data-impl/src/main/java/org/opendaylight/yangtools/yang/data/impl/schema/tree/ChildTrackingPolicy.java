@@ -11,6 +11,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 
 /**
@@ -28,6 +29,11 @@ abstract class ChildTrackingPolicy {
             // We cannot use ImmutableMap, as we need a functioning Map.clear()
             return Collections.emptyMap();
         }
+
+        @Override
+        Map<PathArgument, ModifiedNode> createConcurrentMap() {
+            return Collections.emptyMap();
+        }
     };
     /**
      * Child nodes are possible and we need to make sure that their iteration order
@@ -38,6 +44,12 @@ abstract class ChildTrackingPolicy {
         Map<PathArgument, ModifiedNode> createMap() {
             return new LinkedHashMap<>(DEFAULT_CHILD_COUNT);
         }
+
+        @Override
+        Map<PathArgument, ModifiedNode> createConcurrentMap() {
+            // Insertion order needs to be retained, hence we just serialize access
+            return Collections.synchronizedMap(createMap());
+        }
     };
     /**
      * Child nodes are possible, but their iteration order can be undefined.
@@ -47,6 +59,11 @@ abstract class ChildTrackingPolicy {
         Map<PathArgument, ModifiedNode> createMap() {
             return new HashMap<>();
         }
+
+        @Override
+        Map<PathArgument, ModifiedNode> createConcurrentMap() {
+            return new ConcurrentHashMap<>();
+        }
     };
 
     /**
@@ -55,4 +72,11 @@ abstract class ChildTrackingPolicy {
      * @return An empty map instance
      */
     abstract Map<PathArgument, ModifiedNode> createMap();
+
+    /**
+     * Instantiate a new map for all possible children, which supports concurrent lookups and insertions.
+     *
+     * @return An empty map instance
+     */
+    abstract Map<PathArgument, ModifiedNode> createConcurrentMap();
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.MutableTreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.SpilledNormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeFactory;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeSpiller;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+
+/**
+ * A single spill pass over a {@link TreeNode} hierarchy. Subtrees are considered cold when their subtree version is
+ * the same as the one observed by the previous pass. Cold subtrees whose version matches their subtree version are
+ * offered to a {@link TreeNodeSpiller}, all others are traversed further.
+ *
+ * <p>
+ * The resulting tree retains all versions of the original tree, so it can be committed without affecting concurrent
+ * modifications, save for those which need to be rebased anyway.
+ */
+final class ColdSubtreeSpill {
+    private final TreeNodeSpiller spiller;
+
+    private ColdSubtreeSpill(final TreeNodeSpiller spiller) {
+        this.spiller = requireNonNull(spiller);
+    }
+
+    /**
+     * Run a spill pass.
+     *
+     * @param spiller Spilling policy
+     * @param current Current tree root
+     * @param previous Tree root observed by the previous pass
+     * @return Resulting tree root, or {@code current} if nothing was spilled
+     */
+    static @NonNull TreeNode spill(final TreeNodeSpiller spiller, final TreeNode current, final TreeNode previous) {
+        return new ColdSubtreeSpill(spiller).spillChildren(current, previous);
+    }
+
+    private TreeNode spillChildren(final TreeNode node, final TreeNode previous) {
+        final NormalizedNode<?, ?> data = node.getData();
+        if (!isTraversable(data)) {
+            return node;
+        }
+
+        Map<PathArgument, TreeNode> replaced = null;
+        for (NormalizedNode<?, ?> child : ((NormalizedNodeContainer<?, ?, ?>) data).getValue()) {
+            if (child instanceof SpilledNormalizedNode) {
+                continue;
+            }
+
+            final PathArgument id = child.getIdentifier();
+            final Optional<? extends TreeNode> prevChild = previous.getChild(id);
+            if (prevChild.isEmpty()) {
+                // Not present in previous pass, hence not cold
+                continue;
+            }
+
+            final TreeNode childNode = node.getChild(id).get();
+            final TreeNode newChild = spillChild(childNode, prevChild.get());
+            if (newChild != childNode) {
+                if (replaced == null) {
+                    replaced = new HashMap<>();
+                }
+                replaced.put(id, newChild);
+            }
+        }
+
+        return replaced == null ? node : replaceChildren(node, replaced);
+    }
+
+    private TreeNode spillChild(final TreeNode node, final TreeNode previous) {
+        final Version subtreeVersion = node.getSubtreeVersion();
+        if (subtreeVersion.equals(previous.getSubtreeVersion()) && subtreeVersion.equals(node.getVersion())) {
+            final NormalizedNode<?, ?> data = node.getData();
+            final NormalizedNode<?, ?> spilled = spiller.spill(data);
+            if (spilled == data) {
+                return node;
+            }
+            if (spilled != null) {
+                return TreeNodeFactory.createTreeNode(spilled, node.getVersion());
+            }
+        }
+        return spillChildren(node, previous);
+    }
+
+    private static TreeNode replaceChildren(final TreeNode node, final Map<PathArgument, TreeNode> replaced) {
+        final MutableTreeNode mutable = node.mutable();
+        for (TreeNode child : replaced.values()) {
+            mutable.addChild(child);
+        }
+        mutable.setData(rebuildData(node.getData(), replaced));
+        return mutable.seal();
+    }
+
+    private static boolean isTraversable(final NormalizedNode<?, ?> data) {
+        return data instanceof ContainerNode || data instanceof MapEntryNode || data instanceof AugmentationNode
+            || data instanceof ChoiceNode || data instanceof MapNode && !(data instanceof OrderedMapNode);
+    }
+
+    private static NormalizedNode<?, ?> rebuildData(final NormalizedNode<?, ?> data,
+            final Map<PathArgument, TreeNode> replaced) {
+        if (data instanceof MapNode) {
+            final MapNode map = (MapNode) data;
+            final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+                .withNodeIdentifier(map.getIdentifier());
+            for (MapEntryNode entry : map.getValue()) {
+                final TreeNode child = replaced.get(entry.getIdentifier());
+                builder.withChild(child == null ? entry : (MapEntryNode) child.getData());
+            }
+            return builder.build();
+        }
+        if (data instanceof ContainerNode) {
+            return rebuildContainer(Builders.containerBuilder(), (ContainerNode) data, replaced);
+        }
+        if (data instanceof MapEntryNode) {
+            return rebuildContainer(Builders.mapEntryBuilder(), (MapEntryNode) data, replaced);
+        }
+        if (data instanceof AugmentationNode) {
+            return rebuildContainer(Builders.augmentationBuilder(), (AugmentationNode) data, replaced);
+        }
+        if (data instanceof ChoiceNode) {
+            return rebuildContainer(Builders.choiceBuilder(), (ChoiceNode) data, replaced);
+        }
+        throw new IllegalStateException("Unhandled data " + data);
+    }
+
+    private static <K extends PathArgument, T extends DataContainerNode<K>> T rebuildContainer(
+            final DataContainerNodeBuilder<K, T> builder, final T data, final Map<PathArgument, TreeNode> replaced) {
+        builder.withNodeIdentifier(data.getIdentifier());
+        for (DataContainerChild<? extends PathArgument, ?> child : data.getValue()) {
+            final TreeNode replacement = replaced.get(child.getIdentifier());
+            builder.withChild(replacement == null ? child
+                : (DataContainerChild<? extends PathArgument, ?>) replacement.getData());
+        }
+        return builder.build();
+    }
+}
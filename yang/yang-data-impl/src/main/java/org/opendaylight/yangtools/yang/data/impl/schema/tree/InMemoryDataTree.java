@@ -17,10 +17,15 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.SpillingDataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeSpiller;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefContext;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
 import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
@@ -35,7 +40,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Read-only snapshot of the data tree.
  */
-final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
+final class InMemoryDataTree extends AbstractDataTreeTip implements SpillingDataTree {
     private static final VarHandle STATE;
 
     static {
@@ -57,6 +62,16 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
     @SuppressWarnings("unused")
     private volatile DataTreeState state;
 
+    /**
+     * Tree root resulting from the last committed spill pass, {@code null} if no pass has been committed yet.
+     */
+    private volatile TreeNode spillBase;
+
+    /**
+     * Leafref validator for current schema context, {@code null} if leafref validation is not enabled.
+     */
+    private volatile IncrementalLeafRefValidator leafRefValidator;
+
     InMemoryDataTree(final TreeNode rootNode, final DataTreeConfiguration treeConfig,
             final SchemaContext schemaContext) {
         this.treeConfig = requireNonNull(treeConfig, "treeConfig");
@@ -73,6 +88,7 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
         this.maskMandatory = maskMandatory;
 
         state = DataTreeState.createInitial(rootNode).withSchemaContext(schemaContext, getOperation(rootSchemaNode));
+        leafRefValidator = createLeafRefValidator(schemaContext);
     }
 
     private ModificationApplyOperation getOperation(final DataSchemaNode rootSchemaNode) {
@@ -94,6 +110,11 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
         }
     }
 
+    private IncrementalLeafRefValidator createLeafRefValidator(final SchemaContext schemaContext) {
+        return schemaContext != null && treeConfig.isLeafRefValidationEnabled() && getRootPath().isEmpty()
+            ? new IncrementalLeafRefValidator(LeafRefContext.create(schemaContext)) : null;
+    }
+
     @Deprecated
     @Override
     public void setSchemaContext(final SchemaContext newSchemaContext) {
@@ -128,6 +149,7 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
         }
 
         final ModificationApplyOperation rootNode = getOperation(rootSchemaNode);
+        leafRefValidator = createLeafRefValidator(newSchemaContext);
         DataTreeState currentState;
         DataTreeState newState;
         do {
@@ -176,6 +198,39 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
             LOG.trace("Updated state from {} to {}", currentState, newState);
             // TODO: can we lower this to compareAndSwapRelease?
         } while (!STATE.compareAndSet(this, currentState, newState));
+
+        final IncrementalLeafRefValidator validator = leafRefValidator;
+        if (c instanceof SpillDataTreeCandidate) {
+            // Spill passes do not change logical content, but establish the base for the next pass
+            spillBase = newRoot;
+            if (validator != null) {
+                validator.onRootReplaced(c.getBeforeRoot().getData(), newRoot.getData());
+            }
+            return;
+        }
+
+        if (validator != null) {
+            validator.onCommit(c);
+        }
+    }
+
+    @Override
+    IncrementalLeafRefValidator leafRefValidator() {
+        return leafRefValidator;
+    }
+
+    @Override
+    public DataTreeCandidateTip prepareSpill(final TreeNodeSpiller spiller) {
+        requireNonNull(spiller);
+        final TreeNode currentRoot = getTipRoot();
+        final TreeNode previousRoot = spillBase;
+        final TreeNode newRoot = previousRoot == null ? currentRoot
+            : ColdSubtreeSpill.spill(spiller, currentRoot, previousRoot);
+
+        final ModifiedNode root = ModifiedNode.createUnmodified(currentRoot, ChildTrackingPolicy.NONE);
+        root.resolveModificationType(newRoot == currentRoot ? ModificationType.UNMODIFIED
+            : ModificationType.SUBTREE_MODIFIED);
+        return new SpillDataTreeCandidate(root, currentRoot, newRoot, leafRefValidator);
     }
 
     private static String simpleToString(final Object obj) {
@@ -8,12 +8,14 @@
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.MoreObjects;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
 
-final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
+class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
 
     private static final class RootNode extends AbstractModifiedNodeBasedCandidateNode {
         RootNode(final ModifiedNode mod, final TreeNode oldMeta, final TreeNode newMeta) {
@@ -34,17 +36,25 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
         this.root = new RootNode(modificationRoot, beforeRoot, afterRoot);
     }
 
+    InMemoryDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
+            final TreeNode beforeRoot, final TreeNode afterRoot,
+            final @Nullable IncrementalLeafRefValidator leafRefValidator,
+            final @Nullable AbstractDataTreeCandidate parent) {
+        super(rootPath, leafRefValidator, parent);
+        this.root = new RootNode(modificationRoot, beforeRoot, afterRoot);
+    }
+
     @Override
-    protected TreeNode getTipRoot() {
+    protected final TreeNode getTipRoot() {
         return root.getNewMeta();
     }
 
-    TreeNode getBeforeRoot() {
+    final TreeNode getBeforeRoot() {
         return root.getOldMeta();
     }
 
     @Override
-    public DataTreeCandidateNode getRootNode() {
+    public final DataTreeCandidateNode getRootNode() {
         return root;
     }
 
@@ -16,11 +16,13 @@ import java.lang.invoke.VarHandle;
 import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.Optional;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
@@ -32,12 +34,23 @@ import org.slf4j.LoggerFactory;
 
 final class InMemoryDataTreeModification extends AbstractCursorAware implements CursorAwareDataTreeModification,
         SchemaContextProvider {
+    private static final class ValidatedCandidate {
+        final TreeNode tipRoot;
+        final DataTreeCandidateTip candidate;
+
+        ValidatedCandidate(final TreeNode tipRoot, final DataTreeCandidateTip candidate) {
+            this.tipRoot = requireNonNull(tipRoot);
+            this.candidate = requireNonNull(candidate);
+        }
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryDataTreeModification.class);
 
     private final RootApplyStrategy strategyTree;
     private final InMemoryDataTreeSnapshot snapshot;
     private final ModifiedNode rootNode;
     private final Version version;
+    private final boolean concurrent;
 
     private static final VarHandle SEALED;
 
@@ -53,11 +66,25 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
     @SuppressWarnings("unused")
     private volatile int sealed;
 
+    // Candidate prepared while this modification was being validated, may be reused when it is being prepared
+    private volatile ValidatedCandidate validatedCandidate;
+
     InMemoryDataTreeModification(final InMemoryDataTreeSnapshot snapshot,
             final RootApplyStrategy resolver) {
+        this(snapshot, resolver, false);
+    }
+
+    InMemoryDataTreeModification(final InMemoryDataTreeSnapshot snapshot,
+            final RootApplyStrategy resolver, final boolean concurrent) {
         this.snapshot = requireNonNull(snapshot);
         this.strategyTree = requireNonNull(resolver).snapshot();
-        this.rootNode = ModifiedNode.createUnmodified(snapshot.getRootNode(), getStrategy().getChildPolicy());
+        this.concurrent = concurrent;
+        if (concurrent) {
+            // Upgrades are not thread-safe, perform it now and never again
+            strategyTree.upgradeIfPossible();
+        }
+        this.rootNode = ModifiedNode.createUnmodified(snapshot.getRootNode(), getStrategy().getChildPolicy(),
+            concurrent);
 
         /*
          * We could allocate version beforehand, since Version contract
@@ -147,7 +174,7 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
     }
 
     void upgradeIfPossible() {
-        if (rootNode.getOperation() == LogicalOperation.NONE) {
+        if (!concurrent && rootNode.getOperation() == LogicalOperation.NONE) {
             strategyTree.upgradeIfPossible();
         }
     }
@@ -223,6 +250,22 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
         return tempTree.newModification();
     }
 
+    /**
+     * Return the candidate prepared during validation of this modification, if it was prepared against the specified
+     * tip root.
+     *
+     * @param tipRoot Tip root against which the candidate is to be prepared
+     * @return Previously-prepared candidate, or null
+     */
+    @Nullable DataTreeCandidateTip getValidatedCandidate(final TreeNode tipRoot) {
+        final ValidatedCandidate local = validatedCandidate;
+        return local != null && local.tipRoot == tipRoot ? local.candidate : null;
+    }
+
+    void setValidatedCandidate(final TreeNode tipRoot, final DataTreeCandidateTip candidate) {
+        validatedCandidate = new ValidatedCandidate(tipRoot, candidate);
+    }
+
     Version getVersion() {
         return version;
     }
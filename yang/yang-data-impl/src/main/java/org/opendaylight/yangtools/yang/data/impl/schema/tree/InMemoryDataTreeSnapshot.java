@@ -16,6 +16,7 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConcurrentAwareDataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshotCursor;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
@@ -23,7 +24,7 @@ import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.SchemaContextProvider;
 
 final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements CursorAwareDataTreeSnapshot,
-        SchemaContextProvider {
+        ConcurrentAwareDataTreeSnapshot, SchemaContextProvider {
     private final @NonNull RootApplyStrategy applyOper;
     private final @NonNull SchemaContext schemaContext;
     private final @NonNull TreeNode rootNode;
@@ -54,6 +55,11 @@ final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements Curs
         return new InMemoryDataTreeModification(this, applyOper);
     }
 
+    @Override
+    public InMemoryDataTreeModification newConcurrentModification() {
+        return new InMemoryDataTreeModification(this, applyOper, true);
+    }
+
     @Override
     public Optional<DataTreeSnapshotCursor> openCursor(final YangInstanceIdentifier path) {
         return NormalizedNodes.findNode(rootNode.getData(), path).map(root -> {
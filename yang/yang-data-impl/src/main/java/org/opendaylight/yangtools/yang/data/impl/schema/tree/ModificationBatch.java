@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.PreparedBatch;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
+
+/**
+ * Implementation of {@link AbstractDataTreeTip#prepareBatch(List)}. Modifications are validated against the tip one
+ * by one. Accepted modifications are then combined into a single {@link ModifiedNode} tree, which is validated and
+ * applied once, so that parent {@link TreeNode}s are copied only once for the entire batch.
+ *
+ * <p>
+ * Combining modifications is only possible when they do not overlap, i.e. no two accepted modifications have a
+ * terminal (write, merge or delete) operation on the same node or on an ancestor of the other's modified node.
+ * Their terminal {@link ModifiedNode}s are then adopted as-is, while their TOUCH nodes are recreated on top of the
+ * tip. Overlapping modifications are rejected with a {@link ConflictingModificationAppliedException}, just as if the
+ * earlier one had been committed after the later one was created.
+ *
+ * <p>
+ * Constraints spanning multiple children, such as {@code max-elements}, {@code unique} or leafrefs, may still be
+ * violated by the combination of individually-valid modifications. If that happens, failures are attributed by
+ * replaying accepted modifications sequentially on top of the tip and the surviving ones are combined again.
+ */
+final class ModificationBatch {
+    private final @NonNull AbstractDataTreeTip tip;
+    private final @NonNull TreeNode tipRoot;
+    private final @NonNull Version version;
+
+    private ModificationBatch(final AbstractDataTreeTip tip) {
+        this.tip = requireNonNull(tip);
+        tipRoot = tip.getTipRoot();
+        version = tipRoot.getSubtreeVersion().next();
+    }
+
+    static @NonNull PreparedBatch prepare(final AbstractDataTreeTip tip,
+            final List<InMemoryDataTreeModification> modifications) {
+        return new ModificationBatch(tip).prepare(modifications);
+    }
+
+    private @NonNull PreparedBatch prepare(final List<InMemoryDataTreeModification> modifications) {
+        final Map<DataTreeModification, DataValidationFailedException> failures = new IdentityHashMap<>();
+        final List<InMemoryDataTreeModification> accepted = new ArrayList<>(modifications.size());
+
+        Combination combination = null;
+        for (InMemoryDataTreeModification mod : modifications) {
+            if (mod.getRootModification().getOperation() == LogicalOperation.NONE) {
+                // Nothing to do
+                continue;
+            }
+
+            if (combination == null) {
+                combination = new Combination(mod.getStrategy());
+            } else if (mod.getStrategy() != combination.strategy) {
+                failures.put(mod, new ConflictingModificationAppliedException(tip.getRootPath(),
+                    "Modification was created with a different schema than the rest of the batch."));
+                continue;
+            }
+
+            try {
+                tip.validate(mod);
+            } catch (DataValidationFailedException e) {
+                failures.put(mod, e);
+                continue;
+            }
+
+            final YangInstanceIdentifier overlap = combination.findOverlap(mod.getRootModification());
+            if (overlap != null) {
+                failures.put(mod, new ConflictingModificationAppliedException(overlap,
+                    "Node was modified by an earlier modification in the same batch."));
+                continue;
+            }
+
+            combination.add(mod.getRootModification());
+            accepted.add(mod);
+        }
+
+        final DataTreeCandidateTip candidate;
+        if (combination == null) {
+            candidate = tip.newNoopCandidate(ModifiedNode.createUnmodified(tipRoot, ChildTrackingPolicy.NONE), tipRoot);
+        } else {
+            candidate = prepare(combination, accepted, failures);
+        }
+
+        // Report failures in submission order
+        final Map<DataTreeModification, DataValidationFailedException> orderedFailures = new LinkedHashMap<>();
+        for (InMemoryDataTreeModification mod : modifications) {
+            final DataValidationFailedException failure = failures.get(mod);
+            if (failure != null) {
+                orderedFailures.put(mod, failure);
+            }
+        }
+        return new PreparedBatch(candidate, orderedFailures);
+    }
+
+    private @NonNull DataTreeCandidateTip prepare(final Combination initial,
+            final List<InMemoryDataTreeModification> accepted,
+            final Map<DataTreeModification, DataValidationFailedException> failures) {
+        try {
+            return initial.prepare();
+        } catch (DataValidationFailedException e) {
+            final Combination combination = replay(initial.strategy, accepted, failures);
+            try {
+                return combination.prepare();
+            } catch (DataValidationFailedException ex) {
+                throw new IllegalStateException("Sequentially-valid modifications failed to combine", ex);
+            }
+        }
+    }
+
+    /**
+     * Replay modifications sequentially, each on top of the previous one's candidate, recording any failures and
+     * combining modifications which pass.
+     */
+    private @NonNull Combination replay(final ModificationApplyOperation strategy,
+            final List<InMemoryDataTreeModification> accepted,
+            final Map<DataTreeModification, DataValidationFailedException> failures) {
+        final Combination ret = new Combination(strategy);
+        AbstractDataTreeTip current = tip;
+        for (InMemoryDataTreeModification mod : accepted) {
+            try {
+                current.validate(mod);
+            } catch (DataValidationFailedException e) {
+                failures.put(mod, e);
+                continue;
+            }
+
+            current = (AbstractDataTreeTip) current.prepare(mod);
+            ret.add(mod.getRootModification());
+        }
+        return ret;
+    }
+
+    static boolean isTerminal(final ModifiedNode node) {
+        switch (node.getOperation()) {
+            case DELETE:
+            case MERGE:
+            case WRITE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * A combination of non-overlapping modifications, represented by a {@link ModifiedNode} tree based on the tip.
+     */
+    private final class Combination {
+        final @NonNull ModificationApplyOperation strategy;
+
+        @NonNull ModifiedNode root;
+
+        Combination(final ModificationApplyOperation strategy) {
+            this.strategy = requireNonNull(strategy);
+            root = ModifiedNode.createUnmodified(tipRoot, strategy.getChildPolicy());
+        }
+
+        @Nullable YangInstanceIdentifier findOverlap(final ModifiedNode modRoot) {
+            final YangInstanceIdentifier rootPath = tip.getRootPath();
+            if (isTerminal(root) || isTerminal(modRoot) && root.getOperation() != LogicalOperation.NONE) {
+                return rootPath;
+            }
+            return findChildOverlap(new ModificationPath(rootPath), root, modRoot);
+        }
+
+        void add(final ModifiedNode modRoot) {
+            if (isTerminal(modRoot)) {
+                // Modification of the entire tree, we have verified there is nothing else
+                root = modRoot;
+            } else {
+                addChildren(root, strategy, modRoot);
+            }
+        }
+
+        /**
+         * Validate the combination as a whole and prepare its candidate. Leafrefs are validated on the combined
+         * candidate, as their targets may have been removed by a different modification than the one which
+         * references them.
+         */
+        @NonNull DataTreeCandidateTip prepare() throws DataValidationFailedException {
+            strategy.checkApplicable(new ModificationPath(tip.getRootPath()), root, Optional.of(tipRoot), version);
+
+            final Optional<? extends TreeNode> newRoot = strategy.apply(root, Optional.of(tipRoot), version);
+            checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for batch %s", root);
+            final InMemoryDataTreeCandidate candidate = tip.newCandidate(root, tipRoot, newRoot.get());
+
+            final IncrementalLeafRefValidator validator = tip.leafRefValidator();
+            if (validator != null) {
+                tip.validateLeafRefs(validator, candidate);
+            }
+            return candidate;
+        }
+
+        private @Nullable YangInstanceIdentifier findChildOverlap(final ModificationPath path,
+                final ModifiedNode existing, final ModifiedNode mod) {
+            for (ModifiedNode child : mod.getChildren()) {
+                if (child.getOperation() == LogicalOperation.NONE) {
+                    continue;
+                }
+
+                final Optional<ModifiedNode> existingChild = existing.getChild(child.getIdentifier());
+                if (existingChild.isPresent()) {
+                    path.push(child.getIdentifier());
+                    if (isTerminal(child) || isTerminal(existingChild.get())) {
+                        return path.toInstanceIdentifier();
+                    }
+
+                    final YangInstanceIdentifier ret = findChildOverlap(path, existingChild.get(), child);
+                    if (ret != null) {
+                        return ret;
+                    }
+                    path.pop();
+                }
+            }
+            return null;
+        }
+
+        private void addChildren(final ModifiedNode existing, final ModificationApplyOperation operation,
+                final ModifiedNode mod) {
+            for (ModifiedNode child : mod.getChildren()) {
+                switch (child.getOperation()) {
+                    case NONE:
+                        break;
+                    case TOUCH:
+                        final PathArgument childId = child.getIdentifier();
+                        final ModificationApplyOperation childOp = operation.getChild(childId).orElseThrow(
+                            () -> new IllegalStateException("Failed to find operation for " + childId));
+                        addChildren(existing.modifyChild(childId, childOp, version), childOp, child);
+                        break;
+                    default:
+                        existing.adoptChild(child);
+                }
+            }
+        }
+    }
+}
@@ -7,12 +7,15 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
+import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
@@ -58,11 +61,29 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
         }
     };
 
+    private static final VarHandle OPERATION;
+    private static final VarHandle SNAPSHOT_CACHE;
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            OPERATION = lookup.findVarHandle(ModifiedNode.class, "operation", LogicalOperation.class);
+            SNAPSHOT_CACHE = lookup.findVarHandle(ModifiedNode.class, "snapshotCache", Optional.class);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final Map<PathArgument, ModifiedNode> children;
     private final Optional<? extends TreeNode> original;
     private final PathArgument identifier;
+    private final boolean concurrent;
+
+    // Written with release semantics, so that the lock-free lookup in modifyChildConcurrent() can read them with
+    // acquire semantics and observe everything which happened before the update.
     private LogicalOperation operation = LogicalOperation.NONE;
     private Optional<TreeNode> snapshotCache;
+
     private NormalizedNode<?, ?> value;
     private ModificationType modType;
 
@@ -75,10 +96,11 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
     private Optional<? extends TreeNode> validatedNode;
 
     private ModifiedNode(final PathArgument identifier, final Optional<? extends TreeNode> original,
-            final ChildTrackingPolicy childPolicy) {
+            final ChildTrackingPolicy childPolicy, final boolean concurrent) {
         this.identifier = identifier;
         this.original = original;
-        this.children = childPolicy.createMap();
+        this.concurrent = concurrent;
+        this.children = concurrent ? childPolicy.createConcurrentMap() : childPolicy.createMap();
     }
 
     @Override
@@ -173,6 +195,10 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
      */
     ModifiedNode modifyChild(final @NonNull PathArgument child, final @NonNull ModificationApplyOperation childOper,
             final @NonNull Version modVersion) {
+        if (concurrent) {
+            return modifyChildConcurrent(child, childOper, modVersion);
+        }
+
         clearSnapshot();
         if (operation == LogicalOperation.NONE) {
             updateOperationType(LogicalOperation.TOUCH);
@@ -182,8 +208,49 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
             return potential;
         }
 
+        return createChild(child, childOper, modVersion);
+    }
+
+    /**
+     * Concurrent version of {@link #modifyChild(PathArgument, ModificationApplyOperation, Version)}. Existing children
+     * are looked up without locking, as long as this node does not need to be updated. Everything else, notably child
+     * instantiation, is done while holding this node's monitor, so that threads working on disjoint subtrees contend
+     * only when they create siblings.
+     *
+     * <p>
+     * The lock-free path reads {@link #operation} and {@link #snapshotCache} with acquire semantics, pairing with the
+     * release stores in {@link #updateOperationType(LogicalOperation)} and {@link #setSnapshot(Optional)}, hence it
+     * never observes a stale operation or a partially-published snapshot. Children are published through the
+     * concurrent children map.
+     */
+    private ModifiedNode modifyChildConcurrent(final @NonNull PathArgument child,
+            final @NonNull ModificationApplyOperation childOper, final @NonNull Version modVersion) {
+        if (OPERATION.getAcquire(this) != LogicalOperation.NONE && SNAPSHOT_CACHE.getAcquire(this) == null) {
+            final ModifiedNode potential = children.get(child);
+            if (potential != null) {
+                return potential;
+            }
+        }
+
+        synchronized (this) {
+            clearSnapshot();
+            if (operation == LogicalOperation.NONE) {
+                updateOperationType(LogicalOperation.TOUCH);
+            }
+            final ModifiedNode potential = children.get(child);
+            if (potential != null) {
+                return potential;
+            }
+
+            return createChild(child, childOper, modVersion);
+        }
+    }
+
+    private ModifiedNode createChild(final @NonNull PathArgument child,
+            final @NonNull ModificationApplyOperation childOper, final @NonNull Version modVersion) {
         final Optional<? extends TreeNode> currentMetadata = findOriginalMetadata(child, modVersion);
-        final ModifiedNode newlyCreated = new ModifiedNode(child, currentMetadata, childOper.getChildPolicy());
+        final ModifiedNode newlyCreated = new ModifiedNode(child, currentMetadata, childOper.getChildPolicy(),
+            concurrent);
         if (operation == LogicalOperation.MERGE && value != null) {
             /*
              * We are attempting to modify a previously-unmodified part of a MERGE node. If the
@@ -200,6 +267,23 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
         return newlyCreated;
     }
 
+    /**
+     * Attach a child modification recorded by a different modification. This is used when combining multiple
+     * modifications, which do not overlap, into a single one.
+     *
+     * @param child child modification
+     * @throws com.google.common.base.VerifyException if this node already has a modification of the same child
+     */
+    void adoptChild(final ModifiedNode child) {
+        clearSnapshot();
+        if (operation == LogicalOperation.NONE) {
+            updateOperationType(LogicalOperation.TOUCH);
+        }
+
+        final ModifiedNode prev = children.putIfAbsent(child.getIdentifier(), child);
+        verify(prev == null, "Attempted to replace %s with %s", prev, child);
+    }
+
     /**
      * Returns all recorded direct child modifications.
      *
@@ -295,7 +379,7 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
     }
 
     private void clearSnapshot() {
-        snapshotCache = null;
+        SNAPSHOT_CACHE.setRelease(this, null);
     }
 
     Optional<TreeNode> getSnapshot() {
@@ -303,17 +387,17 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
     }
 
     Optional<TreeNode> setSnapshot(final Optional<TreeNode> snapshot) {
-        snapshotCache = requireNonNull(snapshot);
+        SNAPSHOT_CACHE.setRelease(this, requireNonNull(snapshot));
         return snapshot;
     }
 
     void updateOperationType(final LogicalOperation type) {
-        operation = type;
         modType = null;
 
         // Make sure we do not reuse previously-instantiated data-derived metadata
         writtenOriginal = null;
         clearSnapshot();
+        OPERATION.setRelease(this, type);
     }
 
     @Override
@@ -354,7 +438,22 @@ final class ModifiedNode extends NodeModification implements StoreTreeNode<Modif
     }
 
     public static ModifiedNode createUnmodified(final TreeNode metadataTree, final ChildTrackingPolicy childPolicy) {
-        return new ModifiedNode(metadataTree.getIdentifier(), Optional.of(metadataTree), childPolicy);
+        return createUnmodified(metadataTree, childPolicy, false);
+    }
+
+    /**
+     * Create a root node for a modification. If {@code concurrent} is set, the resulting hierarchy supports concurrent
+     * modification of disjoint subtrees, as described in
+     * {@link org.opendaylight.yangtools.yang.data.api.schema.tree.ConcurrentAwareDataTreeSnapshot}.
+     *
+     * @param metadataTree Original tree node
+     * @param childPolicy Child tracking policy
+     * @param concurrent {@code true} if the hierarchy needs to support concurrent modification
+     * @return A new unmodified node
+     */
+    static ModifiedNode createUnmodified(final TreeNode metadataTree, final ChildTrackingPolicy childPolicy,
+            final boolean concurrent) {
+        return new ModifiedNode(metadataTree.getIdentifier(), Optional.of(metadataTree), childPolicy, concurrent);
     }
 
     void setValidatedNode(final ModificationApplyOperation op, final Optional<? extends TreeNode> current,
@@ -14,12 +14,14 @@ import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.Optional;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
 
 /**
  * Internal utility class for an empty candidate. We instantiate this class
@@ -61,9 +63,10 @@ final class NoopDataTreeCandidate extends AbstractDataTreeCandidate {
 
     private final @NonNull TreeNode afterRoot;
 
-    protected NoopDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
-            final TreeNode afterRoot) {
-        super(rootPath);
+    NoopDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
+            final TreeNode afterRoot, final @Nullable IncrementalLeafRefValidator leafRefValidator,
+            final @Nullable AbstractDataTreeCandidate parent) {
+        super(rootPath, leafRefValidator, parent);
         checkArgument(modificationRoot.getOperation() == LogicalOperation.NONE);
         this.afterRoot = requireNonNull(afterRoot);
     }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Utility for processing child modifications of a single node in parallel. Work is split into index ranges and
+ * executed in the common {@link ForkJoinPool}. Failures are tracked per index and the one with the lowest index is
+ * rethrown to the caller, hence callers observe the same failure as they would with sequential processing. Once a
+ * child fails, children with higher indices, which sequential processing would not reach, are skipped.
+ */
+@NonNullByDefault
+final class ParallelChildren {
+    /**
+     * An action performed on a single child, identified by its index.
+     *
+     * @param <X> Checked exception type
+     */
+    @FunctionalInterface
+    interface ChildAction<X extends Exception> {
+        void run(int index) throws X;
+    }
+
+    /**
+     * An action performed on a single child, identified by its index, with access to per-task state. The state is not
+     * shared between concurrently-executing tasks.
+     *
+     * @param <S> State type
+     * @param <X> Checked exception type
+     */
+    @FunctionalInterface
+    interface StatefulChildAction<S, X extends Exception> {
+        void run(S state, int index) throws X;
+    }
+
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "Tasks are never serialized")
+    private static final class Task<S> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final StatefulChildAction<S, ?> action;
+        private final UnaryOperator<S> forkState;
+        private final Exception[] failures;
+        private final AtomicInteger firstFailure;
+        private final int granularity;
+        private final S state;
+        private final int from;
+        private final int to;
+
+        Task(final StatefulChildAction<S, ?> action, final UnaryOperator<S> forkState, final Exception[] failures,
+                final AtomicInteger firstFailure, final int granularity, final S state, final int from,
+                final int to) {
+            this.action = action;
+            this.forkState = forkState;
+            this.failures = failures;
+            this.firstFailure = firstFailure;
+            this.granularity = granularity;
+            this.state = state;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("checkstyle:illegalCatch")
+        protected void compute() {
+            // Split off upper halves into forked tasks, each with its own state, and run the lowest range inline
+            final Deque<Task<S>> forked = new ArrayDeque<>();
+            int hi = to;
+            while (hi - from > granularity) {
+                final int mid = (from + hi) >>> 1;
+                if (mid < firstFailure.get()) {
+                    final Task<S> task = new Task<>(action, forkState, failures, firstFailure, granularity,
+                        forkState.apply(state), mid, hi);
+                    task.fork();
+                    forked.push(task);
+                }
+                hi = mid;
+            }
+
+            for (int i = from; i < hi && i < firstFailure.get(); ++i) {
+                try {
+                    action.run(state, i);
+                } catch (Exception e) {
+                    // Everything past this point would not be touched by sequential processing
+                    failures[i] = e;
+                    firstFailure.accumulateAndGet(i, Math::min);
+                    break;
+                }
+            }
+
+            // Join forked tasks, lowest range first. Those which have not started yet and are past a failure are
+            // reclaimed and skipped.
+            while (!forked.isEmpty()) {
+                final Task<S> task = forked.pop();
+                if (task.from >= firstFailure.get() && task.tryUnfork()) {
+                    continue;
+                }
+                task.join();
+            }
+        }
+    }
+
+    /**
+     * Number of leaf tasks each worker thread should get. Having more than one allows for work-stealing to balance
+     * children of different sizes.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private ParallelChildren() {
+        // Hidden on purpose
+    }
+
+    /**
+     * Check whether a number of children warrants parallel processing.
+     *
+     * @param threshold Configured threshold, {@code 0} if parallel processing is disabled
+     * @param size Number of children
+     * @return True if the children should be processed in parallel
+     */
+    static boolean shouldParallelize(final int threshold, final int size) {
+        return threshold != 0 && size >= threshold && size > 1;
+    }
+
+    /**
+     * Invoke an action for each index in range {@code [0, size)}. The action must not rely on invocation order.
+     *
+     * @param size Number of children
+     * @param action Action to invoke
+     * @throws X if the action fails for any child
+     */
+    static <X extends Exception> void forEach(final int size, final ChildAction<X> action) throws X {
+        requireNonNull(action);
+        forEach(size, Boolean.TRUE, UnaryOperator.identity(), (state, index) -> action.run(index));
+    }
+
+    /**
+     * Invoke an action for each index in range {@code [0, size)}. The action must not rely on invocation order. The
+     * first task runs with {@code initialState}, every task forked from it runs with a copy made by
+     * {@code forkState}. Each state is used by a single thread at a time.
+     *
+     * @param size Number of children
+     * @param initialState State of the first task
+     * @param forkState Function creating state for a forked task from the state of the task forking it
+     * @param action Action to invoke
+     * @throws X if the action fails for any child
+     */
+    @SuppressWarnings("unchecked")
+    static <S, X extends Exception> void forEach(final int size, final S initialState,
+            final UnaryOperator<S> forkState, final StatefulChildAction<S, X> action) throws X {
+        final Exception[] failures = new Exception[size];
+        final AtomicInteger firstFailure = new AtomicInteger(size);
+        final int granularity = Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * TASKS_PER_THREAD));
+        ForkJoinPool.commonPool().invoke(new Task<>(requireNonNull(action), requireNonNull(forkState), failures,
+            firstFailure, granularity, requireNonNull(initialState), 0, size));
+
+        final int failed = firstFailure.get();
+        if (failed < size) {
+            final Exception failure = failures[failed];
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw (X) failure;
+        }
+    }
+}
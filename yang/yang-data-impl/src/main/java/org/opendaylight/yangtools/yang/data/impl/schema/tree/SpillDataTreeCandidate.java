@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
+
+/**
+ * A candidate produced by {@link InMemoryDataTree#prepareSpill(
+ * org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeSpiller)}. Its after-root becomes the base of the
+ * next spill pass once it is committed.
+ */
+final class SpillDataTreeCandidate extends InMemoryDataTreeCandidate {
+    SpillDataTreeCandidate(final ModifiedNode modificationRoot, final TreeNode beforeRoot, final TreeNode afterRoot,
+            final IncrementalLeafRefValidator leafRefValidator) {
+        super(YangInstanceIdentifier.empty(), modificationRoot, beforeRoot, afterRoot, leafRefValidator, null);
+    }
+}
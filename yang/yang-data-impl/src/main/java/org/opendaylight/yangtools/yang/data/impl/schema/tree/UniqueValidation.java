@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.util.MapAdaptor;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.UniqueConstraintException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.UniqueConstraint;
+import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier.Descendant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforcement of {@code unique} statements on a keyed list. Each statement is backed by a secondary index, which maps
+ * the tuple of referenced leaf values to the key of the list entry holding it. Indices are associated with the
+ * {@link MapNode} they were computed for and are derived from their predecessor based on {@link ModifiedNode} children,
+ * so that a modification touching a few entries of a large list does not need to rescan the entire list.
+ *
+ * <p>
+ * Indices are held in maps acquired from {@link MapAdaptor}, which makes the derivation cost proportional to the number
+ * of changed entries, as large maps are backed by persistent TrieMaps.
+ */
+final class UniqueValidation extends ModificationApplyOperation {
+    private static final Logger LOG = LoggerFactory.getLogger(UniqueValidation.class);
+    private static final MapAdaptor MAP_ADAPTOR = MapAdaptor.getDefaultInstance();
+
+    private final @NonNull ModificationApplyOperation delegate;
+    private final @NonNull ImmutableList<UniqueValidator> validators;
+
+    // Indices for all MapNodes we have seen. Keys are weak and compared by identity, hence any index is retained only
+    // as long as the data it was computed for.
+    private final Cache<NormalizedNode<?, ?>, ImmutableList<Map<Object, NodeIdentifierWithPredicates>>> indices =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    private UniqueValidation(final ModificationApplyOperation delegate,
+            final ImmutableList<UniqueValidator> validators) {
+        this.delegate = requireNonNull(delegate);
+        this.validators = requireNonNull(validators);
+    }
+
+    static ModificationApplyOperation of(final ListSchemaNode schema, final DataTreeConfiguration treeConfig,
+            final ModificationApplyOperation delegate) {
+        if (!treeConfig.isUniqueIndexEnabled()) {
+            return delegate;
+        }
+        final Collection<? extends UniqueConstraint> constraints = schema.getUniqueConstraints();
+        if (constraints.isEmpty()) {
+            return delegate;
+        }
+
+        final DataSchemaContextNode<?> entry = DataSchemaContextNode.fromDataSchemaNode(schema)
+                .getChild(schema.getQName());
+        return new UniqueValidation(delegate, constraints.stream()
+            .map(constraint -> UniqueValidator.of(entry, constraint))
+            .collect(ImmutableList.toImmutableList()));
+    }
+
+    @Override
+    Optional<? extends TreeNode> apply(final ModifiedNode modification, final Optional<? extends TreeNode> storeMeta,
+            final Version version) {
+        Optional<? extends TreeNode> ret = modification.getValidatedNode(this, storeMeta);
+        if (ret == null) {
+            // Deal with the result moving on us
+            ret = delegate.apply(modification, storeMeta, version);
+            if (ret.isPresent()) {
+                try {
+                    updateIndices(null, modification, storeMeta, ret.get());
+                } catch (UniqueConstraintException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    void checkApplicable(final ModificationPath path, final NodeModification modification,
+            final Optional<? extends TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkApplicable(path, modification, current, version);
+
+        if (!(modification instanceof ModifiedNode)) {
+            LOG.debug("Could not validate {}, does not implement expected class {}", modification, ModifiedNode.class);
+            return;
+        }
+        final ModifiedNode modified = (ModifiedNode) modification;
+
+        // Same as MinMaxElementsValidation: we need to actually perform the operation and we stash the result for
+        // reuse in apply()
+        final Optional<? extends TreeNode> maybeApplied = delegate.apply(modified, current, version);
+        if (maybeApplied.isPresent()) {
+            updateIndices(path, modified, current, maybeApplied.get());
+        }
+        modified.setValidatedNode(this, current, maybeApplied);
+    }
+
+    @Override
+    void fullVerifyStructure(final NormalizedNode<?, ?> modification) {
+        delegate.fullVerifyStructure(modification);
+        try {
+            indicesFor(null, modification);
+        } catch (UniqueConstraintException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<ModificationApplyOperation> getChild(final PathArgument child) {
+        return delegate.getChild(child);
+    }
+
+    @Override
+    ChildTrackingPolicy getChildPolicy() {
+        return delegate.getChildPolicy();
+    }
+
+    @Override
+    void mergeIntoModifiedNode(final ModifiedNode node, final NormalizedNode<?, ?> value, final Version version) {
+        delegate.mergeIntoModifiedNode(node, value, version);
+    }
+
+    @Override
+    void quickVerifyStructure(final NormalizedNode<?, ?> modification) {
+        delegate.quickVerifyStructure(modification);
+    }
+
+    @Override
+    void recursivelyVerifyStructure(final NormalizedNode<?, ?> value) {
+        delegate.recursivelyVerifyStructure(value);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("validators", validators).add("delegate", delegate).toString();
+    }
+
+    /**
+     * Compute indices for the result of applying a modification. If the before-image has indices available and the
+     * modification is expressed in terms of individual entries, the indices are derived from the before-image by
+     * looking only at the modified entries. Otherwise the resulting list is indexed from scratch.
+     */
+    private void updateIndices(final @Nullable ModificationPath path, final ModifiedNode modification,
+            final Optional<? extends TreeNode> current, final TreeNode result) throws UniqueConstraintException {
+        final NormalizedNode<?, ?> newData = result.getData();
+        if (indices.getIfPresent(newData) != null) {
+            // Already indexed, most notably when the list was not modified
+            return;
+        }
+
+        if (current.isPresent()) {
+            switch (modification.getOperation()) {
+                case MERGE:
+                case TOUCH:
+                    final NormalizedNode<?, ?> oldData = current.get().getData();
+                    final ImmutableList<Map<Object, NodeIdentifierWithPredicates>> oldIndices =
+                            indices.getIfPresent(oldData);
+                    if (oldIndices != null) {
+                        indices.put(newData, deriveIndices(path, oldIndices, (MapNode) oldData, (MapNode) newData,
+                            modification.getChildren()));
+                        return;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        indicesFor(path, newData);
+    }
+
+    private ImmutableList<Map<Object, NodeIdentifierWithPredicates>> indicesFor(final @Nullable ModificationPath path,
+            final NormalizedNode<?, ?> data) throws UniqueConstraintException {
+        final ImmutableList<Map<Object, NodeIdentifierWithPredicates>> existing = indices.getIfPresent(data);
+        if (existing != null) {
+            return existing;
+        }
+
+        checkArgument(data instanceof MapNode, "Unexpected data %s", data);
+        final MapNode map = (MapNode) data;
+        final int size = map.size();
+        final ImmutableList.Builder<Map<Object, NodeIdentifierWithPredicates>> builder =
+                ImmutableList.builderWithExpectedSize(validators.size());
+        for (UniqueValidator validator : validators) {
+            final Map<Object, NodeIdentifierWithPredicates> index = MAP_ADAPTOR.initialSnapshot(size);
+            for (MapEntryNode entry : map.getValue()) {
+                validator.index(path, index, entry);
+            }
+            builder.add(MAP_ADAPTOR.optimize(index));
+        }
+
+        final ImmutableList<Map<Object, NodeIdentifierWithPredicates>> ret = builder.build();
+        indices.put(data, ret);
+        return ret;
+    }
+
+    private ImmutableList<Map<Object, NodeIdentifierWithPredicates>> deriveIndices(
+            final @Nullable ModificationPath path, final ImmutableList<Map<Object, NodeIdentifierWithPredicates>> prev,
+            final MapNode oldData, final MapNode newData, final Collection<ModifiedNode> children)
+                throws UniqueConstraintException {
+        final List<MapEntryNode> removed = new ArrayList<>();
+        final List<MapEntryNode> added = new ArrayList<>();
+        for (ModifiedNode child : children) {
+            if (child.getModificationType() == ModificationType.UNMODIFIED) {
+                continue;
+            }
+            final NodeIdentifierWithPredicates id = (NodeIdentifierWithPredicates) child.getIdentifier();
+            oldData.getChild(id).ifPresent(removed::add);
+            newData.getChild(id).ifPresent(added::add);
+        }
+
+        final ImmutableList.Builder<Map<Object, NodeIdentifierWithPredicates>> builder =
+                ImmutableList.builderWithExpectedSize(validators.size());
+        for (int i = 0; i < validators.size(); ++i) {
+            final UniqueValidator validator = validators.get(i);
+            final Map<Object, NodeIdentifierWithPredicates> index = MAP_ADAPTOR.takeSnapshot(prev.get(i));
+
+            // Remove all stale values first, so that values can be swapped between entries
+            for (MapEntryNode entry : removed) {
+                validator.unindex(index, entry);
+            }
+            for (MapEntryNode entry : added) {
+                validator.index(path, index, entry);
+            }
+            builder.add(MAP_ADAPTOR.optimize(index));
+        }
+        return builder.build();
+    }
+
+    /**
+     * A single {@code unique} statement, with its descendant leaves resolved to paths within a list entry.
+     */
+    private static final class UniqueValidator {
+        private final ImmutableList<Descendant> descendants;
+        private final ImmutableList<ImmutableList<PathArgument>> paths;
+
+        private UniqueValidator(final ImmutableList<Descendant> descendants,
+                final ImmutableList<ImmutableList<PathArgument>> paths) {
+            this.descendants = requireNonNull(descendants);
+            this.paths = requireNonNull(paths);
+        }
+
+        static UniqueValidator of(final DataSchemaContextNode<?> entry, final UniqueConstraint constraint) {
+            final ImmutableList<Descendant> descendants = ImmutableList.copyOf(constraint.getTag());
+            return new UniqueValidator(descendants, descendants.stream()
+                .map(descendant -> resolvePath(entry, descendant))
+                .collect(ImmutableList.toImmutableList()));
+        }
+
+        void index(final @Nullable ModificationPath path, final Map<Object, NodeIdentifierWithPredicates> index,
+                final MapEntryNode entry) throws UniqueConstraintException {
+            final Object values = extractValues(entry);
+            if (values != null) {
+                final NodeIdentifierWithPredicates id = entry.getIdentifier();
+                final NodeIdentifierWithPredicates prev = index.putIfAbsent(values, id);
+                if (prev != null && !prev.equals(id)) {
+                    final YangInstanceIdentifier listPath = path == null ? YangInstanceIdentifier.empty()
+                            : path.toInstanceIdentifier();
+                    throw new UniqueConstraintException(listPath, valuesMap(values), String.format(
+                        "%s violates unique constraint on %s: %s are already used by %s", id, descendants, values,
+                        prev));
+                }
+            }
+        }
+
+        void unindex(final Map<Object, NodeIdentifierWithPredicates> index, final MapEntryNode entry) {
+            final Object values = extractValues(entry);
+            if (values != null) {
+                index.remove(values, entry.getIdentifier());
+            }
+        }
+
+        /**
+         * Extract the tuple of values referenced by this statement. As per RFC7950 section 7.8.3, entries which do not
+         * have all the referenced leaves are not subject to the constraint.
+         *
+         * @param entry List entry
+         * @return The single referenced value, a list of values, or null if a referenced leaf is not present
+         */
+        private @Nullable Object extractValues(final MapEntryNode entry) {
+            if (paths.size() == 1) {
+                return extractValue(entry, paths.get(0));
+            }
+
+            final Object[] values = new Object[paths.size()];
+            for (int i = 0; i < values.length; ++i) {
+                final Object value = extractValue(entry, paths.get(i));
+                if (value == null) {
+                    return null;
+                }
+                values[i] = value;
+            }
+            return ImmutableList.copyOf(values);
+        }
+
+        private static @Nullable Object extractValue(final MapEntryNode entry, final List<PathArgument> path) {
+            final Optional<NormalizedNode<?, ?>> leaf = NormalizedNodes.findNode(entry, path);
+            if (!leaf.isPresent()) {
+                return null;
+            }
+            final Object value = leaf.get().getValue();
+            // byte[] does not have value-based equality
+            return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value;
+        }
+
+        private ImmutableMap<Descendant, Object> valuesMap(final Object values) {
+            if (paths.size() == 1) {
+                return ImmutableMap.of(descendants.get(0), values);
+            }
+
+            final List<?> list = (List<?>) values;
+            final Map<Descendant, Object> ret = new LinkedHashMap<>();
+            for (int i = 0; i < descendants.size(); ++i) {
+                ret.put(descendants.get(i), list.get(i));
+            }
+            return ImmutableMap.copyOf(ret);
+        }
+
+        private static ImmutableList<PathArgument> resolvePath(final DataSchemaContextNode<?> entry,
+                final Descendant descendant) {
+            final List<PathArgument> ret = new ArrayList<>();
+            DataSchemaContextNode<?> current = entry;
+            for (QName qname : descendant.getNodeIdentifiers()) {
+                DataSchemaContextNode<?> next = current.getChild(qname);
+                if (next == null) {
+                    // Case statements do not have a data representation, skip over them
+                    final DataSchemaNode schema = current.getDataSchemaNode();
+                    checkArgument(schema instanceof ChoiceSchemaNode
+                        && ((ChoiceSchemaNode) schema).findCase(qname).isPresent(),
+                        "Failed to resolve %s in %s", qname, descendant);
+                    continue;
+                }
+
+                // Step into choices and augmentations which contain the node we are looking for
+                while (next.isMixin() && !isNamed(next, qname)) {
+                    ret.add(next.getIdentifier());
+                    next = next.getChild(qname);
+                    checkArgument(next != null, "Failed to resolve %s in %s", qname, descendant);
+                }
+                ret.add(next.getIdentifier());
+                current = next;
+            }
+
+            checkArgument(current.isLeaf(), "%s does not resolve to a leaf", descendant);
+            return ImmutableList.copyOf(ret);
+        }
+
+        private static boolean isNamed(final DataSchemaContextNode<?> node, final QName qname) {
+            final PathArgument id = node.getIdentifier();
+            return id instanceof NodeIdentifier && qname.equals(id.getNodeType());
+        }
+
+        @Override
+        public String toString() {
+            return descendants.toString();
+        }
+    }
+}
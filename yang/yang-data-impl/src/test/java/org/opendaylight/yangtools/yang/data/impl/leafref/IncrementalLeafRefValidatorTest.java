@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchAwareDataTreeTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.PreparedBatch;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class IncrementalLeafRefValidatorTest {
+    private static final QName ROOT = QName.create("foo", "root");
+    private static final QName TARGET = QName.create(ROOT, "target");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName SOURCE = QName.create(ROOT, "source");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName REF = QName.create(ROOT, "ref");
+
+    private static final YangInstanceIdentifier ROOT_ID = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier TARGET_ID = ROOT_ID.node(TARGET);
+    private static final YangInstanceIdentifier SOURCE_ID = ROOT_ID.node(SOURCE);
+
+    private static SchemaContext SCHEMA_CONTEXT;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = YangParserTestUtils.parseYangResourceDirectory("/leafref-incremental");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.builder(TreeType.CONFIGURATION)
+            .setLeafRefValidation(true).build(), SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_ID, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(Builders.mapBuilder().withNodeIdentifier(new NodeIdentifier(TARGET))
+                .withChild(target("a"))
+                .withChild(target("b"))
+                .build())
+            .withChild(Builders.mapBuilder().withNodeIdentifier(new NodeIdentifier(SOURCE))
+                .withChild(source("1", "a"))
+                .build())
+            .build());
+        commit(mod);
+    }
+
+    @Test
+    public void testValidReferences() throws DataValidationFailedException {
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(SOURCE_ID.node(sourceId("2")), source("2", "b"));
+        mod.write(TARGET_ID.node(targetId("c")), target("c"));
+        commit(mod);
+
+        // 'a' is no longer referenced once '1' points to 'c'
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(SOURCE_ID.node(sourceId("1")).node(REF), ImmutableNodes.leafNode(REF, "c"));
+        mod.delete(TARGET_ID.node(targetId("a")));
+        commit(mod);
+
+        // Deleting both the reference and its target at the same time is fine
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(SOURCE_ID.node(sourceId("2")));
+        mod.delete(TARGET_ID.node(targetId("b")));
+        commit(mod);
+    }
+
+    @Test
+    public void testMissingTarget() {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(SOURCE_ID.node(sourceId("2")), source("2", "x"));
+        mod.ready();
+
+        final DataValidationFailedException ex = assertThrows(DataValidationFailedException.class,
+            () -> dataTree.validate(mod));
+        assertTrue(ex.getCause() instanceof LeafRefDataValidationFailedException);
+    }
+
+    @Test
+    public void testDeletedTarget() throws DataValidationFailedException {
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(TARGET_ID.node(targetId("b")));
+        commit(mod);
+
+        final DataTreeModification invalid = dataTree.takeSnapshot().newModification();
+        invalid.delete(TARGET_ID.node(targetId("a")));
+        invalid.ready();
+        assertThrows(DataValidationFailedException.class, () -> dataTree.validate(invalid));
+
+        // Index must not have been affected by the failed validation
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(SOURCE_ID.node(sourceId("2")), source("2", "a"));
+        commit(mod);
+    }
+
+    @Test
+    public void testChainedTip() throws DataValidationFailedException {
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(TARGET_ID.node(targetId("b")));
+        mod.ready();
+        dataTree.validate(mod);
+        final DataTreeCandidateTip tip = dataTree.prepare(mod);
+
+        // 'b' is gone in the tip, even though it is still present in the data tree
+        final DataTreeModification missing = dataTree.takeSnapshot().newModification();
+        missing.write(SOURCE_ID.node(sourceId("2")), source("2", "b"));
+        missing.ready();
+        assertThrows(DataValidationFailedException.class, () -> tip.validate(missing));
+
+        final DataTreeModification deleted = dataTree.takeSnapshot().newModification();
+        deleted.delete(TARGET_ID.node(targetId("a")));
+        deleted.ready();
+        assertThrows(DataValidationFailedException.class, () -> tip.validate(deleted));
+
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(TARGET_ID.node(targetId("c")), target("c"));
+        mod.write(SOURCE_ID.node(sourceId("2")), source("2", "c"));
+        mod.ready();
+        tip.validate(mod);
+        final DataTreeCandidateTip next = tip.prepare(mod);
+
+        // Commit the chain and verify the index has caught up
+        dataTree.commit(tip);
+        dataTree.commit(next);
+        final DataTreeModification invalid = dataTree.takeSnapshot().newModification();
+        invalid.delete(TARGET_ID.node(targetId("c")));
+        invalid.ready();
+        assertThrows(DataValidationFailedException.class, () -> dataTree.validate(invalid));
+    }
+
+    @Test
+    public void testBatch() throws DataValidationFailedException {
+        final DataTreeModification delete = dataTree.takeSnapshot().newModification();
+        delete.delete(TARGET_ID.node(targetId("b")));
+        delete.ready();
+        final DataTreeModification write = dataTree.takeSnapshot().newModification();
+        write.write(SOURCE_ID.node(sourceId("2")), source("2", "b"));
+        write.ready();
+        final DataTreeModification unrelated = dataTree.takeSnapshot().newModification();
+        unrelated.write(TARGET_ID.node(targetId("c")), target("c"));
+        unrelated.ready();
+
+        // Each modification is valid on its own, but the write references a target removed by the delete
+        final PreparedBatch batch = ((BatchAwareDataTreeTip) dataTree).prepareBatch(List.of(delete, write,
+            unrelated));
+        assertTrue(batch.isAccepted(delete));
+        assertFalse(batch.isAccepted(write));
+        assertTrue(batch.isAccepted(unrelated));
+        assertTrue(batch.getFailures().get(write).getCause() instanceof LeafRefDataValidationFailedException);
+        dataTree.commit(batch.getCandidate());
+
+        assertFalse(dataTree.takeSnapshot().readNode(TARGET_ID.node(targetId("b"))).isPresent());
+        assertFalse(dataTree.takeSnapshot().readNode(SOURCE_ID.node(sourceId("2"))).isPresent());
+        assertTrue(dataTree.takeSnapshot().readNode(TARGET_ID.node(targetId("c"))).isPresent());
+    }
+
+    @Test
+    public void testSharedValue() throws DataValidationFailedException {
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(SOURCE_ID.node(sourceId("2")), source("2", "a"));
+        commit(mod);
+
+        // Removing one of two leafrefs carrying the same value does not make its target removable
+        final DataTreeModification invalid = dataTree.takeSnapshot().newModification();
+        invalid.delete(SOURCE_ID.node(sourceId("1")));
+        invalid.delete(TARGET_ID.node(targetId("a")));
+        invalid.ready();
+        assertThrows(DataValidationFailedException.class, () -> dataTree.validate(invalid));
+
+        // Rewriting a leafref with the same value keeps it indexed
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(SOURCE_ID.node(sourceId("2")), source("2", "a"));
+        mod.delete(SOURCE_ID.node(sourceId("1")));
+        commit(mod);
+
+        final DataTreeModification stillInvalid = dataTree.takeSnapshot().newModification();
+        stillInvalid.delete(TARGET_ID.node(targetId("a")));
+        stillInvalid.ready();
+        assertThrows(DataValidationFailedException.class, () -> dataTree.validate(stillInvalid));
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    private static NodeIdentifierWithPredicates targetId(final String name) {
+        return NodeIdentifierWithPredicates.of(TARGET, NAME, name);
+    }
+
+    private static NodeIdentifierWithPredicates sourceId(final String id) {
+        return NodeIdentifierWithPredicates.of(SOURCE, ID, id);
+    }
+
+    private static MapEntryNode target(final String name) {
+        return Builders.mapEntryBuilder().withNodeIdentifier(targetId(name))
+            .withChild(ImmutableNodes.leafNode(NAME, name))
+            .build();
+    }
+
+    private static MapEntryNode source(final String id, final String ref) {
+        return Builders.mapEntryBuilder().withNodeIdentifier(sourceId(id))
+            .withChild(ImmutableNodes.leafNode(ID, id))
+            .withChild(ImmutableNodes.leafNode(REF, ref))
+            .build();
+    }
+}
@@ -9,6 +9,8 @@
 package org.opendaylight.yangtools.yang.data.impl.schema;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
 
@@ -17,6 +19,7 @@ import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
 import org.opendaylight.yangtools.odlext.model.api.YangModeledAnyxmlSchemaNode;
@@ -178,6 +181,29 @@ public class BuilderTest {
         assertNotNull(Builders.mapBuilder(mapNode));
     }
 
+    @Test
+    public void immutableMapNodeBuilderLargeTest() {
+        final int size = 1000;
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = ImmutableMapNodeBuilder.create(size)
+                .withNodeIdentifier(NODE_IDENTIFIER_LIST);
+        for (int i = 0; i < size; ++i) {
+            builder.withChild(ImmutableNodes.mapEntry(LIST_MAIN, LIST_MAIN_CHILD_QNAME_1, i));
+        }
+        final MapNode original = builder.build();
+        assertEquals(size, original.size());
+
+        // Modifying a copy must not affect the original
+        final MapNode modified = Builders.mapBuilder(original)
+                .withoutChild(LIST_MAIN_CHILD_1.getIdentifier())
+                .withChild(ImmutableNodes.mapEntry(LIST_MAIN, LIST_MAIN_CHILD_QNAME_1, size))
+                .build();
+        assertEquals(size, modified.size());
+        assertFalse(modified.getChild(LIST_MAIN_CHILD_1.getIdentifier()).isPresent());
+        assertEquals(Optional.of(LIST_MAIN_CHILD_1), original.getChild(LIST_MAIN_CHILD_1.getIdentifier()));
+        assertEquals(size, original.size());
+        assertNotEquals(original, modified);
+    }
+
     @Test
     public void immutableUnkeyedListEntryNodeBuilderTest() {
         final UnkeyedListEntryNode unkeyedListEntryNode = ImmutableUnkeyedListEntryNodeBuilder.create()
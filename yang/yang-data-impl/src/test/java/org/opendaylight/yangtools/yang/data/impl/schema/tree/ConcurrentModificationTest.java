@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConcurrentAwareDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+
+public class ConcurrentModificationTest {
+    private static final int THREAD_COUNT = 4;
+    private static final int ENTRY_COUNT = 100;
+    private static final int INNER_COUNT = 10;
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private ExecutorService executor;
+    private DataTree tree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = TestModel.createTestContext();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        tree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL, SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build())
+            .build());
+        commit(mod);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDisjointWrites() throws Exception {
+        final DataTreeModification sequential = tree.takeSnapshot().newModification();
+        for (int thread = 0; thread < THREAD_COUNT; ++thread) {
+            populate(sequential, thread);
+        }
+        sequential.ready();
+
+        final DataTreeModification concurrent = populateConcurrently();
+        concurrent.ready();
+        assertEquals(sequential.readNode(TestModel.TEST_PATH), concurrent.readNode(TestModel.TEST_PATH));
+
+        commit(concurrent);
+        assertEquals(sequential.readNode(TestModel.TEST_PATH), tree.takeSnapshot().readNode(TestModel.TEST_PATH));
+    }
+
+    @Test
+    public void testDisjointDeletes() throws Exception {
+        commit(populateConcurrently());
+
+        final DataTreeModification concurrent = newConcurrentModification();
+        runConcurrently(thread -> {
+            for (int i = thread; i < ENTRY_COUNT; i += THREAD_COUNT) {
+                concurrent.delete(innerPath(i, 0));
+            }
+        });
+        commit(concurrent);
+
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            assertTrue(tree.takeSnapshot().readNode(innerPath(i, 0)).isEmpty());
+            assertTrue(tree.takeSnapshot().readNode(innerPath(i, 1)).isPresent());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testLockFreeLookup() throws Exception {
+        final InMemoryDataTreeModification concurrent = (InMemoryDataTreeModification) populateConcurrently();
+
+        // All ancestors shared between threads have been touched and all children exist, so rewriting inner entries
+        // has to complete while we are holding the monitors of those ancestors
+        final ModifiedNode root = concurrent.getRootModification();
+        final ModifiedNode test = root.getChild(TestModel.TEST_PATH.getLastPathArgument()).orElseThrow();
+        final ModifiedNode outer = test.getChild(TestModel.OUTER_LIST_PATH.getLastPathArgument()).orElseThrow();
+        synchronized (root) {
+            synchronized (test) {
+                synchronized (outer) {
+                    runConcurrently(thread -> {
+                        for (int i = thread; i < ENTRY_COUNT; i += THREAD_COUNT) {
+                            for (int j = 0; j < INNER_COUNT; ++j) {
+                                concurrent.write(innerPath(i, j), ImmutableNodes.mapEntryBuilder(
+                                    TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME, "name" + j)
+                                    .withChild(ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "value" + i))
+                                    .build());
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        commit(concurrent);
+
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            for (int j = 0; j < INNER_COUNT; ++j) {
+                assertEquals(Optional.of(ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "value" + i)),
+                    tree.takeSnapshot().readNode(innerPath(i, j).node(TestModel.VALUE_QNAME)));
+            }
+        }
+    }
+
+    private DataTreeModification populateConcurrently() throws InterruptedException, ExecutionException {
+        final DataTreeModification mod = newConcurrentModification();
+        runConcurrently(thread -> populate(mod, thread));
+        return mod;
+    }
+
+    private DataTreeModification newConcurrentModification() {
+        return ((ConcurrentAwareDataTreeSnapshot) tree.takeSnapshot()).newConcurrentModification();
+    }
+
+    private void runConcurrently(final IntConsumer task) throws InterruptedException, ExecutionException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>(THREAD_COUNT);
+        for (int thread = 0; thread < THREAD_COUNT; ++thread) {
+            final int id = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.accept(id);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        if (!((InMemoryDataTreeModification) mod).isSealed()) {
+            mod.ready();
+        }
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    /*
+     * Each thread creates every THREAD_COUNT-th outer entry, so threads create siblings concurrently, and then fills
+     * each entry with inner entries one by one, so threads traverse shared ancestors concurrently.
+     */
+    private static void populate(final DataTreeModification mod, final int thread) {
+        for (int i = thread; i < ENTRY_COUNT; i += THREAD_COUNT) {
+            mod.write(outerPath(i), ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i)
+                .withChild(ImmutableNodes.mapNodeBuilder(TestModel.INNER_LIST_QNAME).build())
+                .build());
+        }
+        for (int j = 0; j < INNER_COUNT; ++j) {
+            for (int i = thread; i < ENTRY_COUNT; i += THREAD_COUNT) {
+                mod.write(innerPath(i, j), ImmutableNodes.mapEntry(TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME,
+                    "name" + j));
+            }
+        }
+    }
+
+    private static YangInstanceIdentifier outerPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(NodeIdentifierWithPredicates.of(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+
+    private static YangInstanceIdentifier innerPath(final int id, final int inner) {
+        return outerPath(id).node(TestModel.INNER_LIST_QNAME).node(NodeIdentifierWithPredicates.of(
+            TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME, "name" + inner));
+    }
+
+    @FunctionalInterface
+    private interface IntConsumer {
+        void accept(int value) throws Exception;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+
+public class NormalizedNodeDiffTest {
+    private static final int ENTRY_COUNT = 5000;
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = TestModel.createTestContext();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void init() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL, SCHEMA_CONTEXT);
+        commit(mod -> {
+            mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+                .withChild(ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build())
+                .build());
+            for (int i = 0; i < ENTRY_COUNT; ++i) {
+                mod.write(entryPath(i), entry(i, "initial"));
+            }
+        });
+    }
+
+    @Test
+    public void testMinimalCandidate() throws DataValidationFailedException {
+        final DataTreeSnapshot before = dataTree.takeSnapshot();
+        commit(mod -> {
+            mod.merge(entryPath(3), entry(3, "merged"));
+            mod.delete(entryPath(5));
+            mod.write(entryPath(ENTRY_COUNT), entry(ENTRY_COUNT, "new"));
+            // Rewriting the same data results in a different object, which has to be recognized as equal
+            mod.write(entryPath(7), entry(7, "initial"));
+        });
+        final DataTreeSnapshot after = dataTree.takeSnapshot();
+
+        final DataTreeCandidate candidate = DataTreeCandidates.fromSnapshots(before, after, TestModel.TEST_PATH);
+        assertEquals(TestModel.TEST_PATH, candidate.getRootPath());
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+        assertEquals(1, root.getChildNodes().size());
+
+        final DataTreeCandidateNode list = root.getModifiedChild(new NodeIdentifier(TestModel.OUTER_LIST_QNAME))
+            .get();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, list.getModificationType());
+        assertEquals(Map.of(
+            entryId(3), ModificationType.SUBTREE_MODIFIED,
+            entryId(5), ModificationType.DELETE,
+            entryId(ENTRY_COUNT), ModificationType.WRITE), modificationTypes(list));
+
+        assertApplies(before, after, candidate);
+    }
+
+    @Test
+    public void testUnmodified() {
+        final DataTreeSnapshot snapshot = dataTree.takeSnapshot();
+        final DataTreeCandidate candidate = DataTreeCandidates.fromSnapshots(snapshot, snapshot,
+            YangInstanceIdentifier.empty());
+        assertEquals(ModificationType.UNMODIFIED, candidate.getRootNode().getModificationType());
+        assertEquals(candidate.getRootNode().getDataBefore(), candidate.getRootNode().getDataAfter());
+    }
+
+    @Test
+    public void testWriteAndDelete() throws DataValidationFailedException {
+        final DataTreeSnapshot before = dataTree.takeSnapshot();
+        commit(mod -> mod.delete(TestModel.TEST_PATH));
+        final DataTreeSnapshot after = dataTree.takeSnapshot();
+
+        final DataTreeCandidate delete = DataTreeCandidates.fromSnapshots(before, after, TestModel.TEST_PATH);
+        assertEquals(ModificationType.DELETE, delete.getRootNode().getModificationType());
+        assertApplies(before, after, delete);
+
+        final DataTreeCandidate write = DataTreeCandidates.fromSnapshots(after, before, TestModel.TEST_PATH);
+        assertEquals(ModificationType.WRITE, write.getRootNode().getModificationType());
+        assertApplies(after, before, write);
+    }
+
+    @Test
+    public void testParallel() throws DataValidationFailedException {
+        final DataTreeSnapshot before = dataTree.takeSnapshot();
+        commit(mod -> {
+            for (int i = 0; i < ENTRY_COUNT; i += 7) {
+                mod.delete(entryPath(i));
+            }
+            for (int i = 1; i < ENTRY_COUNT; i += 7) {
+                mod.merge(entryPath(i), entry(i, "merged"));
+            }
+            for (int i = ENTRY_COUNT; i < ENTRY_COUNT + 100; ++i) {
+                mod.write(entryPath(i), entry(i, "new"));
+            }
+        });
+        final DataTreeSnapshot after = dataTree.takeSnapshot();
+        final YangInstanceIdentifier path = YangInstanceIdentifier.empty();
+
+        final DataTreeCandidate sequential = DataTreeCandidates.fromSnapshots(before, after, path);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final DataTreeCandidate parallel;
+        try {
+            parallel = DataTreeCandidates.fromNormalizedNodes(path, before.readNode(path).get(),
+                after.readNode(path).get(), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        final DataTreeCandidateNode list = outerList(sequential);
+        assertEquals(ENTRY_COUNT / 7 * 2 + 2 + 100, list.getChildNodes().size());
+        assertEquals(modificationTypes(list), modificationTypes(outerList(parallel)));
+        assertApplies(before, after, parallel);
+    }
+
+    @Test
+    public void testOrderedMap() {
+        final OrderedMapNode before = orderedMap(1, 2, 3);
+
+        // Appending and removing entries is expressed through individual entries
+        final DataTreeCandidateNode appended = DataTreeCandidates.fromNormalizedNodes(TestModel.OUTER_LIST_PATH,
+            before, orderedMap(1, 3, 4)).getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, appended.getModificationType());
+        assertEquals(Map.of(entryId(2), ModificationType.DELETE, entryId(4), ModificationType.WRITE),
+            modificationTypes(appended));
+
+        // Changing the order is not, hence the entire list is replaced
+        final DataTreeCandidateNode reordered = DataTreeCandidates.fromNormalizedNodes(TestModel.OUTER_LIST_PATH,
+            before, orderedMap(1, 3, 2)).getRootNode();
+        assertEquals(ModificationType.WRITE, reordered.getModificationType());
+        assertTrue(reordered.getChildNodes().isEmpty());
+
+        final DataTreeCandidateNode inserted = DataTreeCandidates.fromNormalizedNodes(TestModel.OUTER_LIST_PATH,
+            before, orderedMap(1, 4, 2, 3)).getRootNode();
+        assertEquals(ModificationType.WRITE, inserted.getModificationType());
+    }
+
+    private void commit(final Consumer<DataTreeModification> modifier) throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        modifier.accept(mod);
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    private static void assertApplies(final DataTreeSnapshot before, final DataTreeSnapshot after,
+            final DataTreeCandidate candidate) {
+        final DataTreeModification mod = before.newModification();
+        DataTreeCandidates.applyToModification(mod, candidate);
+        mod.ready();
+        assertEquals(after.readNode(YangInstanceIdentifier.empty()), mod.readNode(YangInstanceIdentifier.empty()));
+    }
+
+    private static DataTreeCandidateNode outerList(final DataTreeCandidate candidate) {
+        return candidate.getRootNode().getModifiedChild(new NodeIdentifier(TestModel.TEST_QNAME)).get()
+            .getModifiedChild(new NodeIdentifier(TestModel.OUTER_LIST_QNAME)).get();
+    }
+
+    private static Map<PathArgument, ModificationType> modificationTypes(final DataTreeCandidateNode node) {
+        final Map<PathArgument, ModificationType> ret = new HashMap<>();
+        for (DataTreeCandidateNode child : node.getChildNodes()) {
+            ret.put(child.getIdentifier(), child.getModificationType());
+        }
+        return ret;
+    }
+
+    private static OrderedMapNode orderedMap(final int... ids) {
+        final CollectionNodeBuilder<MapEntryNode, OrderedMapNode> builder = Builders.orderedMapBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+        for (int id : ids) {
+            builder.withChild(entry(id, "ordered"));
+        }
+        return builder.build();
+    }
+
+    private static NodeIdentifierWithPredicates entryId(final int id) {
+        return NodeIdentifierWithPredicates.of(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(entryId(id));
+    }
+
+    private static MapEntryNode entry(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id)
+            .withChild(ImmutableNodes.mapNodeBuilder(TestModel.INNER_LIST_QNAME)
+                .withChild(ImmutableNodes.mapEntry(TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME, name))
+                .build())
+            .build();
+    }
+}
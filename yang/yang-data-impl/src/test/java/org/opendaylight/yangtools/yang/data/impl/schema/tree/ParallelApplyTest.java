@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+
+public class ParallelApplyTest {
+    private static final int ENTRY_COUNT = 200;
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private DataTree sequential;
+    private DataTree parallel;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = TestModel.createTestContext();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void init() throws DataValidationFailedException {
+        sequential = createTree(0);
+        parallel = createTree(2);
+    }
+
+    @Test
+    public void testSameCandidates() throws DataValidationFailedException {
+        assertSameCandidates(mod -> {
+            for (int i = 0; i < ENTRY_COUNT; ++i) {
+                mod.write(entryPath(i), entry(i, "initial"));
+            }
+        });
+        assertSameCandidates(mod -> {
+            for (int i = 0; i < ENTRY_COUNT; i += 3) {
+                mod.delete(entryPath(i));
+            }
+            for (int i = 1; i < ENTRY_COUNT; i += 3) {
+                mod.merge(entryPath(i), entry(i, "merged"));
+            }
+            // Empty merges should result in UNMODIFIED children
+            for (int i = 2; i < ENTRY_COUNT; i += 3) {
+                mod.merge(entryPath(i), ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+            }
+        });
+    }
+
+    @Test
+    public void testSameFailure() throws DataValidationFailedException {
+        final ConflictingModificationAppliedException seqEx = assertConflict(sequential);
+        final ConflictingModificationAppliedException parEx = assertConflict(parallel);
+        assertEquals(seqEx.getPath(), parEx.getPath());
+        assertEquals(seqEx.getMessage(), parEx.getMessage());
+    }
+
+    @Test
+    public void testFailureSkipsRemaining() {
+        final int size = 100_000;
+        final AtomicInteger executed = new AtomicInteger();
+        final IllegalStateException ex = assertThrows(IllegalStateException.class,
+            () -> ParallelChildren.forEach(size, i -> {
+                executed.incrementAndGet();
+                if (i == 0 || i == size / 2) {
+                    throw new IllegalStateException("child " + i);
+                }
+            }));
+        assertEquals("child 0", ex.getMessage());
+        assertTrue(executed.get() < size);
+    }
+
+    private void assertSameCandidates(final Consumer<DataTreeModification> modifier)
+            throws DataValidationFailedException {
+        final DataTreeCandidate seqCandidate = prepare(sequential, modifier);
+        final DataTreeCandidate parCandidate = prepare(parallel, modifier);
+
+        assertEquals(seqCandidate.getRootNode().getDataAfter(), parCandidate.getRootNode().getDataAfter());
+        assertEquals(modificationTypes(seqCandidate.getRootNode()), modificationTypes(parCandidate.getRootNode()));
+
+        sequential.commit(seqCandidate);
+        parallel.commit(parCandidate);
+    }
+
+    private static ConflictingModificationAppliedException assertConflict(final DataTree tree)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            mod.write(entryPath(i), entry(i, "first"));
+        }
+        mod.ready();
+
+        // Create some of the entries concurrently, so mod conflicts on them
+        tree.commit(prepare(tree, other -> {
+            for (int i = ENTRY_COUNT / 2; i < ENTRY_COUNT; i += 7) {
+                other.write(entryPath(i), entry(i, "second"));
+            }
+        }));
+
+        return assertThrows(ConflictingModificationAppliedException.class, () -> tree.validate(mod));
+    }
+
+    private static DataTree createTree(final int parallelThreshold) throws DataValidationFailedException {
+        final DataTree tree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.builder(
+            TreeType.OPERATIONAL).setParallelThreshold(parallelThreshold).build(), SCHEMA_CONTEXT);
+        tree.commit(prepare(tree, mod -> mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build())
+            .build())));
+        return tree;
+    }
+
+    private static DataTreeCandidate prepare(final DataTree tree, final Consumer<DataTreeModification> modifier)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        modifier.accept(mod);
+        mod.ready();
+        tree.validate(mod);
+        return tree.prepare(mod);
+    }
+
+    private static List<String> modificationTypes(final DataTreeCandidateNode root) {
+        final List<String> ret = new ArrayList<>();
+        ret.add(root.getModificationType().toString());
+        for (DataTreeCandidateNode child : root.getChildNodes()) {
+            collectModificationTypes(ret, child);
+        }
+        return ret;
+    }
+
+    private static void collectModificationTypes(final List<String> list, final DataTreeCandidateNode node) {
+        list.add(node.getIdentifier() + "=" + node.getModificationType());
+        for (DataTreeCandidateNode child : node.getChildNodes()) {
+            collectModificationTypes(list, child);
+        }
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(NodeIdentifierWithPredicates.of(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+
+    private static MapEntryNode entry(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id)
+            .withChild(ImmutableNodes.mapNodeBuilder(TestModel.INNER_LIST_QNAME)
+                .withChild(ImmutableNodes.mapEntry(TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME, name))
+                .build())
+            .build();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchAwareDataTreeTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.PreparedBatch;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.UniqueConstraintException;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+
+public class PrepareBatchTest {
+    private static final QName MODULE = QName.create("unique-validation", "unique-validation");
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName FOO = QName.create(MODULE, "foo");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName NAME = QName.create(MODULE, "name");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier FOO_PATH = ROOT_PATH.node(FOO);
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = TestModel.createTestContext("/unique-validation.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void init() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.builder(TreeType.CONFIGURATION)
+            .setUniqueIndexes(true).build(), SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, ImmutableNodes.containerNode(ROOT));
+        writeEntry(mod, 1, "a");
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        final PreparedBatch batch = prepareBatch(List.of());
+        assertEquals(ModificationType.UNMODIFIED, batch.getCandidate().getRootNode().getModificationType());
+        assertTrue(batch.getFailures().isEmpty());
+        dataTree.commit(batch.getCandidate());
+    }
+
+    @Test
+    public void testDisjointModifications() {
+        final DataTreeModification first = newModification();
+        writeEntry(first, 2, "b");
+        first.ready();
+
+        final DataTreeModification second = newModification();
+        writeEntry(second, 3, "c");
+        second.ready();
+
+        final DataTreeModification third = newModification();
+        third.merge(entryPath(1).node(NAME), ImmutableNodes.leafNode(NAME, "z"));
+        third.ready();
+
+        final PreparedBatch batch = prepareBatch(List.of(first, second, third));
+        assertTrue(batch.getFailures().isEmpty());
+        dataTree.commit(batch.getCandidate());
+
+        assertEquals(Optional.of(entry(1, "z")), readNode(entryPath(1)));
+        assertEquals(Optional.of(entry(2, "b")), readNode(entryPath(2)));
+        assertEquals(Optional.of(entry(3, "c")), readNode(entryPath(3)));
+    }
+
+    @Test
+    public void testOverlappingModifications() {
+        final DataTreeModification first = newModification();
+        writeEntry(first, 2, "b");
+        first.ready();
+
+        final DataTreeModification second = newModification();
+        second.merge(entryPath(2), entry(2, "c"));
+        second.ready();
+
+        final PreparedBatch batch = prepareBatch(List.of(first, second));
+        assertTrue(batch.isAccepted(first));
+        assertFalse(batch.isAccepted(second));
+
+        final DataValidationFailedException failure = batch.getFailures().get(second);
+        assertTrue(failure instanceof ConflictingModificationAppliedException);
+        assertEquals(entryPath(2), failure.getPath());
+
+        dataTree.commit(batch.getCandidate());
+        assertEquals(Optional.of(entry(2, "b")), readNode(entryPath(2)));
+    }
+
+    @Test
+    public void testStaleModification() throws DataValidationFailedException {
+        final DataTreeModification stale = newModification();
+        stale.write(entryPath(1), entry(1, "b"));
+        stale.ready();
+
+        final DataTreeModification concurrent = newModification();
+        concurrent.delete(entryPath(1));
+        concurrent.ready();
+        dataTree.commit(dataTree.prepare(concurrent));
+
+        final DataTreeModification fresh = newModification();
+        writeEntry(fresh, 2, "b");
+        fresh.ready();
+
+        final PreparedBatch batch = prepareBatch(List.of(stale, fresh));
+        assertEquals(List.of(stale), List.copyOf(batch.getFailures().keySet()));
+        assertTrue(batch.getFailures().get(stale) instanceof ConflictingModificationAppliedException);
+
+        dataTree.commit(batch.getCandidate());
+        assertEquals(Optional.empty(), readNode(entryPath(1)));
+        assertEquals(Optional.of(entry(2, "b")), readNode(entryPath(2)));
+    }
+
+    @Test
+    public void testCombinedConstraintViolation() {
+        // Each of these is valid on its own, but not when combined
+        final DataTreeModification first = newModification();
+        writeEntry(first, 2, "b");
+        first.ready();
+
+        final DataTreeModification second = newModification();
+        writeEntry(second, 3, "b");
+        second.ready();
+
+        final DataTreeModification third = newModification();
+        writeEntry(third, 4, "c");
+        third.ready();
+
+        final PreparedBatch batch = prepareBatch(List.of(first, second, third));
+        assertEquals(List.of(second), List.copyOf(batch.getFailures().keySet()));
+        assertTrue(batch.getFailures().get(second) instanceof UniqueConstraintException);
+
+        dataTree.commit(batch.getCandidate());
+        assertEquals(Optional.of(entry(2, "b")), readNode(entryPath(2)));
+        assertEquals(Optional.empty(), readNode(entryPath(3)));
+        assertEquals(Optional.of(entry(4, "c")), readNode(entryPath(4)));
+    }
+
+    private PreparedBatch prepareBatch(final List<DataTreeModification> mods) {
+        return ((BatchAwareDataTreeTip) dataTree).prepareBatch(mods);
+    }
+
+    private DataTreeModification newModification() {
+        return dataTree.takeSnapshot().newModification();
+    }
+
+    private Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
+        return dataTree.takeSnapshot().readNode(path);
+    }
+
+    private static void writeEntry(final DataTreeModification mod, final int id, final String name) {
+        mod.write(entryPath(id), entry(id, name));
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return FOO_PATH.node(entry(id, "").getIdentifier());
+    }
+
+    private static MapEntryNode entry(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(FOO, ID, Uint16.valueOf(id))
+            .withChild(ImmutableNodes.leafNode(NAME, name))
+            .build();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.UniqueConstraintException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier.Descendant;
+
+public class UniqueValidationTest {
+    private static final QName MODULE = QName.create("unique-validation", "unique-validation");
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName FOO = QName.create(MODULE, "foo");
+    private static final QName ID = QName.create(MODULE, "id");
+    private static final QName NAME = QName.create(MODULE, "name");
+    private static final QName NESTED = QName.create(MODULE, "nested");
+    private static final QName X = QName.create(MODULE, "x");
+    private static final QName Y = QName.create(MODULE, "y");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier FOO_PATH = ROOT_PATH.node(FOO);
+
+    private static EffectiveModelContext SCHEMA_CONTEXT;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SCHEMA_CONTEXT = TestModel.createTestContext("/unique-validation.yang");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SCHEMA_CONTEXT = null;
+    }
+
+    @Before
+    public void init() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.builder(TreeType.CONFIGURATION)
+            .setUniqueIndexes(true).build(), SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, ImmutableNodes.containerNode(ROOT));
+        commit(mod);
+    }
+
+    @Test
+    public void testDistinctValues() throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(1, "a"));
+        writeEntry(mod, fooEntry(2, "b"));
+        commit(mod);
+    }
+
+    @Test
+    public void testDuplicateInOneModification() throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(1, "a"));
+        writeEntry(mod, fooEntry(2, "a"));
+        mod.ready();
+
+        final UniqueConstraintException ex = assertThrows(UniqueConstraintException.class,
+            () -> dataTree.validate(mod));
+        assertEquals(FOO_PATH, ex.getPath());
+        assertEquals("a", ex.getValues().get(Descendant.of(NAME)));
+    }
+
+    @Test
+    public void testDuplicateAgainstCommitted() throws DataValidationFailedException {
+        populate();
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(4, "a"));
+        mod.ready();
+        assertThrows(UniqueConstraintException.class, () -> dataTree.validate(mod));
+    }
+
+    @Test
+    public void testDuplicateMergedLeaf() throws DataValidationFailedException {
+        populate();
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.merge(entryPath(2).node(NAME), ImmutableNodes.leafNode(NAME, "c"));
+        mod.ready();
+        assertThrows(UniqueConstraintException.class, () -> dataTree.validate(mod));
+    }
+
+    @Test
+    public void testSwappedValues() throws DataValidationFailedException {
+        populate();
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(entryPath(1).node(NAME), ImmutableNodes.leafNode(NAME, "b"));
+        mod.write(entryPath(2).node(NAME), ImmutableNodes.leafNode(NAME, "a"));
+        commit(mod);
+    }
+
+    @Test
+    public void testReusedValueAfterDelete() throws DataValidationFailedException {
+        populate();
+
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(entryPath(1));
+        commit(mod);
+
+        mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(4, "a"));
+        commit(mod);
+
+        final DataTreeModification failing = dataTree.takeSnapshot().newModification();
+        writeEntry(failing, fooEntry(1, "a"));
+        failing.ready();
+        assertThrows(UniqueConstraintException.class, () -> dataTree.validate(failing));
+    }
+
+    @Test
+    public void testMultipleLeaves() throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(1, "a", "x", "y"));
+        writeEntry(mod, fooEntry(2, "b", "x", "z"));
+        // Entries without all leaves are not subject to the constraint
+        writeEntry(mod, fooEntry(3, "c", "x", null));
+        writeEntry(mod, fooEntry(4, "d", "x", null));
+        commit(mod);
+
+        final DataTreeModification failing = dataTree.takeSnapshot().newModification();
+        failing.merge(entryPath(2).node(NESTED).node(Y), ImmutableNodes.leafNode(Y, "y"));
+        failing.ready();
+        final UniqueConstraintException ex = assertThrows(UniqueConstraintException.class,
+            () -> dataTree.validate(failing));
+        assertEquals(2, ex.getValues().size());
+    }
+
+    @Test
+    public void testPrepareWithoutValidate() throws DataValidationFailedException {
+        populate();
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(4, "b"));
+        mod.ready();
+        final IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> dataTree.prepare(mod));
+        assertThat(ex.getMessage(), startsWith("(unique-validation)foo[{(unique-validation)id=4}] violates unique"));
+    }
+
+    @Test
+    public void testDisabledIndexes() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_CONFIGURATION, SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, ImmutableNodes.containerNode(ROOT));
+        writeEntry(mod, fooEntry(1, "a"));
+        writeEntry(mod, fooEntry(2, "a"));
+        commit(mod);
+    }
+
+    private void populate() throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        writeEntry(mod, fooEntry(1, "a"));
+        writeEntry(mod, fooEntry(2, "b"));
+        writeEntry(mod, fooEntry(3, "c"));
+        commit(mod);
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    private static void writeEntry(final DataTreeModification mod, final MapEntryNode entry) {
+        mod.write(FOO_PATH.node(entry.getIdentifier()), entry);
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return FOO_PATH.node(NodeIdentifierWithPredicates.of(FOO, ID, Uint16.valueOf(id)));
+    }
+
+    private static MapEntryNode fooEntry(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(FOO, ID, Uint16.valueOf(id))
+            .withChild(ImmutableNodes.leafNode(NAME, name))
+            .build();
+    }
+
+    private static MapEntryNode fooEntry(final int id, final String name, final String nestedX,
+            final String nestedY) {
+        final DataContainerNodeBuilder<NodeIdentifier, ContainerNode> nested = Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(NESTED))
+            .withChild(ImmutableNodes.leafNode(X, nestedX));
+        if (nestedY != null) {
+            nested.withChild(ImmutableNodes.leafNode(Y, nestedY));
+        }
+
+        return ImmutableNodes.mapEntryBuilder(FOO, ID, Uint16.valueOf(id))
+            .withChild(ImmutableNodes.leafNode(NAME, name))
+            .withChild(nested.build())
+            .build();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.CaseSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.OperationDefinition;
+
+/**
+ * Precomputed information about how children of a {@link DataSchemaNode} are looked up while parsing. A plan maps
+ * child names directly to the schema path leading to the child, including any intervening choices and cases, and
+ * children to the augmentations which introduce them. Plans are computed once and cached for as long as the schema
+ * node is reachable, hence they are shared by all parsers operating on the same
+ * {@link org.opendaylight.yangtools.yang.model.api.EffectiveModelContext}. Plans of {@link OperationAsContainer}s,
+ * which parsers create as needed, are cached for as long as the wrapped operation is reachable.
+ */
+@Beta
+public final class ParsePlan {
+    private static final Cache<DataSchemaNode, ParsePlan> PLANS = CacheBuilder.newBuilder().weakKeys().build();
+    private static final Cache<OperationDefinition, ParsePlan> OPERATION_PLANS = CacheBuilder.newBuilder().weakKeys()
+            .build();
+
+    // Child's local name -> child's namespace -> schema path to child
+    private final ImmutableMap<String, ImmutableMap<URI, ImmutableList<DataSchemaNode>>> children;
+    private final ImmutableMap<QName, AugmentationSchemaNode> augmentations;
+
+    private ParsePlan(final DataSchemaNode schema) {
+        children = indexChildren(schema);
+        augmentations = indexAugmentations(schema);
+    }
+
+    /**
+     * Return the plan for a schema node.
+     *
+     * @param schema Schema node
+     * @return Plan for the node
+     * @throws NullPointerException if {@code schema} is null
+     */
+    public static @NonNull ParsePlan of(final DataSchemaNode schema) {
+        return schema instanceof OperationAsContainer
+            ? lookup(OPERATION_PLANS, ((OperationAsContainer) schema).delegate(), schema)
+            : lookup(PLANS, requireNonNull(schema), schema);
+    }
+
+    /**
+     * Find a child by its name and namespace. The result is the same as
+     * {@link ParserStreamUtils#findSchemaNodeByNameAndNamespace(DataSchemaNode, String, URI)} and the returned
+     * {@link Deque} is owned by the caller.
+     *
+     * @param localName Child's local name
+     * @param namespace Child's namespace
+     * @return Schema nodes via which the child is reached, empty if no such child exists
+     */
+    public @NonNull Deque<DataSchemaNode> findChild(final String localName, final URI namespace) {
+        final ImmutableMap<URI, ImmutableList<DataSchemaNode>> byNamespace = children.get(localName);
+        if (byNamespace != null) {
+            final ImmutableList<DataSchemaNode> path = byNamespace.get(namespace);
+            if (path != null) {
+                return new ArrayDeque<>(path);
+            }
+        }
+        return new ArrayDeque<>(1);
+    }
+
+    /**
+     * Return namespaces of all children with specified local name, including those nested in choices.
+     *
+     * @param localName Child's local name
+     * @return Set of namespaces
+     */
+    public @NonNull Set<URI> namespacesOf(final String localName) {
+        final ImmutableMap<URI, ImmutableList<DataSchemaNode>> byNamespace = children.get(localName);
+        return byNamespace == null ? ImmutableSet.of() : byNamespace.keySet();
+    }
+
+    /**
+     * Return the augmentation through which a direct child is introduced.
+     *
+     * @param child Child's QName
+     * @return Augmentation schema, or null if the child is not introduced by an augmentation
+     */
+    public @Nullable AugmentationSchemaNode augmentationOf(final QName child) {
+        return augmentations.get(child);
+    }
+
+    private static <K> @NonNull ParsePlan lookup(final Cache<K, ParsePlan> cache, final K key,
+            final DataSchemaNode schema) {
+        final ParsePlan existing = cache.getIfPresent(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Not computed in a loader, as computing a plan looks up plans of cases, which would recurse into the cache
+        final ParsePlan created = new ParsePlan(schema);
+        final ParsePlan raced = cache.asMap().putIfAbsent(key, created);
+        return raced != null ? raced : created;
+    }
+
+    private static ImmutableMap<String, ImmutableMap<URI, ImmutableList<DataSchemaNode>>> indexChildren(
+            final DataSchemaNode schema) {
+        if (!(schema instanceof DataNodeContainer)) {
+            return ImmutableMap.of();
+        }
+
+        // Direct children take precedence, with the latest revision winning
+        final Map<String, Map<URI, ImmutableList<DataSchemaNode>>> index = new LinkedHashMap<>();
+        for (DataSchemaNode child : ((DataNodeContainer) schema).getChildNodes()) {
+            if (!(child instanceof ChoiceSchemaNode)) {
+                final QName qname = child.getQName();
+                index.computeIfAbsent(qname.getLocalName(), key -> new LinkedHashMap<>()).merge(qname.getNamespace(),
+                    ImmutableList.of(child), (prev, next) -> Revision.compare(qname.getRevision(),
+                        prev.get(0).getQName().getRevision()) > 0 ? next : prev);
+            }
+        }
+
+        // Choices are searched in order, with the first match winning
+        for (DataSchemaNode child : ((DataNodeContainer) schema).getChildNodes()) {
+            if (child instanceof ChoiceSchemaNode) {
+                for (CaseSchemaNode caze : ((ChoiceSchemaNode) child).getCases()) {
+                    for (Entry<String, ImmutableMap<URI, ImmutableList<DataSchemaNode>>> byName
+                            : of(caze).children.entrySet()) {
+                        final Map<URI, ImmutableList<DataSchemaNode>> byNamespace =
+                            index.computeIfAbsent(byName.getKey(), key -> new LinkedHashMap<>());
+                        for (Entry<URI, ImmutableList<DataSchemaNode>> entry : byName.getValue().entrySet()) {
+                            byNamespace.computeIfAbsent(entry.getKey(), key -> ImmutableList.<DataSchemaNode>builder()
+                                .add(child, caze).addAll(entry.getValue()).build());
+                        }
+                    }
+                }
+            }
+        }
+
+        final ImmutableMap.Builder<String, ImmutableMap<URI, ImmutableList<DataSchemaNode>>> builder =
+            ImmutableMap.builderWithExpectedSize(index.size());
+        for (Entry<String, Map<URI, ImmutableList<DataSchemaNode>>> entry : index.entrySet()) {
+            builder.put(entry.getKey(), ImmutableMap.copyOf(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private static ImmutableMap<QName, AugmentationSchemaNode> indexAugmentations(final DataSchemaNode schema) {
+        if (!(schema instanceof AugmentationTarget) || schema instanceof ChoiceSchemaNode) {
+            return ImmutableMap.of();
+        }
+
+        // First augmentation defining a child wins
+        final Map<QName, AugmentationSchemaNode> index = new HashMap<>();
+        for (AugmentationSchemaNode augmentation : ((AugmentationTarget) schema).getAvailableAugmentations()) {
+            for (DataSchemaNode child : augmentation.getChildNodes()) {
+                index.putIfAbsent(child.getQName(), augmentation);
+            }
+        }
+        return ImmutableMap.copyOf(index);
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.odlext.model.api.YangModeledAnyxmlSchemaNode;
+import org.opendaylight.yangtools.rfc7952.data.api.StreamWriterMetadataExtension;
+import org.opendaylight.yangtools.rfc8528.data.api.MountPointContextFactory;
+import org.opendaylight.yangtools.rfc8528.data.api.MountPointIdentifier;
+import org.opendaylight.yangtools.util.ImmutableMapTemplate;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.CaseSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+
+/**
+ * State of a single data node being parsed by a single-pass parser, which emits {@link NormalizedNodeStreamWriter}
+ * events as soon as possible instead of building a complete {@link AbstractNodeDataWithSchema} tree. This class is to
+ * be used only by respective XML and JSON parsers in yang-data-codec-xml and yang-data-codec-gson.
+ *
+ * <p>
+ * Children of the node are emitted into the writer either directly or wrapped in a number of augmentations and
+ * choices, which we refer to as wrappers. Children are buffered as {@link AbstractNodeDataWithSchema} only where
+ * the order in which they are encountered does not match what the writer expects:
+ * <ul>
+ *   <li>children of a keyed list entry which precede its key leaves, as the entry cannot be started before its
+ *       predicates are known,</li>
+ *   <li>scalar children which do not belong to the wrappers currently open, as emitting them would require those
+ *       wrappers to be closed.</li>
+ * </ul>
+ * Since a wrapper, list or leaf-list cannot be reopened once it has been closed, attempts to stream such a node after
+ * it has been completed are rejected with an {@link IllegalStateException}.
+ */
+@Beta
+public final class StreamingNodeFrame {
+    /**
+     * A child which has been read into memory, but has not been emitted yet.
+     */
+    private static final class Pending {
+        final List<Object> wrappers;
+        final AbstractNodeDataWithSchema<?> node;
+
+        Pending(final List<Object> wrappers, final AbstractNodeDataWithSchema<?> node) {
+            this.wrappers = requireNonNull(wrappers);
+            this.node = requireNonNull(node);
+        }
+    }
+
+    private final List<Pending> pending = new ArrayList<>();
+    private final List<Object> open = new ArrayList<>();
+    private final NormalizedNodeStreamWriter writer;
+    // The schema node augmentations are attached to
+    private final DataSchemaNode schema;
+    // The schema node we look up children in
+    private final DataSchemaNode lookupSchema;
+    // Non-null only for keyed list entries
+    private final ImmutableMapTemplate<QName> keyTemplate;
+    private final Map<QName, Object> keyValues;
+    private final ImmutableMap<QName, Object> attributes;
+
+    private Map<ChoiceSchemaNode, CaseSchemaNode> cases;
+    // Wrappers, lists and leaf-lists which have been completed
+    private Set<Object> closed;
+    // List or leaf-list whose entries are currently being emitted
+    private DataSchemaNode openMultiple;
+    private MountPointData mountedData;
+    // Whether the writer has an open node for this frame, which needs to be ended
+    private boolean hasNode;
+    private boolean started;
+
+    private StreamingNodeFrame(final NormalizedNodeStreamWriter writer, final DataSchemaNode schema,
+            final ImmutableMapTemplate<QName> keyTemplate, final ImmutableMap<QName, Object> attributes,
+            final boolean hasNode) {
+        this.writer = requireNonNull(writer);
+        this.schema = requireNonNull(schema);
+        lookupSchema = schema instanceof YangModeledAnyxmlSchemaNode
+            ? ((YangModeledAnyxmlSchemaNode) schema).getSchemaOfAnyXmlData() : schema;
+        this.keyTemplate = keyTemplate;
+        this.attributes = attributes;
+        this.hasNode = hasNode;
+        if (keyTemplate != null) {
+            keyValues = new HashMap<>();
+            started = false;
+        } else {
+            keyValues = null;
+            started = true;
+        }
+    }
+
+    /**
+     * Create a frame for a node which has already been started in the writer, or for the root of the data, which has
+     * no corresponding node.
+     *
+     * @param writer Target writer
+     * @param schema Schema of the node
+     * @param hasNode True if the writer has a node started for this frame, which needs to be ended in
+     *                {@link #finish()}
+     * @return A new frame
+     */
+    public static @NonNull StreamingNodeFrame of(final NormalizedNodeStreamWriter writer, final DataSchemaNode schema,
+            final boolean hasNode) {
+        return new StreamingNodeFrame(writer, schema, null, null, hasNode);
+    }
+
+    /**
+     * Create a frame for an entry of a keyed list. The entry is started once all of its keys have been encountered.
+     *
+     * @param writer Target writer
+     * @param schema Schema of the list
+     * @param attributes Attributes of the entry, may be null
+     * @return A new frame
+     * @throws IllegalArgumentException if the list does not have a key
+     */
+    public static @NonNull StreamingNodeFrame ofMapEntry(final NormalizedNodeStreamWriter writer,
+            final ListSchemaNode schema, final @Nullable ImmutableMap<QName, Object> attributes) {
+        final List<QName> keyDef = schema.getKeyDefinition();
+        checkArgument(!keyDef.isEmpty(), "List %s does not have a key", schema.getQName());
+        return new StreamingNodeFrame(writer, schema, ImmutableMapTemplate.ordered(keyDef), attributes, false);
+    }
+
+    /**
+     * Return the schema node in which children of this frame should be looked up.
+     *
+     * @return Schema node of children's parent
+     */
+    public @NonNull DataSchemaNode getLookupSchema() {
+        return lookupSchema;
+    }
+
+    /**
+     * Check whether this frame's node has been started, i.e. whether its children can be streamed.
+     *
+     * @return True if the node has been started.
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Determine the wrappers of a child, as returned from
+     * {@link ParserStreamUtils#findSchemaNodeByNameAndNamespace(DataSchemaNode, String, java.net.URI)}. This consumes
+     * all but the last element of the schema path, leaving only the schema of the child itself.
+     *
+     * @param schemas Schema path to the child
+     * @return Opaque wrappers of the child
+     * @throws IllegalArgumentException if the child belongs to a different case than previous children of its choice
+     */
+    public @NonNull List<Object> wrappersOf(final Deque<DataSchemaNode> schemas) {
+        List<Object> ret = null;
+        DataSchemaNode parent = schema;
+        while (schemas.size() > 1) {
+            final DataSchemaNode choice = schemas.pop();
+            checkArgument(choice instanceof ChoiceSchemaNode, "Expected node of type ChoiceNode but was %s",
+                choice.getClass());
+            final DataSchemaNode caze = schemas.pop();
+            checkArgument(caze instanceof CaseSchemaNode, "Expected node of type ChoiceCaseNode but was %s",
+                caze.getClass());
+
+            if (cases == null) {
+                cases = new HashMap<>();
+            }
+            final CaseSchemaNode previous = cases.putIfAbsent((ChoiceSchemaNode) choice, (CaseSchemaNode) caze);
+            checkArgument(previous == null || previous.equals(caze),
+                "Data from case %s are specified but other data from case %s were specified earlier."
+                    + " Data aren't from the same case.", caze.getQName(),
+                    previous == null ? null : previous.getQName());
+
+            ret = addWrapper(ret, findCorrespondingAugment(parent, choice));
+            ret = addWrapper(ret, choice);
+            parent = caze;
+        }
+        ret = addWrapper(ret, findCorrespondingAugment(parent, schemas.getFirst()));
+        return ret == null ? ImmutableList.of() : ret;
+    }
+
+    /**
+     * Add a child which has been completely read. It is emitted immediately if possible, otherwise it is buffered.
+     *
+     * @param wrappers Wrappers of the child
+     * @param node Child node
+     * @throws IOException if the writer reports an error
+     */
+    public void addScalar(final List<Object> wrappers, final AbstractNodeDataWithSchema<?> node) throws IOException {
+        if (!started) {
+            addPending(wrappers, node);
+
+            final QName qname = node.getSchema().getQName();
+            if (wrappers.isEmpty() && node instanceof LeafNodeDataWithSchema
+                    && keyTemplate.keySet().contains(qname)) {
+                keyValues.put(qname, ((LeafNodeDataWithSchema) node).getValue());
+                if (keyValues.size() == keyTemplate.keySet().size()) {
+                    start();
+                }
+            }
+        } else if (openMultiple == null && wrappers.equals(open)) {
+            node.write(writer);
+        } else {
+            // Emitting this node would require closing some of the open nodes. It is cheap to hold on to it until
+            // they are closed or we encounter the appropriate wrappers for some other reason.
+            addPending(wrappers, node);
+        }
+    }
+
+    /**
+     * Add a child which has been read into memory, deferring its emission until this node completes or its wrappers
+     * are opened.
+     *
+     * @param wrappers Wrappers of the child
+     * @param node Child node
+     */
+    public void addPending(final List<Object> wrappers, final AbstractNodeDataWithSchema<?> node) {
+        pending.add(new Pending(wrappers, node));
+    }
+
+    /**
+     * Find a buffered child with specified schema. This is useful for lists and leaf-lists, whose entries need to be
+     * added to the same node.
+     *
+     * @param childSchema Schema of the child
+     * @return Buffered child, or null if there is no such child
+     */
+    public @Nullable AbstractNodeDataWithSchema<?> findPending(final DataSchemaNode childSchema) {
+        for (Pending item : pending) {
+            if (childSchema.equals(item.node.getSchema())) {
+                return item.node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Make the writer ready to receive a streamed child with specified wrappers. This opens and closes wrappers as
+     * needed.
+     *
+     * @param wrappers Wrappers of the child
+     * @throws IOException if the writer reports an error
+     * @throws IllegalStateException if a required wrapper has already been completed
+     */
+    public void switchTo(final List<Object> wrappers) throws IOException {
+        closeMultiple();
+
+        int common = 0;
+        final int limit = Math.min(open.size(), wrappers.size());
+        while (common < limit && open.get(common).equals(wrappers.get(common))) {
+            common++;
+        }
+        while (open.size() > common) {
+            closeWrapper();
+        }
+        for (int i = common; i < wrappers.size(); ++i) {
+            openWrapper(wrappers.get(i));
+        }
+    }
+
+    /**
+     * Make the writer ready to receive an entry of a list or a leaf-list. If the list or leaf-list is currently
+     * open, this method does nothing and returns false. Otherwise the writer is switched to the specified wrappers
+     * and the caller is expected to start the list or leaf-list node, which will be ended by this frame once a
+     * different child is encountered.
+     *
+     * @param wrappers Wrappers of the child
+     * @param childSchema Schema of the list or leaf-list
+     * @return True if the caller needs to start the list or leaf-list node
+     * @throws IOException if the writer reports an error
+     * @throws IllegalStateException if the list or leaf-list, or one of its wrappers, has already been completed
+     */
+    public boolean enterMultiple(final List<Object> wrappers, final DataSchemaNode childSchema) throws IOException {
+        if (childSchema.equals(openMultiple)) {
+            return false;
+        }
+
+        switchTo(wrappers);
+        checkNotClosed(childSchema);
+        openMultiple = childSchema;
+        return true;
+    }
+
+    /**
+     * Return the data of the mount point attached to this node.
+     *
+     * @param label Mount point label
+     * @param factory Mount point context factory
+     * @return Mount point data
+     * @throws IllegalStateException if a different mount point has been attached already
+     */
+    public @NonNull MountPointData getMountPointData(final MountPointIdentifier label,
+            final MountPointContextFactory factory) {
+        if (mountedData != null) {
+            final MountPointIdentifier existing = mountedData.getIdentifier();
+            checkState(label.equals(existing), "Mismatched mount label %s, already have %s", label, existing);
+        } else {
+            mountedData = new MountPointData(label, factory);
+        }
+        return mountedData;
+    }
+
+    /**
+     * Complete this frame, emitting all buffered children and ending the frame's node.
+     *
+     * @throws IOException if the writer reports an error
+     * @throws IllegalArgumentException if this is a list entry which is missing some of its keys
+     */
+    public void finish() throws IOException {
+        if (!started) {
+            final Set<QName> missing = new HashSet<>(keyTemplate.keySet());
+            missing.removeAll(keyValues.keySet());
+            throw new IllegalArgumentException("Entry of list " + schema.getQName() + " is missing key leaves "
+                + missing);
+        }
+
+        switchTo(ImmutableList.of());
+        flushPending();
+        if (mountedData != null) {
+            mountedData.write(writer);
+        }
+        if (hasNode) {
+            writer.endNode();
+        }
+    }
+
+    private void start() throws IOException {
+        writer.nextDataSchemaNode(schema);
+        writer.startMapEntryNode(NodeIdentifierWithPredicates.of(schema.getQName(),
+            keyTemplate.instantiateTransformed(keyValues, (key, value) -> value)),
+            NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        if (attributes != null && !attributes.isEmpty()) {
+            final StreamWriterMetadataExtension metaWriter = writer.getExtensions()
+                .getInstance(StreamWriterMetadataExtension.class);
+            if (metaWriter != null) {
+                metaWriter.metadata(attributes);
+            }
+        }
+        started = true;
+        hasNode = true;
+        emitPending();
+    }
+
+    private void checkNotClosed(final Object node) {
+        if (closed != null && closed.contains(node)) {
+            throw new IllegalStateException("Cannot stream data of " + node + " under " + schema.getQName()
+                + ": it has already been completed. Members of an augmentation, choice, list or leaf-list need to be"
+                + " specified without intervening containers, lists or leaf-lists");
+        }
+    }
+
+    private void markClosed(final Object node) {
+        if (closed == null) {
+            closed = new HashSet<>();
+        }
+        closed.add(node);
+    }
+
+    private void openWrapper(final Object wrapper) throws IOException {
+        checkNotClosed(wrapper);
+        if (wrapper instanceof ChoiceSchemaNode) {
+            final ChoiceSchemaNode choice = (ChoiceSchemaNode) wrapper;
+            writer.nextDataSchemaNode(choice);
+            writer.startChoiceNode(NodeIdentifier.create(choice.getQName()), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startAugmentationNode(DataSchemaContextNode.augmentationIdentifierFrom(
+                (AugmentationSchemaNode) wrapper));
+        }
+        open.add(wrapper);
+        emitPending();
+    }
+
+    private void closeWrapper() throws IOException {
+        // This is our last chance to emit anything within this wrapper
+        flushPending();
+        writer.endNode();
+        markClosed(open.remove(open.size() - 1));
+    }
+
+    private void closeMultiple() throws IOException {
+        if (openMultiple != null) {
+            writer.endNode();
+            markClosed(openMultiple);
+            openMultiple = null;
+            emitPending();
+        }
+    }
+
+    /**
+     * Emit all pending nodes whose wrappers are exactly the currently-open wrappers.
+     */
+    private void emitPending() throws IOException {
+        final Iterator<Pending> it = pending.iterator();
+        while (it.hasNext()) {
+            final Pending item = it.next();
+            if (item.wrappers.equals(open)) {
+                it.remove();
+                if (item.node instanceof MultipleEntryDataWithSchema) {
+                    // The node is emitted as a whole, hence any further entries cannot be streamed
+                    checkNotClosed(item.node.getSchema());
+                    markClosed(item.node.getSchema());
+                }
+                item.node.write(writer);
+            }
+        }
+    }
+
+    /**
+     * Emit all pending nodes within currently-open wrappers, opening and closing any nested wrappers as needed.
+     */
+    private void flushPending() throws IOException {
+        emitPending();
+
+        final int depth = open.size();
+        Pending next;
+        while ((next = findNested(depth)) != null) {
+            openWrapper(next.wrappers.get(depth));
+            closeWrapper();
+        }
+    }
+
+    private @Nullable Pending findNested(final int depth) {
+        for (Pending item : pending) {
+            if (item.wrappers.size() > depth && item.wrappers.subList(0, depth).equals(open)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static List<Object> addWrapper(final @Nullable List<Object> wrappers, final @Nullable Object wrapper) {
+        if (wrapper == null) {
+            return wrappers;
+        }
+        final List<Object> ret = wrappers != null ? wrappers : new ArrayList<>(2);
+        ret.add(wrapper);
+        return ret;
+    }
+
+    private static @Nullable AugmentationSchemaNode findCorrespondingAugment(final DataSchemaNode parent,
+            final DataSchemaNode child) {
+        return ParsePlan.of(parent).augmentationOf(child.getQName());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 PANTHEON.tech, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.net.URI;
+import java.util.Deque;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.EffectiveModelContext;
+import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class ParsePlanTest {
+    private static final QNameModule MODULE = QNameModule.create(URI.create("parseplan"));
+    private static final QNameModule AUG_MODULE = QNameModule.create(URI.create("parseplan-aug"));
+    private static final QName FOO = QName.create(MODULE, "foo");
+    private static final QName BAR = QName.create(MODULE, "bar");
+    private static final QName BAZ = QName.create(MODULE, "baz");
+    private static final QName FIRST = QName.create(MODULE, "first");
+    private static final QName SECOND = QName.create(MODULE, "second");
+    private static final QName ONE = QName.create(MODULE, "one");
+    private static final QName TWO = QName.create(MODULE, "two");
+    private static final QName THREE = QName.create(MODULE, "three");
+    private static final QName FIVE = QName.create(MODULE, "five");
+    private static final QName OP = QName.create(MODULE, "op");
+    private static final QName INPUT = QName.create(MODULE, "input");
+
+    private static ContainerSchemaNode FOO_SCHEMA;
+    private static RpcDefinition OP_SCHEMA;
+
+    @BeforeClass
+    public static void init() {
+        final EffectiveModelContext context = YangParserTestUtils.parseYangResources(ParsePlanTest.class,
+            "/parseplan.yang", "/parseplan-aug.yang");
+        FOO_SCHEMA = (ContainerSchemaNode) context.findDataChildByName(FOO).get();
+        OP_SCHEMA = context.getOperations().stream().filter(rpc -> OP.equals(rpc.getQName())).findFirst().get();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        FOO_SCHEMA = null;
+        OP_SCHEMA = null;
+    }
+
+    @Test
+    public void testPlanIsCached() {
+        assertSame(ParsePlan.of(FOO_SCHEMA), ParsePlan.of(FOO_SCHEMA));
+    }
+
+    @Test
+    public void testOperationPlanIsCached() {
+        // Parsers wrap operations on each use, the plan needs to be shared nevertheless
+        final ParsePlan plan = ParsePlan.of(OperationAsContainer.of(OP_SCHEMA));
+        assertSame(plan, ParsePlan.of(OperationAsContainer.of(OP_SCHEMA)));
+        assertEquals(ImmutableList.of(INPUT), qnames(plan.findChild("input", MODULE.getNamespace())));
+    }
+
+    @Test
+    public void testDirectChildWins() {
+        assertEquals(ImmutableList.of(ONE), qnames(ParsePlan.of(FOO_SCHEMA).findChild("one", MODULE.getNamespace())));
+    }
+
+    @Test
+    public void testChoiceChildren() {
+        final ParsePlan plan = ParsePlan.of(FOO_SCHEMA);
+        assertEquals(ImmutableList.of(BAR, FIRST, TWO), qnames(plan.findChild("two", MODULE.getNamespace())));
+        assertEquals(ImmutableList.of(BAR, FIRST, BAZ, THREE, THREE),
+            qnames(plan.findChild("three", MODULE.getNamespace())));
+    }
+
+    @Test
+    public void testCaseChild() {
+        assertEquals(ImmutableList.of(BAR, SECOND, FIVE),
+            qnames(ParsePlan.of(FOO_SCHEMA).findChild("five", MODULE.getNamespace())));
+    }
+
+    @Test
+    public void testUnknownChild() {
+        final ParsePlan plan = ParsePlan.of(FOO_SCHEMA);
+        assertTrue(plan.findChild("six", MODULE.getNamespace()).isEmpty());
+        assertTrue(plan.findChild("four", MODULE.getNamespace()).isEmpty());
+        assertEquals(ImmutableSet.of(), plan.namespacesOf("six"));
+    }
+
+    @Test
+    public void testNamespaces() {
+        final ParsePlan plan = ParsePlan.of(FOO_SCHEMA);
+        assertEquals(ImmutableSet.of(MODULE.getNamespace(), AUG_MODULE.getNamespace()), plan.namespacesOf("one"));
+        assertEquals(ImmutableSet.of(MODULE.getNamespace()), plan.namespacesOf("three"));
+        assertEquals(ImmutableSet.of(AUG_MODULE.getNamespace()), plan.namespacesOf("four"));
+    }
+
+    @Test
+    public void testAugmentations() {
+        final ParsePlan plan = ParsePlan.of(FOO_SCHEMA);
+        final AugmentationSchemaNode aug = plan.augmentationOf(QName.create(AUG_MODULE, "four"));
+        assertNotNull(aug);
+        assertSame(aug, plan.augmentationOf(QName.create(AUG_MODULE, "one")));
+        assertNull(plan.augmentationOf(ONE));
+        assertNull(plan.augmentationOf(BAR));
+        assertEquals(ImmutableList.of(QName.create(AUG_MODULE, "four")),
+            qnames(plan.findChild("four", AUG_MODULE.getNamespace())));
+    }
+
+    private static ImmutableList<QName> qnames(final Deque<DataSchemaNode> path) {
+        return path.stream().map(DataSchemaNode::getQName).collect(ImmutableList.toImmutableList());
+    }
+}